@@ -67,9 +67,24 @@ CREATE TABLE IF NOT EXISTS news_sources (
     last_error TEXT,
     error_count INT DEFAULT 0,
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    feed_etag VARCHAR(500),
+    feed_last_modified VARCHAR(100),
+    feed_content_hash VARCHAR(64),
+    last_entry_published_at TIMESTAMP NULL,
+    recent_entry_keys TEXT,
+    next_poll_at TIMESTAMP NULL,
+    poll_interval_seconds INT,
+    publish_rate_per_hour DOUBLE,
+    circuit_state VARCHAR(20) DEFAULT 'CLOSED',
+    circuit_open_until TIMESTAMP NULL,
+    websub_hub_url VARCHAR(1000),
+    websub_topic_url VARCHAR(1000),
+    websub_secret VARCHAR(64),
+    websub_expires_at TIMESTAMP NULL,
     
     INDEX idx_name (name),
     INDEX idx_active (active),
+    INDEX idx_next_poll_at (next_poll_at),
     INDEX idx_rss_url (rss_url(255))
 );
 
@@ -83,6 +98,9 @@ CREATE TABLE IF NOT EXISTS articles (
     image_url VARCHAR(1000),
     published_at TIMESTAMP NOT NULL,
     status ENUM('PENDING', 'PUBLISHED', 'REJECTED', 'DRAFT') NOT NULL DEFAULT 'PENDING',
+    enrichment_state VARCHAR(20),
+    enrichment_attempts INT DEFAULT 0,
+    enriched_at TIMESTAMP NULL,
     source_id BIGINT,
     category_id BIGINT,
     created_by BIGINT,
@@ -95,6 +113,7 @@ CREATE TABLE IF NOT EXISTS articles (
     
     INDEX idx_title (title(255)),
     INDEX idx_status (status),
+    INDEX idx_enrichment_state (enrichment_state),
     INDEX idx_published_at (published_at),
     INDEX idx_source_url (source_url(255)),
     INDEX idx_source_id (source_id),
@@ -104,6 +123,12 @@ CREATE TABLE IF NOT EXISTS articles (
     FULLTEXT INDEX ft_title_content (title, content)
 );
 
+-- Таблица генераторов идентификаторов (блочное выделение id для пакетной вставки статей и источников)
+CREATE TABLE IF NOT EXISTS id_generators (
+    gen_name VARCHAR(64) PRIMARY KEY,
+    gen_value BIGINT NOT NULL
+);
+
 -- Таблица пользовательских предпочтений
 CREATE TABLE IF NOT EXISTS user_preferences (
     id BIGINT AUTO_INCREMENT PRIMARY KEY,
@@ -131,6 +156,68 @@ CREATE TABLE IF NOT EXISTS saved_articles (
     INDEX idx_saved_at (saved_at)
 );
 
+-- Узлы, участвующие в распределенном опросе RSS лент
+CREATE TABLE IF NOT EXISTS crawler_nodes (
+    node_id VARCHAR(100) PRIMARY KEY,
+    started_at TIMESTAMP NOT NULL,
+    heartbeat_at TIMESTAMP NOT NULL,
+    
+    INDEX idx_heartbeat_at (heartbeat_at)
+);
+
+-- Аренда источников узлами (какой узел опрашивает источник)
+CREATE TABLE IF NOT EXISTS source_leases (
+    source_id BIGINT PRIMARY KEY,
+    owner_node VARCHAR(100) NOT NULL,
+    expires_at TIMESTAMP NOT NULL,
+    
+    FOREIGN KEY (source_id) REFERENCES news_sources(id) ON DELETE CASCADE,
+    
+    INDEX idx_owner_node (owner_node)
+);
+
+-- Очередь задач загрузки записей лент (страница, текст, сохранение статьи)
+CREATE TABLE IF NOT EXISTS ingest_tasks (
+    id BIGINT PRIMARY KEY,
+    source_id BIGINT NOT NULL,
+    url VARCHAR(1000) NOT NULL UNIQUE,
+    title VARCHAR(500),
+    feed_text TEXT,
+    image_url VARCHAR(1000),
+    published_at TIMESTAMP NULL,
+    state VARCHAR(20) NOT NULL,
+    attempts INT NOT NULL DEFAULT 0,
+    next_attempt_at TIMESTAMP NULL,
+    owner_node VARCHAR(100),
+    lease_until TIMESTAMP NULL,
+    last_error VARCHAR(1000),
+    created_at TIMESTAMP NOT NULL,
+    
+    FOREIGN KEY (source_id) REFERENCES news_sources(id) ON DELETE CASCADE,
+    
+    INDEX idx_state_next_attempt (state, next_attempt_at),
+    INDEX idx_state_lease (state, lease_until)
+);
+
+-- Задачи загрузки, исчерпавшие попытки
+CREATE TABLE IF NOT EXISTS ingest_dead_letters (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    source_id BIGINT NOT NULL,
+    url VARCHAR(1000) NOT NULL,
+    title VARCHAR(500),
+    feed_text TEXT,
+    image_url VARCHAR(1000),
+    published_at TIMESTAMP NULL,
+    attempts INT NOT NULL,
+    last_error VARCHAR(1000),
+    created_at TIMESTAMP NOT NULL,
+    failed_at TIMESTAMP NOT NULL,
+    
+    FOREIGN KEY (source_id) REFERENCES news_sources(id) ON DELETE CASCADE,
+    
+    INDEX idx_failed_at (failed_at)
+);
+
 -- Вставка базовых ролей
 INSERT IGNORE INTO roles (name, description) VALUES 
 ('ADMIN', 'Администратор системы'),
@@ -0,0 +1,29 @@
+package com.newsaggregator.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Настройки пакетной записи Hibernate.
+ *
+ * Вставки статей одной ленты объединяются в JDBC batch. Для MySQL
+ * дополнительно имеет смысл включить rewriteBatchedStatements=true
+ * в URL подключения, чтобы драйвер отправлял пакет одним запросом.
+ */
+@Configuration
+public class PersistenceConfig {
+
+    @Value("${app.persistence.batch-size:50}")
+    private int batchSize;
+
+    @Bean
+    public HibernatePropertiesCustomizer batchingHibernatePropertiesCustomizer() {
+        return properties -> {
+            properties.putIfAbsent("hibernate.jdbc.batch_size", batchSize);
+            properties.putIfAbsent("hibernate.order_inserts", true);
+            properties.putIfAbsent("hibernate.order_updates", true);
+        };
+    }
+}
@@ -85,6 +85,10 @@ public class SecurityConfig {
                 .requestMatchers("/api/editor/**").hasAnyRole("EDITOR", "ADMIN")
                 .requestMatchers("/api/admin/**").hasRole("ADMIN")
                 
+                // Actuator: проверка состояния открыта, метрики и /actuator/ingest - только администратору
+                .requestMatchers("/actuator/health").permitAll()
+                .requestMatchers("/actuator/**").hasRole("ADMIN")
+                
                 // Страницы администратора
                 .requestMatchers("/admin/**").hasRole("ADMIN")
                 
@@ -1,11 +1,19 @@
 package com.newsaggregator.controller;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
@@ -14,19 +22,32 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseBody;
+import org.springframework.web.multipart.MultipartFile;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.newsaggregator.entity.Article;
 import com.newsaggregator.entity.ArticleStatus;
 import com.newsaggregator.entity.Category;
+import com.newsaggregator.entity.IngestDeadLetter;
+import com.newsaggregator.entity.IngestTaskState;
 import com.newsaggregator.entity.NewsSource;
 import com.newsaggregator.entity.User;
 import com.newsaggregator.service.ArticleService;
 import com.newsaggregator.service.CategoryService;
+import com.newsaggregator.service.CrawlJob;
+import com.newsaggregator.service.CrawlJobService;
+import com.newsaggregator.service.CrawlReport;
+import com.newsaggregator.service.IngestQueue;
 import com.newsaggregator.service.NewsSourceService;
-import com.newsaggregator.service.RssParserService;
+import com.newsaggregator.service.SourceImportService;
+import com.newsaggregator.service.SourceListReader;
 import com.newsaggregator.service.UserService;
 
+import jakarta.servlet.http.HttpServletResponse;
+
 @Controller
 @RequestMapping("/admin")
 @PreAuthorize("hasRole('ADMIN')")
@@ -45,7 +66,16 @@ public class AdminController {
     private NewsSourceService newsSourceService;
     
     @Autowired
-    private RssParserService rssParserService;
+    private CrawlJobService crawlJobService;
+    
+    @Autowired
+    private SourceImportService sourceImportService;
+    
+    @Autowired
+    private IngestQueue ingestQueue;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
     
     @GetMapping
     public String dashboard(Model model) {
@@ -486,12 +516,21 @@ public class AdminController {
             NewsSource source = newsSourceService.getSourceById(id)
                     .orElseThrow(() -> new RuntimeException("Источник не найден"));
             
-            rssParserService.parseRssFeed(source);
-            redirectAttributes.addFlashAttribute("successMessage", 
-                "RSS лента '" + source.getName() + "' успешно обработана");
+            CrawlJobService.Submission submission = crawlJobService.submitSource(source);
+            CrawlJob job = submission.getJob();
+            if (!submission.isCoalesced()) {
+                redirectAttributes.addFlashAttribute("successMessage", 
+                    "Парсинг RSS ленты '" + source.getName() + "' запущен (задача #" + job.getId() + ")");
+            } else if (job.isAllSources()) {
+                redirectAttributes.addFlashAttribute("successMessage", 
+                    "RSS лента '" + source.getName() + "' обрабатывается в задаче #" + job.getId() + " по всем источникам");
+            } else {
+                redirectAttributes.addFlashAttribute("successMessage", 
+                    "Парсинг RSS ленты '" + source.getName() + "' уже выполняется (задача #" + job.getId() + ")");
+            }
         } catch (Exception e) {
             redirectAttributes.addFlashAttribute("errorMessage", 
-                "Ошибка при парсинге '" + e.getMessage() + "'");
+                "Ошибка при запуске парсинга '" + e.getMessage() + "'");
         }
         
         return "redirect:/admin/sources";
@@ -500,14 +539,178 @@ public class AdminController {
     @PostMapping("/sources/parse-all")
     public String parseAllSources(RedirectAttributes redirectAttributes) {
         try {
-            rssParserService.parseAllRssFeeds();
-            redirectAttributes.addFlashAttribute("successMessage", 
-                "Все RSS ленты успешно обработаны");
+            CrawlJobService.Submission submission = crawlJobService.submitAll();
+            String message = submission.isCoalesced()
+                    ? "Парсинг всех RSS лент уже выполняется (задача #" + submission.getJob().getId() + ")"
+                    : "Парсинг всех RSS лент запущен (задача #" + submission.getJob().getId() + ")";
+            redirectAttributes.addFlashAttribute("successMessage", message);
         } catch (Exception e) {
             redirectAttributes.addFlashAttribute("errorMessage", 
-                "Ошибка при парсинге RSS лент: " + e.getMessage());
+                "Ошибка при запуске парсинга RSS лент: " + e.getMessage());
         }
         
         return "redirect:/admin/sources";
     }
+    
+    /**
+     * Массовый импорт источников из OPML или CSV.
+     * Результат каждой строки отправляется клиенту сразу (NDJSON, одна строка JSON на строку файла),
+     * в конце - итог импорта.
+     */
+    @PostMapping("/sources/import")
+    public void importSources(@RequestParam("file") MultipartFile file, HttpServletResponse response) throws IOException {
+        response.setContentType("application/x-ndjson");
+        response.setCharacterEncoding("UTF-8");
+        PrintWriter writer = response.getWriter();
+
+        Map<String, Object> summaryLine = new LinkedHashMap<>();
+        try (InputStream in = file.getInputStream()) {
+            List<SourceListReader.Row> rows = new SourceListReader().read(in, file.getOriginalFilename());
+            SourceImportService.Summary summary = sourceImportService.importSources(rows, result -> {
+                Map<String, Object> line = new LinkedHashMap<>();
+                line.put("type", "row");
+                line.put("number", result.getNumber());
+                line.put("rssUrl", result.getRssUrl());
+                line.put("name", result.getName());
+                line.put("outcome", result.getOutcome());
+                line.put("outcomeName", result.getOutcome().getDisplayName());
+                line.put("message", result.getMessage());
+                line.put("sourceId", result.getSourceId());
+                writeLine(writer, line);
+            });
+            summaryLine.put("type", "summary");
+            summaryLine.put("rows", summary.getRows());
+            summaryLine.put("counts", summary.getCounts());
+            summaryLine.put("durationMs", summary.getDurationMillis());
+        } catch (Exception e) {
+            summaryLine.put("type", "error");
+            summaryLine.put("message", e.getMessage());
+        }
+        writeLine(writer, summaryLine);
+    }
+    
+    private void writeLine(PrintWriter writer, Map<String, Object> line) {
+        try {
+            writer.write(objectMapper.writeValueAsString(line));
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Не удалось сформировать ответ импорта", e);
+        }
+        writer.write('\n');
+        // Клиент видит результат строки сразу; ошибки записи (клиент ушел) PrintWriter не бросает
+        writer.flush();
+    }
+    
+    /**
+     * Задачи парсинга и их ход выполнения (опрашивается страницей источников)
+     */
+    @GetMapping("/jobs")
+    @ResponseBody
+    public List<Map<String, Object>> crawlJobs() {
+        List<Map<String, Object>> result = new ArrayList<>();
+        for (CrawlJob job : crawlJobService.getJobs()) {
+            result.add(describeJob(job));
+        }
+        return result;
+    }
+    
+    @GetMapping("/jobs/{id}")
+    @ResponseBody
+    public ResponseEntity<Map<String, Object>> crawlJob(@PathVariable long id) {
+        CrawlJob job = crawlJobService.getJob(id);
+        return job != null ? ResponseEntity.ok(describeJob(job)) : ResponseEntity.notFound().build();
+    }
+    
+    // === ОЧЕРЕДЬ ЗАГРУЗКИ ===
+    @GetMapping("/ingest-queue")
+    public String ingestQueuePage(Model model,
+                                  @RequestParam(defaultValue = "0") int page,
+                                  @RequestParam(defaultValue = "20") int size) {
+        Page<IngestDeadLetter> deadLetters = ingestQueue.getDeadLetters(PageRequest.of(page, size));
+        
+        Map<Long, String> sourceNames = new HashMap<>();
+        for (NewsSource source : newsSourceService.getAllSources()) {
+            sourceNames.put(source.getId(), source.getName());
+        }
+        
+        model.addAttribute("deadLetters", deadLetters);
+        model.addAttribute("sourceNames", sourceNames);
+        model.addAttribute("pendingTasks", ingestQueue.countTasks(IngestTaskState.PENDING));
+        model.addAttribute("runningTasks", ingestQueue.countTasks(IngestTaskState.RUNNING));
+        model.addAttribute("maxAttempts", ingestQueue.getMaxAttempts());
+        model.addAttribute("currentPage", page);
+        model.addAttribute("totalPages", deadLetters.getTotalPages());
+        model.addAttribute("pageTitle", "Очередь загрузки");
+        
+        return "admin/ingest-queue";
+    }
+    
+    @PostMapping("/ingest-queue/dead-letters/{id}/retry")
+    public String retryDeadLetter(@PathVariable Long id, RedirectAttributes redirectAttributes) {
+        try {
+            if (ingestQueue.retryDeadLetter(id)) {
+                redirectAttributes.addFlashAttribute("successMessage", "Задача возвращена в очередь загрузки");
+            } else {
+                redirectAttributes.addFlashAttribute("errorMessage", "Задача не найдена");
+            }
+        } catch (Exception e) {
+            redirectAttributes.addFlashAttribute("errorMessage", "Ошибка: " + e.getMessage());
+        }
+        
+        return "redirect:/admin/ingest-queue";
+    }
+    
+    @PostMapping("/ingest-queue/dead-letters/retry-all")
+    public String retryAllDeadLetters(RedirectAttributes redirectAttributes) {
+        try {
+            int count = ingestQueue.retryAllDeadLetters();
+            redirectAttributes.addFlashAttribute("successMessage", 
+                "Возвращено в очередь загрузки задач: " + count);
+        } catch (Exception e) {
+            redirectAttributes.addFlashAttribute("errorMessage", "Ошибка: " + e.getMessage());
+        }
+        
+        return "redirect:/admin/ingest-queue";
+    }
+    
+    @PostMapping("/ingest-queue/dead-letters/{id}/delete")
+    public String deleteDeadLetter(@PathVariable Long id, RedirectAttributes redirectAttributes) {
+        try {
+            if (ingestQueue.deleteDeadLetter(id)) {
+                redirectAttributes.addFlashAttribute("successMessage", "Задача удалена");
+            } else {
+                redirectAttributes.addFlashAttribute("errorMessage", "Задача не найдена");
+            }
+        } catch (Exception e) {
+            redirectAttributes.addFlashAttribute("errorMessage", "Ошибка: " + e.getMessage());
+        }
+        
+        return "redirect:/admin/ingest-queue";
+    }
+    
+    private Map<String, Object> describeJob(CrawlJob job) {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("id", job.getId());
+        result.put("sourceId", job.getSourceId());
+        result.put("sourceName", job.getSourceName());
+        result.put("status", job.getStatus());
+        result.put("statusName", job.getStatus().getDisplayName());
+        result.put("active", job.isActive());
+        result.put("submittedAt", job.getSubmittedAt());
+        result.put("finishedAt", job.getFinishedAt());
+        result.put("error", job.getError());
+        
+        CrawlReport report = job.getReport();
+        if (report != null) {
+            result.put("sourcesTotal", report.getSourcesTotal());
+            result.put("sourcesDone", report.getSourcesDone());
+            result.put("sourcesFailed", report.getSourcesFailed());
+            result.put("sourcesSkipped", report.getSourcesSkipped());
+            result.put("sourcesDeferred", report.getSourcesDeferred());
+            result.put("articlesAdded", report.getArticlesAdded());
+            result.put("failedSources", report.getFailedSources());
+            result.put("deferredSources", report.getDeferredSources());
+            result.put("durationMs", report.getDurationMillis());
+        }
+        return result;
+    }
 }
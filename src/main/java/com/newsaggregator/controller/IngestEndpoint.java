@@ -0,0 +1,112 @@
+package com.newsaggregator.controller;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.stereotype.Component;
+
+import com.newsaggregator.entity.NewsSource;
+import com.newsaggregator.repository.NewsSourceRepository;
+import com.newsaggregator.service.FeedCompletenessDetector;
+import com.newsaggregator.service.IngestMetrics;
+
+/**
+ * Конечная точка /actuator/ingest: состояние загрузки по источникам.
+ *
+ * Для каждого источника показываются расписание и состояние из базы данных
+ * (выключатель, ошибки, WebSub подписка) и результаты последнего прогона
+ * на этом узле: длительность, прочитано/добавлено/дубликатов, доля новых статей,
+ * а также режим загрузки страниц (полный текст в ленте или загрузка страниц)
+ * и сэкономленные загрузки.
+ * /actuator/ingest/{sourceId} - один источник.
+ */
+@Component
+@Endpoint(id = "ingest")
+public class IngestEndpoint {
+
+    @Autowired
+    private NewsSourceRepository newsSourceRepository;
+
+    @Autowired
+    private IngestMetrics ingestMetrics;
+
+    @Autowired
+    private FeedCompletenessDetector completenessDetector;
+
+    @ReadOperation
+    public Map<String, Object> sources() {
+        List<Map<String, Object>> sources = new ArrayList<>();
+        LocalDateTime now = LocalDateTime.now();
+        for (NewsSource source : newsSourceRepository.findAll()) {
+            sources.add(describe(source, now));
+        }
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("sources", sources);
+        return result;
+    }
+
+    @ReadOperation
+    public Map<String, Object> source(@Selector Long sourceId) {
+        return newsSourceRepository.findById(sourceId)
+                .map(source -> describe(source, LocalDateTime.now()))
+                .orElse(null);
+    }
+
+    private Map<String, Object> describe(NewsSource source, LocalDateTime now) {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("id", source.getId());
+        result.put("name", source.getName());
+        result.put("active", source.isActive());
+        result.put("lastUpdated", source.getLastUpdated());
+        result.put("nextPollAt", source.getNextPollAt());
+        result.put("pollIntervalSeconds", source.getPollIntervalSeconds());
+        result.put("publishRatePerHour", source.getPublishRatePerHour());
+        result.put("circuitState", source.getCircuitState());
+        result.put("errorCount", source.getErrorCount());
+        result.put("lastError", source.getLastError());
+        result.put("websubActive", source.isWebsubActive(now));
+
+        IngestMetrics.SourceStats stats = ingestMetrics.getSourceStats(source.getId());
+        if (stats != null) {
+            Map<String, Object> lastRun = new LinkedHashMap<>();
+            lastRun.put("at", stats.getLastRunAt());
+            lastRun.put("trigger", stats.getLastTrigger());
+            lastRun.put("durationMs", stats.getLastDurationMs());
+            lastRun.put("seen", stats.getLastSeen());
+            lastRun.put("added", stats.getLastAdded());
+            lastRun.put("duplicates", stats.getLastDuplicates());
+            lastRun.put("skipped", stats.getLastSkipped());
+            lastRun.put("errors", stats.getLastErrors());
+            lastRun.put("error", stats.getLastError());
+            result.put("lastRun", lastRun);
+            result.put("runs", stats.getRuns());
+            result.put("failedRuns", stats.getFailedRuns());
+            result.put("yield", stats.getYield());
+        }
+
+        FeedCompletenessDetector.SourceCompleteness completeness =
+                completenessDetector.getSourceCompleteness(source.getId());
+        if (completeness != null) {
+            Map<String, Object> pages = new LinkedHashMap<>();
+            pages.put("mode", completeness.getMode());
+            pages.put("decidedAt", completeness.getDecidedAt());
+            pages.put("samples", completeness.getSamples());
+            pages.put("completeRatio", completeness.getCompleteRatio());
+            double lastCoverage = completeness.getLastCoverage();
+            pages.put("lastCoverage", Double.isNaN(lastCoverage) ? null : lastCoverage);
+            pages.put("pagesSkipped", completeness.getPagesSkipped());
+            pages.put("averagePageBytes", completeness.getAveragePageBytes());
+            pages.put("bytesSaved", completeness.getBytesSaved());
+            result.put("pageFetch", pages);
+        }
+        return result;
+    }
+}
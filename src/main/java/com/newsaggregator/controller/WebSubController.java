@@ -0,0 +1,61 @@
+package com.newsaggregator.controller;
+
+import java.io.IOException;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.newsaggregator.service.WebSubService;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+/**
+ * Адрес обратного вызова WebSub: подтверждение подписки и прием уведомлений хаба
+ */
+@RestController
+@RequestMapping("/api/public/websub")
+public class WebSubController {
+
+    @Autowired
+    private WebSubService webSubService;
+
+    /**
+     * Проверка намерения подписаться или отписаться
+     */
+    @GetMapping(value = "/{sourceId}", produces = MediaType.TEXT_PLAIN_VALUE)
+    public ResponseEntity<String> verify(@PathVariable Long sourceId,
+                                         @RequestParam(name = "hub.mode", required = false) String mode,
+                                         @RequestParam(name = "hub.topic", required = false) String topic,
+                                         @RequestParam(name = "hub.challenge", required = false) String challenge,
+                                         @RequestParam(name = "hub.lease_seconds", required = false) Long leaseSeconds) {
+        String response = webSubService.verifyIntent(sourceId, mode, topic, challenge, leaseSeconds);
+        return response != null ? ResponseEntity.ok(response) : ResponseEntity.notFound().build();
+    }
+
+    /**
+     * Уведомление с новыми записями ленты
+     */
+    @PostMapping("/{sourceId}")
+    public ResponseEntity<Void> receive(@PathVariable Long sourceId,
+                                        @RequestHeader(name = "X-Hub-Signature", required = false) String signature,
+                                        HttpServletRequest request) throws IOException {
+        switch (webSubService.receive(sourceId, signature, request.getContentType(), request.getInputStream())) {
+            case ACCEPTED:
+            case IGNORED:
+                return ResponseEntity.accepted().build();
+            case TOO_LARGE:
+                return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE).build();
+            default:
+                return ResponseEntity.notFound().build();
+        }
+    }
+}
@@ -22,13 +22,21 @@ import jakarta.persistence.Lob;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.OneToMany;
 import jakarta.persistence.Table;
+import jakarta.persistence.TableGenerator;
 
 @Entity
 @Table(name = "articles")
 public class Article {
+
+    public static final int ID_ALLOCATION_SIZE = 50;
     
+    // Идентификаторы выделяются блоками из таблицы id_generators, а не AUTO_INCREMENT:
+    // с IDENTITY Hibernate не может объединять вставки статей в JDBC batch
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "article_id")
+    @TableGenerator(name = "article_id", table = "id_generators",
+                    pkColumnName = "gen_name", valueColumnName = "gen_value",
+                    pkColumnValue = "articles", allocationSize = Article.ID_ALLOCATION_SIZE)
     private Long id;
     
     @Column(nullable = false, length = 500)
@@ -54,6 +62,19 @@ public class Article {
     @Column(nullable = false)
     private ArticleStatus status = ArticleStatus.PENDING;
     
+    @Enumerated(EnumType.STRING)
+    @Column(name = "enrichment_state", length = 20)
+    private EnrichmentState enrichmentState;
+    
+    @Column(name = "enrichment_attempts")
+    private int enrichmentAttempts = 0;
+    
+    @Column(name = "enrichment_next_attempt_at")
+    private LocalDateTime enrichmentNextAttemptAt;
+    
+    @Column(name = "enriched_at")
+    private LocalDateTime enrichedAt;
+    
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "source_id")
     private NewsSource source;
@@ -147,6 +168,18 @@ public class Article {
     public ArticleStatus getStatus() { return status; }
     public void setStatus(ArticleStatus status) { this.status = status; }
     
+    public EnrichmentState getEnrichmentState() { return enrichmentState; }
+    public void setEnrichmentState(EnrichmentState enrichmentState) { this.enrichmentState = enrichmentState; }
+    
+    public int getEnrichmentAttempts() { return enrichmentAttempts; }
+    public void setEnrichmentAttempts(int enrichmentAttempts) { this.enrichmentAttempts = enrichmentAttempts; }
+    
+    public LocalDateTime getEnrichmentNextAttemptAt() { return enrichmentNextAttemptAt; }
+    public void setEnrichmentNextAttemptAt(LocalDateTime enrichmentNextAttemptAt) { this.enrichmentNextAttemptAt = enrichmentNextAttemptAt; }
+    
+    public LocalDateTime getEnrichedAt() { return enrichedAt; }
+    public void setEnrichedAt(LocalDateTime enrichedAt) { this.enrichedAt = enrichedAt; }
+    
     public NewsSource getSource() { return source; }
     public void setSource(NewsSource source) { this.source = source; }
     
@@ -0,0 +1,25 @@
+package com.newsaggregator.entity;
+
+/**
+ * Состояние автоматического выключателя источника новостей
+ */
+public enum CircuitState {
+    CLOSED("Работает"),
+    OPEN("Приостановлен"),
+    HALF_OPEN("Пробный запрос");
+    
+    private final String displayName;
+    
+    CircuitState(String displayName) {
+        this.displayName = displayName;
+    }
+    
+    public String getDisplayName() {
+        return displayName;
+    }
+    
+    @Override
+    public String toString() {
+        return displayName;
+    }
+}
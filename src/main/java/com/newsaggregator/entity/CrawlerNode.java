@@ -0,0 +1,62 @@
+package com.newsaggregator.entity;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+/**
+ * Узел (экземпляр приложения), участвующий в распределенном опросе RSS лент.
+ * Узел считается живым, пока обновляет heartbeatAt.
+ */
+@Entity
+@Table(name = "crawler_nodes")
+public class CrawlerNode {
+
+    @Id
+    @Column(name = "node_id", length = 100)
+    private String nodeId;
+
+    @Column(name = "started_at", nullable = false)
+    private LocalDateTime startedAt;
+
+    @Column(name = "heartbeat_at", nullable = false)
+    private LocalDateTime heartbeatAt;
+
+    // Конструкторы
+    public CrawlerNode() {
+    }
+
+    public CrawlerNode(String nodeId, LocalDateTime now) {
+        this.nodeId = nodeId;
+        this.startedAt = now;
+        this.heartbeatAt = now;
+    }
+
+    // Геттеры и сеттеры
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    public void setNodeId(String nodeId) {
+        this.nodeId = nodeId;
+    }
+
+    public LocalDateTime getStartedAt() {
+        return startedAt;
+    }
+
+    public void setStartedAt(LocalDateTime startedAt) {
+        this.startedAt = startedAt;
+    }
+
+    public LocalDateTime getHeartbeatAt() {
+        return heartbeatAt;
+    }
+
+    public void setHeartbeatAt(LocalDateTime heartbeatAt) {
+        this.heartbeatAt = heartbeatAt;
+    }
+}
@@ -0,0 +1,23 @@
+package com.newsaggregator.entity;
+
+public enum EnrichmentState {
+    PENDING("Ожидает ИИ-обработки"),
+    ENRICHED("Обработана ИИ"),
+    SKIPPED("Без ИИ-обработки"),
+    FAILED("Ошибка ИИ-обработки");
+    
+    private final String displayName;
+    
+    EnrichmentState(String displayName) {
+        this.displayName = displayName;
+    }
+    
+    public String getDisplayName() {
+        return displayName;
+    }
+    
+    @Override
+    public String toString() {
+        return displayName;
+    }
+}
@@ -0,0 +1,176 @@
+package com.newsaggregator.entity;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Lob;
+import jakarta.persistence.Table;
+
+/**
+ * Задача загрузки, исчерпавшая попытки (см. IngestQueue).
+ *
+ * Хранит данные записи ленты и последнюю ошибку; из админки задачу можно
+ * вернуть в очередь или удалить.
+ */
+@Entity
+@Table(name = "ingest_dead_letters")
+public class IngestDeadLetter {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "source_id", nullable = false)
+    private Long sourceId;
+
+    @Column(name = "url", nullable = false, length = 1000)
+    private String url;
+
+    @Column(name = "title", length = 500)
+    private String title;
+
+    @Lob
+    @Column(name = "feed_text", columnDefinition = "TEXT")
+    private String feedText;
+
+    @Column(name = "image_url", length = 1000)
+    private String imageUrl;
+
+    @Column(name = "published_at")
+    private LocalDateTime publishedAt;
+
+    @Column(name = "attempts", nullable = false)
+    private int attempts;
+
+    @Column(name = "last_error", length = 1000)
+    private String lastError;
+
+    // Время постановки записи в очередь
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "failed_at", nullable = false)
+    private LocalDateTime failedAt;
+
+    // Конструкторы
+    public IngestDeadLetter() {
+    }
+
+    public IngestDeadLetter(IngestTask task, String lastError) {
+        this.sourceId = task.getSourceId();
+        this.url = task.getUrl();
+        this.title = task.getTitle();
+        this.feedText = task.getFeedText();
+        this.imageUrl = task.getImageUrl();
+        this.publishedAt = task.getPublishedAt();
+        this.attempts = task.getAttempts();
+        this.lastError = lastError;
+        this.createdAt = task.getCreatedAt();
+        this.failedAt = LocalDateTime.now();
+    }
+
+    /**
+     * Новая задача с данными записи для повторной загрузки
+     */
+    public IngestTask toTask() {
+        IngestTask task = new IngestTask(sourceId, url);
+        task.setTitle(title);
+        task.setFeedText(feedText);
+        task.setImageUrl(imageUrl);
+        task.setPublishedAt(publishedAt);
+        return task;
+    }
+
+    // Геттеры и сеттеры
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getSourceId() {
+        return sourceId;
+    }
+
+    public void setSourceId(Long sourceId) {
+        this.sourceId = sourceId;
+    }
+
+    public String getUrl() {
+        return url;
+    }
+
+    public void setUrl(String url) {
+        this.url = url;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public void setTitle(String title) {
+        this.title = title;
+    }
+
+    public String getFeedText() {
+        return feedText;
+    }
+
+    public void setFeedText(String feedText) {
+        this.feedText = feedText;
+    }
+
+    public String getImageUrl() {
+        return imageUrl;
+    }
+
+    public void setImageUrl(String imageUrl) {
+        this.imageUrl = imageUrl;
+    }
+
+    public LocalDateTime getPublishedAt() {
+        return publishedAt;
+    }
+
+    public void setPublishedAt(LocalDateTime publishedAt) {
+        this.publishedAt = publishedAt;
+    }
+
+    public int getAttempts() {
+        return attempts;
+    }
+
+    public void setAttempts(int attempts) {
+        this.attempts = attempts;
+    }
+
+    public String getLastError() {
+        return lastError;
+    }
+
+    public void setLastError(String lastError) {
+        this.lastError = lastError;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public LocalDateTime getFailedAt() {
+        return failedAt;
+    }
+
+    public void setFailedAt(LocalDateTime failedAt) {
+        this.failedAt = failedAt;
+    }
+}
@@ -0,0 +1,204 @@
+package com.newsaggregator.entity;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Lob;
+import jakarta.persistence.Table;
+import jakarta.persistence.TableGenerator;
+
+/**
+ * Задача загрузки записи ленты: загрузка страницы, извлечение текста и сохранение статьи.
+ *
+ * Запись ленты становится задачей сразу после разбора ленты и хранит все данные,
+ * нужные для сборки статьи без повторного чтения ленты. Задача удаляется в одной
+ * транзакции с сохранением статьи. Задачи, выполнение которых прервалось
+ * (ошибка или остановка узла), повторяет IngestQueueWorker (см. IngestQueue).
+ */
+@Entity
+@Table(name = "ingest_tasks")
+public class IngestTask {
+
+    public static final int ID_ALLOCATION_SIZE = 50;
+
+    // Задачи ленты вставляются одним JDBC пакетом, поэтому id выделяются блоками, как у статей
+    @Id
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "ingest_task_id")
+    @TableGenerator(name = "ingest_task_id", table = "id_generators",
+                    pkColumnName = "gen_name", valueColumnName = "gen_value",
+                    pkColumnValue = "ingest_tasks", allocationSize = IngestTask.ID_ALLOCATION_SIZE)
+    private Long id;
+
+    @Column(name = "source_id", nullable = false)
+    private Long sourceId;
+
+    @Column(name = "url", nullable = false, unique = true, length = 1000)
+    private String url;
+
+    @Column(name = "title", length = 500)
+    private String title;
+
+    // Очищенный текст записи ленты (content:encoded или description)
+    @Lob
+    @Column(name = "feed_text", columnDefinition = "TEXT")
+    private String feedText;
+
+    @Column(name = "image_url", length = 1000)
+    private String imageUrl;
+
+    @Column(name = "published_at")
+    private LocalDateTime publishedAt;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "state", nullable = false, length = 20)
+    private IngestTaskState state = IngestTaskState.RUNNING;
+
+    // Сколько раз задача начинала выполняться
+    @Column(name = "attempts", nullable = false)
+    private int attempts;
+
+    @Column(name = "next_attempt_at")
+    private LocalDateTime nextAttemptAt;
+
+    @Column(name = "owner_node", length = 100)
+    private String ownerNode;
+
+    // Пока аренда не истекла, задачу выполняет ownerNode
+    @Column(name = "lease_until")
+    private LocalDateTime leaseUntil;
+
+    @Column(name = "last_error", length = 1000)
+    private String lastError;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    // Конструкторы
+    public IngestTask() {
+    }
+
+    public IngestTask(Long sourceId, String url) {
+        this.sourceId = sourceId;
+        this.url = url;
+        this.createdAt = LocalDateTime.now();
+    }
+
+    // Геттеры и сеттеры
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getSourceId() {
+        return sourceId;
+    }
+
+    public void setSourceId(Long sourceId) {
+        this.sourceId = sourceId;
+    }
+
+    public String getUrl() {
+        return url;
+    }
+
+    public void setUrl(String url) {
+        this.url = url;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public void setTitle(String title) {
+        this.title = title;
+    }
+
+    public String getFeedText() {
+        return feedText;
+    }
+
+    public void setFeedText(String feedText) {
+        this.feedText = feedText;
+    }
+
+    public String getImageUrl() {
+        return imageUrl;
+    }
+
+    public void setImageUrl(String imageUrl) {
+        this.imageUrl = imageUrl;
+    }
+
+    public LocalDateTime getPublishedAt() {
+        return publishedAt;
+    }
+
+    public void setPublishedAt(LocalDateTime publishedAt) {
+        this.publishedAt = publishedAt;
+    }
+
+    public IngestTaskState getState() {
+        return state;
+    }
+
+    public void setState(IngestTaskState state) {
+        this.state = state;
+    }
+
+    public int getAttempts() {
+        return attempts;
+    }
+
+    public void setAttempts(int attempts) {
+        this.attempts = attempts;
+    }
+
+    public LocalDateTime getNextAttemptAt() {
+        return nextAttemptAt;
+    }
+
+    public void setNextAttemptAt(LocalDateTime nextAttemptAt) {
+        this.nextAttemptAt = nextAttemptAt;
+    }
+
+    public String getOwnerNode() {
+        return ownerNode;
+    }
+
+    public void setOwnerNode(String ownerNode) {
+        this.ownerNode = ownerNode;
+    }
+
+    public LocalDateTime getLeaseUntil() {
+        return leaseUntil;
+    }
+
+    public void setLeaseUntil(LocalDateTime leaseUntil) {
+        this.leaseUntil = leaseUntil;
+    }
+
+    public String getLastError() {
+        return lastError;
+    }
+
+    public void setLastError(String lastError) {
+        this.lastError = lastError;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+}
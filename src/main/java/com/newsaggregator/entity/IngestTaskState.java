@@ -0,0 +1,21 @@
+package com.newsaggregator.entity;
+
+public enum IngestTaskState {
+    PENDING("Ожидает повтора"),
+    RUNNING("Выполняется");
+    
+    private final String displayName;
+    
+    IngestTaskState(String displayName) {
+        this.displayName = displayName;
+    }
+    
+    public String getDisplayName() {
+        return displayName;
+    }
+    
+    @Override
+    public String toString() {
+        return displayName;
+    }
+}
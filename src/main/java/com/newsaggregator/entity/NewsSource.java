@@ -6,19 +6,29 @@ import java.util.List;
 import jakarta.persistence.CascadeType;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
 import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.OneToMany;
 import jakarta.persistence.Table;
+import jakarta.persistence.TableGenerator;
 
 @Entity
 @Table(name = "news_sources")
 public class NewsSource {
 
+    public static final int ID_ALLOCATION_SIZE = 50;
+
+    // Идентификаторы выделяются блоками из таблицы id_generators, как у статей:
+    // массовый импорт (SourceImportService) вставляет источники JDBC пакетами
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "news_source_id")
+    @TableGenerator(name = "news_source_id", table = "id_generators",
+                    pkColumnName = "gen_name", valueColumnName = "gen_value",
+                    pkColumnValue = "news_sources", allocationSize = NewsSource.ID_ALLOCATION_SIZE)
     private Long id;
 
     @Column(name = "name", nullable = false, length = 200)
@@ -45,6 +55,58 @@ public class NewsSource {
     @Column(name = "created_at")
     private LocalDateTime createdAt;
 
+    // Валидаторы последней загрузки ленты для условных запросов
+    @Column(name = "feed_etag", length = 500)
+    private String feedEtag;
+
+    @Column(name = "feed_last_modified", length = 100)
+    private String feedLastModified;
+
+    @Column(name = "feed_content_hash", length = 64)
+    private String feedContentHash;
+
+    // Курсор ленты: дата самой новой обработанной записи и ключи последних записей
+    @Column(name = "last_entry_published_at")
+    private LocalDateTime lastEntryPublishedAt;
+
+    @Column(name = "recent_entry_keys", columnDefinition = "TEXT")
+    private String recentEntryKeys;
+
+    // Адаптивное расписание опроса ленты
+    @Column(name = "next_poll_at")
+    private LocalDateTime nextPollAt;
+
+    @Column(name = "poll_interval_seconds")
+    private Integer pollIntervalSeconds;
+
+    @Column(name = "publish_rate_per_hour")
+    private Double publishRatePerHour;
+
+    // Автоматический выключатель: после серии ошибок источник приостанавливается
+    @Enumerated(EnumType.STRING)
+    @Column(name = "circuit_state", length = 20)
+    private CircuitState circuitState = CircuitState.CLOSED;
+
+    @Column(name = "circuit_open_until")
+    private LocalDateTime circuitOpenUntil;
+
+    // WebSub: хаб, объявленный лентой, и состояние подписки на него
+    @Column(name = "websub_hub_url", length = 1000)
+    private String websubHubUrl;
+
+    @Column(name = "websub_topic_url", length = 1000)
+    private String websubTopicUrl;
+
+    @Column(name = "websub_secret", length = 64)
+    private String websubSecret;
+
+    @Column(name = "websub_expires_at")
+    private LocalDateTime websubExpiresAt;
+
+    // Время запроса подписки, который хаб еще не подтвердил
+    @Column(name = "websub_requested_at")
+    private LocalDateTime websubRequestedAt;
+
     @OneToMany(mappedBy = "source", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     private List<Article> articles;
 
@@ -133,6 +195,126 @@ public class NewsSource {
         this.createdAt = createdAt;
     }
 
+    public String getFeedEtag() {
+        return feedEtag;
+    }
+
+    public void setFeedEtag(String feedEtag) {
+        this.feedEtag = feedEtag;
+    }
+
+    public String getFeedLastModified() {
+        return feedLastModified;
+    }
+
+    public void setFeedLastModified(String feedLastModified) {
+        this.feedLastModified = feedLastModified;
+    }
+
+    public String getFeedContentHash() {
+        return feedContentHash;
+    }
+
+    public void setFeedContentHash(String feedContentHash) {
+        this.feedContentHash = feedContentHash;
+    }
+
+    public LocalDateTime getLastEntryPublishedAt() {
+        return lastEntryPublishedAt;
+    }
+
+    public void setLastEntryPublishedAt(LocalDateTime lastEntryPublishedAt) {
+        this.lastEntryPublishedAt = lastEntryPublishedAt;
+    }
+
+    public String getRecentEntryKeys() {
+        return recentEntryKeys;
+    }
+
+    public void setRecentEntryKeys(String recentEntryKeys) {
+        this.recentEntryKeys = recentEntryKeys;
+    }
+
+    public LocalDateTime getNextPollAt() {
+        return nextPollAt;
+    }
+
+    public void setNextPollAt(LocalDateTime nextPollAt) {
+        this.nextPollAt = nextPollAt;
+    }
+
+    public Integer getPollIntervalSeconds() {
+        return pollIntervalSeconds;
+    }
+
+    public void setPollIntervalSeconds(Integer pollIntervalSeconds) {
+        this.pollIntervalSeconds = pollIntervalSeconds;
+    }
+
+    public Double getPublishRatePerHour() {
+        return publishRatePerHour;
+    }
+
+    public void setPublishRatePerHour(Double publishRatePerHour) {
+        this.publishRatePerHour = publishRatePerHour;
+    }
+
+    public CircuitState getCircuitState() {
+        return circuitState != null ? circuitState : CircuitState.CLOSED;
+    }
+
+    public void setCircuitState(CircuitState circuitState) {
+        this.circuitState = circuitState;
+    }
+
+    public LocalDateTime getCircuitOpenUntil() {
+        return circuitOpenUntil;
+    }
+
+    public void setCircuitOpenUntil(LocalDateTime circuitOpenUntil) {
+        this.circuitOpenUntil = circuitOpenUntil;
+    }
+
+    public String getWebsubHubUrl() {
+        return websubHubUrl;
+    }
+
+    public void setWebsubHubUrl(String websubHubUrl) {
+        this.websubHubUrl = websubHubUrl;
+    }
+
+    public String getWebsubTopicUrl() {
+        return websubTopicUrl;
+    }
+
+    public void setWebsubTopicUrl(String websubTopicUrl) {
+        this.websubTopicUrl = websubTopicUrl;
+    }
+
+    public String getWebsubSecret() {
+        return websubSecret;
+    }
+
+    public void setWebsubSecret(String websubSecret) {
+        this.websubSecret = websubSecret;
+    }
+
+    public LocalDateTime getWebsubExpiresAt() {
+        return websubExpiresAt;
+    }
+
+    public void setWebsubExpiresAt(LocalDateTime websubExpiresAt) {
+        this.websubExpiresAt = websubExpiresAt;
+    }
+
+    public LocalDateTime getWebsubRequestedAt() {
+        return websubRequestedAt;
+    }
+
+    public void setWebsubRequestedAt(LocalDateTime websubRequestedAt) {
+        this.websubRequestedAt = websubRequestedAt;
+    }
+
     public List<Article> getArticles() {
         return articles;
     }
@@ -146,9 +328,18 @@ public class NewsSource {
         return errorCount > 0;
     }
 
+    /**
+     * Есть ли подтвержденная хабом и не истекшая WebSub подписка
+     */
+    public boolean isWebsubActive(LocalDateTime now) {
+        return websubHubUrl != null && websubExpiresAt != null && websubExpiresAt.isAfter(now);
+    }
+
     public String getStatusText() {
         if (!active) {
             return "Отключен";
+        } else if (getCircuitState() != CircuitState.CLOSED) {
+            return getCircuitState().getDisplayName();
         } else if (hasErrors()) {
             return "Ошибки (" + errorCount + ")";
         } else {
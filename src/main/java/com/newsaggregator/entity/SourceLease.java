@@ -0,0 +1,62 @@
+package com.newsaggregator.entity;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+/**
+ * Аренда источника узлом: пока аренда не истекла, источник опрашивает только ownerNode.
+ * Захват и продление выполняются атомарными UPDATE (см. SourceLeaseRepository).
+ */
+@Entity
+@Table(name = "source_leases")
+public class SourceLease {
+
+    @Id
+    @Column(name = "source_id")
+    private Long sourceId;
+
+    @Column(name = "owner_node", nullable = false, length = 100)
+    private String ownerNode;
+
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+
+    // Конструкторы
+    public SourceLease() {
+    }
+
+    public SourceLease(Long sourceId, String ownerNode, LocalDateTime expiresAt) {
+        this.sourceId = sourceId;
+        this.ownerNode = ownerNode;
+        this.expiresAt = expiresAt;
+    }
+
+    // Геттеры и сеттеры
+    public Long getSourceId() {
+        return sourceId;
+    }
+
+    public void setSourceId(Long sourceId) {
+        this.sourceId = sourceId;
+    }
+
+    public String getOwnerNode() {
+        return ownerNode;
+    }
+
+    public void setOwnerNode(String ownerNode) {
+        this.ownerNode = ownerNode;
+    }
+
+    public LocalDateTime getExpiresAt() {
+        return expiresAt;
+    }
+
+    public void setExpiresAt(LocalDateTime expiresAt) {
+        this.expiresAt = expiresAt;
+    }
+}
@@ -1,11 +1,13 @@
 package com.newsaggregator.repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -14,6 +16,7 @@ import org.springframework.stereotype.Repository;
 import com.newsaggregator.entity.Article;
 import com.newsaggregator.entity.ArticleStatus;
 import com.newsaggregator.entity.Category;
+import com.newsaggregator.entity.EnrichmentState;
 import com.newsaggregator.entity.NewsSource;
 
 @Repository
@@ -23,8 +26,24 @@ public interface ArticleRepository extends JpaRepository<Article, Long> {
     
     boolean existsBySourceUrl(String sourceUrl);
     
+    @Query("SELECT a.sourceUrl FROM Article a WHERE a.sourceUrl IN :urls")
+    List<String> findExistingSourceUrls(@Param("urls") Collection<String> urls);
+    
+    @Query("SELECT a.sourceUrl FROM Article a ORDER BY a.id")
+    Slice<String> findSourceUrls(Pageable pageable);
+    
     List<Article> findByStatus(ArticleStatus status);
     
+    /**
+     * Статьи в состоянии state, время следующей попытки обработки которых наступило
+     */
+    @Query("SELECT a FROM Article a WHERE a.enrichmentState = :state " +
+           "AND (a.enrichmentNextAttemptAt IS NULL OR a.enrichmentNextAttemptAt <= :now)")
+    List<Article> findDueForEnrichment(@Param("state") EnrichmentState state, @Param("now") LocalDateTime now,
+                                       Pageable pageable);
+    
+    long countByEnrichmentState(EnrichmentState enrichmentState);
+    
     Page<Article> findByStatus(ArticleStatus status, Pageable pageable);
     
     List<Article> findByStatusAndCategory(ArticleStatus status, Category category);
@@ -0,0 +1,38 @@
+package com.newsaggregator.repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.newsaggregator.entity.CrawlerNode;
+
+@Repository
+public interface CrawlerNodeRepository extends JpaRepository<CrawlerNode, String> {
+
+    /**
+     * Обновить время последнего сигнала узла
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE CrawlerNode n SET n.heartbeatAt = :now WHERE n.nodeId = :nodeId")
+    int touch(@Param("nodeId") String nodeId, @Param("now") LocalDateTime now);
+
+    /**
+     * Найти узлы, подававшие сигнал после указанного времени
+     */
+    List<CrawlerNode> findByHeartbeatAtAfterOrderByNodeIdAsc(LocalDateTime cutoff);
+
+    /**
+     * Удалить узлы, не подававшие сигнал с указанного времени
+     */
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM CrawlerNode n WHERE n.heartbeatAt < :cutoff")
+    int deleteStale(@Param("cutoff") LocalDateTime cutoff);
+}
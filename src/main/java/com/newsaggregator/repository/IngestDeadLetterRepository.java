@@ -0,0 +1,17 @@
+package com.newsaggregator.repository;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import com.newsaggregator.entity.IngestDeadLetter;
+
+@Repository
+public interface IngestDeadLetterRepository extends JpaRepository<IngestDeadLetter, Long> {
+
+    /**
+     * Задачи, исчерпавшие попытки, начиная с последних
+     */
+    Page<IngestDeadLetter> findAllByOrderByFailedAtDesc(Pageable pageable);
+}
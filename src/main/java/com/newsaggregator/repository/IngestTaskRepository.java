@@ -0,0 +1,105 @@
+package com.newsaggregator.repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.newsaggregator.entity.IngestTask;
+import com.newsaggregator.entity.IngestTaskState;
+
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+
+@Repository
+public interface IngestTaskRepository extends JpaRepository<IngestTask, Long> {
+
+    /**
+     * Задачи, готовые к выполнению: ожидающие повтора, время которого наступило,
+     * и выполнявшиеся, аренда которых истекла (узел остановился или завис).
+     *
+     * Строки блокируются SELECT ... FOR UPDATE SKIP LOCKED (lock.timeout = -2):
+     * строки, заблокированные другим обработчиком, пропускаются, поэтому
+     * обработчики разных потоков и узлов разбирают разные задачи без ожидания.
+     * Вызывать внутри транзакции.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT t FROM IngestTask t " +
+           "WHERE (t.state = com.newsaggregator.entity.IngestTaskState.PENDING AND t.nextAttemptAt <= :now) " +
+           "OR (t.state = com.newsaggregator.entity.IngestTaskState.RUNNING AND t.leaseUntil < :now) " +
+           "ORDER BY t.id")
+    List<IngestTask> findClaimable(@Param("now") LocalDateTime now, Pageable pageable);
+
+    /**
+     * Ссылки из переданного набора, по которым уже есть задачи (одним запросом)
+     */
+    @Query("SELECT t.url FROM IngestTask t WHERE t.url IN :urls")
+    List<String> findExistingUrls(@Param("urls") Collection<String> urls);
+
+    /**
+     * Продлить аренду выполняемых задач узла (одним запросом)
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE IngestTask t SET t.leaseUntil = :leaseUntil " +
+           "WHERE t.id IN :ids AND t.ownerNode = :owner " +
+           "AND t.state = com.newsaggregator.entity.IngestTaskState.RUNNING")
+    int renewLeases(@Param("ids") Collection<Long> ids,
+                    @Param("owner") String owner,
+                    @Param("leaseUntil") LocalDateTime leaseUntil);
+
+    /**
+     * Вернуть невыполненные задачи узла в очередь без учета попытки (одним запросом)
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE IngestTask t SET t.state = com.newsaggregator.entity.IngestTaskState.PENDING, " +
+           "t.nextAttemptAt = :now, t.ownerNode = null, t.leaseUntil = null, t.attempts = t.attempts - 1 " +
+           "WHERE t.id IN :ids AND t.ownerNode = :owner " +
+           "AND t.state = com.newsaggregator.entity.IngestTaskState.RUNNING")
+    int returnToQueue(@Param("ids") Collection<Long> ids,
+                      @Param("owner") String owner,
+                      @Param("now") LocalDateTime now);
+
+    /**
+     * Отложить повтор задачи с ошибкой, если ее все еще выполняет этот узел в той же
+     * попытке. Задачу, которую после истечения аренды забрал другой обработчик
+     * (владелец или номер попытки сменились), запрос не меняет.
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE IngestTask t SET t.state = com.newsaggregator.entity.IngestTaskState.PENDING, " +
+           "t.nextAttemptAt = :nextAttemptAt, t.ownerNode = null, t.leaseUntil = null, t.lastError = :error " +
+           "WHERE t.id = :id AND t.ownerNode = :owner AND t.attempts = :attempts " +
+           "AND t.state = com.newsaggregator.entity.IngestTaskState.RUNNING")
+    int scheduleRetry(@Param("id") Long id,
+                      @Param("owner") String owner,
+                      @Param("attempts") int attempts,
+                      @Param("nextAttemptAt") LocalDateTime nextAttemptAt,
+                      @Param("error") String error);
+
+    /**
+     * Удалить задачу, исчерпавшую попытки, если ее все еще выполняет этот узел
+     * в той же попытке (см. scheduleRetry)
+     */
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM IngestTask t " +
+           "WHERE t.id = :id AND t.ownerNode = :owner AND t.attempts = :attempts " +
+           "AND t.state = com.newsaggregator.entity.IngestTaskState.RUNNING")
+    int deleteHeld(@Param("id") Long id,
+                   @Param("owner") String owner,
+                   @Param("attempts") int attempts);
+
+    long countByState(IngestTaskState state);
+}
@@ -1,16 +1,24 @@
 package com.newsaggregator.repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.newsaggregator.entity.NewsSource;
 
+import jakarta.persistence.LockModeType;
+
 @Repository
 public interface NewsSourceRepository extends JpaRepository<NewsSource, Long> {
 
@@ -19,6 +27,15 @@ public interface NewsSourceRepository extends JpaRepository<NewsSource, Long> {
      */
     List<NewsSource> findByActiveTrue();
 
+    /**
+     * Найти источник и заблокировать его строку до конца транзакции (SELECT ... FOR UPDATE).
+     * Обновления состояния источника от опроса, уведомления WebSub и других узлов
+     * выполняются по очереди и не затирают друг друга.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM NewsSource s WHERE s.id = :id")
+    Optional<NewsSource> findByIdForUpdate(@Param("id") Long id);
+
     /**
      * Найти источник по RSS URL
      */
@@ -29,6 +46,12 @@ public interface NewsSourceRepository extends JpaRepository<NewsSource, Long> {
      */
     boolean existsByRssUrl(String rssUrl);
 
+    /**
+     * RSS URL из переданного набора, которые уже есть в базе (одним запросом)
+     */
+    @Query("SELECT s.rssUrl FROM NewsSource s WHERE s.rssUrl IN :rssUrls")
+    List<String> findExistingRssUrls(@Param("rssUrls") Collection<String> rssUrls);
+
     /**
      * Подсчитать количество активных источников
      */
@@ -50,4 +73,80 @@ public interface NewsSourceRepository extends JpaRepository<NewsSource, Long> {
      */
     @Query("SELECT s FROM NewsSource s WHERE s.active = true AND (s.lastUpdated IS NULL OR s.lastUpdated < :cutoffDate)")
     List<NewsSource> findStaleActiveSources(@org.springframework.data.repository.query.Param("cutoffDate") java.time.LocalDateTime cutoffDate);
-}
\ No newline at end of file
+
+    /**
+     * Идентификаторы активных источников
+     */
+    @Query("SELECT s.id FROM NewsSource s WHERE s.active = true")
+    List<Long> findActiveIds();
+
+    /**
+     * Найти активные источники в порядке времени следующего опроса
+     */
+    List<NewsSource> findByActiveTrueOrderByNextPollAtAsc();
+
+    /**
+     * Сохранить расписание опроса источника, не затрагивая остальные поля
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE NewsSource s SET s.nextPollAt = :nextPollAt, s.pollIntervalSeconds = :intervalSeconds, " +
+           "s.publishRatePerHour = :ratePerHour WHERE s.id = :id")
+    int updatePollSchedule(@Param("id") Long id,
+                           @Param("nextPollAt") LocalDateTime nextPollAt,
+                           @Param("intervalSeconds") Integer intervalSeconds,
+                           @Param("ratePerHour") Double ratePerHour);
+
+    /**
+     * Активные источники с WebSub хабом, подписка которых не оформлена или истекает до renewBefore
+     */
+    @Query("SELECT s FROM NewsSource s WHERE s.active = true AND s.websubHubUrl IS NOT NULL " +
+           "AND (s.websubExpiresAt IS NULL OR s.websubExpiresAt < :renewBefore)")
+    List<NewsSource> findWebsubRenewalCandidates(@Param("renewBefore") LocalDateTime renewBefore);
+
+    /**
+     * Закрепить пробный опрос источника: переводит источник в HALF_OPEN до probeUntil,
+     * только если пауза выключателя (или предыдущая проба) истекла. Из одновременных
+     * вызовов на этом и других узлах строку обновит только один.
+     *
+     * @return 1, если проба закреплена за вызывающим, иначе 0
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE NewsSource s SET s.circuitState = com.newsaggregator.entity.CircuitState.HALF_OPEN, " +
+           "s.circuitOpenUntil = :probeUntil WHERE s.id = :id " +
+           "AND s.circuitState <> com.newsaggregator.entity.CircuitState.CLOSED " +
+           "AND (s.circuitOpenUntil IS NULL OR s.circuitOpenUntil <= :now)")
+    int claimCircuitProbe(@Param("id") Long id, @Param("now") LocalDateTime now,
+                          @Param("probeUntil") LocalDateTime probeUntil);
+
+    /**
+     * Сохранить секрет WebSub подписки, если хаб источника не сменился
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE NewsSource s SET s.websubSecret = :secret WHERE s.id = :id AND s.websubHubUrl = :hubUrl")
+    int updateWebsubSecret(@Param("id") Long id, @Param("hubUrl") String hubUrl, @Param("secret") String secret);
+
+    /**
+     * Отметить запрос WebSub подписки, отправленный хабу (null - снять отметку)
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE NewsSource s SET s.websubRequestedAt = :requestedAt WHERE s.id = :id")
+    int updateWebsubRequestedAt(@Param("id") Long id, @Param("requestedAt") LocalDateTime requestedAt);
+
+    /**
+     * Сохранить срок действия WebSub подписки, подтвержденный хабом, если подписку
+     * запросили не раньше requestedAfter и она еще не подтверждена. Отметка запроса
+     * снимается, поэтому из повторных подтверждений срабатывает только первое.
+     *
+     * @return 1, если подписка подтверждена, иначе 0
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE NewsSource s SET s.websubExpiresAt = :expiresAt, s.websubRequestedAt = NULL " +
+           "WHERE s.id = :id AND s.websubRequestedAt IS NOT NULL AND s.websubRequestedAt >= :requestedAfter")
+    int confirmWebsubSubscription(@Param("id") Long id, @Param("expiresAt") LocalDateTime expiresAt,
+                                  @Param("requestedAfter") LocalDateTime requestedAfter);
+}
@@ -0,0 +1,64 @@
+package com.newsaggregator.repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.newsaggregator.entity.SourceLease;
+
+@Repository
+public interface SourceLeaseRepository extends JpaRepository<SourceLease, Long> {
+
+    /**
+     * Захватить аренду источника, если она свободна (истекла) или уже принадлежит узлу.
+     * Условие проверяется в самом UPDATE, поэтому два узла не могут захватить источник одновременно.
+     *
+     * @return 1, если аренда захвачена
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE SourceLease l SET l.ownerNode = :owner, l.expiresAt = :expiresAt " +
+           "WHERE l.sourceId = :sourceId AND (l.ownerNode = :owner OR l.expiresAt < :now)")
+    int claim(@Param("sourceId") Long sourceId,
+              @Param("owner") String owner,
+              @Param("now") LocalDateTime now,
+              @Param("expiresAt") LocalDateTime expiresAt);
+
+    /**
+     * Продлить все действующие аренды узла одним запросом
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE SourceLease l SET l.expiresAt = :expiresAt WHERE l.ownerNode = :owner AND l.expiresAt >= :now")
+    int renewAll(@Param("owner") String owner,
+                 @Param("now") LocalDateTime now,
+                 @Param("expiresAt") LocalDateTime expiresAt);
+
+    /**
+     * Найти действующие аренды узла
+     */
+    @Query("SELECT l.sourceId FROM SourceLease l WHERE l.ownerNode = :owner AND l.expiresAt >= :now")
+    List<Long> findActiveSourceIds(@Param("owner") String owner, @Param("now") LocalDateTime now);
+
+    /**
+     * Освободить аренду источника, если она принадлежит узлу
+     */
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM SourceLease l WHERE l.sourceId = :sourceId AND l.ownerNode = :owner")
+    int release(@Param("sourceId") Long sourceId, @Param("owner") String owner);
+
+    /**
+     * Освободить все аренды узла
+     */
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM SourceLease l WHERE l.ownerNode = :owner")
+    int releaseAll(@Param("owner") String owner);
+}
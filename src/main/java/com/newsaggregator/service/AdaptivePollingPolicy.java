@@ -0,0 +1,102 @@
+package com.newsaggregator.service;
+
+/**
+ * Политика адаптивного интервала опроса RSS ленты.
+ *
+ * Для каждого источника оценивается скорость публикации (статей в час)
+ * как экспоненциально сглаженное среднее по результатам опросов. Интервал
+ * подбирается так, чтобы за один опрос приходило около targetArticlesPerPoll
+ * новых статей: активные ленты опрашиваются раз в минуту-две, тихие - раз в час.
+ *
+ * Если опрос упирается в лимит статей на источник, часть статей могла быть
+ * пропущена - интервал сокращается вдвое независимо от оценки скорости.
+ *
+ * @author News Aggregator Team
+ * @version 1.0
+ * @since 1.0
+ */
+public class AdaptivePollingPolicy {
+
+    private final long minIntervalSeconds;
+    private final long maxIntervalSeconds;
+    private final double targetArticlesPerPoll;
+    private final double smoothing;
+
+    /**
+     * @param minIntervalSeconds минимальный интервал опроса
+     * @param maxIntervalSeconds максимальный интервал опроса
+     * @param targetArticlesPerPoll желаемое количество новых статей за один опрос
+     * @param smoothing вес нового наблюдения при сглаживании скорости (0..1]
+     */
+    public AdaptivePollingPolicy(long minIntervalSeconds, long maxIntervalSeconds,
+                                 double targetArticlesPerPoll, double smoothing) {
+        if (minIntervalSeconds <= 0 || maxIntervalSeconds < minIntervalSeconds) {
+            throw new IllegalArgumentException("Некорректные границы интервала опроса");
+        }
+        if (targetArticlesPerPoll <= 0 || smoothing <= 0 || smoothing > 1) {
+            throw new IllegalArgumentException("Некорректные параметры политики опроса");
+        }
+        this.minIntervalSeconds = minIntervalSeconds;
+        this.maxIntervalSeconds = maxIntervalSeconds;
+        this.targetArticlesPerPoll = targetArticlesPerPoll;
+        this.smoothing = smoothing;
+    }
+
+    /**
+     * Обновляет оценку скорости публикации по результату опроса.
+     *
+     * @param previousRate предыдущая оценка (статей в час) или null, если ее нет
+     * @param addedArticles количество новых статей, найденных опросом
+     * @param elapsedSeconds время с предыдущего опроса
+     * @return новая оценка скорости публикации (статей в час)
+     */
+    public double updateRate(Double previousRate, int addedArticles, long elapsedSeconds) {
+        if (elapsedSeconds <= 0) {
+            return previousRate != null ? previousRate : 0;
+        }
+        double observed = addedArticles * 3600.0 / elapsedSeconds;
+        if (previousRate == null) {
+            return observed;
+        }
+        return smoothing * observed + (1 - smoothing) * previousRate;
+    }
+
+    /**
+     * Вычисляет интервал до следующего опроса.
+     *
+     * @param ratePerHour оценка скорости публикации (статей в час)
+     * @param previousIntervalSeconds предыдущий интервал или null
+     * @param saturated опрос уперся в лимит статей на источник
+     * @return интервал в секундах в пределах [min, max]
+     */
+    public long nextIntervalSeconds(double ratePerHour, Integer previousIntervalSeconds, boolean saturated) {
+        long previous = previousIntervalSeconds != null ? previousIntervalSeconds : maxIntervalSeconds;
+
+        long interval;
+        if (saturated) {
+            interval = previous / 2;
+        } else if (ratePerHour <= 0) {
+            interval = previous * 3 / 2;
+        } else {
+            interval = Math.round(targetArticlesPerPoll * 3600.0 / ratePerHour);
+            // Интервал растет не более чем вдвое за раз, чтобы одна пустая выборка не отправляла ленту в конец
+            interval = Math.min(interval, previous * 2);
+        }
+        return clamp(interval);
+    }
+
+    /**
+     * Ограничивает интервал допустимыми границами
+     */
+    public long clamp(long intervalSeconds) {
+        return Math.max(minIntervalSeconds, Math.min(maxIntervalSeconds, intervalSeconds));
+    }
+
+    public long getMinIntervalSeconds() {
+        return minIntervalSeconds;
+    }
+
+    public long getMaxIntervalSeconds() {
+        return maxIntervalSeconds;
+    }
+}
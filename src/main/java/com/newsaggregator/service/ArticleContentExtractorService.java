@@ -1,23 +1,50 @@
 package com.newsaggregator.service;
 
+import java.io.BufferedInputStream;
+import java.io.FilterInputStream;
 import java.io.IOException;
-import java.net.SocketTimeoutException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.net.UnknownHostException;
+import java.net.http.HttpTimeoutException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeParseException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.function.LongSupplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
-import org.jsoup.Jsoup;
 import org.jsoup.nodes.Document;
 import org.jsoup.nodes.Element;
+import org.jsoup.parser.Parser;
+import org.jsoup.parser.StreamParser;
 import org.jsoup.select.Elements;
+import org.jsoup.select.Evaluator;
+import org.jsoup.select.QueryParser;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 /**
  * Сервис для извлечения полного контента статей с веб-страниц.
  * 
  * Использует библиотеку JSoup для парсинга HTML и извлечения текста статей.
+ * Страницы загружаются через общий HTTP клиент краулера (CrawlerHttpClient)
+ * и разбираются потоково: загрузка прекращается после контейнера статьи
+ * или по лимиту размера страницы. Загруженные страницы сохраняются в дисковый
+ * кэш (PageCache), поэтому повторное извлечение текста не обращается к сайту.
  * Предоставляет функциональность для:
  * - Извлечения полного текста статей по URL
+ * - Однократной загрузки страницы с извлечением текста, изображения и метаданных
  * - Специализированной обработки популярных новостных сайтов
  * - Извлечения изображений статей (Open Graph, Twitter Card, img теги)
  * - Универсального парсинга для неизвестных сайтов
@@ -37,13 +64,48 @@ public class ArticleContentExtractorService {
 
     private static final Logger logger = LoggerFactory.getLogger(ArticleContentExtractorService.class);
     
-    private static final int TIMEOUT_MS = 10000; // 10 секунд
     private static final int MAX_CONTENT_LENGTH = 50000; // Максимальная длина контента
     
+    // Длина текста контейнера, после которой разбор страницы можно остановить
+    // (та же граница, что и в extractGenericContent)
+    private static final int MIN_CONTAINER_TEXT = 300;
+    
+    // Сколько байт начала страницы просматривается в поисках meta charset
+    private static final int CHARSET_SNIFF_BYTES = 4096;
+    
+    private static final Pattern META_CHARSET = Pattern.compile("(?i)<meta[^>]+charset\\s*=\\s*[\"']?([\\w.:-]+)");
+
+    @Autowired
+    private CrawlerHttpClient httpClient;
+
+    @Autowired
+    private PageBandwidthStats bandwidthStats;
+
+    @Autowired
+    private HostPolitenessScheduler politeness;
+
+    @Autowired
+    private IngestMetrics ingestMetrics;
+
+    @Autowired
+    private PageCache pageCache;
+
+    @Value("${app.rss.page.max-bytes:1048576}")
+    private long maxPageBytes;
+    
     /**
      * Извлекает полный текст статьи по URL
      */
     public String extractFullContent(String url) {
+        ExtractedPage page = extractPage(url);
+        return page != null ? page.getContent() : null;
+    }
+    
+    /**
+     * Загружает страницу статьи один раз и извлекает из нее текст,
+     * главное изображение и метаданные
+     */
+    public ExtractedPage extractPage(String url) {
         if (url == null || url.trim().isEmpty()) {
             return null;
         }
@@ -51,28 +113,9 @@ public class ArticleContentExtractorService {
         try {
             logger.debug("Извлечение контента из: {}", url);
             
-            Document doc = Jsoup.connect(url)
-                    .timeout(TIMEOUT_MS)
-                    .userAgent("Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/91.0.4472.124 Safari/537.36")
-                    .followRedirects(true)
-                    .get();
-            
-            String content = extractContentByDomain(doc, url);
+            return extractPage(fetchDocument(url));
             
-            if (content != null && !content.trim().isEmpty()) {
-                // Ограничиваем длину контента
-                if (content.length() > MAX_CONTENT_LENGTH) {
-                    content = content.substring(0, MAX_CONTENT_LENGTH) + "...";
-                }
-                
-                logger.debug("Успешно извлечен контент длиной {} символов", content.length());
-                return cleanText(content);
-            }
-            
-            logger.warn("Не удалось извлечь контент из: {}", url);
-            return null;
-            
-        } catch (SocketTimeoutException e) {
+        } catch (HttpTimeoutException e) {
             logger.warn("Таймаут при загрузке: {}", url);
             return null;
         } catch (UnknownHostException e) {
@@ -87,6 +130,469 @@ public class ArticleContentExtractorService {
         }
     }
     
+    /**
+     * Загружает страницу статьи и разбирает ее по мере загрузки.
+     * 
+     * Разбор прекращается, как только закрылся контейнер статьи, набран бюджет
+     * текста MAX_CONTENT_LENGTH или прочитано app.rss.page.max-bytes байт.
+     * Без кэша страниц вместе с разбором прекращается и загрузка (соединение
+     * закрывается) - скрипты, комментарии и подвал после статьи не загружаются;
+     * с кэшем остаток страницы дочитывается до лимита для записи в PageCache.
+     * Используется конвейером загрузки, где извлечение текста выполняется
+     * на отдельном этапе.
+     *
+     * @throws IOException при сетевой ошибке, HTTP ошибке или если ответ - не HTML
+     */
+    public PageDocument fetchDocument(String url) throws IOException {
+        long started = System.nanoTime();
+        boolean success = false;
+        try {
+            PageDocument document = openAndParse(url);
+            success = true;
+            return document;
+        } finally {
+            ingestMetrics.recordPageFetch(extractDomain(url), System.nanoTime() - started, success);
+        }
+    }
+    
+    /**
+     * Возвращает страницу из кэша без обращения к сайту, даже если запись устарела.
+     * Используется для повторного извлечения текста уже загруженных статей.
+     *
+     * @return документ или null, если страницы нет в кэше
+     */
+    public PageDocument readCachedDocument(String url) {
+        return readCached(url, false);
+    }
+    
+    /**
+     * Возвращает страницу из кэша, если запись свежая и запрос к сайту не нужен.
+     * Вызывается до получения разрешения HostPolitenessScheduler и разрешения
+     * на хост: чтение из кэша не расходует лимит запросов к сайту.
+     *
+     * @return документ или null, если свежей копии нет и страницу нужно загрузить
+     */
+    public PageDocument readFreshCachedDocument(String url) {
+        return readCached(url, true);
+    }
+    
+    private PageDocument readCached(String url, boolean freshOnly) {
+        PageCache.Entry cached = pageCache.lookup(url);
+        if (cached == null || (freshOnly && !pageCache.isFresh(cached))) {
+            return null;
+        }
+        try (InputStream body = pageCache.openBody(cached)) {
+            PageDocument document = parseCached(url, cached, body, () -> 0);
+            ingestMetrics.recordPageCache("hit");
+            return document;
+        } catch (IOException e) {
+            logger.debug("Не удалось прочитать страницу {} из кэша: {}", url, e.getMessage());
+            pageCache.remove(cached);
+            return null;
+        }
+    }
+    
+    /**
+     * Берет страницу из кэша, если она там свежая; устаревшую страницу из кэша
+     * проверяет условным запросом; иначе загружает страницу и сохраняет ее в кэш.
+     *
+     * Выполняет не больше одного запроса к сайту - на него вызывающий получил
+     * разрешение HostPolitenessScheduler. Тело устаревшей записи открывается до
+     * условного запроса, поэтому ответ 304 не требует повторной загрузки,
+     * даже если запись тем временем вытеснена из кэша.
+     */
+    private PageDocument openAndParse(String url) throws IOException {
+        PageCache.Entry cached = pageCache.lookup(url);
+        InputStream cachedBody = null;
+        if (cached != null) {
+            try {
+                cachedBody = pageCache.openBody(cached);
+            } catch (IOException e) {
+                logger.debug("Не удалось прочитать страницу {} из кэша: {}", url, e.getMessage());
+                pageCache.remove(cached);
+                cached = null;
+            }
+        }
+        
+        try {
+            if (cached != null && pageCache.isFresh(cached)) {
+                PageDocument document = parseCachedOrRemove(url, cached, cachedBody, () -> 0);
+                if (document != null) {
+                    ingestMetrics.recordPageCache("hit");
+                    return document;
+                }
+                cached = null;
+            }
+            return fetchAndParse(url, cached, cachedBody);
+        } finally {
+            if (cachedBody != null) {
+                cachedBody.close();
+            }
+        }
+    }
+    
+    /**
+     * Загружает страницу (условным запросом, если есть устаревшая запись кэша)
+     * и сохраняет ее в кэш
+     *
+     * @param cachedBody открытое тело записи cached или null
+     */
+    private PageDocument fetchAndParse(String url, PageCache.Entry cached, InputStream cachedBody) throws IOException {
+        HttpFetchResult opened;
+        try {
+            opened = httpClient.open(url, cached != null ? pageCache.conditionalHeaders(cached) : Map.of());
+        } catch (IOException e) {
+            politeness.onFailure(url);
+            throw e;
+        }
+        
+        try (HttpFetchResult response = opened) {
+            // Коды ответа и Retry-After влияют на частоту запросов к хосту
+            politeness.onResponse(url, response.getStatusCode(), response.header("Retry-After"));
+            if (cached != null && response.isNotModified()) {
+                PageDocument document = parseCachedOrRemove(url, pageCache.revalidated(cached), cachedBody,
+                                                            response::getWireBytes);
+                if (document == null) {
+                    // Повторный запрос без условных заголовков потребовал бы нового разрешения хоста
+                    throw new IOException("Страница не изменилась, но ее копию в кэше не удалось прочитать: " + url);
+                }
+                ingestMetrics.recordPageCache("revalidated");
+                return document;
+            }
+            if (!response.isSuccessful()) {
+                throw new IOException("HTTP " + response.getStatusCode() + " при загрузке " + url);
+            }
+            String contentType = response.getContentType();
+            if (contentType != null && !contentType.contains("html") && !contentType.contains("xml")) {
+                throw new IOException("Неподдерживаемый тип содержимого " + contentType + ": " + url);
+            }
+            
+            String baseUri = response.getUri() != null ? response.getUri().toString() : url;
+            PageCache.Recorder recorder = pageCache.record(url);
+            if (recorder == null) {
+                return parseBody(url, response.getBodyStream(), response.getCharset(), baseUri,
+                                 response::getWireBytes, false);
+            }
+            ingestMetrics.recordPageCache("miss");
+            try {
+                // В кэш попадает вся страница (до app.rss.page.max-bytes), а не только прочитанная
+                // до остановки разбора часть: иначе повторное извлечение получило бы обрезанную страницу
+                PageDocument document = parseBody(url, recorder.wrap(response.getBodyStream()), response.getCharset(),
+                                                  baseUri, response::getWireBytes, true);
+                recorder.commit(response.header("ETag"), response.header("Last-Modified"), response.getCharset(), baseUri);
+                return document;
+            } finally {
+                recorder.abort(); // После commit ничего не удаляет
+            }
+        }
+    }
+    
+    /**
+     * Разбирает страницу из кэша. Если тело не удалось прочитать, запись удаляется.
+     *
+     * @return документ или null
+     */
+    private PageDocument parseCachedOrRemove(String url, PageCache.Entry cached, InputStream body,
+                                             LongSupplier wireBytes) {
+        try {
+            return parseCached(url, cached, body, wireBytes);
+        } catch (IOException e) {
+            logger.debug("Не удалось прочитать страницу {} из кэша: {}", url, e.getMessage());
+            pageCache.remove(cached);
+            return null;
+        }
+    }
+    
+    private PageDocument parseCached(String url, PageCache.Entry cached, InputStream body,
+                                     LongSupplier wireBytes) throws IOException {
+        String baseUri = cached.getBaseUri() != null ? cached.getBaseUri() : url;
+        return parseBody(url, body, cached.getCharset(), baseUri, wireBytes, false);
+    }
+    
+    /**
+     * Потоково разбирает тело страницы до контейнера статьи или лимита app.rss.page.max-bytes
+     *
+     * @param wireBytes байт получено по сети (читается после разбора)
+     * @param drain дочитать тело до лимита после остановки разбора (для записи в кэш)
+     */
+    private PageDocument parseBody(String url, InputStream source, String headerCharset, String baseUri,
+                                   LongSupplier wireBytes, boolean drain) throws IOException {
+        CappedInputStream body = new CappedInputStream(source, maxPageBytes);
+        BufferedInputStream in = new BufferedInputStream(body, CHARSET_SNIFF_BYTES * 2);
+        Charset charset = detectCharset(in, headerCharset);
+        
+        Document doc;
+        boolean stoppedEarly;
+        long bytesParsed;
+        boolean truncated;
+        try (StreamParser parser = new StreamParser(Parser.htmlParser())) {
+            parser.parse(new InputStreamReader(in, charset), baseUri);
+            stoppedEarly = parseUntilArticleRead(parser, extractDomain(url));
+            doc = parser.document();
+            bytesParsed = body.getCount();
+            truncated = body.isTruncated();
+            if (drain && stoppedEarly) {
+                // Дочитываем до закрытия парсера - он закрывает поток
+                in.transferTo(OutputStream.nullOutputStream());
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        
+        return new PageDocument(url, doc, wireBytes.getAsLong(), bytesParsed, truncated, stoppedEarly);
+    }
+    
+    /**
+     * Извлекает текст, изображение и метаданные из потоково разобранной страницы
+     * и учитывает трафик страницы в статистике домена
+     */
+    public ExtractedPage extractPage(PageDocument page) {
+        long started = System.nanoTime();
+        ExtractedPage extracted = extractPage(page.getDocument(), page.getUrl());
+        ingestMetrics.recordExtraction(extractDomain(page.getUrl()), System.nanoTime() - started);
+        long bytesUsed = extracted.hasContent() ? extracted.getContent().getBytes(StandardCharsets.UTF_8).length : 0;
+        bandwidthStats.record(extractDomain(page.getUrl()), page, bytesUsed);
+        return extracted;
+    }
+    
+    /**
+     * Разбирает страницу до закрытия контейнера статьи или до исчерпания бюджета текста.
+     * 
+     * Для сайтов, где текст берется из первого контейнера, разбор останавливается,
+     * как только закрылся тот контейнер, который выберет извлечение (первое совпадение
+     * в порядке документа), и в нем достаточно текста - остальная страница на результат
+     * не влияет. Вложенные совпадения закрываются раньше внешнего, поэтому по ним разбор
+     * не останавливается.
+     *
+     * Для сайтов, где текст собирается из нескольких блоков, после второго блока статьи
+     * запоминается их ближайший общий предок (тело статьи). Разбор останавливается,
+     * когда этот предок закрылся и в блоках набрано больше MIN_CONTAINER_TEXT символов -
+     * дальше идут подвал и соседние материалы. Если блоки разбросаны по странице
+     * (общий предок - body), разбор идет до конца страницы или до MAX_CONTENT_LENGTH
+     * символов во внешних блоках.
+     *
+     * @return true, если разбор остановлен до конца страницы
+     */
+    private boolean parseUntilArticleRead(StreamParser parser, String domain) throws IOException {
+        ArticleContainer container = articleContainer(domain);
+        if (container.single) {
+            Element completed;
+            while ((completed = parser.selectNext(container.query)) != null) {
+                if (completed != parser.document().selectFirst(container.query)) {
+                    continue; // Закрылся вложенный контейнер, внешний еще читается
+                }
+                if (completed.text().length() > MIN_CONTAINER_TEXT) {
+                    parser.stop();
+                    return true;
+                }
+                break;
+            }
+            parser.complete();
+            return false;
+        }
+        
+        Evaluator blockQuery = QueryParser.parse(container.query);
+        Element firstBlock = null;
+        Element articleBody = null;
+        long textLength = 0;
+        Iterator<Element> closed = parser.iterator();
+        while (closed.hasNext()) {
+            Element element = closed.next();
+            if (element == articleBody && textLength > MIN_CONTAINER_TEXT) {
+                // Закрылось тело статьи - остальные блоки страницы к статье не относятся
+                parser.stop();
+                return true;
+            }
+            if (!element.is(blockQuery) || hasMatchingAncestor(element, container.query)) {
+                continue; // Текст вложенного блока учтется вместе с внешним
+            }
+            if (firstBlock == null) {
+                firstBlock = element;
+            } else if (articleBody == null) {
+                articleBody = commonAncestor(firstBlock, element);
+            }
+            textLength += element.text().length();
+            if (textLength >= MAX_CONTENT_LENGTH) {
+                parser.stop();
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    /**
+     * Ближайший общий предок двух элементов или null
+     */
+    private static Element commonAncestor(Element first, Element second) {
+        Elements ancestors = first.parents();
+        for (Element parent = second.parent(); parent != null; parent = parent.parent()) {
+            if (ancestors.contains(parent)) {
+                return parent;
+            }
+        }
+        return null;
+    }
+    
+    private boolean hasMatchingAncestor(Element element, String query) {
+        Element parent = element.parent();
+        return parent != null && parent.closest(query) != null;
+    }
+    
+    /**
+     * Контейнер статьи для сайта - те же селекторы, что и в extractContentByDomain
+     */
+    private ArticleContainer articleContainer(String domain) {
+        switch (domain) {
+            case "habr.com":
+                return new ArticleContainer("div.tm-article-body, div.article-formatted-body, div.post__text-html, div.post__body", true);
+            case "techcrunch.com":
+                return new ArticleContainer(".article-content, .entry-content, .post-content", true);
+            case "vedomosti.ru":
+                return new ArticleContainer("div.article__text, div.article__body, div.box-paragraph, div.article-content", false);
+            case "gazeta.ru":
+                return new ArticleContainer("div.article_text, div.b-article-text, div.article-text, div.material-text", false);
+            case "ria.ru":
+                return new ArticleContainer("div.article__text, div.article__body, div.article-text, div.layout-article__text", false);
+            case "lenta.ru":
+                return new ArticleContainer("div.topic-body__content, div.b-text, div.article-text, div.topic-body", false);
+            case "bbc.com":
+            case "bbc.co.uk":
+                return new ArticleContainer("[data-component='text-block'], .story-body__inner, .article-body", false);
+            case "reuters.com":
+                return new ArticleContainer(".ArticleBodyWrapper, .StandardArticleBody_body, .article-body", true);
+            default:
+                return new ArticleContainer("article", true);
+        }
+    }
+    
+    /**
+     * Определяет кодировку страницы: заголовок Content-Type, BOM или meta тег в начале документа.
+     * По умолчанию - UTF-8.
+     */
+    private Charset detectCharset(BufferedInputStream in, String headerCharset) throws IOException {
+        Charset charset = toCharset(headerCharset);
+        if (charset != null) {
+            return charset;
+        }
+        
+        in.mark(CHARSET_SNIFF_BYTES);
+        byte[] head = in.readNBytes(CHARSET_SNIFF_BYTES);
+        in.reset();
+        
+        if (head.length >= 3 && (head[0] & 0xFF) == 0xEF && (head[1] & 0xFF) == 0xBB && (head[2] & 0xFF) == 0xBF) {
+            in.skip(3);
+            return StandardCharsets.UTF_8;
+        }
+        if (head.length >= 2 && ((head[0] & 0xFF) == 0xFE && (head[1] & 0xFF) == 0xFF
+                || (head[0] & 0xFF) == 0xFF && (head[1] & 0xFF) == 0xFE)) {
+            return StandardCharsets.UTF_16;
+        }
+        
+        Matcher meta = META_CHARSET.matcher(new String(head, StandardCharsets.ISO_8859_1));
+        if (meta.find()) {
+            charset = toCharset(meta.group(1));
+        }
+        return charset != null ? charset : StandardCharsets.UTF_8;
+    }
+    
+    private Charset toCharset(String name) {
+        if (name == null || name.isBlank()) {
+            return null;
+        }
+        try {
+            return Charset.forName(name.trim());
+        } catch (IllegalArgumentException e) {
+            logger.debug("Неизвестная кодировка страницы: {}", name);
+            return null;
+        }
+    }
+    
+    /**
+     * Извлекает текст, изображение и метаданные из уже загруженного документа
+     */
+    public ExtractedPage extractPage(Document doc, String url) {
+        ExtractedPage page = new ExtractedPage(url);
+        page.setContent(extractArticleText(doc, url));
+        page.setImageUrl(findMainImage(doc, url));
+        page.setTitle(metaContent(doc, "meta[property=og:title]"));
+        page.setCanonicalUrl(extractCanonicalUrl(doc, url));
+        page.setPublishedAt(extractPublishedAt(doc));
+        return page;
+    }
+    
+    /**
+     * Извлекает и нормализует текст статьи из документа
+     */
+    private String extractArticleText(Document doc, String url) {
+        String content = extractContentByDomain(doc, url);
+        
+        if (content != null && !content.trim().isEmpty()) {
+            // Ограничиваем длину контента
+            if (content.length() > MAX_CONTENT_LENGTH) {
+                content = content.substring(0, MAX_CONTENT_LENGTH) + "...";
+            }
+            
+            logger.debug("Успешно извлечен контент длиной {} символов", content.length());
+            return cleanText(content);
+        }
+        
+        logger.warn("Не удалось извлечь контент из: {}", url);
+        return null;
+    }
+    
+    /**
+     * Возвращает значение атрибута content первого подходящего meta тега
+     */
+    private String metaContent(Document doc, String selector) {
+        Element meta = doc.selectFirst(selector);
+        if (meta == null) {
+            return null;
+        }
+        String value = meta.attr("content").trim();
+        return value.isEmpty() ? null : value;
+    }
+    
+    /**
+     * Извлекает канонический URL страницы (link rel=canonical или og:url)
+     */
+    private String extractCanonicalUrl(Document doc, String url) {
+        Element canonical = doc.selectFirst("link[rel=canonical]");
+        if (canonical != null && !canonical.attr("href").trim().isEmpty()) {
+            return makeAbsoluteUrl(canonical.attr("href").trim(), url);
+        }
+        
+        String ogUrl = metaContent(doc, "meta[property=og:url]");
+        return ogUrl != null ? makeAbsoluteUrl(ogUrl, url) : null;
+    }
+    
+    /**
+     * Извлекает время публикации из метаданных страницы
+     */
+    private LocalDateTime extractPublishedAt(Document doc) {
+        String value = metaContent(doc, "meta[property=article:published_time]");
+        if (value == null) {
+            value = metaContent(doc, "meta[itemprop=datePublished]");
+        }
+        if (value == null) {
+            Element time = doc.selectFirst("time[datetime]");
+            value = time != null ? time.attr("datetime").trim() : null;
+        }
+        if (value == null || value.isEmpty()) {
+            return null;
+        }
+        
+        try {
+            return OffsetDateTime.parse(value).atZoneSameInstant(ZoneId.systemDefault()).toLocalDateTime();
+        } catch (DateTimeParseException e) {
+            try {
+                return LocalDateTime.parse(value);
+            } catch (DateTimeParseException ignored) {
+                logger.debug("Не удалось разобрать время публикации: {}", value);
+                return null;
+            }
+        }
+    }
+    
     /**
      * Извлекает контент в зависимости от домена сайта
      */
@@ -388,7 +894,7 @@ public class ArticleContentExtractorService {
             if (!elements.isEmpty()) {
                 Element element = elements.first();
                 String text = element.text();
-                if (text.length() > 300) { // Минимальная длина для валидного контента
+                if (text.length() > MIN_CONTAINER_TEXT) { // Минимальная длина для валидного контента
                     return text;
                 }
             }
@@ -511,19 +1017,15 @@ public class ArticleContentExtractorService {
      * Извлекает URL главного изображения статьи с веб-страницы
      */
     public String extractMainImage(String url) {
-        if (url == null || url.trim().isEmpty()) {
-            return null;
-        }
-        
+        ExtractedPage page = extractPage(url);
+        return page != null ? page.getImageUrl() : null;
+    }
+    
+    /**
+     * Ищет главное изображение статьи в загруженном документе
+     */
+    private String findMainImage(Document doc, String url) {
         try {
-            logger.debug("Извлечение изображения из: {}", url);
-            
-            Document doc = Jsoup.connect(url)
-                    .timeout(TIMEOUT_MS)
-                    .userAgent("Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/91.0.4472.124 Safari/537.36")
-                    .followRedirects(true)
-                    .get();
-            
             // 1. Проверяем Open Graph изображение
             Element ogImage = doc.selectFirst("meta[property=og:image]");
             if (ogImage != null) {
@@ -649,4 +1151,74 @@ public class ArticleContentExtractorService {
             return imageUrl;
         }
     }
-}
\ No newline at end of file
+    
+    /**
+     * Селектор контейнера статьи и способ сбора текста из него
+     */
+    private static class ArticleContainer {
+        
+        private final String query;
+        private final boolean single; // текст берется только из первого совпадения
+        
+        private ArticleContainer(String query, boolean single) {
+            this.query = query;
+            this.single = single;
+        }
+    }
+    
+    /**
+     * Поток, который заканчивается после maxBytes байт и считает прочитанное
+     */
+    private static class CappedInputStream extends FilterInputStream {
+        
+        private final long maxBytes;
+        private long count;
+        private boolean truncated;
+        
+        private CappedInputStream(InputStream in, long maxBytes) {
+            super(in);
+            this.maxBytes = maxBytes;
+        }
+        
+        @Override
+        public int read() throws IOException {
+            if (count >= maxBytes) {
+                truncated = true;
+                return -1;
+            }
+            int b = super.read();
+            if (b >= 0) {
+                count++;
+            }
+            return b;
+        }
+        
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            if (count >= maxBytes) {
+                truncated = true;
+                return -1;
+            }
+            int n = super.read(buffer, offset, (int) Math.min(length, maxBytes - count));
+            if (n > 0) {
+                count += n;
+            }
+            return n;
+        }
+        
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = super.skip(Math.min(n, maxBytes - count));
+            count += skipped;
+            return skipped;
+        }
+        
+        private long getCount() {
+            return count;
+        }
+        
+        private boolean isTruncated() {
+            return truncated;
+        }
+    }
+}
@@ -0,0 +1,257 @@
+package com.newsaggregator.service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+
+import com.newsaggregator.entity.Article;
+import com.newsaggregator.entity.Category;
+import com.newsaggregator.entity.EnrichmentState;
+import com.newsaggregator.repository.ArticleRepository;
+import com.newsaggregator.repository.CategoryRepository;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Фоновая ИИ-обработка статей, отделенная от загрузки.
+ *
+ * Статьи сохраняются при загрузке сразу - с базовой сводкой и категорией
+ * и состоянием обработки PENDING. Этот сервис периодически выбирает
+ * необработанные статьи, вызывает LM Studio через ограниченный пул
+ * этапа enrich конвейера загрузки и обновляет сводку и категорию на месте.
+ *
+ * Партия выполняется отдельным потоком, а не общим планировщиком Spring:
+ * вызовы ИИ длятся до app.lmstudio.timeout, а на том же единственном потоке
+ * планировщика работают опрос источников и продление WebSub подписок.
+ * Одновременно выполняется не больше одной партии.
+ *
+ * Благодаря этому задержка загрузки новостей не зависит от задержки ИИ.
+ *
+ * @author News Aggregator Team
+ * @version 1.0
+ * @since 1.0
+ */
+@Service
+public class ArticleEnrichmentService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ArticleEnrichmentService.class);
+
+    @Autowired
+    private ArticleRepository articleRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private LMStudioService lmStudioService;
+
+    @Autowired
+    private IngestPipeline ingestPipeline;
+
+    @Value("${app.enrichment.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.enrichment.batch-size:20}")
+    private int batchSize;
+
+    @Value("${app.enrichment.max-attempts:3}")
+    private int maxAttempts;
+
+    @Value("${app.enrichment.retry-base-seconds:60}")
+    private long retryBaseSeconds;
+
+    @Value("${app.enrichment.retry-max-seconds:3600}")
+    private long retryMaxSeconds;
+
+    // Партия уже выполняется - очередной запуск планировщика пропускается
+    private final AtomicBoolean batchRunning = new AtomicBoolean();
+
+    private ExecutorService batchExecutor;
+
+    @PostConstruct
+    void init() {
+        batchExecutor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "enrichment-batch");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    void shutdown() {
+        batchExecutor.shutdownNow();
+    }
+
+    /**
+     * Возвращает начальное состояние ИИ-обработки для новой статьи
+     */
+    public EnrichmentState initialState() {
+        return enabled && lmStudioService.isConfigured() ? EnrichmentState.PENDING : EnrichmentState.SKIPPED;
+    }
+
+    /**
+     * Запускает обработку очередной партии статей, ожидающих ИИ-обработки,
+     * и сразу возвращает управление планировщику. Если предыдущая партия
+     * еще выполняется, новая не запускается.
+     */
+    @Scheduled(fixedDelayString = "${app.enrichment.poll-interval-ms:15000}",
+               initialDelayString = "${app.enrichment.initial-delay-ms:30000}")
+    public void enrichPendingArticles() {
+        if (!enabled || !lmStudioService.isConfigured()) {
+            return;
+        }
+        if (!batchRunning.compareAndSet(false, true)) {
+            logger.debug("Предыдущая партия ИИ-обработки еще выполняется, пропускаем запуск");
+            return;
+        }
+        try {
+            batchExecutor.execute(() -> {
+                try {
+                    enrichBatch();
+                } catch (Exception e) {
+                    logger.error("Ошибка ИИ-обработки партии статей: {}", e.getMessage());
+                } finally {
+                    batchRunning.set(false);
+                }
+            });
+        } catch (RuntimeException e) {
+            batchRunning.set(false);
+            throw e;
+        }
+    }
+
+    /**
+     * Обрабатывает партию статей в потоке партии и ждет завершения вызовов ИИ
+     */
+    void enrichBatch() {
+        List<Article> batch = articleRepository.findDueForEnrichment(EnrichmentState.PENDING, LocalDateTime.now(),
+                PageRequest.of(0, batchSize, Sort.by("createdAt")));
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        logger.info("ИИ-обработка {} статей", batch.size());
+
+        List<CompletableFuture<Boolean>> futures = new ArrayList<>();
+        for (Article article : batch) {
+            futures.add(ingestPipeline.enrich().submit(() -> enrichArticle(article)));
+        }
+
+        int enriched = 0;
+        for (CompletableFuture<Boolean> future : futures) {
+            if (Boolean.TRUE.equals(future.exceptionally(e -> false).join())) {
+                enriched++;
+            }
+        }
+
+        logger.info("ИИ-обработка завершена: {} из {} статей, в очереди осталось {}",
+                   enriched, batch.size(), articleRepository.countByEnrichmentState(EnrichmentState.PENDING));
+    }
+
+    /**
+     * Генерирует сводку и категорию статьи с помощью ИИ и сохраняет их.
+     * Ошибка вызова ИИ не подменяется базовой сводкой: статья остается PENDING
+     * и повторяется не раньше enrichmentNextAttemptAt - пауза растет экспоненциально
+     * от retry-base-seconds до retry-max-seconds. После max-attempts неудачных попыток
+     * статья получает FAILED (базовые сводка и категория, сохраненные при загрузке, остаются).
+     *
+     * Попыткой считается только запрос, дошедший до LM Studio: если сервер недоступен,
+     * статья откладывается, но счетчик попыток не растет, и простой LM Studio
+     * не расходует попытки всей очереди.
+     */
+    private boolean enrichArticle(Article article) {
+        try {
+            String summary = lmStudioService.requestSummary(article.getContent());
+            String categoryName = lmStudioService.requestCategory(article.getTitle(), article.getContent());
+            Category category = findCategory(categoryName);
+
+            return applyResult(article.getId(), fresh -> {
+                fresh.setSummary(summary);
+                if (category != null) {
+                    fresh.setCategory(category);
+                }
+                fresh.setEnrichmentState(EnrichmentState.ENRICHED);
+                fresh.setEnrichedAt(LocalDateTime.now());
+            });
+        } catch (Exception e) {
+            boolean unreachable = isUnreachable(e);
+            if (unreachable) {
+                logger.warn("LM Studio недоступен, статья '{}' будет обработана позже: {}", article.getTitle(), e.getMessage());
+            } else {
+                logger.warn("Ошибка ИИ-обработки статьи '{}': {}", article.getTitle(), e.getMessage());
+            }
+            applyResult(article.getId(), fresh -> {
+                if (!unreachable) {
+                    fresh.setEnrichmentAttempts(fresh.getEnrichmentAttempts() + 1);
+                }
+                if (fresh.getEnrichmentAttempts() >= maxAttempts) {
+                    fresh.setEnrichmentState(EnrichmentState.FAILED);
+                } else {
+                    fresh.setEnrichmentNextAttemptAt(LocalDateTime.now().plusSeconds(retryDelaySeconds(fresh.getEnrichmentAttempts())));
+                }
+            });
+            return false;
+        }
+    }
+
+    /**
+     * Пауза перед повтором после attempts неудачных попыток: base * 2^(attempts - 1), не больше max
+     */
+    long retryDelaySeconds(int attempts) {
+        long exponential = retryBaseSeconds << Math.min(Math.max(0, attempts - 1), 30);
+        return exponential <= 0 ? retryMaxSeconds : Math.min(retryMaxSeconds, exponential);
+    }
+
+    /**
+     * Запрос не дошел до LM Studio (соединение не установлено)
+     */
+    private static boolean isUnreachable(Throwable error) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof WebClientRequestException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Применяет изменения к свежей копии статьи, если она все еще ожидает обработки
+     */
+    private boolean applyResult(Long articleId, Consumer<Article> update) {
+        Optional<Article> fresh = articleRepository.findById(articleId);
+        if (fresh.isEmpty() || fresh.get().getEnrichmentState() != EnrichmentState.PENDING) {
+            return false; // Статья удалена или уже обработана
+        }
+
+        update.accept(fresh.get());
+        articleRepository.save(fresh.get());
+        return true;
+    }
+
+    /**
+     * Находит категорию по имени, по умолчанию - "Общество" или "Общее"
+     */
+    private Category findCategory(String categoryName) {
+        return categoryRepository.findByName(categoryName)
+                .or(() -> categoryRepository.findByName("Общество"))
+                .or(() -> categoryRepository.findByName("Общее"))
+                .orElse(null);
+    }
+}
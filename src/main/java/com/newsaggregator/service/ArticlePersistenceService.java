@@ -0,0 +1,207 @@
+package com.newsaggregator.service;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Objects;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.newsaggregator.entity.Article;
+import com.newsaggregator.entity.IngestTask;
+import com.newsaggregator.entity.NewsSource;
+import com.newsaggregator.repository.ArticleRepository;
+import com.newsaggregator.repository.IngestTaskRepository;
+import com.newsaggregator.repository.NewsSourceRepository;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Запись результатов парсинга RSS ленты в базу данных.
+ *
+ * Все новые статьи ленты сохраняются одной транзакцией вместе с обновлением
+ * состояния источника: вставки объединяются в JDBC batch (идентификаторы
+ * статей выделяются блоками, см. Article), а лента либо записывается целиком,
+ * либо не записывается вовсе. В той же транзакции удаляются выполненные задачи
+ * очереди загрузки (IngestQueue), поэтому статья и ее задача не расходятся.
+ *
+ * Методы вынесены в отдельный бин, чтобы @Transactional применялся через
+ * прокси Spring - на private методах RssParserService аннотация не работала.
+ *
+ * @author News Aggregator Team
+ * @version 1.0
+ * @since 1.0
+ */
+@Service
+public class ArticlePersistenceService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ArticlePersistenceService.class);
+
+    @Autowired
+    private ArticleRepository articleRepository;
+
+    @Autowired
+    private NewsSourceRepository newsSourceRepository;
+
+    @Autowired
+    private IngestTaskRepository ingestTaskRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private SourceCircuitBreaker circuitBreaker;
+
+    /**
+     * Сдвигает генераторы идентификаторов статей, источников и задач загрузки за максимальный
+     * существующий id. Нужно для баз, где строки уже создавались через AUTO_INCREMENT.
+     */
+    @PostConstruct
+    void alignIdGenerators() {
+        alignIdGenerator("articles", Article.ID_ALLOCATION_SIZE);
+        alignIdGenerator("news_sources", NewsSource.ID_ALLOCATION_SIZE);
+        alignIdGenerator("ingest_tasks", IngestTask.ID_ALLOCATION_SIZE);
+    }
+
+    private void alignIdGenerator(String table, int allocationSize) {
+        try {
+            Long maxId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM " + table, Long.class);
+            long required = (maxId != null ? maxId : 0) + allocationSize + 1;
+
+            List<Long> current = jdbcTemplate.queryForList(
+                    "SELECT gen_value FROM id_generators WHERE gen_name = ?", Long.class, table);
+            if (current.isEmpty()) {
+                jdbcTemplate.update("INSERT INTO id_generators (gen_name, gen_value) VALUES (?, ?)", table, required);
+            } else if (current.get(0) < required) {
+                jdbcTemplate.update("UPDATE id_generators SET gen_value = ? WHERE gen_name = ?", required, table);
+            } else {
+                return;
+            }
+            logger.info("Генератор идентификаторов {} установлен на {}", table, required);
+        } catch (Exception e) {
+            logger.warn("Не удалось выровнять генератор идентификаторов {}: {}", table, e.getMessage());
+        }
+    }
+
+    /**
+     * Сохраняет новые статьи ленты, удаляет выполненные задачи очереди загрузки
+     * и отмечает успешное обновление источника в одной транзакции.
+     *
+     * @param source источник с актуальными валидаторами ленты
+     * @param cursor курсор ленты после обработки (FeedCursor.advance) или null, если он не изменился
+     * @param pushed лента получена WebSub уведомлением, а не опросом
+     * @param articles новые статьи ленты
+     * @param doneTaskIds выполненные задачи IngestQueue
+     * @return количество сохраненных статей
+     */
+    @Transactional
+    public int saveFeedArticles(NewsSource source, FeedCursor cursor, boolean pushed,
+                                List<Article> articles, List<Long> doneTaskIds) {
+        // Источник обновляется первым: его строка блокируется и читается до записи статей
+        markSourceUpdated(source, cursor, pushed);
+        return saveQueuedArticles(articles, doneTaskIds);
+    }
+
+    /**
+     * Сохраняет статьи и удаляет выполненные задачи очереди загрузки в одной транзакции
+     *
+     * @return количество сохраненных статей
+     */
+    @Transactional
+    public int saveQueuedArticles(List<Article> articles, List<Long> doneTaskIds) {
+        if (!articles.isEmpty()) {
+            articleRepository.saveAll(articles);
+            articleRepository.flush();
+        }
+        if (!doneTaskIds.isEmpty()) {
+            ingestTaskRepository.deleteAllByIdInBatch(doneTaskIds);
+        }
+        return articles.size();
+    }
+
+    /**
+     * Сохраняет одну статью в собственной транзакции
+     */
+    @Transactional
+    public Article saveArticle(Article article) {
+        return articleRepository.save(article);
+    }
+
+    /**
+     * Отмечает успешное обновление источника и сохраняет валидаторы, курсор и WebSub хаб ленты.
+     *
+     * Курсор переносится на текущее состояние источника в БД (FeedCursor.mergeInto),
+     * поэтому ключи, записанные за время обработки другим опросом или уведомлением,
+     * сохраняются. Строка источника блокируется до конца транзакции, поэтому
+     * одновременные обновления (опрос и уведомление, разные узлы) выполняются
+     * по очереди и каждое видит результат предыдущего. Уведомление WebSub содержит только новые записи, а не ленту целиком,
+     * поэтому валидаторы и хаб ленты после него не меняются.
+     *
+     * @param cursor курсор ленты после обработки или null, если он не изменился
+     * @param pushed лента получена WebSub уведомлением
+     */
+    @Transactional
+    public void markSourceUpdated(NewsSource source, FeedCursor cursor, boolean pushed) {
+        // Получаем свежую копию источника из БД и блокируем ее до конца транзакции
+        NewsSource freshSource = newsSourceRepository.findByIdForUpdate(source.getId()).orElse(source);
+
+        freshSource.setLastUpdated(LocalDateTime.now());
+        if (!pushed) {
+            freshSource.setFeedEtag(source.getFeedEtag());
+            freshSource.setFeedLastModified(source.getFeedLastModified());
+            freshSource.setFeedContentHash(source.getFeedContentHash());
+            if (!Objects.equals(freshSource.getWebsubHubUrl(), source.getWebsubHubUrl())) {
+                // Лента объявила другой хаб (или перестала его объявлять) - прежняя подписка недействительна
+                freshSource.setWebsubHubUrl(source.getWebsubHubUrl());
+                freshSource.setWebsubSecret(null);
+                freshSource.setWebsubExpiresAt(null);
+                freshSource.setWebsubRequestedAt(null);
+            }
+            freshSource.setWebsubTopicUrl(source.getWebsubTopicUrl());
+        }
+        if (cursor != null) {
+            cursor.mergeInto(FeedCursor.of(freshSource)).applyTo(freshSource);
+        }
+        freshSource.setLastError(null);
+        circuitBreaker.onSuccess(freshSource);
+
+        newsSourceRepository.save(freshSource);
+    }
+
+    /**
+     * Записывает ошибку источника. После серии ошибок подряд источник
+     * приостанавливается автоматическим выключателем (см. SourceCircuitBreaker).
+     *
+     * @return источник с обновленным состоянием выключателя
+     */
+    @Transactional
+    public NewsSource markSourceFailed(NewsSource source, String errorMessage) {
+        // Получаем свежую копию источника из БД и блокируем ее до конца транзакции
+        NewsSource freshSource = newsSourceRepository.findByIdForUpdate(source.getId()).orElse(source);
+
+        freshSource.setLastError(errorMessage);
+        if (circuitBreaker.onFailure(freshSource, LocalDateTime.now())) {
+            logger.warn("Источник '{}' приостановлен до {} после {} ошибок подряд",
+                       freshSource.getName(), freshSource.getCircuitOpenUntil(), freshSource.getErrorCount());
+        }
+
+        return newsSourceRepository.save(freshSource);
+    }
+
+    /**
+     * Закрепляет пробный опрос источника, приостановка которого истекла
+     * (см. SourceCircuitBreaker.allowRequest). Условное обновление строки
+     * гарантирует, что пробу выполнит один вызывающий на всех узлах.
+     *
+     * @param now время, на которое SourceCircuitBreaker разрешил пробу
+     * @return false, если пробу уже начал другой вызывающий или выключатель закрыт
+     */
+    @Transactional
+    public boolean claimProbe(NewsSource source, LocalDateTime now) {
+        return newsSourceRepository.claimCircuitProbe(source.getId(), now, source.getCircuitOpenUntil()) == 1;
+    }
+}
@@ -8,9 +8,11 @@ import java.util.Optional;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import com.newsaggregator.entity.Article;
@@ -44,6 +46,15 @@ public class ArticleService {
     @Autowired
     private ArticleRepository articleRepository;
     
+    @Autowired
+    private ArticleContentExtractorService contentExtractorService;
+    
+    @Autowired
+    private HostPolitenessScheduler politeness;
+    
+    @Value("${app.rss.politeness.max-wait-ms:60000}")
+    private long maxPolitenessWaitMs;
+    
     /**
      * Получает статью по её идентификатору.
      * 
@@ -324,26 +335,47 @@ public class ArticleService {
      * Извлекает полное содержание для всех статей с коротким контентом.
      * Используется для пакетного обновления статей.
      * 
+     * Страница берется из кэша страниц (PageCache), если она там есть, иначе
+     * загружается с разрешения HostPolitenessScheduler. Выполняется без общей
+     * транзакции: каждая статья сохраняется отдельно, пока идут загрузки страниц.
+     * 
      * @return количество обновленных статей
      */
-    @Transactional
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public int extractContentForAllArticles() {
         // Получаем статьи с коротким контентом (менее 500 символов)
         List<Article> articlesNeedingContent = articleRepository.findArticlesWithShortContent();
         
         int updatedCount = 0;
         for (Article article : articlesNeedingContent) {
+            String url = article.getSourceUrl();
+            if (url == null || !contentExtractorService.shouldExtractContent(url)) {
+                continue;
+            }
             try {
-                if (article.getSourceUrl() != null) {
-                    logger.info("Обновление контента для статьи: {}", article.getTitle());
+                PageDocument document = contentExtractorService.readCachedDocument(url);
+                if (document == null) {
+                    politeness.awaitPermit(url, maxPolitenessWaitMs);
+                    document = contentExtractorService.fetchDocument(url);
+                }
+                ExtractedPage page = contentExtractorService.extractPage(document);
+                String current = article.getContent();
+                if (page.hasContent() && (current == null || page.getContent().length() > current.length())) {
+                    article.setContent(page.getContent());
+                    articleRepository.save(article);
                     updatedCount++;
+                    logger.info("Обновлен контент статьи: {}", article.getTitle());
                 }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
             } catch (Exception e) {
                 logger.warn("Ошибка при обновлении контента статьи '{}': {}", 
                            article.getTitle(), e.getMessage());
             }
         }
         
+        logger.info("Обновлен контент {} из {} статей", updatedCount, articlesNeedingContent.size());
         return updatedCount;
     }
     
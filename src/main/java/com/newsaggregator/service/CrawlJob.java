@@ -0,0 +1,117 @@
+package com.newsaggregator.service;
+
+import java.time.LocalDateTime;
+
+/**
+ * Фоновая задача парсинга RSS лент, запущенная из админки.
+ *
+ * Задача парсит все активные источники или один источник. Ход выполнения
+ * (обработано источников, добавлено статей, ошибки) читается из отчета
+ * прогона, пока задача выполняется.
+ *
+ * @author News Aggregator Team
+ * @version 1.0
+ * @since 1.0
+ */
+public class CrawlJob {
+
+    public enum Status {
+        QUEUED("В очереди"),
+        RUNNING("Выполняется"),
+        COMPLETED("Завершена"),
+        FAILED("Ошибка");
+
+        private final String displayName;
+
+        Status(String displayName) {
+            this.displayName = displayName;
+        }
+
+        public String getDisplayName() {
+            return displayName;
+        }
+    }
+
+    private final long id;
+    private final Long sourceId;
+    private final String sourceName;
+    private final LocalDateTime submittedAt;
+
+    private volatile Status status = Status.QUEUED;
+    private volatile CrawlReport report;
+    private volatile LocalDateTime finishedAt;
+    private volatile String error;
+
+    /**
+     * @param sourceId источник или null для всех активных источников
+     */
+    CrawlJob(long id, Long sourceId, String sourceName) {
+        this.id = id;
+        this.sourceId = sourceId;
+        this.sourceName = sourceName;
+        this.submittedAt = LocalDateTime.now();
+    }
+
+    void start(CrawlReport report) {
+        this.report = report;
+        this.status = Status.RUNNING;
+    }
+
+    void complete() {
+        this.finishedAt = LocalDateTime.now();
+        this.status = Status.COMPLETED;
+    }
+
+    void fail(String error) {
+        this.error = error;
+        this.finishedAt = LocalDateTime.now();
+        this.status = Status.FAILED;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public Long getSourceId() {
+        return sourceId;
+    }
+
+    public String getSourceName() {
+        return sourceName;
+    }
+
+    public boolean isAllSources() {
+        return sourceId == null;
+    }
+
+    public LocalDateTime getSubmittedAt() {
+        return submittedAt;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    /**
+     * Задача еще не завершена (в очереди или выполняется)
+     */
+    public boolean isActive() {
+        Status current = status;
+        return current == Status.QUEUED || current == Status.RUNNING;
+    }
+
+    /**
+     * Отчет прогона или null, пока задача в очереди
+     */
+    public CrawlReport getReport() {
+        return report;
+    }
+
+    public LocalDateTime getFinishedAt() {
+        return finishedAt;
+    }
+
+    public String getError() {
+        return error;
+    }
+}
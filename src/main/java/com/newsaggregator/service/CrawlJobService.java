@@ -0,0 +1,186 @@
+package com.newsaggregator.service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.newsaggregator.entity.NewsSource;
+import com.newsaggregator.repository.NewsSourceRepository;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Фоновые задачи парсинга RSS лент, запускаемые из админки.
+ *
+ * Запрос админки только ставит задачу в очередь и сразу возвращает ее номер;
+ * парсинг выполняется в пуле потоков crawl-job (app.rss.jobs.threads).
+ * Повторный запуск, пока такая задача еще не завершена, не создает новую задачу:
+ * - "парсить все" возвращает уже запущенную задачу по всем источникам;
+ * - "парсить источник" возвращает задачу по этому источнику или задачу по всем источникам.
+ *
+ * Хранит все незавершенные задачи и последние app.rss.jobs.history завершенных.
+ *
+ * @author News Aggregator Team
+ * @version 1.0
+ * @since 1.0
+ */
+@Service
+public class CrawlJobService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CrawlJobService.class);
+
+    @Autowired
+    private RssParserService rssParserService;
+
+    @Autowired
+    private NewsSourceRepository newsSourceRepository;
+
+    @Value("${app.rss.jobs.threads:2}")
+    private int threads;
+
+    @Value("${app.rss.jobs.history:20}")
+    private int history;
+
+    private final AtomicLong sequence = new AtomicLong();
+
+    // Задачи в порядке запуска; доступ под блокировкой this
+    private final Map<Long, CrawlJob> jobs = new LinkedHashMap<>();
+
+    private ExecutorService executor;
+
+    @PostConstruct
+    void init() {
+        AtomicInteger counter = new AtomicInteger();
+        executor = Executors.newFixedThreadPool(Math.max(1, threads), runnable -> {
+            Thread thread = new Thread(runnable, "crawl-job-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Запускает парсинг всех активных источников
+     */
+    public synchronized Submission submitAll() {
+        for (CrawlJob job : jobs.values()) {
+            if (job.isActive() && job.isAllSources()) {
+                logger.info("Парсинг всех источников уже выполняется в задаче #{}", job.getId());
+                return new Submission(job, true);
+            }
+        }
+        return new Submission(enqueue(new CrawlJob(sequence.incrementAndGet(), null, null)), false);
+    }
+
+    /**
+     * Запускает парсинг одного источника (без проверки автоматического выключателя)
+     */
+    public synchronized Submission submitSource(NewsSource source) {
+        for (CrawlJob job : jobs.values()) {
+            if (job.isActive() && (job.isAllSources() || source.getId().equals(job.getSourceId()))) {
+                logger.info("Источник '{}' уже обрабатывается в задаче #{}", source.getName(), job.getId());
+                return new Submission(job, true);
+            }
+        }
+        return new Submission(enqueue(new CrawlJob(sequence.incrementAndGet(), source.getId(), source.getName())), false);
+    }
+
+    public synchronized CrawlJob getJob(long id) {
+        return jobs.get(id);
+    }
+
+    /**
+     * Задачи, начиная с последней запущенной
+     */
+    public synchronized List<CrawlJob> getJobs() {
+        List<CrawlJob> result = new ArrayList<>(jobs.values());
+        Collections.reverse(result);
+        return result;
+    }
+
+    private CrawlJob enqueue(CrawlJob job) {
+        jobs.put(job.getId(), job);
+        executor.execute(() -> run(job));
+        logger.info("Задача парсинга #{} поставлена в очередь ({})", job.getId(),
+                job.isAllSources() ? "все источники" : job.getSourceName());
+        return job;
+    }
+
+    private void run(CrawlJob job) {
+        CrawlReport report = new CrawlReport();
+        job.start(report);
+        try {
+            if (job.isAllSources()) {
+                rssParserService.parseAllRssFeeds(report);
+            } else {
+                NewsSource source = newsSourceRepository.findById(job.getSourceId())
+                        .orElseThrow(() -> new RuntimeException("Источник не найден"));
+                report.setSourcesTotal(1);
+                rssParserService.parseRssFeedAsync(source, report).join();
+                report.finish();
+            }
+            job.complete();
+            logger.info("Задача парсинга #{} завершена: {}", job.getId(), report);
+        } catch (Exception e) {
+            report.finish();
+            job.fail(e.getMessage());
+            logger.error("Задача парсинга #{} завершилась с ошибкой: {}", job.getId(), e.getMessage(), e);
+        } finally {
+            pruneFinished();
+        }
+    }
+
+    /**
+     * Удаляет самые старые завершенные задачи сверх app.rss.jobs.history
+     */
+    private synchronized void pruneFinished() {
+        long finished = jobs.values().stream().filter(job -> !job.isActive()).count();
+        Iterator<CrawlJob> iterator = jobs.values().iterator();
+        while (finished > history && iterator.hasNext()) {
+            if (!iterator.next().isActive()) {
+                iterator.remove();
+                finished--;
+            }
+        }
+    }
+
+    /**
+     * Результат запуска: задача и признак того, что запрос присоединен к уже идущей задаче
+     */
+    public static class Submission {
+
+        private final CrawlJob job;
+        private final boolean coalesced;
+
+        private Submission(CrawlJob job, boolean coalesced) {
+            this.job = job;
+            this.coalesced = coalesced;
+        }
+
+        public CrawlJob getJob() {
+            return job;
+        }
+
+        public boolean isCoalesced() {
+            return coalesced;
+        }
+    }
+}
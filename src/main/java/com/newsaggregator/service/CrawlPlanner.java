@@ -0,0 +1,138 @@
+package com.newsaggregator.service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.newsaggregator.entity.NewsSource;
+
+/**
+ * Порядок источников в прогоне с ограничением по времени (app.rss.crawl.budget-seconds).
+ *
+ * Ценность источника - ожидаемое число новых статей на секунду загрузки:
+ * - выход: статей на секунду по прошлым опросам ленты (IngestMetrics), со сглаживанием,
+ *   чтобы источники без истории (новые или после перезапуска) опрашивались в числе первых;
+ * - давность: чем дольше источник не опрашивался успешно, тем больше накопилось новых
+ *   записей - множитель растет на 1 за каждые staleness-hours, но не больше max-staleness-factor;
+ * - отсрочка: источник, не поместившийся в бюджет прогона, получает удвоенный приоритет
+ *   в следующем прогоне (до 2^MAX_DEFERRAL_DOUBLINGS), пока снова не будет опрошен.
+ *
+ * Счетчики отсрочек хранятся в памяти узла.
+ *
+ * @author News Aggregator Team
+ * @version 1.0
+ * @since 1.0
+ */
+@Component
+public class CrawlPlanner {
+
+    // Сглаживание выхода: одна статья за секунду до первого опроса
+    private static final double PRIOR_ARTICLES = 1.0;
+    private static final double PRIOR_SECONDS = 1.0;
+
+    private static final int MAX_DEFERRAL_DOUBLINGS = 5;
+
+    @Autowired
+    private IngestMetrics ingestMetrics;
+
+    @Value("${app.rss.crawl.budget.staleness-hours:6}")
+    private double stalenessHours;
+
+    @Value("${app.rss.crawl.budget.max-staleness-factor:5}")
+    private double maxStalenessFactor;
+
+    @Value("${app.rss.crawl.budget.default-source-seconds:5}")
+    private long defaultSourceSeconds;
+
+    // Сколько прогонов подряд источник откладывался
+    private final Map<Long, Integer> deferrals = new ConcurrentHashMap<>();
+
+    public CrawlPlanner() {
+    }
+
+    CrawlPlanner(IngestMetrics ingestMetrics, double stalenessHours, double maxStalenessFactor, long defaultSourceSeconds) {
+        this.ingestMetrics = ingestMetrics;
+        this.stalenessHours = stalenessHours;
+        this.maxStalenessFactor = maxStalenessFactor;
+        this.defaultSourceSeconds = defaultSourceSeconds;
+    }
+
+    /**
+     * Упорядочивает источники по убыванию ценности
+     */
+    public List<NewsSource> prioritize(List<NewsSource> sources, LocalDateTime now) {
+        Map<Long, Double> values = new HashMap<>();
+        for (NewsSource source : sources) {
+            values.put(source.getId(), expectedValue(source, now));
+        }
+        List<NewsSource> result = new ArrayList<>(sources);
+        result.sort(Comparator.comparing((NewsSource source) -> values.get(source.getId())).reversed());
+        return result;
+    }
+
+    /**
+     * Ценность опроса источника (больше - раньше)
+     */
+    public double expectedValue(NewsSource source, LocalDateTime now) {
+        double value = addedPerSecond(source);
+
+        LocalDateTime lastSuccess = source.getLastUpdated();
+        double staleness = lastSuccess == null
+                ? maxStalenessFactor
+                : 1 + Math.max(0, Duration.between(lastSuccess, now).getSeconds()) / 3600.0 / stalenessHours;
+        value *= Math.min(staleness, maxStalenessFactor);
+
+        int deferred = Math.min(getDeferrals(source.getId()), MAX_DEFERRAL_DOUBLINGS);
+        return value * (1 << deferred);
+    }
+
+    /**
+     * Новых статей на секунду загрузки по прошлым опросам ленты (со сглаживанием)
+     */
+    double addedPerSecond(NewsSource source) {
+        IngestMetrics.SourceStats stats = ingestMetrics.getSourceStats(source.getId());
+        if (stats == null) {
+            return PRIOR_ARTICLES / PRIOR_SECONDS;
+        }
+        return (stats.getPollAdded() + PRIOR_ARTICLES) / (stats.getPollDurationMs() / 1000.0 + PRIOR_SECONDS);
+    }
+
+    /**
+     * Ожидаемая длительность опроса источника: среднее по прошлым опросам
+     * или default-source-seconds, если источник еще не опрашивался
+     */
+    public long expectedDurationMillis(NewsSource source) {
+        IngestMetrics.SourceStats stats = ingestMetrics.getSourceStats(source.getId());
+        if (stats == null || stats.getPollRuns() == 0) {
+            return defaultSourceSeconds * 1000;
+        }
+        return stats.getPollDurationMs() / stats.getPollRuns();
+    }
+
+    /**
+     * Источник не поместился в бюджет прогона: в следующем прогоне его приоритет выше
+     */
+    public void deferred(NewsSource source) {
+        deferrals.merge(source.getId(), 1, Integer::sum);
+    }
+
+    /**
+     * Источник взят в работу: отсрочки сбрасываются
+     */
+    public void started(NewsSource source) {
+        deferrals.remove(source.getId());
+    }
+
+    public int getDeferrals(Long sourceId) {
+        return deferrals.getOrDefault(sourceId, 0);
+    }
+}
@@ -0,0 +1,155 @@
+package com.newsaggregator.service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.newsaggregator.entity.NewsSource;
+
+/**
+ * Сводный отчет о прогоне парсинга RSS лент.
+ *
+ * Собирает агрегированную статистику по всем обработанным источникам:
+ * длительность прогона, количество успешных и неудачных источников,
+ * количество добавленных статей, источники, отложенные до следующего прогона
+ * из-за ограничения по времени. Потокобезопасен - источники
+ * обрабатываются параллельно и пишут в один отчет.
+ *
+ * @author News Aggregator Team
+ * @version 1.0
+ * @since 1.0
+ */
+public class CrawlReport {
+
+    private final LocalDateTime startedAt;
+    private volatile LocalDateTime finishedAt;
+    private volatile int sourcesTotal;
+
+    private final AtomicInteger sourcesOk = new AtomicInteger();
+    private final AtomicInteger sourcesFailed = new AtomicInteger();
+    private final AtomicInteger sourcesSkipped = new AtomicInteger();
+    private final AtomicInteger sourcesDeferred = new AtomicInteger();
+    private final AtomicInteger articlesAdded = new AtomicInteger();
+    private final ConcurrentLinkedQueue<String> failedSources = new ConcurrentLinkedQueue<>();
+    private final ConcurrentLinkedQueue<String> deferredSources = new ConcurrentLinkedQueue<>();
+
+    public CrawlReport() {
+        this.startedAt = LocalDateTime.now();
+    }
+
+    /**
+     * Фиксирует успешную обработку источника.
+     */
+    public void recordSuccess(NewsSource source, int addedArticles) {
+        sourcesOk.incrementAndGet();
+        articlesAdded.addAndGet(addedArticles);
+    }
+
+    /**
+     * Фиксирует ошибку при обработке источника.
+     */
+    public void recordFailure(NewsSource source, String errorMessage) {
+        sourcesFailed.incrementAndGet();
+        failedSources.add(source.getName() + ": " + errorMessage);
+    }
+
+    /**
+     * Фиксирует пропуск источника, приостановленного автоматическим выключателем.
+     */
+    public void recordSkipped(NewsSource source) {
+        sourcesSkipped.incrementAndGet();
+    }
+
+    /**
+     * Фиксирует источник, отложенный до следующего прогона: не уложился в бюджет времени.
+     */
+    public void recordDeferred(NewsSource source) {
+        sourcesDeferred.incrementAndGet();
+        deferredSources.add(source.getName());
+    }
+
+    /**
+     * Отмечает завершение прогона.
+     */
+    public void finish() {
+        this.finishedAt = LocalDateTime.now();
+    }
+
+    public LocalDateTime getStartedAt() {
+        return startedAt;
+    }
+
+    public LocalDateTime getFinishedAt() {
+        return finishedAt;
+    }
+
+    public int getSourcesTotal() {
+        return sourcesTotal;
+    }
+
+    public void setSourcesTotal(int sourcesTotal) {
+        this.sourcesTotal = sourcesTotal;
+    }
+
+    public int getSourcesOk() {
+        return sourcesOk.get();
+    }
+
+    public int getSourcesFailed() {
+        return sourcesFailed.get();
+    }
+
+    public int getSourcesSkipped() {
+        return sourcesSkipped.get();
+    }
+
+    public int getSourcesDeferred() {
+        return sourcesDeferred.get();
+    }
+
+    /**
+     * Количество обработанных источников: успешных, неудачных, пропущенных и отложенных.
+     */
+    public int getSourcesDone() {
+        return sourcesOk.get() + sourcesFailed.get() + sourcesSkipped.get() + sourcesDeferred.get();
+    }
+
+    public int getArticlesAdded() {
+        return articlesAdded.get();
+    }
+
+    public List<String> getFailedSources() {
+        return new ArrayList<>(failedSources);
+    }
+
+    /**
+     * Названия отложенных источников в порядке убывания приоритета.
+     */
+    public List<String> getDeferredSources() {
+        return new ArrayList<>(deferredSources);
+    }
+
+    /**
+     * Длительность прогона в миллисекундах (до текущего момента, если прогон еще идет).
+     */
+    public long getDurationMillis() {
+        LocalDateTime end = finishedAt != null ? finishedAt : LocalDateTime.now();
+        return Duration.between(startedAt, end).toMillis();
+    }
+
+    @Override
+    public String toString() {
+        return "CrawlReport{" +
+                "durationMs=" + getDurationMillis() +
+                ", sourcesTotal=" + sourcesTotal +
+                ", sourcesOk=" + sourcesOk.get() +
+                ", sourcesFailed=" + sourcesFailed.get() +
+                ", sourcesSkipped=" + sourcesSkipped.get() +
+                ", sourcesDeferred=" + sourcesDeferred.get() +
+                ", articlesAdded=" + articlesAdded.get() +
+                '}';
+    }
+}
@@ -0,0 +1,375 @@
+package com.newsaggregator.service;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.StringJoiner;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Общий HTTP клиент для всех исходящих запросов краулера (RSS ленты, страницы статей,
+ * запросы подписки к WebSub хабам).
+ *
+ * Один экземпляр java.net.http.HttpClient на все приложение: соединения
+ * переиспользуются (keep-alive), с серверами, которые это поддерживают,
+ * используется HTTP/2 с мультиплексированием запросов к одному хосту,
+ * поэтому TLS рукопожатия выполняются один раз на хост, а не на каждый запрос.
+ *
+ * Запрашивается сжатая передача (gzip, deflate), тело распаковывается здесь.
+ * Brotli не запрашивается - в JDK нет его декодера.
+ *
+ * Таймаут запроса HttpClient ограничивает только ожидание заголовков ответа,
+ * поэтому чтение тела контролирует отдельный сторожевой поток: тело закрывается,
+ * если чтение ждет данных дольше app.rss.read-timeout или все тело не получено
+ * за app.rss.body-timeout. Чтение такого тела завершается HttpTimeoutException.
+ *
+ * @author News Aggregator Team
+ * @version 1.0
+ * @since 1.0
+ */
+@Component
+public class CrawlerHttpClient {
+
+    private static final Logger logger = LoggerFactory.getLogger(CrawlerHttpClient.class);
+
+    @Value("${app.rss.connection-timeout:10000}")
+    private long connectionTimeoutMs;
+
+    @Value("${app.rss.read-timeout:30000}")
+    private long readTimeoutMs;
+
+    @Value("${app.rss.body-timeout:120000}")
+    private long bodyTimeoutMs;
+
+    @Value("${app.rss.user-agent:Mozilla/5.0 (compatible; NewsAggregator/1.0)}")
+    private String userAgent;
+
+    private HttpClient client;
+
+    // Тела ответов, которые еще читаются (проверяются сторожевым потоком)
+    private final Set<TimedInputStream> openBodies = ConcurrentHashMap.newKeySet();
+    private ScheduledExecutorService watchdog;
+
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong wireBytes = new AtomicLong();
+    private final AtomicLong decodedBytes = new AtomicLong();
+
+    @PostConstruct
+    void init() {
+        client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .connectTimeout(Duration.ofMillis(connectionTimeoutMs))
+                .build();
+
+        long periodMs = Math.max(50, Math.min(1000, Math.min(readTimeoutMs, bodyTimeoutMs) / 4));
+        watchdog = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "crawler-http-watchdog");
+            thread.setDaemon(true);
+            return thread;
+        });
+        watchdog.scheduleWithFixedDelay(this::closeStalledBodies, periodMs, periodMs, TimeUnit.MILLISECONDS);
+        logger.info("HTTP клиент краулера: HTTP/2, таймаут соединения {} мс, чтения {} мс, тела ответа {} мс",
+                   connectionTimeoutMs, readTimeoutMs, bodyTimeoutMs);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (watchdog != null) {
+            watchdog.shutdownNow();
+        }
+    }
+
+    /**
+     * Закрывает тела ответов, чтение которых остановилось или не уложилось в app.rss.body-timeout
+     */
+    void closeStalledBodies() {
+        long now = System.nanoTime();
+        for (TimedInputStream body : openBodies) {
+            try {
+                body.expireIfStalled(now);
+            } catch (Exception e) {
+                logger.debug("Не удалось закрыть тело ответа {}: {}", body.url, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Выполняет GET запрос и возвращает ответ с непрочитанным телом.
+     * Вызывающий код читает тело потоком и обязан закрыть ответ.
+     *
+     * @param url адрес
+     * @param headers дополнительные заголовки запроса (например, условные If-None-Match)
+     * @throws IOException при сетевой ошибке или таймауте
+     */
+    public HttpFetchResult open(String url, Map<String, String> headers) throws IOException {
+        HttpRequest.Builder request = newRequest(url).GET();
+        headers.forEach(request::header);
+        return execute(request, url);
+    }
+
+    /**
+     * Отправляет POST запрос с телом application/x-www-form-urlencoded
+     * и читает тело ответа целиком (например, запрос подписки к WebSub хабу).
+     *
+     * @param url адрес
+     * @param form поля формы
+     * @throws IOException при сетевой ошибке или таймауте
+     */
+    public HttpFetchResult postForm(String url, Map<String, String> form) throws IOException {
+        StringJoiner body = new StringJoiner("&");
+        form.forEach((name, value) -> body.add(URLEncoder.encode(name, StandardCharsets.UTF_8)
+                + "=" + URLEncoder.encode(value, StandardCharsets.UTF_8)));
+
+        HttpRequest.Builder request = newRequest(url)
+                .header("Content-Type", "application/x-www-form-urlencoded")
+                .POST(HttpRequest.BodyPublishers.ofString(body.toString()));
+        HttpFetchResult result = execute(request, url);
+        result.readBody();
+        return result;
+    }
+
+    private HttpRequest.Builder newRequest(String url) throws IOException {
+        return HttpRequest.newBuilder(toUri(url))
+                .timeout(Duration.ofMillis(readTimeoutMs))
+                .header("User-Agent", userAgent)
+                .header("Accept-Encoding", "gzip, deflate");
+    }
+
+    private HttpFetchResult execute(HttpRequest.Builder request, String url) throws IOException {
+        HttpResponse<InputStream> response;
+        try {
+            response = client.send(request.build(), HttpResponse.BodyHandlers.ofInputStream());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Запрос прерван: " + url);
+        }
+        requests.incrementAndGet();
+
+        CountingInputStream wire = new CountingInputStream(new TimedInputStream(response.body(), url), wireBytes);
+        // У ответов 204 и 304 нет тела, распаковывать нечего
+        boolean hasBody = response.statusCode() != 204 && response.statusCode() != 304;
+        String contentEncoding = hasBody ? response.headers().firstValue("Content-Encoding").orElse(null) : null;
+        InputStream decoded;
+        try {
+            decoded = new CountingInputStream(decode(wire, contentEncoding), decodedBytes);
+        } catch (IOException e) {
+            wire.close();
+            throw e;
+        }
+        return new HttpFetchResult(response.uri(), response.statusCode(), response.headers(), decoded, wire::getCount);
+    }
+
+    /**
+     * Выполняет GET запрос и читает распакованное тело ответа целиком.
+     *
+     * @param url адрес
+     * @param headers дополнительные заголовки запроса (например, условные If-None-Match)
+     * @throws IOException при сетевой ошибке или таймауте
+     */
+    public HttpFetchResult get(String url, Map<String, String> headers) throws IOException {
+        HttpFetchResult result = open(url, headers);
+        result.readBody();
+        return result;
+    }
+
+    /**
+     * Выполняет GET запрос без дополнительных заголовков
+     */
+    public HttpFetchResult get(String url) throws IOException {
+        return get(url, Map.of());
+    }
+
+    public String getUserAgent() {
+        return userAgent;
+    }
+
+    public long getRequestCount() {
+        return requests.get();
+    }
+
+    /**
+     * Байт получено по сети (сжатых)
+     */
+    public long getWireBytes() {
+        return wireBytes.get();
+    }
+
+    /**
+     * Байт после распаковки
+     */
+    public long getDecodedBytes() {
+        return decodedBytes.get();
+    }
+
+    private URI toUri(String url) throws IOException {
+        try {
+            return URI.create(url.trim());
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Некорректный URL: " + url, e);
+        }
+    }
+
+    private InputStream decode(InputStream in, String contentEncoding) throws IOException {
+        if (contentEncoding == null) {
+            return in;
+        }
+        switch (contentEncoding.trim().toLowerCase(Locale.ROOT)) {
+            case "gzip":
+            case "x-gzip":
+                return new GZIPInputStream(in);
+            case "deflate":
+                return new InflaterInputStream(in);
+            default:
+                return in;
+        }
+    }
+
+    /**
+     * Тело ответа под контролем сторожевого потока: если чтение ждет данных дольше
+     * readTimeoutMs или тело читается дольше bodyTimeoutMs, поток закрывается,
+     * а заблокированное чтение завершается HttpTimeoutException
+     */
+    private class TimedInputStream extends FilterInputStream {
+
+        private final String url;
+        private final long deadlineNanos;
+        // Начало текущего чтения или 0, если поток сейчас не читается
+        private volatile long readStartedNanos;
+        private volatile String timeout;
+
+        private TimedInputStream(InputStream in, String url) {
+            super(in);
+            this.url = url;
+            this.deadlineNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(bodyTimeoutMs);
+            openBodies.add(this);
+        }
+
+        @Override
+        public int read() throws IOException {
+            beginRead();
+            try {
+                return endRead(super.read());
+            } catch (IOException e) {
+                checkTimeout();
+                throw e;
+            } finally {
+                readStartedNanos = 0;
+            }
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            beginRead();
+            try {
+                return endRead(super.read(buffer, offset, length));
+            } catch (IOException e) {
+                checkTimeout();
+                throw e;
+            } finally {
+                readStartedNanos = 0;
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            openBodies.remove(this);
+            super.close();
+        }
+
+        private void beginRead() throws HttpTimeoutException {
+            checkTimeout();
+            readStartedNanos = System.nanoTime();
+        }
+
+        private int endRead(int result) throws HttpTimeoutException {
+            checkTimeout(); // Закрытый сторожем поток может вернуть конец данных
+            if (result < 0) {
+                openBodies.remove(this);
+            }
+            return result;
+        }
+
+        private void checkTimeout() throws HttpTimeoutException {
+            if (timeout != null) {
+                throw new HttpTimeoutException(timeout + ": " + url);
+            }
+        }
+
+        private void expireIfStalled(long now) throws IOException {
+            long readStarted = readStartedNanos;
+            if (readStarted != 0 && now - readStarted > TimeUnit.MILLISECONDS.toNanos(readTimeoutMs)) {
+                timeout = "Нет данных ответа дольше " + readTimeoutMs + " мс";
+            } else if (now - deadlineNanos > 0) {
+                timeout = "Тело ответа не получено за " + bodyTimeoutMs + " мс";
+            } else {
+                return;
+            }
+            close();
+        }
+    }
+
+    /**
+     * Поток, подсчитывающий прочитанные байты (свои и общие для клиента)
+     */
+    private static class CountingInputStream extends FilterInputStream {
+
+        private final AtomicLong total;
+        private long count;
+
+        private CountingInputStream(InputStream in, AtomicLong total) {
+            super(in);
+            this.total = total;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                count++;
+                total.incrementAndGet();
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int n = super.read(buffer, offset, length);
+            if (n > 0) {
+                count += n;
+                total.addAndGet(n);
+            }
+            return n;
+        }
+
+        private long getCount() {
+            return count;
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.newsaggregator.service;
+
+import java.time.LocalDateTime;
+
+/**
+ * Результат однократной загрузки и разбора страницы статьи.
+ *
+ * Содержит все данные, которые извлекаются из одного HTML документа:
+ * полный текст статьи, главное изображение и метаданные страницы
+ * (og:title, канонический URL, время публикации).
+ *
+ * @author News Aggregator Team
+ * @version 1.0
+ * @since 1.0
+ */
+public class ExtractedPage {
+
+    private final String url;
+    private String content;
+    private String imageUrl;
+    private String title;
+    private String canonicalUrl;
+    private LocalDateTime publishedAt;
+
+    public ExtractedPage(String url) {
+        this.url = url;
+    }
+
+    public boolean hasContent() {
+        return content != null && !content.trim().isEmpty();
+    }
+
+    public String getUrl() {
+        return url;
+    }
+
+    public String getContent() {
+        return content;
+    }
+
+    public void setContent(String content) {
+        this.content = content;
+    }
+
+    public String getImageUrl() {
+        return imageUrl;
+    }
+
+    public void setImageUrl(String imageUrl) {
+        this.imageUrl = imageUrl;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public void setTitle(String title) {
+        this.title = title;
+    }
+
+    public String getCanonicalUrl() {
+        return canonicalUrl;
+    }
+
+    public void setCanonicalUrl(String canonicalUrl) {
+        this.canonicalUrl = canonicalUrl;
+    }
+
+    public LocalDateTime getPublishedAt() {
+        return publishedAt;
+    }
+
+    public void setPublishedAt(LocalDateTime publishedAt) {
+        this.publishedAt = publishedAt;
+    }
+
+    @Override
+    public String toString() {
+        return "ExtractedPage{" +
+                "url='" + url + '\'' +
+                ", contentLength=" + (content != null ? content.length() : 0) +
+                ", imageUrl='" + imageUrl + '\'' +
+                ", canonicalUrl='" + canonicalUrl + '\'' +
+                '}';
+    }
+}
@@ -0,0 +1,280 @@
+package com.newsaggregator.service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Определяет, для каких источников загрузка страниц статей не нужна.
+ *
+ * Многие ленты передают полный текст статьи (content:encoded). Для каждой
+ * загруженной страницы текст записи ленты сравнивается с извлеченным текстом
+ * страницы: покрытие - доля слов страницы, которые есть в тексте ленты.
+ * По последним sample-size сравнениям источник получает режим:
+ * - LEARNING: сравнений еще недостаточно, страницы загружаются
+ * - FULL_FEED: не меньше min-complete-ratio записей полные - страницы не загружаются,
+ *   статья собирается из ленты; каждая recheck-every запись загружается для проверки
+ * - PAGE_FETCH: лента передает только анонсы - страницы загружаются всегда
+ *
+ * Запись считается полной, если покрытие не ниже min-coverage и лента дает
+ * изображение, когда оно есть на странице. В режиме PAGE_FETCH каждая загруженная
+ * страница - бесплатное сравнение, поэтому источник, начавший передавать полный
+ * текст, переходит в FULL_FEED без дополнительных загрузок.
+ *
+ * Состояние хранится в памяти узла и после перезапуска набирается заново.
+ *
+ * @author News Aggregator Team
+ * @version 1.0
+ * @since 1.0
+ */
+@Component
+public class FeedCompletenessDetector {
+
+    // Страница короче этого числа слов не сравнивается - извлечение текста не удалось
+    private static final int MIN_WORDS = 30;
+
+    public enum Mode {
+        LEARNING("Обучение"),
+        FULL_FEED("Полный текст в ленте"),
+        PAGE_FETCH("Загрузка страниц");
+
+        private final String displayName;
+
+        Mode(String displayName) {
+            this.displayName = displayName;
+        }
+
+        public String getDisplayName() {
+            return displayName;
+        }
+    }
+
+    @Value("${app.rss.completeness.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.rss.completeness.sample-size:5}")
+    private int sampleSize;
+
+    @Value("${app.rss.completeness.min-coverage:0.85}")
+    private double minCoverage;
+
+    @Value("${app.rss.completeness.min-complete-ratio:0.8}")
+    private double minCompleteRatio;
+
+    @Value("${app.rss.completeness.recheck-every:20}")
+    private int recheckEvery;
+
+    private final Map<Long, SourceCompleteness> sources = new ConcurrentHashMap<>();
+
+    public FeedCompletenessDetector() {
+    }
+
+    FeedCompletenessDetector(int sampleSize, double minCoverage, double minCompleteRatio, int recheckEvery) {
+        this.enabled = true;
+        this.sampleSize = sampleSize;
+        this.minCoverage = minCoverage;
+        this.minCompleteRatio = minCompleteRatio;
+        this.recheckEvery = recheckEvery;
+    }
+
+    /**
+     * Решает, загружать ли страницу очередной записи источника.
+     * Пропущенная загрузка учитывается в экономии источника.
+     */
+    public boolean shouldFetchPage(Long sourceId) {
+        if (!enabled || sourceId == null) {
+            return true;
+        }
+        return state(sourceId).shouldFetch(recheckEvery);
+    }
+
+    /**
+     * Учитывает сравнение записи ленты с загруженной страницей
+     *
+     * @param feedText текст записи ленты (самый длинный из content и description)
+     * @param feedHasImage лента дает изображение статьи
+     * @param page извлеченная страница или null, если разбор не удался
+     * @param pageBytes байт страницы, полученных по сети
+     */
+    public void recordSample(Long sourceId, String feedText, boolean feedHasImage, ExtractedPage page, long pageBytes) {
+        if (!enabled || sourceId == null) {
+            return;
+        }
+        double coverage = coverage(feedText, page != null ? page.getContent() : null);
+        if (Double.isNaN(coverage)) {
+            return;
+        }
+        boolean imageMissing = !feedHasImage && page != null && page.getImageUrl() != null;
+        boolean complete = coverage >= minCoverage && !imageMissing;
+        state(sourceId).addSample(coverage, complete, pageBytes, sampleSize, minCompleteRatio);
+    }
+
+    /**
+     * Состояние источника или null, если по нему еще не было записей
+     */
+    public SourceCompleteness getSourceCompleteness(Long sourceId) {
+        return sources.get(sourceId);
+    }
+
+    /**
+     * Покрытие текста страницы текстом ленты: доля различных слов страницы,
+     * которые встречаются в тексте ленты.
+     *
+     * @return значение 0..1 или NaN, если сравнивать не с чем
+     */
+    static double coverage(String feedText, String pageText) {
+        Set<String> pageWords = words(pageText);
+        Set<String> feedWords = words(feedText);
+        if (pageWords.size() < MIN_WORDS) {
+            // Текст страницы не извлечен: полная лента заведомо не хуже
+            return feedWords.size() >= MIN_WORDS ? 1.0 : Double.NaN;
+        }
+        int found = 0;
+        for (String word : pageWords) {
+            if (feedWords.contains(word)) {
+                found++;
+            }
+        }
+        return (double) found / pageWords.size();
+    }
+
+    /**
+     * Различные слова текста в нижнем регистре (буквы и цифры, от 3 символов)
+     */
+    private static Set<String> words(String text) {
+        Set<String> words = new HashSet<>();
+        if (text == null) {
+            return words;
+        }
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            boolean letter = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+            if (letter && start < 0) {
+                start = i;
+            } else if (!letter && start >= 0) {
+                if (i - start >= 3) {
+                    words.add(text.substring(start, i).toLowerCase(Locale.ROOT));
+                }
+                start = -1;
+            }
+        }
+        return words;
+    }
+
+    private SourceCompleteness state(Long sourceId) {
+        return sources.computeIfAbsent(sourceId, SourceCompleteness::new);
+    }
+
+    /**
+     * Режим и экономия одного источника
+     */
+    public static class SourceCompleteness {
+
+        private final Long sourceId;
+        private final Deque<Boolean> window = new ArrayDeque<>();
+        private Mode mode = Mode.LEARNING;
+        private LocalDateTime decidedAt;
+        private double lastCoverage = Double.NaN;
+        private long samples;
+        private long pageBytesSampled;
+        private long skippedSinceCheck;
+        private long pagesSkipped;
+
+        private SourceCompleteness(Long sourceId) {
+            this.sourceId = sourceId;
+        }
+
+        private synchronized boolean shouldFetch(int recheckEvery) {
+            if (mode != Mode.FULL_FEED || skippedSinceCheck + 1 >= Math.max(1, recheckEvery)) {
+                skippedSinceCheck = 0;
+                return true;
+            }
+            skippedSinceCheck++;
+            pagesSkipped++;
+            return false;
+        }
+
+        private synchronized void addSample(double coverage, boolean complete, long pageBytes,
+                                            int sampleSize, double minCompleteRatio) {
+            lastCoverage = coverage;
+            samples++;
+            pageBytesSampled += Math.max(0, pageBytes);
+            window.addLast(complete);
+            while (window.size() > Math.max(1, sampleSize)) {
+                window.removeFirst();
+            }
+            if (window.size() < Math.max(1, sampleSize)) {
+                return;
+            }
+            long completeCount = window.stream().filter(Boolean::booleanValue).count();
+            Mode decided = completeCount >= Math.ceil(minCompleteRatio * window.size()) ? Mode.FULL_FEED : Mode.PAGE_FETCH;
+            if (decided != mode) {
+                mode = decided;
+                decidedAt = LocalDateTime.now();
+                skippedSinceCheck = 0;
+            }
+        }
+
+        public Long getSourceId() {
+            return sourceId;
+        }
+
+        public synchronized Mode getMode() {
+            return mode;
+        }
+
+        /**
+         * Время последней смены режима или null, пока источник в LEARNING
+         */
+        public synchronized LocalDateTime getDecidedAt() {
+            return decidedAt;
+        }
+
+        /**
+         * Покрытие последней сравненной записи или NaN
+         */
+        public synchronized double getLastCoverage() {
+            return lastCoverage;
+        }
+
+        public synchronized long getSamples() {
+            return samples;
+        }
+
+        /**
+         * Доля полных записей среди последних сравнений
+         */
+        public synchronized double getCompleteRatio() {
+            if (window.isEmpty()) {
+                return 0;
+            }
+            return (double) window.stream().filter(Boolean::booleanValue).count() / window.size();
+        }
+
+        public synchronized long getPagesSkipped() {
+            return pagesSkipped;
+        }
+
+        /**
+         * Средний размер загруженной страницы источника (байт по сети)
+         */
+        public synchronized long getAveragePageBytes() {
+            return samples > 0 ? pageBytesSampled / samples : 0;
+        }
+
+        /**
+         * Оценка сэкономленного трафика: пропущенные страницы по среднему размеру
+         */
+        public synchronized long getBytesSaved() {
+            return pagesSkipped * getAveragePageBytes();
+        }
+    }
+}
@@ -0,0 +1,280 @@
+package com.newsaggregator.service;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import com.newsaggregator.entity.NewsSource;
+import com.rometools.rome.feed.synd.SyndEntry;
+
+/**
+ * Курсор ленты источника: дата самой новой обработанной записи и ключи
+ * (guid или ссылки) последних записей.
+ *
+ * Записи ленты, упорядоченной по дате, просматриваются от новых к старым
+ * до первой записи старше отметки - дальше идут записи, обработанные прошлыми
+ * опросами, и их не нужно проверять на дубликаты. Записи с известными ключами
+ * отфильтровываются. Отметка не сдвигается дальше записи, обработка которой
+ * завершилась ошибкой, поэтому такая запись будет отобрана снова.
+ * Записи старше maxAge игнорируются.
+ *
+ * Курсор после опроса переносится на текущее состояние источника (mergeInto):
+ * ключи и отметка, записанные за это время другим опросом или WebSub уведомлением,
+ * не теряются.
+ *
+ * @author News Aggregator Team
+ * @version 1.0
+ * @since 1.0
+ */
+public class FeedCursor {
+
+    private static final String KEY_SEPARATOR = "\n";
+
+    private final LocalDateTime highWaterMark;
+    private final Set<String> recentKeys;
+
+    // Заполняются в advance: ключи, добавленные опросом, дата самой старой записи
+    // с ошибкой (отметка не должна ее пройти) и сколько ключей хранить
+    private final Set<String> addedKeys;
+    private final LocalDateTime retryFrom;
+    private final int keyLimit;
+
+    public FeedCursor(LocalDateTime highWaterMark, Set<String> recentKeys) {
+        this(highWaterMark, recentKeys, Set.of(), null, recentKeys.size());
+    }
+
+    private FeedCursor(LocalDateTime highWaterMark, Set<String> recentKeys, Set<String> addedKeys,
+                       LocalDateTime retryFrom, int keyLimit) {
+        this.highWaterMark = highWaterMark;
+        this.recentKeys = recentKeys;
+        this.addedKeys = addedKeys;
+        this.retryFrom = retryFrom;
+        this.keyLimit = keyLimit;
+    }
+
+    /**
+     * Курсор, сохраненный в источнике
+     */
+    public static FeedCursor of(NewsSource source) {
+        Set<String> keys = new LinkedHashSet<>();
+        String stored = source.getRecentEntryKeys();
+        if (stored != null) {
+            for (String key : stored.split(KEY_SEPARATOR)) {
+                if (!key.isBlank()) {
+                    keys.add(key);
+                }
+            }
+        }
+        return new FeedCursor(source.getLastEntryPublishedAt(), keys);
+    }
+
+    /**
+     * Результат отбора записей ленты
+     */
+    public static class Selection {
+
+        private final List<SyndEntry> entries = new ArrayList<>();
+        private int known;
+        private int tooOld;
+        private boolean stoppedAtKnown;
+
+        /**
+         * Записи, которые нужно обработать
+         */
+        public List<SyndEntry> getEntries() {
+            return entries;
+        }
+
+        /**
+         * Количество записей, отброшенных как уже известные (включая непросмотренный остаток ленты)
+         */
+        public int getKnown() {
+            return known;
+        }
+
+        /**
+         * Количество записей старше максимального возраста
+         */
+        public int getTooOld() {
+            return tooOld;
+        }
+
+        /**
+         * true, если просмотр остановлен на первой известной записи
+         */
+        public boolean isStoppedAtKnown() {
+            return stoppedAtKnown;
+        }
+    }
+
+    /**
+     * Отбирает записи, которые еще не встречались в прошлых опросах.
+     *
+     * @param entries записи в порядке ленты
+     * @param minPublishedAt записи, опубликованные раньше, игнорируются (null - без ограничения)
+     */
+    public Selection select(List<SyndEntry> entries, LocalDateTime minPublishedAt) {
+        Selection selection = new Selection();
+        boolean ordered = isDateOrdered(entries);
+
+        for (int i = 0; i < entries.size(); i++) {
+            SyndEntry entry = entries.get(i);
+            if (ordered && isBeforeMark(entry)) {
+                // Дальше только записи, обработанные прошлыми опросами
+                selection.known += entries.size() - i;
+                selection.stoppedAtKnown = true;
+                break;
+            }
+            if (isKnownKey(entry)) {
+                selection.known++;
+                continue;
+            }
+            LocalDateTime published = publishedAt(entry);
+            if (minPublishedAt != null && published != null && published.isBefore(minPublishedAt)) {
+                selection.tooOld++;
+                continue;
+            }
+            selection.entries.add(entry);
+        }
+        return selection;
+    }
+
+    /**
+     * Курсор после опроса без записей с ошибками
+     *
+     * @see #advance(List, List, LocalDateTime, int)
+     */
+    public FeedCursor advance(List<SyndEntry> processedEntries, LocalDateTime now, int keyLimit) {
+        return advance(processedEntries, List.of(), now, keyLimit);
+    }
+
+    /**
+     * Курсор после опроса: ключи обработанных записей добавляются к началу
+     * списка недавних ключей, отметка сдвигается к самой новой дате (но не в будущее
+     * и не дальше самой старой записи с ошибкой, чтобы следующий опрос отобрал ее снова).
+     *
+     * @param processedEntries записи, обработанные опросом (без записей с ошибками)
+     * @param failedEntries записи, обработка которых завершилась ошибкой
+     * @param now текущее время
+     * @param keyLimit сколько последних ключей хранить
+     */
+    public FeedCursor advance(List<SyndEntry> processedEntries, List<SyndEntry> failedEntries,
+                              LocalDateTime now, int keyLimit) {
+        Set<String> keys = new LinkedHashSet<>();
+        LocalDateTime mark = highWaterMark;
+        for (SyndEntry entry : processedEntries) {
+            String key = key(entry);
+            if (key != null && keys.size() < keyLimit) {
+                keys.add(key);
+            }
+            LocalDateTime published = publishedAt(entry);
+            if (published != null && !published.isAfter(now) && (mark == null || published.isAfter(mark))) {
+                mark = published;
+            }
+        }
+        Set<String> added = new LinkedHashSet<>(keys);
+        LocalDateTime oldestFailed = null;
+        for (SyndEntry entry : failedEntries) {
+            LocalDateTime published = publishedAt(entry);
+            if (published != null && (oldestFailed == null || published.isBefore(oldestFailed))) {
+                oldestFailed = published;
+            }
+        }
+        // Запись с датой, равной отметке, не считается просмотренной
+        mark = capAt(mark, oldestFailed);
+        for (String key : recentKeys) {
+            if (keys.size() >= keyLimit) {
+                break;
+            }
+            keys.add(key);
+        }
+        return new FeedCursor(mark, keys, added, oldestFailed, keyLimit);
+    }
+
+    /**
+     * Переносит результат опроса (advance) на текущий курсор источника:
+     * ключи, добавленные опросом, ставятся перед текущими ключами, отметка -
+     * более поздняя из двух, но не дальше записей, обработка которых завершилась ошибкой
+     *
+     * @param current курсор, сохраненный в источнике к концу опроса
+     */
+    public FeedCursor mergeInto(FeedCursor current) {
+        Set<String> keys = new LinkedHashSet<>(addedKeys);
+        for (String key : current.recentKeys) {
+            if (keys.size() >= keyLimit) {
+                break;
+            }
+            keys.add(key);
+        }
+        LocalDateTime mark = highWaterMark;
+        if (current.highWaterMark != null && (mark == null || current.highWaterMark.isAfter(mark))) {
+            mark = current.highWaterMark;
+        }
+        return new FeedCursor(capAt(mark, retryFrom), keys);
+    }
+
+    /**
+     * Записывает курсор в источник
+     */
+    public void applyTo(NewsSource source) {
+        source.setLastEntryPublishedAt(highWaterMark);
+        source.setRecentEntryKeys(recentKeys.isEmpty() ? null : String.join(KEY_SEPARATOR, recentKeys));
+    }
+
+    public LocalDateTime getHighWaterMark() {
+        return highWaterMark;
+    }
+
+    public Set<String> getRecentKeys() {
+        return recentKeys;
+    }
+
+    /**
+     * Ключ записи: guid (id в Atom), а при его отсутствии - ссылка
+     */
+    static String key(SyndEntry entry) {
+        String uri = entry.getUri();
+        return uri != null && !uri.isBlank() ? uri : entry.getLink();
+    }
+
+    private static LocalDateTime capAt(LocalDateTime mark, LocalDateTime limit) {
+        return mark != null && limit != null && mark.isAfter(limit) ? limit : mark;
+    }
+
+    private boolean isKnownKey(SyndEntry entry) {
+        String key = key(entry);
+        return key != null && recentKeys.contains(key);
+    }
+
+    /**
+     * В упорядоченной ленте запись старее отметки уже была просмотрена
+     */
+    private boolean isBeforeMark(SyndEntry entry) {
+        LocalDateTime published = publishedAt(entry);
+        return highWaterMark != null && published != null && published.isBefore(highWaterMark);
+    }
+
+    /**
+     * Лента упорядочена, если у всех записей есть даты и они не возрастают
+     */
+    private boolean isDateOrdered(List<SyndEntry> entries) {
+        Date previous = null;
+        for (SyndEntry entry : entries) {
+            Date published = entry.getPublishedDate();
+            if (published == null || (previous != null && published.after(previous))) {
+                return false;
+            }
+            previous = published;
+        }
+        return !entries.isEmpty();
+    }
+
+    private static LocalDateTime publishedAt(SyndEntry entry) {
+        Date date = entry.getPublishedDate();
+        return date != null ? date.toInstant().atZone(ZoneId.systemDefault()).toLocalDateTime() : null;
+    }
+}
@@ -0,0 +1,398 @@
+package com.newsaggregator.service;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.newsaggregator.util.TokenBucket;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Вежливая загрузка страниц: ограничение частоты запросов к каждому хосту.
+ *
+ * Для каждого хоста ведется ведро токенов (app.rss.politeness.requests-per-second,
+ * всплеск app.rss.politeness.burst). Частота дополнительно ограничивается:
+ * - директивой Crawl-delay из robots.txt хоста (кэшируется на robots-ttl-hours);
+ * - заголовком Retry-After в ответах 429 и 503 - до его истечения запросы к хосту не выполняются;
+ * - долей ошибок: каждый ответ 429/503, 5xx или таймаут вдвое снижает частоту,
+ *   каждый успешный ответ понемногу возвращает ее к исходной.
+ *
+ * tryAcquire() не блокирует поток: если хост еще не готов, возвращается время ожидания,
+ * и задача откладывается (delay()), а поток конвейера тем временем загружает страницы
+ * других хостов. robots.txt тоже загружается в фоне: пока robots.txt хоста загружается
+ * впервые, запросы к хосту откладываются на ROBOTS_WAIT_MS.
+ *
+ * Отложенные задачи продолжаются в пуле getResumeExecutor(), а не в потоке таймера:
+ * продолжение может заблокироваться на заполненном этапе конвейера, и единственный
+ * поток таймера остановил бы все остальные отложенные задачи.
+ *
+ * @author News Aggregator Team
+ * @version 1.0
+ * @since 1.0
+ */
+@Component
+public class HostPolitenessScheduler {
+
+    private static final Logger logger = LoggerFactory.getLogger(HostPolitenessScheduler.class);
+
+    // Пауза после 429/503 без заголовка Retry-After
+    private static final long DEFAULT_BACKOFF_MS = 30_000;
+
+    // Crawl-delay больше этого значения не учитывается полностью
+    private static final double MAX_CRAWL_DELAY_SECONDS = 60;
+
+    // Сколько байт robots.txt читается (больше не разбирает и Google)
+    private static final int MAX_ROBOTS_BYTES = 512 * 1024;
+
+    // Пауза перед повторной попыткой, пока robots.txt хоста загружается впервые
+    private static final long ROBOTS_WAIT_MS = 200;
+
+    @Autowired
+    private CrawlerHttpClient httpClient;
+
+    @Value("${app.rss.politeness.requests-per-second:1.0}")
+    private double requestsPerSecond;
+
+    @Value("${app.rss.politeness.burst:2}")
+    private int burst;
+
+    @Value("${app.rss.politeness.min-rate-factor:0.1}")
+    private double minRateFactor;
+
+    @Value("${app.rss.politeness.max-retry-after-seconds:3600}")
+    private long maxRetryAfterSeconds;
+
+    @Value("${app.rss.politeness.robots-ttl-hours:24}")
+    private long robotsTtlHours;
+
+    @Value("${app.rss.politeness.robots-agent:NewsAggregator}")
+    private String robotsAgent;
+
+    private final Map<String, HostState> hosts = new ConcurrentHashMap<>();
+
+    private ScheduledExecutorService timer;
+
+    // Продолжение отложенных задач и загрузка robots.txt; потоков не больше,
+    // чем одновременно отложенных задач (их число ограничено бюджетом документов конвейера)
+    private ExecutorService resumeExecutor;
+
+    @PostConstruct
+    void init() {
+        timer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "crawler-politeness");
+            thread.setDaemon(true);
+            return thread;
+        });
+        AtomicInteger counter = new AtomicInteger();
+        resumeExecutor = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "crawler-politeness-resume-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    void shutdown() {
+        timer.shutdownNow();
+        resumeExecutor.shutdownNow();
+    }
+
+    /**
+     * Пытается получить разрешение на запрос к хосту URL.
+     * При первом обращении к хосту (и после истечения кэша) запускает фоновую загрузку robots.txt.
+     *
+     * @return 0, если запрос можно выполнять; иначе время ожидания в миллисекундах
+     */
+    public long tryAcquire(String url) {
+        HostState state = state(url);
+        if (state == null) {
+            return 0;
+        }
+        refreshRobots(state, url);
+        if (!state.robotsLoaded) {
+            return ROBOTS_WAIT_MS; // Crawl-delay хоста еще неизвестен
+        }
+
+        long blocked = state.blockedUntil - System.currentTimeMillis();
+        if (blocked > 0) {
+            return blocked;
+        }
+        return state.bucket.tryAcquire();
+    }
+
+    /**
+     * Ждет разрешения на запрос к хосту URL, занимая поток. Для фоновых задач
+     * вне конвейера загрузки, где откладывать запрос через delay() незачем.
+     *
+     * @throws IOException если хост не будет готов в течение maxWaitMillis
+     */
+    public void awaitPermit(String url, long maxWaitMillis) throws IOException, InterruptedException {
+        long deadline = System.currentTimeMillis() + maxWaitMillis;
+        long waitMillis;
+        while ((waitMillis = tryAcquire(url)) > 0) {
+            if (System.currentTimeMillis() + waitMillis > deadline) {
+                throw new IOException("Хост не принимает запросы еще " + waitMillis / 1000 + " с: " + url);
+            }
+            Thread.sleep(waitMillis);
+        }
+    }
+
+    /**
+     * Пул для продолжения отложенных задач (thenComposeAsync после delay())
+     */
+    public Executor getResumeExecutor() {
+        return resumeExecutor;
+    }
+
+    /**
+     * Future, который завершается через заданное время (без занятия потока)
+     */
+    public CompletableFuture<Void> delay(long millis) {
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        timer.schedule(() -> future.complete(null), millis, TimeUnit.MILLISECONDS);
+        return future;
+    }
+
+    /**
+     * Учитывает ответ хоста
+     *
+     * @param url адрес запроса
+     * @param statusCode код ответа
+     * @param retryAfter значение заголовка Retry-After или null
+     */
+    public void onResponse(String url, int statusCode, String retryAfter) {
+        HostState state = state(url);
+        if (state == null) {
+            return;
+        }
+        if (statusCode == 429 || statusCode == 503) {
+            long backoff = parseRetryAfter(retryAfter, Instant.now());
+            long pause = backoff >= 0 ? Math.min(backoff, maxRetryAfterSeconds * 1000) : DEFAULT_BACKOFF_MS;
+            state.blockedUntil = Math.max(state.blockedUntil, System.currentTimeMillis() + pause);
+            slowDown(state);
+            logger.warn("Хост {} ограничивает запросы (HTTP {}), пауза {} с, частота {} запр/с",
+                       state.host, statusCode, pause / 1000, String.format(Locale.ROOT, "%.2f", state.bucket.getRatePerSecond()));
+        } else if (statusCode >= 500) {
+            slowDown(state);
+        } else {
+            speedUp(state);
+        }
+    }
+
+    /**
+     * Учитывает сетевую ошибку или таймаут при запросе к хосту
+     */
+    public void onFailure(String url) {
+        HostState state = state(url);
+        if (state != null) {
+            slowDown(state);
+        }
+    }
+
+    private HostState state(String url) {
+        String host = hostOf(url);
+        return host != null ? hosts.computeIfAbsent(host, HostState::new) : null;
+    }
+
+    private void slowDown(HostState state) {
+        synchronized (state) {
+            state.rateFactor = Math.max(minRateFactor, state.rateFactor / 2);
+            applyRate(state);
+        }
+    }
+
+    private void speedUp(HostState state) {
+        synchronized (state) {
+            if (state.rateFactor < 1) {
+                state.rateFactor = Math.min(1, state.rateFactor + 0.05);
+                applyRate(state);
+            }
+        }
+    }
+
+    private void applyRate(HostState state) {
+        synchronized (state) {
+            double rate = requestsPerSecond * state.rateFactor;
+            double capacity = Math.max(1, burst);
+            if (state.crawlDelaySeconds > 0) {
+                rate = Math.min(rate, 1 / state.crawlDelaySeconds);
+                capacity = 1;
+            }
+            state.bucket.setRate(rate, capacity);
+        }
+    }
+
+    /**
+     * Запускает фоновую загрузку robots.txt хоста, если кэш пуст или устарел.
+     * Пока robots.txt загружается, действуют прежние правила.
+     */
+    private void refreshRobots(HostState state, String url) {
+        if (System.currentTimeMillis() < state.robotsExpiresAt || !state.robotsLoading.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            resumeExecutor.execute(() -> loadRobots(state, url));
+        } catch (RejectedExecutionException e) {
+            state.robotsLoading.set(false);
+        }
+    }
+
+    /**
+     * Загружает robots.txt хоста (не больше MAX_ROBOTS_BYTES) и применяет его Crawl-delay
+     */
+    private void loadRobots(HostState state, String url) {
+        try {
+            URI uri = URI.create(url.trim());
+            String robotsUrl = uri.getScheme() + "://" + uri.getRawAuthority() + "/robots.txt";
+            double crawlDelay = 0;
+            try (HttpFetchResult response = httpClient.open(robotsUrl, Map.of())) {
+                if (response.isSuccessful()) {
+                    byte[] body = response.getBodyStream().readNBytes(MAX_ROBOTS_BYTES);
+                    crawlDelay = parseCrawlDelay(new String(body, StandardCharsets.UTF_8), robotsAgent);
+                }
+            }
+            state.crawlDelaySeconds = Math.min(crawlDelay, MAX_CRAWL_DELAY_SECONDS);
+            applyRate(state);
+            if (crawlDelay > 0) {
+                logger.info("robots.txt хоста {}: Crawl-delay {} с", state.host, crawlDelay);
+            }
+        } catch (IOException | IllegalArgumentException e) {
+            logger.debug("Не удалось загрузить robots.txt хоста {}: {}", state.host, e.getMessage());
+        } finally {
+            state.robotsExpiresAt = System.currentTimeMillis() + TimeUnit.HOURS.toMillis(robotsTtlHours);
+            state.robotsLoaded = true;
+            state.robotsLoading.set(false);
+        }
+    }
+
+    /**
+     * Извлекает Crawl-delay из robots.txt: из группы нашего агента, иначе из группы "*".
+     *
+     * @return задержка в секундах или 0, если она не указана
+     */
+    static double parseCrawlDelay(String robotsTxt, String agent) {
+        String agentToken = agent.toLowerCase(Locale.ROOT);
+        Double specific = null;
+        Double wildcard = null;
+        List<String> groupAgents = new ArrayList<>();
+        boolean readingAgents = false;
+
+        for (String rawLine : robotsTxt.split("\\r?\\n|\\r")) {
+            int comment = rawLine.indexOf('#');
+            String line = (comment >= 0 ? rawLine.substring(0, comment) : rawLine).trim();
+            int colon = line.indexOf(':');
+            if (colon < 0) {
+                continue;
+            }
+            String field = line.substring(0, colon).trim().toLowerCase(Locale.ROOT);
+            String value = line.substring(colon + 1).trim();
+
+            if ("user-agent".equals(field)) {
+                // Несколько строк User-agent подряд образуют одну группу
+                if (!readingAgents) {
+                    groupAgents.clear();
+                }
+                groupAgents.add(value.toLowerCase(Locale.ROOT));
+                readingAgents = true;
+                continue;
+            }
+            readingAgents = false;
+
+            if ("crawl-delay".equals(field)) {
+                double delay;
+                try {
+                    delay = Double.parseDouble(value);
+                } catch (NumberFormatException e) {
+                    continue;
+                }
+                for (String groupAgent : groupAgents) {
+                    if ("*".equals(groupAgent)) {
+                        wildcard = wildcard != null ? wildcard : delay;
+                    } else if (!groupAgent.isEmpty() && agentToken.contains(groupAgent)) {
+                        specific = specific != null ? specific : delay;
+                    }
+                }
+            }
+        }
+        double delay = specific != null ? specific : wildcard != null ? wildcard : 0;
+        return Math.max(0, delay);
+    }
+
+    /**
+     * Разбирает заголовок Retry-After (секунды или HTTP дата).
+     *
+     * @return пауза в миллисекундах или -1, если заголовка нет или он некорректен
+     */
+    static long parseRetryAfter(String retryAfter, Instant now) {
+        if (retryAfter == null || retryAfter.isBlank()) {
+            return -1;
+        }
+        String value = retryAfter.trim();
+        try {
+            return Math.max(0, Long.parseLong(value) * 1000);
+        } catch (NumberFormatException e) {
+            // не число - пробуем дату
+        }
+        try {
+            Instant until = ZonedDateTime.parse(value, DateTimeFormatter.RFC_1123_DATE_TIME).toInstant();
+            return Math.max(0, until.toEpochMilli() - now.toEpochMilli());
+        } catch (DateTimeParseException e) {
+            return -1;
+        }
+    }
+
+    private String hostOf(String url) {
+        try {
+            String host = URI.create(url.trim()).getHost();
+            return host != null ? host.toLowerCase(Locale.ROOT) : null;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Состояние ограничения запросов к одному хосту
+     */
+    private class HostState {
+
+        private final String host;
+        private final TokenBucket bucket;
+        private volatile long blockedUntil;
+        private double rateFactor = 1;
+        private volatile double crawlDelaySeconds;
+        private volatile long robotsExpiresAt;
+        private volatile boolean robotsLoaded;
+        private final AtomicBoolean robotsLoading = new AtomicBoolean();
+
+        private HostState(String host) {
+            this.host = host;
+            this.bucket = new TokenBucket(requestsPerSecond, Math.max(1, burst));
+        }
+    }
+}
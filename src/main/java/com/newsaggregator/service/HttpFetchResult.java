@@ -0,0 +1,124 @@
+package com.newsaggregator.service;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpHeaders;
+import java.util.Locale;
+import java.util.function.LongSupplier;
+
+/**
+ * Ответ на HTTP запрос краулера.
+ *
+ * Тело ответа уже распаковано. Его можно прочитать целиком (getBody)
+ * или потоком (getBodyStream) - при потоковом чтении закрытие ответа
+ * до конца тела прекращает загрузку оставшихся байт.
+ *
+ * @author News Aggregator Team
+ * @version 1.0
+ * @since 1.0
+ */
+public class HttpFetchResult implements Closeable {
+
+    private final URI uri;
+    private final int statusCode;
+    private final HttpHeaders headers;
+    private final InputStream bodyStream;
+    private final LongSupplier wireBytes;
+    private byte[] body;
+
+    public HttpFetchResult(URI uri, int statusCode, HttpHeaders headers, InputStream bodyStream, LongSupplier wireBytes) {
+        this.uri = uri;
+        this.statusCode = statusCode;
+        this.headers = headers;
+        this.bodyStream = bodyStream;
+        this.wireBytes = wireBytes;
+    }
+
+    /**
+     * Итоговый адрес ответа (после перенаправлений)
+     */
+    public URI getUri() {
+        return uri;
+    }
+
+    public int getStatusCode() {
+        return statusCode;
+    }
+
+    public boolean isNotModified() {
+        return statusCode == 304;
+    }
+
+    public boolean isSuccessful() {
+        return statusCode >= 200 && statusCode < 300;
+    }
+
+    /**
+     * Значение заголовка ответа или null, если его нет
+     */
+    public String header(String name) {
+        return headers.firstValue(name).orElse(null);
+    }
+
+    public String getContentType() {
+        return header("Content-Type");
+    }
+
+    /**
+     * Кодировка из заголовка Content-Type или null, если она не указана
+     */
+    public String getCharset() {
+        String contentType = getContentType();
+        if (contentType == null) {
+            return null;
+        }
+        for (String part : contentType.split(";")) {
+            String trimmed = part.trim();
+            if (trimmed.toLowerCase(Locale.ROOT).startsWith("charset=")) {
+                String charset = trimmed.substring("charset=".length()).replace("\"", "").trim();
+                return charset.isEmpty() ? null : charset;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Поток распакованного тела ответа
+     */
+    public InputStream getBodyStream() {
+        return bodyStream;
+    }
+
+    /**
+     * Читает тело ответа целиком (один раз) и закрывает поток
+     */
+    public byte[] readBody() throws IOException {
+        if (body == null) {
+            try (InputStream in = bodyStream) {
+                body = in.readAllBytes();
+            }
+        }
+        return body;
+    }
+
+    /**
+     * Распакованное тело ответа, если оно уже прочитано через readBody(), иначе null
+     */
+    public byte[] getBody() {
+        return body;
+    }
+
+    /**
+     * Количество байт тела, полученных по сети (до распаковки) на текущий момент
+     */
+    public long getWireBytes() {
+        return wireBytes.getAsLong();
+    }
+
+    @Override
+    public void close() throws IOException {
+        bodyStream.close();
+    }
+}
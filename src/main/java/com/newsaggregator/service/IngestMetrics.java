@@ -0,0 +1,365 @@
+package com.newsaggregator.service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.newsaggregator.entity.NewsSource;
+import com.newsaggregator.util.SingleFlight;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Метрики загрузки новостей (Micrometer) и последние результаты по источникам.
+ *
+ * Метрики:
+ * - ingest.feed.fetch - время загрузки и чтения ленты (outcome: ok, not_modified, error)
+ * - ingest.feed.bytes - байт ленты получено по сети
+ * - ingest.entries - записи лент по результату (seen, new, duplicate, skipped, error)
+ * - ingest.page.fetch / ingest.page.extract - загрузка и извлечение текста страниц по доменам
+ * - ingest.page.skipped - страницы, не загруженные, потому что лента передает полный текст
+ * - ingest.page.cache - обращения к дисковому кэшу страниц (result: hit, revalidated, miss)
+ * - ingest.llm.request / ingest.llm.fallback - запросы к LM Studio и переходы на базовые алгоритмы
+ * - ingest.freshness.lag - задержка от публикации записи до сохранения статьи
+ * - ingest.source.runs - обработка источников (trigger: poll, push; outcome: ok, error)
+ * - ingest.queue.tasks - задачи очереди загрузки по результату (done, retry, dead)
+ * - ingest.coalesced - вызовы, присоединившиеся к уже выполняющейся загрузке (kind: page, source)
+ *
+ * Последние результаты по источникам показывает конечная точка /actuator/ingest.
+ * Без MeterRegistry метрики не пишутся, результаты по источникам собираются всегда.
+ *
+ * @author News Aggregator Team
+ * @version 1.0
+ * @since 1.0
+ */
+@Component
+public class IngestMetrics {
+
+    // Ограничение числа значений тега domain; остальные домены учитываются как "other"
+    private static final int MAX_DOMAIN_TAGS = 500;
+
+    @Autowired(required = false)
+    private MeterRegistry meterRegistry;
+
+    private final Set<String> domainTags = ConcurrentHashMap.newKeySet();
+    private final Map<Long, SourceStats> sources = new ConcurrentHashMap<>();
+
+    /**
+     * Загрузка ленты
+     *
+     * @param outcome ok, not_modified или error
+     * @param wireBytes байт получено по сети
+     */
+    public void recordFeedFetch(long nanos, String outcome, long wireBytes) {
+        if (meterRegistry == null) {
+            return;
+        }
+        meterRegistry.timer("ingest.feed.fetch", "outcome", outcome).record(nanos, TimeUnit.NANOSECONDS);
+        if (wireBytes > 0) {
+            DistributionSummary.builder("ingest.feed.bytes")
+                    .baseUnit("bytes")
+                    .register(meterRegistry)
+                    .record(wireBytes);
+        }
+    }
+
+    /**
+     * Загрузка страницы статьи
+     */
+    public void recordPageFetch(String domain, long nanos, boolean success) {
+        if (meterRegistry != null) {
+            meterRegistry.timer("ingest.page.fetch", "domain", domainTag(domain), "outcome", success ? "ok" : "error")
+                    .record(nanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Страница не загружена: статья собрана из полного текста ленты
+     */
+    public void recordPageSkipped() {
+        if (meterRegistry != null) {
+            meterRegistry.counter("ingest.page.skipped").increment();
+        }
+    }
+
+    /**
+     * Обращение к дисковому кэшу страниц (PageCache)
+     *
+     * @param result hit (свежая страница из кэша), revalidated (304 на условный запрос) или miss (страница загружена)
+     */
+    public void recordPageCache(String result) {
+        if (meterRegistry != null) {
+            meterRegistry.counter("ingest.page.cache", "result", result).increment();
+        }
+    }
+
+    /**
+     * Извлечение текста из разобранной страницы
+     */
+    public void recordExtraction(String domain, long nanos) {
+        if (meterRegistry != null) {
+            meterRegistry.timer("ingest.page.extract", "domain", domainTag(domain))
+                    .record(nanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Запрос к LM Studio
+     *
+     * @param operation categorize или summarize
+     */
+    public void recordLlmRequest(String operation, long nanos, boolean success) {
+        if (meterRegistry != null) {
+            meterRegistry.timer("ingest.llm.request", "operation", operation, "outcome", success ? "ok" : "error")
+                    .record(nanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Переход на базовый алгоритм вместо ответа LM Studio
+     *
+     * @param reason error (ошибка запроса) или invalid (ответ отвергнут проверкой качества)
+     */
+    public void recordLlmFallback(String operation, String reason) {
+        if (meterRegistry != null) {
+            meterRegistry.counter("ingest.llm.fallback", "operation", operation, "reason", reason).increment();
+        }
+    }
+
+    /**
+     * Задержка от публикации записи до сохранения статьи
+     */
+    public void recordFreshness(LocalDateTime publishedAt, LocalDateTime ingestedAt) {
+        if (meterRegistry == null || publishedAt == null || ingestedAt == null) {
+            return;
+        }
+        Duration lag = Duration.between(publishedAt, ingestedAt);
+        if (!lag.isNegative()) {
+            Timer.builder("ingest.freshness.lag")
+                    .register(meterRegistry)
+                    .record(lag);
+        }
+    }
+
+    /**
+     * Результат обработки источника (опрос или WebSub уведомление)
+     *
+     * @param trigger poll или push
+     * @param error сообщение об ошибке или null
+     */
+    public void recordSourceRun(NewsSource source, String trigger, long nanos, int seen, int added,
+                                int duplicates, int skipped, int errors, String error) {
+        SourceStats stats = sources.computeIfAbsent(source.getId(), id -> new SourceStats(id));
+        stats.update(source.getName(), trigger, nanos, seen, added, duplicates, skipped, errors, error);
+
+        if (meterRegistry == null) {
+            return;
+        }
+        meterRegistry.timer("ingest.source.runs", "trigger", trigger, "outcome", error == null ? "ok" : "error")
+                .record(nanos, TimeUnit.NANOSECONDS);
+        countEntries("seen", seen);
+        countEntries("new", added);
+        countEntries("duplicate", duplicates);
+        countEntries("skipped", skipped);
+        countEntries("error", errors);
+    }
+
+    /**
+     * Задачи очереди загрузки (IngestQueue)
+     *
+     * @param result done (выполнены), retry (отложены после ошибки) или dead (исчерпали попытки)
+     */
+    public void recordQueueTasks(String result, int count) {
+        if (meterRegistry != null && count > 0) {
+            meterRegistry.counter("ingest.queue.tasks", "result", result).increment(count);
+        }
+    }
+
+    /**
+     * Учет вызовов, объединенных с уже выполняющимися (SingleFlight)
+     *
+     * @param kind page (загрузка страницы) или source (прогон источника)
+     */
+    public void registerCoalesced(String kind, SingleFlight<?, ?> flight) {
+        if (meterRegistry != null) {
+            FunctionCounter.builder("ingest.coalesced", flight, SingleFlight::getCoalesced)
+                    .tag("kind", kind)
+                    .register(meterRegistry);
+        }
+    }
+
+    /**
+     * Последние результаты по источникам в порядке id
+     */
+    public List<SourceStats> getSourceStats() {
+        List<SourceStats> result = new ArrayList<>(sources.values());
+        result.sort(Comparator.comparing(SourceStats::getSourceId));
+        return result;
+    }
+
+    public SourceStats getSourceStats(Long sourceId) {
+        return sources.get(sourceId);
+    }
+
+    private void countEntries(String result, int count) {
+        if (count > 0) {
+            meterRegistry.counter("ingest.entries", "result", result).increment(count);
+        }
+    }
+
+    private String domainTag(String domain) {
+        if (domain == null || domain.isEmpty()) {
+            return "unknown";
+        }
+        if (domainTags.contains(domain) || (domainTags.size() < MAX_DOMAIN_TAGS && domainTags.add(domain))) {
+            return domain;
+        }
+        return "other";
+    }
+
+    /**
+     * Результаты обработки одного источника этим узлом
+     */
+    public static class SourceStats {
+
+        private final Long sourceId;
+        private String name;
+        private LocalDateTime lastRunAt;
+        private String lastTrigger;
+        private long lastDurationMs;
+        private int lastSeen;
+        private int lastAdded;
+        private int lastDuplicates;
+        private int lastSkipped;
+        private int lastErrors;
+        private String lastError;
+        private long runs;
+        private long failedRuns;
+        private long totalSeen;
+        private long totalAdded;
+        // Прогоны с загрузкой ленты (trigger poll): время и добавленные статьи
+        private long pollRuns;
+        private long pollDurationMs;
+        private long pollAdded;
+
+        private SourceStats(Long sourceId) {
+            this.sourceId = sourceId;
+        }
+
+        private synchronized void update(String name, String trigger, long nanos, int seen, int added,
+                                         int duplicates, int skipped, int errors, String error) {
+            this.name = name;
+            this.lastRunAt = LocalDateTime.now();
+            this.lastTrigger = trigger;
+            this.lastDurationMs = TimeUnit.NANOSECONDS.toMillis(nanos);
+            this.lastSeen = seen;
+            this.lastAdded = added;
+            this.lastDuplicates = duplicates;
+            this.lastSkipped = skipped;
+            this.lastErrors = errors;
+            this.lastError = error;
+            this.runs++;
+            if (error != null) {
+                this.failedRuns++;
+            }
+            this.totalSeen += seen;
+            this.totalAdded += added;
+            if ("poll".equals(trigger)) {
+                this.pollRuns++;
+                this.pollDurationMs += lastDurationMs;
+                this.pollAdded += added;
+            }
+        }
+
+        public Long getSourceId() {
+            return sourceId;
+        }
+
+        public synchronized String getName() {
+            return name;
+        }
+
+        public synchronized LocalDateTime getLastRunAt() {
+            return lastRunAt;
+        }
+
+        public synchronized String getLastTrigger() {
+            return lastTrigger;
+        }
+
+        public synchronized long getLastDurationMs() {
+            return lastDurationMs;
+        }
+
+        public synchronized int getLastSeen() {
+            return lastSeen;
+        }
+
+        public synchronized int getLastAdded() {
+            return lastAdded;
+        }
+
+        public synchronized int getLastDuplicates() {
+            return lastDuplicates;
+        }
+
+        public synchronized int getLastSkipped() {
+            return lastSkipped;
+        }
+
+        public synchronized int getLastErrors() {
+            return lastErrors;
+        }
+
+        public synchronized String getLastError() {
+            return lastError;
+        }
+
+        public synchronized long getRuns() {
+            return runs;
+        }
+
+        public synchronized long getFailedRuns() {
+            return failedRuns;
+        }
+
+        public synchronized long getTotalSeen() {
+            return totalSeen;
+        }
+
+        public synchronized long getTotalAdded() {
+            return totalAdded;
+        }
+
+        /**
+         * Доля новых статей среди прочитанных записей за все прогоны
+         */
+        public synchronized double getYield() {
+            return totalSeen > 0 ? (double) totalAdded / totalSeen : 0;
+        }
+
+        public synchronized long getPollRuns() {
+            return pollRuns;
+        }
+
+        public synchronized long getPollDurationMs() {
+            return pollDurationMs;
+        }
+
+        public synchronized long getPollAdded() {
+            return pollAdded;
+        }
+    }
+}
@@ -0,0 +1,186 @@
+package com.newsaggregator.service;
+
+import java.util.List;
+import java.util.concurrent.Semaphore;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Этапы конвейера загрузки новостей.
+ *
+ * Конвейер состоит из этапов, соединенных ограниченными очередями:
+ * - feed-fetch: загрузка и потоковое чтение RSS лент до лимита записей (I/O)
+ * - feed-parse: отсев дубликатов (CPU)
+ * - page-fetch: потоковая загрузка и разбор страниц статей до конца статьи (I/O)
+ * - extract: извлечение текста из разобранной страницы и очистка (CPU, по числу ядер)
+ * - enrich: фоновая ИИ-обработка сохраненных статей (ограниченный пул, см. ArticleEnrichmentService)
+ * - persist: сохранение статей ленты одной транзакцией (JDBC batch)
+ *
+ * Задачи передаются только от ранних этапов к поздним, поэтому блокировка
+ * при заполнении этапа не может привести к взаимной блокировке.
+ * Дополнительно ограничивается объем одновременно загруженных страниц.
+ *
+ * @author News Aggregator Team
+ * @version 1.0
+ * @since 1.0
+ */
+@Component
+public class IngestPipeline {
+
+    private static final Logger logger = LoggerFactory.getLogger(IngestPipeline.class);
+
+    @Autowired(required = false)
+    private MeterRegistry meterRegistry;
+
+    @Value("${app.rss.crawl.parallelism:8}")
+    private int feedFetchThreads;
+
+    @Value("${app.rss.pipeline.page-fetch-threads:16}")
+    private int pageFetchThreads;
+
+    @Value("${app.rss.pipeline.enrich-threads:2}")
+    private int enrichThreads;
+
+    @Value("${app.rss.pipeline.persist-threads:2}")
+    private int persistThreads;
+
+    @Value("${app.rss.pipeline.queue-capacity:64}")
+    private int queueCapacity;
+
+    @Value("${app.rss.pipeline.memory-budget-mb:64}")
+    private int memoryBudgetMb;
+
+    @Value("${app.rss.pipeline.page-reservation-kb:512}")
+    private int pageReservationKb;
+
+    private PipelineStage feedFetch;
+    private PipelineStage feedParse;
+    private PipelineStage pageFetch;
+    private PipelineStage extract;
+    private PipelineStage enrich;
+    private PipelineStage persist;
+
+    private Semaphore documentBudget;
+    private int maxDocumentsInFlight;
+
+    @PostConstruct
+    void init() {
+        int cores = Runtime.getRuntime().availableProcessors();
+
+        feedFetch = new PipelineStage("feed-fetch", feedFetchThreads, queueCapacity);
+        feedParse = new PipelineStage("feed-parse", cores, queueCapacity);
+        pageFetch = new PipelineStage("page-fetch", pageFetchThreads, queueCapacity);
+        extract = new PipelineStage("extract", cores, queueCapacity);
+        enrich = new PipelineStage("enrich", enrichThreads, queueCapacity);
+        persist = new PipelineStage("persist", persistThreads, queueCapacity);
+
+        maxDocumentsInFlight = Math.max(1, memoryBudgetMb * 1024 / Math.max(1, pageReservationKb));
+        documentBudget = new Semaphore(maxDocumentsInFlight);
+
+        if (meterRegistry != null) {
+            for (PipelineStage stage : getStages()) {
+                registerMetrics(stage);
+            }
+            Gauge.builder("ingest.pipeline.documents.in-flight", this, IngestPipeline::getDocumentsInFlight)
+                    .register(meterRegistry);
+        }
+
+        logger.info("Конвейер загрузки запущен: {} ядер, до {} страниц в памяти", cores, maxDocumentsInFlight);
+    }
+
+    private void registerMetrics(PipelineStage stage) {
+        Gauge.builder("ingest.stage.queue.depth", stage, PipelineStage::getQueueDepth)
+                .tag("stage", stage.getName())
+                .register(meterRegistry);
+        Gauge.builder("ingest.stage.active", stage, PipelineStage::getActiveCount)
+                .tag("stage", stage.getName())
+                .register(meterRegistry);
+        FunctionCounter.builder("ingest.stage.completed", stage, PipelineStage::getCompleted)
+                .tag("stage", stage.getName())
+                .register(meterRegistry);
+        FunctionCounter.builder("ingest.stage.failed", stage, PipelineStage::getFailed)
+                .tag("stage", stage.getName())
+                .register(meterRegistry);
+        FunctionCounter.builder("ingest.stage.busy", stage, PipelineStage::getBusySeconds)
+                .tag("stage", stage.getName())
+                .baseUnit("seconds")
+                .register(meterRegistry);
+        stage.setTaskTimer(Timer.builder("ingest.stage.task")
+                .tag("stage", stage.getName())
+                .register(meterRegistry));
+    }
+
+    @PreDestroy
+    void shutdown() {
+        for (PipelineStage stage : getStages()) {
+            stage.shutdown();
+        }
+    }
+
+    /**
+     * Резервирует место под одну загружаемую страницу. Блокирует поток,
+     * если бюджет памяти на загруженные страницы исчерпан.
+     */
+    public void acquireDocumentBudget() throws InterruptedException {
+        documentBudget.acquire();
+    }
+
+    /**
+     * Освобождает место, зарезервированное под страницу
+     */
+    public void releaseDocumentBudget() {
+        documentBudget.release();
+    }
+
+    public int getDocumentsInFlight() {
+        return maxDocumentsInFlight - documentBudget.availablePermits();
+    }
+
+    public List<PipelineStage> getStages() {
+        return List.of(feedFetch, feedParse, pageFetch, extract, enrich, persist);
+    }
+
+    /**
+     * Записывает в лог текущее состояние всех этапов
+     */
+    public void logStats() {
+        for (PipelineStage stage : getStages()) {
+            logger.info("Этап конвейера {}", stage);
+        }
+    }
+
+    public PipelineStage feedFetch() {
+        return feedFetch;
+    }
+
+    public PipelineStage feedParse() {
+        return feedParse;
+    }
+
+    public PipelineStage pageFetch() {
+        return pageFetch;
+    }
+
+    public PipelineStage extract() {
+        return extract;
+    }
+
+    public PipelineStage enrich() {
+        return enrich;
+    }
+
+    public PipelineStage persist() {
+        return persist;
+    }
+}
@@ -0,0 +1,371 @@
+package com.newsaggregator.service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.newsaggregator.entity.IngestDeadLetter;
+import com.newsaggregator.entity.IngestTask;
+import com.newsaggregator.entity.IngestTaskState;
+import com.newsaggregator.repository.IngestDeadLetterRepository;
+import com.newsaggregator.repository.IngestTaskRepository;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Очередь задач загрузки записей лент в базе данных (ingest_tasks).
+ *
+ * Новые записи ленты ставятся в очередь сразу после разбора ленты - в состоянии
+ * RUNNING с арендой узла, который их обрабатывает. Задача удаляется вместе
+ * с сохранением статьи, поэтому запись не теряется ни при ошибке загрузки страницы,
+ * ни при остановке узла посреди прогона:
+ * - ошибка: задача переходит в PENDING и повторяется через экспоненциально
+ *   растущую паузу (base-backoff-seconds .. max-backoff-seconds);
+ * - остановка узла: аренда задачи истекает через lease-seconds, и задачу забирает
+ *   обработчик очереди любого узла (IngestQueueWorker).
+ *
+ * Пока узел выполняет задачу, ее аренда продлевается каждые lease-seconds/3
+ * отдельным потоком, поэтому долгий прогон (медленные страницы, ожидание
+ * разрешения хоста) не отдает задачу другому узлу посреди выполнения.
+ *
+ * Обработчики забирают задачи SELECT ... FOR UPDATE SKIP LOCKED, поэтому
+ * несколько потоков и узлов разбирают очередь параллельно, не мешая друг другу.
+ * Задача, начатая max-attempts раз, переносится в ingest_dead_letters;
+ * оттуда ее можно вернуть в очередь из админки.
+ *
+ * @author News Aggregator Team
+ * @version 1.0
+ * @since 1.0
+ */
+@Service
+public class IngestQueue {
+
+    private static final Logger logger = LoggerFactory.getLogger(IngestQueue.class);
+
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    // Сколько задач продлевается одним запросом
+    private static final int RENEW_BATCH_SIZE = 500;
+
+    @Autowired
+    private IngestTaskRepository taskRepository;
+
+    @Autowired
+    private IngestDeadLetterRepository deadLetterRepository;
+
+    @Autowired
+    private SourceLeaseService sourceLeaseService;
+
+    @Autowired
+    private IngestMetrics ingestMetrics;
+
+    @Value("${app.ingest.queue.lease-seconds:600}")
+    private long leaseSeconds;
+
+    @Value("${app.ingest.queue.max-attempts:5}")
+    private int maxAttempts;
+
+    @Value("${app.ingest.queue.base-backoff-seconds:60}")
+    private long baseBackoffSeconds;
+
+    @Value("${app.ingest.queue.max-backoff-seconds:21600}")
+    private long maxBackoffSeconds;
+
+    // Задачи, которые выполняет этот узел: их аренда продлевается
+    private final Set<Long> heldTasks = ConcurrentHashMap.newKeySet();
+
+    private ScheduledExecutorService leaseExecutor;
+
+    @PostConstruct
+    void init() {
+        long periodSeconds = Math.max(1, leaseSeconds / 3);
+        leaseExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "ingest-queue-lease");
+            thread.setDaemon(true);
+            return thread;
+        });
+        leaseExecutor.scheduleWithFixedDelay(this::renewHeldLeases, periodSeconds, periodSeconds, TimeUnit.SECONDS);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (leaseExecutor != null) {
+            leaseExecutor.shutdownNow();
+        }
+    }
+
+    /**
+     * Ставит записи ленты в очередь как задачи этого узла (первая попытка).
+     * Записи, по ссылкам которых задачи уже есть, не ставятся - их выполнит
+     * обработчик очереди.
+     *
+     * @return поставленные задачи с id
+     */
+    public List<IngestTask> enqueue(List<IngestTask> tasks) {
+        if (tasks.isEmpty()) {
+            return tasks;
+        }
+        Map<String, IngestTask> byUrl = new LinkedHashMap<>();
+        for (IngestTask task : tasks) {
+            byUrl.putIfAbsent(task.getUrl(), task);
+        }
+        taskRepository.findExistingUrls(byUrl.keySet()).forEach(byUrl::remove);
+
+        LocalDateTime leaseUntil = LocalDateTime.now().plusSeconds(leaseSeconds);
+        List<IngestTask> pending = new ArrayList<>(byUrl.values());
+        for (IngestTask task : pending) {
+            task.setState(IngestTaskState.RUNNING);
+            task.setAttempts(1);
+            task.setOwnerNode(sourceLeaseService.getNodeId());
+            task.setLeaseUntil(leaseUntil);
+        }
+        if (pending.isEmpty()) {
+            return pending;
+        }
+
+        List<IngestTask> saved;
+        try {
+            saved = taskRepository.saveAll(pending);
+        } catch (DataIntegrityViolationException e) {
+            // Ту же ссылку одновременно поставил в очередь другой источник или узел
+            saved = new ArrayList<>();
+            for (IngestTask task : pending) {
+                task.setId(null); // id из откаченной транзакции
+                try {
+                    saved.add(taskRepository.save(task));
+                } catch (DataIntegrityViolationException duplicate) {
+                    logger.debug("Задача для {} уже в очереди", task.getUrl());
+                }
+            }
+        }
+        hold(saved);
+        return saved;
+    }
+
+    /**
+     * Забирает задачи, готовые к выполнению: ожидающие повтора и с истекшей арендой.
+     * Каждое взятие считается попыткой.
+     */
+    @Transactional
+    public List<IngestTask> claim(int limit) {
+        LocalDateTime now = LocalDateTime.now();
+        List<IngestTask> tasks = taskRepository.findClaimable(now, PageRequest.of(0, limit));
+        LocalDateTime leaseUntil = now.plusSeconds(leaseSeconds);
+        for (IngestTask task : tasks) {
+            if (task.getState() == IngestTaskState.RUNNING) {
+                logger.info("Аренда задачи {} узла {} истекла, задача возобновлена", task.getUrl(), task.getOwnerNode());
+            }
+            task.setState(IngestTaskState.RUNNING);
+            task.setAttempts(task.getAttempts() + 1);
+            task.setOwnerNode(sourceLeaseService.getNodeId());
+            task.setLeaseUntil(leaseUntil);
+        }
+        hold(tasks);
+        return tasks;
+    }
+
+    /**
+     * Прекращает продлевать аренду задач: прогон, который их выполнял, завершен.
+     * Невыполненные задачи вернутся в работу после истечения аренды.
+     */
+    public void release(Collection<Long> taskIds) {
+        heldTasks.removeAll(taskIds);
+    }
+
+    /**
+     * Продлевает аренду задач, которые выполняет этот узел
+     */
+    void renewHeldLeases() {
+        if (heldTasks.isEmpty()) {
+            return;
+        }
+        try {
+            LocalDateTime leaseUntil = LocalDateTime.now().plusSeconds(leaseSeconds);
+            List<Long> ids = new ArrayList<>(heldTasks);
+            for (int from = 0; from < ids.size(); from += RENEW_BATCH_SIZE) {
+                List<Long> batch = ids.subList(from, Math.min(ids.size(), from + RENEW_BATCH_SIZE));
+                taskRepository.renewLeases(batch, sourceLeaseService.getNodeId(), leaseUntil);
+            }
+        } catch (Exception e) {
+            // Следующая попытка - через треть срока аренды, аренда еще действует
+            logger.warn("Не удалось продлить аренду задач загрузки: {}", e.getMessage());
+        }
+    }
+
+    private void hold(List<IngestTask> tasks) {
+        for (IngestTask task : tasks) {
+            if (task.getId() != null) {
+                heldTasks.add(task.getId());
+            }
+        }
+    }
+
+    /**
+     * Удаляет выполненные задачи (статья сохранена, оказалась дубликатом или слишком короткой)
+     */
+    public void complete(Collection<Long> taskIds) {
+        if (!taskIds.isEmpty()) {
+            release(taskIds);
+            taskRepository.deleteAllByIdInBatch(taskIds);
+            ingestMetrics.recordQueueTasks("done", taskIds.size());
+        }
+    }
+
+    /**
+     * Возвращает задачи, к выполнению которых прогон не приступил, в очередь:
+     * их сразу может забрать обработчик очереди, попытка не учитывается
+     */
+    public void postpone(Collection<Long> taskIds) {
+        if (!taskIds.isEmpty()) {
+            release(taskIds);
+            taskRepository.returnToQueue(taskIds, sourceLeaseService.getNodeId(), LocalDateTime.now());
+            ingestMetrics.recordQueueTasks("postponed", taskIds.size());
+        }
+    }
+
+    /**
+     * Учитывает ошибку задачи: откладывает повтор или, если попытки исчерпаны,
+     * переносит задачу в ingest_dead_letters.
+     *
+     * Задача меняется, только если ее все еще выполняет этот узел в той попытке,
+     * в которой ее взял прогон (номер попытки растет при каждом взятии). Если аренда
+     * истекла и задачу уже забрал другой обработчик, ошибка не учитывается.
+     *
+     * @param task задача в том виде, в каком ее взял прогон (enqueue или claim)
+     * @return true, если задача перенесена в ingest_dead_letters
+     */
+    @Transactional
+    public boolean fail(IngestTask task, String error) {
+        heldTasks.remove(task.getId());
+        String node = sourceLeaseService.getNodeId();
+        String message = truncate(error);
+        if (task.getAttempts() >= maxAttempts) {
+            if (taskRepository.deleteHeld(task.getId(), node, task.getAttempts()) == 0) {
+                logger.info("Задачу {} уже выполняет другой обработчик, ошибка не учтена", task.getUrl());
+                return false;
+            }
+            deadLetterRepository.save(new IngestDeadLetter(task, message));
+            ingestMetrics.recordQueueTasks("dead", 1);
+            logger.warn("Задача {} исчерпала {} попыток и перенесена в dead letters: {}",
+                       task.getUrl(), task.getAttempts(), message);
+            return true;
+        }
+
+        long backoff = backoffSeconds(task.getAttempts(), baseBackoffSeconds, maxBackoffSeconds);
+        LocalDateTime nextAttemptAt = LocalDateTime.now().plusSeconds(backoff);
+        if (taskRepository.scheduleRetry(task.getId(), node, task.getAttempts(), nextAttemptAt, message) == 0) {
+            logger.info("Задачу {} уже выполняет другой обработчик, ошибка не учтена", task.getUrl());
+            return false;
+        }
+        ingestMetrics.recordQueueTasks("retry", 1);
+        logger.info("Задача {} (попытка {}) будет повторена через {} с", task.getUrl(), task.getAttempts(), backoff);
+        return false;
+    }
+
+    /**
+     * Пауза перед повтором после attempts попыток: base, 2*base, 4*base ... не больше max
+     */
+    static long backoffSeconds(int attempts, long baseSeconds, long maxSeconds) {
+        int doublings = Math.min(Math.max(0, attempts - 1), 30);
+        return Math.min(maxSeconds, baseSeconds << doublings);
+    }
+
+    /**
+     * Возвращает задачу из ingest_dead_letters в очередь с новым счетчиком попыток
+     *
+     * @return false, если задача не найдена
+     */
+    @Transactional
+    public boolean retryDeadLetter(Long id) {
+        Optional<IngestDeadLetter> found = deadLetterRepository.findById(id);
+        if (found.isEmpty()) {
+            return false;
+        }
+        IngestDeadLetter deadLetter = found.get();
+        if (taskRepository.findExistingUrls(Set.of(deadLetter.getUrl())).isEmpty()) {
+            IngestTask task = deadLetter.toTask();
+            task.setState(IngestTaskState.PENDING);
+            task.setNextAttemptAt(LocalDateTime.now());
+            taskRepository.save(task);
+        }
+        deadLetterRepository.delete(deadLetter);
+        return true;
+    }
+
+    /**
+     * Возвращает в очередь все задачи из ingest_dead_letters
+     *
+     * @return количество возвращенных задач
+     */
+    @Transactional
+    public int retryAllDeadLetters() {
+        Set<String> queued = new HashSet<>();
+        int count = 0;
+        for (IngestDeadLetter deadLetter : deadLetterRepository.findAll()) {
+            if (queued.add(deadLetter.getUrl())
+                    && taskRepository.findExistingUrls(Set.of(deadLetter.getUrl())).isEmpty()) {
+                IngestTask task = deadLetter.toTask();
+                task.setState(IngestTaskState.PENDING);
+                task.setNextAttemptAt(LocalDateTime.now());
+                taskRepository.save(task);
+            }
+            deadLetterRepository.delete(deadLetter);
+            count++;
+        }
+        return count;
+    }
+
+    @Transactional
+    public boolean deleteDeadLetter(Long id) {
+        if (!deadLetterRepository.existsById(id)) {
+            return false;
+        }
+        deadLetterRepository.deleteById(id);
+        return true;
+    }
+
+    public Page<IngestDeadLetter> getDeadLetters(Pageable pageable) {
+        return deadLetterRepository.findAllByOrderByFailedAtDesc(pageable);
+    }
+
+    public long countTasks(IngestTaskState state) {
+        return taskRepository.countByState(state);
+    }
+
+    public long countDeadLetters() {
+        return deadLetterRepository.count();
+    }
+
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    private static String truncate(String error) {
+        if (error == null) {
+            return null;
+        }
+        return error.length() > MAX_ERROR_LENGTH ? error.substring(0, MAX_ERROR_LENGTH) : error;
+    }
+}
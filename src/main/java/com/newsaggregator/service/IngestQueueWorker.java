@@ -0,0 +1,141 @@
+package com.newsaggregator.service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.newsaggregator.entity.IngestTask;
+import com.newsaggregator.entity.NewsSource;
+import com.newsaggregator.repository.NewsSourceRepository;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Обработчики очереди загрузки (IngestQueue).
+ *
+ * Каждый из app.ingest.queue.workers потоков ingest-queue забирает до batch-size
+ * готовых задач (повторы после ошибок и задачи с истекшей арендой, в том числе
+ * оставшиеся от остановленного узла) и выполняет их через конвейер загрузки
+ * (RssParserService.processQueuedTasks). Задачи забираются SKIP LOCKED, поэтому
+ * пропускная способность растет с числом обработчиков и узлов. Если готовых
+ * задач нет, поток ждет poll-interval-ms.
+ *
+ * workers=0 отключает обработчики на узле; задачи выполнят другие узлы.
+ *
+ * @author News Aggregator Team
+ * @version 1.0
+ * @since 1.0
+ */
+@Service
+public class IngestQueueWorker {
+
+    private static final Logger logger = LoggerFactory.getLogger(IngestQueueWorker.class);
+
+    @Autowired
+    private IngestQueue ingestQueue;
+
+    @Autowired
+    private RssParserService rssParserService;
+
+    @Autowired
+    private NewsSourceRepository newsSourceRepository;
+
+    @Value("${app.ingest.queue.workers:2}")
+    private int workers;
+
+    @Value("${app.ingest.queue.batch-size:20}")
+    private int batchSize;
+
+    @Value("${app.ingest.queue.poll-interval-ms:5000}")
+    private long pollIntervalMs;
+
+    private volatile boolean running;
+
+    private ExecutorService executor;
+
+    @PostConstruct
+    void init() {
+        if (workers <= 0) {
+            return;
+        }
+        running = true;
+        AtomicInteger counter = new AtomicInteger();
+        executor = Executors.newFixedThreadPool(workers, runnable -> {
+            Thread thread = new Thread(runnable, "ingest-queue-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        for (int i = 0; i < workers; i++) {
+            executor.execute(this::workLoop);
+        }
+        logger.info("Обработчики очереди загрузки запущены: {}", workers);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        running = false;
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    private void workLoop() {
+        while (running) {
+            try {
+                // Первый запрос - после паузы, чтобы не забирать задачи до завершения запуска приложения
+                Thread.sleep(pollIntervalMs);
+                while (running && processBatch() > 0) {
+                    // Пока есть готовые задачи, следующая партия забирается без паузы
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                logger.error("Ошибка обработчика очереди загрузки: {}", e.getMessage(), e);
+            }
+        }
+    }
+
+    /**
+     * Забирает и выполняет одну партию задач
+     *
+     * @return количество взятых задач
+     */
+    int processBatch() {
+        List<IngestTask> tasks = ingestQueue.claim(batchSize);
+        if (tasks.isEmpty()) {
+            return 0;
+        }
+
+        Map<Long, List<IngestTask>> bySource = new LinkedHashMap<>();
+        for (IngestTask task : tasks) {
+            bySource.computeIfAbsent(task.getSourceId(), id -> new ArrayList<>()).add(task);
+        }
+
+        List<CompletableFuture<Void>> runs = new ArrayList<>();
+        for (Map.Entry<Long, List<IngestTask>> entry : bySource.entrySet()) {
+            Optional<NewsSource> source = newsSourceRepository.findById(entry.getKey());
+            if (source.isEmpty()) {
+                logger.info("Источник {} удален, удаляем его задачи загрузки: {}", entry.getKey(), entry.getValue().size());
+                ingestQueue.complete(entry.getValue().stream().map(IngestTask::getId).toList());
+                continue;
+            }
+            runs.add(rssParserService.processQueuedTasks(source.get(), entry.getValue()));
+        }
+        CompletableFuture.allOf(runs.toArray(new CompletableFuture[0])).join();
+        return tasks.size();
+    }
+}
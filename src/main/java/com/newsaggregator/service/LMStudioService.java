@@ -7,6 +7,7 @@ import java.util.Map;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
@@ -52,6 +53,9 @@ public class LMStudioService {
     @Value("${app.lmstudio.timeout:60}")
     private int timeoutSeconds;
 
+    @Autowired
+    private IngestMetrics ingestMetrics;
+
     private final WebClient webClient;
     private final ObjectMapper objectMapper;
 
@@ -88,13 +92,10 @@ public class LMStudioService {
         }
         
         try {
-            String text = prepareTextForClassification(title, content);
-            String category = classifyText(text);
-            
-            logger.info("Определена категория: {} для статьи: {}", category, title);
-            return category;
+            return requestCategory(title, content);
         } catch (Exception e) {
             logger.error("Ошибка при категоризации статьи '{}': {}", title, e.getMessage());
+            ingestMetrics.recordLlmFallback("categorize", "error");
             return determineBasicCategory(title, content);
         }
     }
@@ -111,29 +112,66 @@ public class LMStudioService {
         }
         
         try {
-            String summary = summarizeText(content);
-            
-            // Проверяем качество сгенерированной сводки
-            if (isValidSummary(summary, content)) {
-                logger.info("Сгенерирована качественная сводка длиной {} символов", summary.length());
-                return summary;
-            } else {
-                logger.warn("ИИ сгенерировал некачественную сводку, используем базовый метод");
-                return generateBasicSummary(content);
-            }
+            return requestSummary(content);
         } catch (Exception e) {
             logger.error("Ошибка при генерации сводки: {}", e.getMessage());
+            ingestMetrics.recordLlmFallback("summarize", "error");
             return generateBasicSummary(content);
         }
     }
 
+    /**
+     * Категоризация статьи с помощью LM Studio без fallback: ошибка вызова ИИ
+     * выбрасывается, чтобы фоновая обработка могла повторить попытку
+     *
+     * @throws IllegalStateException если LM Studio отключен
+     * @throws RuntimeException при ошибке вызова LM Studio
+     */
+    public String requestCategory(String title, String content) {
+        if (!enabled) {
+            throw new IllegalStateException("LM Studio отключен");
+        }
+
+        String text = prepareTextForClassification(title, content);
+        String category = classifyText(text);
+
+        logger.info("Определена категория: {} для статьи: {}", category, title);
+        return category;
+    }
+
+    /**
+     * Генерация сводки с помощью LM Studio без fallback на ошибку вызова: ошибка
+     * выбрасывается, чтобы фоновая обработка могла повторить попытку.
+     * Некачественная сводка ошибкой не считается - повтор дал бы тот же ответ,
+     * поэтому возвращается базовая сводка.
+     *
+     * @throws IllegalStateException если LM Studio отключен
+     * @throws RuntimeException при ошибке вызова LM Studio
+     */
+    public String requestSummary(String content) {
+        if (!enabled) {
+            throw new IllegalStateException("LM Studio отключен");
+        }
+
+        String summary = summarizeText(content);
+
+        // Проверяем качество сгенерированной сводки
+        if (isValidSummary(summary, content)) {
+            logger.info("Сгенерирована качественная сводка длиной {} символов", summary.length());
+            return summary;
+        }
+        logger.warn("ИИ сгенерировал некачественную сводку, используем базовый метод");
+        ingestMetrics.recordLlmFallback("summarize", "invalid");
+        return generateBasicSummary(content);
+    }
+
     /**
      * Классификация текста с помощью LM Studio
      */
     private String classifyText(String text) {
         try {
             String prompt = buildClassificationPrompt(text);
-            String response = callLMStudio(prompt, 50);
+            String response = callLMStudio("categorize", prompt, 50);
             return extractCategory(response);
         } catch (Exception e) {
             logger.error("Ошибка при классификации текста: {}", e.getMessage());
@@ -150,7 +188,7 @@ public class LMStudioService {
             String truncatedContent = content.length() > 2000 ? content.substring(0, 2000) : content;
             String prompt = buildSummarizationPrompt(truncatedContent);
             // Уменьшаем лимит токенов для более краткой сводки
-            String response = callLMStudio(prompt, 200);
+            String response = callLMStudio("summarize", prompt, 200);
             return cleanSummary(response);
         } catch (Exception e) {
             logger.error("Ошибка при суммаризации текста: {}", e.getMessage());
@@ -160,8 +198,12 @@ public class LMStudioService {
 
     /**
      * Вызов LM Studio API
+     *
+     * @param operation название операции для метрик (categorize, summarize)
      */
-    private String callLMStudio(String prompt, int maxTokens) {
+    private String callLMStudio(String operation, String prompt, int maxTokens) {
+        long started = System.nanoTime();
+        boolean success = false;
         try {
             Map<String, Object> requestBody = Map.of(
                 "model", model.isEmpty() ? "local-model" : model,
@@ -183,13 +225,17 @@ public class LMStudioService {
                     .timeout(Duration.ofSeconds(timeoutSeconds))
                     .block();
 
-            return extractContent(response);
+            String content = extractContent(response);
+            success = true;
+            return content;
         } catch (WebClientResponseException e) {
             logger.error("Ошибка HTTP при вызове LM Studio: {} - {}", e.getStatusCode(), e.getResponseBodyAsString());
             throw new RuntimeException("Ошибка вызова LM Studio API", e);
         } catch (Exception e) {
             logger.error("Ошибка при вызове LM Studio: {}", e.getMessage());
             throw new RuntimeException("Ошибка вызова LM Studio", e);
+        } finally {
+            ingestMetrics.recordLlmRequest(operation, System.nanoTime() - started, success);
         }
     }
 
@@ -359,9 +405,9 @@ public class LMStudioService {
     }
 
     /**
-     * Базовая генерация сводки как fallback
+     * Базовая генерация сводки без обращения к ИИ (также используется как fallback)
      */
-    private String generateBasicSummary(String content) {
+    public String generateBasicSummary(String content) {
         if (content == null || content.isEmpty()) {
             return "";
         }
@@ -10,6 +10,7 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.newsaggregator.entity.CircuitState;
 import com.newsaggregator.entity.NewsSource;
 import com.newsaggregator.repository.NewsSourceRepository;
 
@@ -35,6 +36,9 @@ public class NewsSourceService {
     @Autowired
     private NewsSourceRepository newsSourceRepository;
 
+    @Autowired
+    private RssSchedulerService rssSchedulerService;
+
     /**
      * Получает все источники новостей без пагинации.
      * 
@@ -97,7 +101,24 @@ public class NewsSourceService {
         source.setErrorCount(0);
         source.setCreatedAt(LocalDateTime.now());
 
-        return newsSourceRepository.save(source);
+        NewsSource saved = newsSourceRepository.save(source);
+        rssSchedulerService.schedule(saved);
+        return saved;
+    }
+
+    /**
+     * Сохраняет пакет новых источников одной транзакцией (массовый импорт)
+     * и добавляет их в расписание опроса. Проверка RSS URL на дубликаты
+     * выполняется вызывающим кодом (см. SourceImportService).
+     *
+     * @param sources новые источники
+     * @return сохраненные источники
+     */
+    public List<NewsSource> createSources(List<NewsSource> sources) {
+        List<NewsSource> saved = newsSourceRepository.saveAll(sources);
+        newsSourceRepository.flush();
+        saved.forEach(rssSchedulerService::schedule);
+        return saved;
     }
 
     /**
@@ -126,7 +147,9 @@ public class NewsSourceService {
         source.setWebsiteUrl(websiteUrl);
         source.setActive(active);
 
-        return newsSourceRepository.save(source);
+        NewsSource saved = newsSourceRepository.save(source);
+        rssSchedulerService.schedule(saved);
+        return saved;
     }
 
     /**
@@ -140,11 +163,12 @@ public class NewsSourceService {
                 .orElseThrow(() -> new RuntimeException("Источник не найден"));
 
         newsSourceRepository.delete(source);
+        rssSchedulerService.unschedule(id);
     }
 
     /**
      * Переключает статус активности источника (активный/неактивный).
-     * При активации сбрасывает счетчик ошибок.
+     * При активации сбрасывает счетчик ошибок и автоматический выключатель.
      * 
      * @param id идентификатор источника
      * @throws RuntimeException если источник не найден
@@ -159,14 +183,18 @@ public class NewsSourceService {
         if (source.isActive()) {
             source.setErrorCount(0);
             source.setLastError(null);
+            source.setCircuitState(CircuitState.CLOSED);
+            source.setCircuitOpenUntil(null);
         }
 
         newsSourceRepository.save(source);
+        rssSchedulerService.schedule(source);
     }
 
     /**
-     * Сбрасывает ошибки источника и активирует его.
-     * Используется для восстановления источников после устранения проблем.
+     * Сбрасывает ошибки источника, закрывает автоматический выключатель и активирует источник.
+     * Используется для восстановления источников после устранения проблем -
+     * источник опрашивается сразу, не дожидаясь окончания приостановки.
      * 
      * @param id идентификатор источника
      * @throws RuntimeException если источник не найден
@@ -178,8 +206,12 @@ public class NewsSourceService {
         source.setErrorCount(0);
         source.setLastError(null);
         source.setActive(true);
+        source.setCircuitState(CircuitState.CLOSED);
+        source.setCircuitOpenUntil(null);
+        source.setNextPollAt(null);
 
         newsSourceRepository.save(source);
+        rssSchedulerService.schedule(source);
     }
 
     /**
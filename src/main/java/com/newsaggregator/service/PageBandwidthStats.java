@@ -0,0 +1,141 @@
+package com.newsaggregator.service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+/**
+ * Статистика трафика загрузки страниц статей по доменам.
+ *
+ * Для каждой страницы учитывается, сколько байт получено по сети
+ * и сколько из них пришлось на извлеченный текст статьи. Разница -
+ * трафик, потраченный на скрипты, разметку и комментарии; по ней
+ * видно, для каких сайтов стоит уточнить селекторы или лимит размера.
+ *
+ * @author News Aggregator Team
+ * @version 1.0
+ * @since 1.0
+ */
+@Component
+public class PageBandwidthStats {
+
+    private static final Logger logger = LoggerFactory.getLogger(PageBandwidthStats.class);
+
+    private final Map<String, DomainBandwidth> domains = new ConcurrentHashMap<>();
+
+    /**
+     * Учитывает загруженную страницу
+     *
+     * @param domain домен страницы
+     * @param page загруженная страница
+     * @param bytesUsed размер извлеченного текста статьи (UTF-8)
+     */
+    public void record(String domain, PageDocument page, long bytesUsed) {
+        DomainBandwidth stats = domains.computeIfAbsent(domain, DomainBandwidth::new);
+        stats.pages.incrementAndGet();
+        stats.bytesDownloaded.addAndGet(page.getBytesDownloaded());
+        stats.bytesParsed.addAndGet(page.getBytesParsed());
+        stats.bytesUsed.addAndGet(bytesUsed);
+        if (page.isTruncated()) {
+            stats.truncatedPages.incrementAndGet();
+        }
+        if (page.isStoppedEarly()) {
+            stats.stoppedEarlyPages.incrementAndGet();
+        }
+
+        logger.debug("Страница {}: загружено {} байт, разобрано {}, использовано {}{}{}", page.getUrl(),
+                    page.getBytesDownloaded(), page.getBytesParsed(), bytesUsed,
+                    page.isStoppedEarly() ? ", разбор остановлен после статьи" : "",
+                    page.isTruncated() ? ", загрузка прервана по лимиту" : "");
+    }
+
+    /**
+     * Статистика доменов, отсортированная по потерянному трафику (по убыванию)
+     */
+    public List<DomainBandwidth> getDomains() {
+        List<DomainBandwidth> result = new ArrayList<>(domains.values());
+        result.sort(Comparator.comparingLong(DomainBandwidth::getWastedBytes).reversed());
+        return result;
+    }
+
+    /**
+     * Выводит в лог домены с наибольшим потерянным трафиком
+     */
+    public void logSummary(int limit) {
+        List<DomainBandwidth> top = getDomains();
+        for (DomainBandwidth stats : top.subList(0, Math.min(limit, top.size()))) {
+            logger.info("Трафик {}: страниц {}, загружено {} КБ, использовано {} КБ ({}%), остановлено после статьи {}, прервано по лимиту {}",
+                       stats.getDomain(), stats.getPages(), stats.getBytesDownloaded() / 1024,
+                       stats.getBytesUsed() / 1024, Math.round(stats.getUsedRatio() * 100),
+                       stats.getStoppedEarlyPages(), stats.getTruncatedPages());
+        }
+    }
+
+    /**
+     * Счетчики трафика одного домена
+     */
+    public static class DomainBandwidth {
+
+        private final String domain;
+        private final AtomicLong pages = new AtomicLong();
+        private final AtomicLong truncatedPages = new AtomicLong();
+        private final AtomicLong stoppedEarlyPages = new AtomicLong();
+        private final AtomicLong bytesDownloaded = new AtomicLong();
+        private final AtomicLong bytesParsed = new AtomicLong();
+        private final AtomicLong bytesUsed = new AtomicLong();
+
+        private DomainBandwidth(String domain) {
+            this.domain = domain;
+        }
+
+        public String getDomain() {
+            return domain;
+        }
+
+        public long getPages() {
+            return pages.get();
+        }
+
+        public long getTruncatedPages() {
+            return truncatedPages.get();
+        }
+
+        public long getStoppedEarlyPages() {
+            return stoppedEarlyPages.get();
+        }
+
+        public long getBytesDownloaded() {
+            return bytesDownloaded.get();
+        }
+
+        public long getBytesParsed() {
+            return bytesParsed.get();
+        }
+
+        public long getBytesUsed() {
+            return bytesUsed.get();
+        }
+
+        /**
+         * Байт, загруженных сверх извлеченного текста
+         */
+        public long getWastedBytes() {
+            return Math.max(0, getBytesDownloaded() - getBytesUsed());
+        }
+
+        /**
+         * Доля извлеченного текста в загруженном трафике
+         */
+        public double getUsedRatio() {
+            long downloaded = getBytesDownloaded();
+            return downloaded > 0 ? Math.min(1.0, (double) getBytesUsed() / downloaded) : 0;
+        }
+    }
+}
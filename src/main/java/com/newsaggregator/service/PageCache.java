@@ -0,0 +1,614 @@
+package com.newsaggregator.service;
+
+import java.io.BufferedOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.newsaggregator.util.UrlNormalizer;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Дисковый кэш загруженных страниц статей (app.rss.page-cache.dir).
+ *
+ * Тело страницы хранится сжатым (gzip) в файле, имя которого - SHA-256 содержимого,
+ * поэтому одинаковые страницы под разными ссылками занимают место один раз.
+ * Запись по ссылке (SHA-256 нормализованной ссылки, файл .properties) хранит
+ * валидаторы ETag и Last-Modified, кодировку, итоговый адрес и время загрузки.
+ *
+ * В течение ttl-hours после загрузки запись свежая и страница читается из кэша
+ * без запроса к сайту. Устаревшая запись проверяется условным запросом
+ * (If-None-Match / If-Modified-Since): на 304 страница снова читается из кэша.
+ * Устаревшие записи без валидаторов удаляются при обращении.
+ *
+ * Размер кэша ограничен max-size-mb: при превышении удаляются записи,
+ * к которым дольше всего не обращались. Время обращения хранится как время
+ * изменения файла записи, поэтому порядок вытеснения переживает перезапуск.
+ *
+ * Сохраняется вся страница до app.rss.page.max-bytes: если потоковый разбор
+ * остановлен после контейнера статьи, остаток тела дочитывается только для записи
+ * в кэш (ArticleContentExtractorService.fetchAndParse), чтобы повторное извлечение
+ * текста получило страницу целиком. Страница длиннее лимита сохраняется обрезанной.
+ *
+ * @author News Aggregator Team
+ * @version 1.0
+ * @since 1.0
+ */
+@Component
+public class PageCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(PageCache.class);
+
+    private static final String BODY_SUFFIX = ".html.gz";
+    private static final String ENTRY_SUFFIX = ".properties";
+    private static final String TEMP_PREFIX = "tmp-";
+
+    @Value("${app.rss.page-cache.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.rss.page-cache.dir:page-cache}")
+    private String directory;
+
+    @Value("${app.rss.page-cache.max-size-mb:512}")
+    private long maxSizeMb;
+
+    @Value("${app.rss.page-cache.ttl-hours:24}")
+    private long ttlHours;
+
+    private Path root;
+    private long maxBytes;
+    private Duration ttl;
+
+    // Записи по ключу ссылки в порядке обращения (первая - самая давняя)
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    // Число записей, ссылающихся на тело, и размер тела на диске
+    private final Map<String, Integer> bodyRefs = new HashMap<>();
+    private final Map<String, Long> bodySizes = new HashMap<>();
+    private long totalBytes;
+
+    public PageCache() {
+    }
+
+    /**
+     * Конструктор с явными настройками (для тестов)
+     */
+    PageCache(Path root, long maxBytes, Duration ttl) {
+        this.enabled = true;
+        this.root = root;
+        this.maxBytes = maxBytes;
+        this.ttl = ttl;
+        load();
+    }
+
+    @PostConstruct
+    void init() {
+        if (!enabled) {
+            return;
+        }
+        root = Path.of(directory);
+        maxBytes = maxSizeMb * 1024 * 1024;
+        ttl = Duration.ofHours(ttlHours);
+        load();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Находит запись для ссылки и отмечает обращение к ней
+     *
+     * @return запись или null, если страницы нет в кэше
+     */
+    public Entry lookup(String url) {
+        if (!enabled || url == null) {
+            return null;
+        }
+        Entry entry;
+        synchronized (this) {
+            entry = entries.get(key(url));
+            if (entry == null) {
+                return null;
+            }
+            if (!isFresh(entry) && entry.etag == null && entry.lastModified == null) {
+                // Без валидаторов устаревшую страницу не проверить - загрузим заново
+                removeEntry(entry);
+                return null;
+            }
+        }
+        try {
+            Files.setLastModifiedTime(entryPath(entry.key), FileTime.from(Instant.now()));
+        } catch (IOException e) {
+            logger.debug("Не удалось отметить обращение к кэшу страницы {}: {}", url, e.getMessage());
+        }
+        return entry;
+    }
+
+    /**
+     * true, если страница загружена не раньше ttl-hours назад
+     */
+    public boolean isFresh(Entry entry) {
+        return entry.fetchedAt.plus(ttl).isAfter(Instant.now());
+    }
+
+    /**
+     * Заголовки условного запроса для проверки устаревшей записи
+     */
+    public Map<String, String> conditionalHeaders(Entry entry) {
+        Map<String, String> headers = new HashMap<>();
+        if (entry.etag != null) {
+            headers.put("If-None-Match", entry.etag);
+        }
+        if (entry.lastModified != null) {
+            headers.put("If-Modified-Since", entry.lastModified);
+        }
+        return headers;
+    }
+
+    /**
+     * Открывает тело страницы (распакованный HTML)
+     */
+    public InputStream openBody(Entry entry) throws IOException {
+        return new GZIPInputStream(Files.newInputStream(bodyPath(entry.contentHash)));
+    }
+
+    /**
+     * Отмечает, что сайт подтвердил актуальность записи (304 Not Modified)
+     *
+     * @return обновленная запись
+     */
+    public synchronized Entry revalidated(Entry entry) {
+        if (entries.get(entry.key) != entry) {
+            return entry; // Запись уже заменена или вытеснена
+        }
+        Entry refreshed = new Entry(entry.key, entry.url, entry.etag, entry.lastModified, entry.charset,
+                                    entry.baseUri, entry.contentHash, Instant.now());
+        try {
+            writeEntry(refreshed);
+            entries.put(refreshed.key, refreshed);
+        } catch (IOException e) {
+            logger.warn("Не удалось обновить запись кэша страницы {}: {}", entry.url, e.getMessage());
+        }
+        return refreshed;
+    }
+
+    /**
+     * Удаляет запись, тело которой не удалось прочитать
+     */
+    public synchronized void remove(Entry entry) {
+        if (entries.get(entry.key) == entry) {
+            removeEntry(entry);
+        }
+    }
+
+    /**
+     * Начинает запись загружаемой страницы в кэш
+     *
+     * @return запись или null, если кэш отключен или недоступен
+     */
+    public Recorder record(String url) {
+        if (!enabled || url == null) {
+            return null;
+        }
+        try {
+            return new Recorder(url);
+        } catch (IOException e) {
+            logger.warn("Не удалось начать запись страницы {} в кэш: {}", url, e.getMessage());
+            return null;
+        }
+    }
+
+    public synchronized int getEntryCount() {
+        return entries.size();
+    }
+
+    public synchronized long getSizeBytes() {
+        return totalBytes;
+    }
+
+    /**
+     * Читает записи с диска, удаляя недописанные файлы и тела без записей
+     */
+    private synchronized void load() {
+        try {
+            Files.createDirectories(root);
+            List<Path> entryFiles = new ArrayList<>();
+            List<Path> bodyFiles = new ArrayList<>();
+            try (DirectoryStream<Path> files = Files.newDirectoryStream(root)) {
+                for (Path file : files) {
+                    String name = file.getFileName().toString();
+                    if (name.startsWith(TEMP_PREFIX)) {
+                        Files.deleteIfExists(file);
+                    } else if (name.endsWith(ENTRY_SUFFIX)) {
+                        entryFiles.add(file);
+                    } else if (name.endsWith(BODY_SUFFIX)) {
+                        bodyFiles.add(file);
+                    }
+                }
+            }
+
+            for (Path file : bodyFiles) {
+                String name = file.getFileName().toString();
+                bodySizes.put(name.substring(0, name.length() - BODY_SUFFIX.length()), Files.size(file));
+            }
+
+            // Порядок обращения восстанавливается по времени изменения файлов записей
+            entryFiles.sort(Comparator.comparing(PageCache::lastModifiedTime));
+            for (Path file : entryFiles) {
+                Entry entry = readEntry(file);
+                if (entry == null || !bodySizes.containsKey(entry.contentHash)) {
+                    Files.deleteIfExists(file);
+                    continue;
+                }
+                entries.put(entry.key, entry);
+                bodyRefs.merge(entry.contentHash, 1, Integer::sum);
+            }
+
+            for (Map.Entry<String, Long> body : new ArrayList<>(bodySizes.entrySet())) {
+                if (bodyRefs.containsKey(body.getKey())) {
+                    totalBytes += body.getValue();
+                } else {
+                    bodySizes.remove(body.getKey());
+                    Files.deleteIfExists(bodyPath(body.getKey()));
+                }
+            }
+            evict();
+            logger.info("Кэш страниц {}: {} страниц, {} КБ", root.toAbsolutePath(), entries.size(), totalBytes / 1024);
+        } catch (IOException e) {
+            enabled = false;
+            logger.warn("Кэш страниц {} недоступен и отключен: {}", root, e.getMessage());
+        }
+    }
+
+    /**
+     * Сохраняет загруженное тело и запись для ссылки, заменяя прежнюю запись
+     */
+    private synchronized void store(Entry entry, Path temp, long size) throws IOException {
+        if (bodySizes.containsKey(entry.contentHash)) {
+            Files.deleteIfExists(temp);
+        } else {
+            Files.move(temp, bodyPath(entry.contentHash), StandardCopyOption.ATOMIC_MOVE);
+            bodySizes.put(entry.contentHash, size);
+            totalBytes += size;
+        }
+        // Ссылка на новое тело учитывается до освобождения прежнего - тело могло не измениться
+        bodyRefs.merge(entry.contentHash, 1, Integer::sum);
+
+        Entry previous = entries.remove(entry.key);
+        if (previous != null) {
+            releaseBody(previous.contentHash);
+        }
+        try {
+            writeEntry(entry);
+        } catch (IOException e) {
+            releaseBody(entry.contentHash);
+            throw e;
+        }
+        entries.put(entry.key, entry);
+        evict();
+    }
+
+    /**
+     * Вытесняет записи, к которым дольше всего не обращались, пока кэш больше max-size-mb
+     */
+    private void evict() {
+        Iterator<Entry> eldest = entries.values().iterator();
+        while (totalBytes > maxBytes && eldest.hasNext()) {
+            Entry entry = eldest.next();
+            eldest.remove();
+            deleteEntryFile(entry);
+            releaseBody(entry.contentHash);
+        }
+    }
+
+    private void removeEntry(Entry entry) {
+        entries.remove(entry.key);
+        deleteEntryFile(entry);
+        releaseBody(entry.contentHash);
+    }
+
+    private void deleteEntryFile(Entry entry) {
+        try {
+            Files.deleteIfExists(entryPath(entry.key));
+        } catch (IOException e) {
+            logger.debug("Не удалось удалить запись кэша страницы {}: {}", entry.url, e.getMessage());
+        }
+    }
+
+    /**
+     * Уменьшает число ссылок на тело и удаляет тело, на которое больше никто не ссылается
+     */
+    private void releaseBody(String contentHash) {
+        int refs = bodyRefs.merge(contentHash, -1, Integer::sum);
+        if (refs > 0) {
+            return;
+        }
+        bodyRefs.remove(contentHash);
+        Long size = bodySizes.remove(contentHash);
+        if (size != null) {
+            totalBytes -= size;
+        }
+        try {
+            Files.deleteIfExists(bodyPath(contentHash));
+        } catch (IOException e) {
+            logger.debug("Не удалось удалить тело страницы {} из кэша: {}", contentHash, e.getMessage());
+        }
+    }
+
+    private void writeEntry(Entry entry) throws IOException {
+        Properties properties = new Properties();
+        properties.setProperty("url", entry.url);
+        properties.setProperty("contentHash", entry.contentHash);
+        properties.setProperty("fetchedAt", entry.fetchedAt.toString());
+        setIfPresent(properties, "etag", entry.etag);
+        setIfPresent(properties, "lastModified", entry.lastModified);
+        setIfPresent(properties, "charset", entry.charset);
+        setIfPresent(properties, "baseUri", entry.baseUri);
+
+        Path temp = Files.createTempFile(root, TEMP_PREFIX, ENTRY_SUFFIX);
+        try (Writer writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+            properties.store(writer, null);
+        }
+        Files.move(temp, entryPath(entry.key), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private Entry readEntry(Path file) {
+        Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            properties.load(reader);
+            String name = file.getFileName().toString();
+            String url = properties.getProperty("url");
+            String contentHash = properties.getProperty("contentHash");
+            String fetchedAt = properties.getProperty("fetchedAt");
+            if (url == null || contentHash == null || fetchedAt == null) {
+                return null;
+            }
+            return new Entry(name.substring(0, name.length() - ENTRY_SUFFIX.length()), url,
+                             properties.getProperty("etag"), properties.getProperty("lastModified"),
+                             properties.getProperty("charset"), properties.getProperty("baseUri"),
+                             contentHash, Instant.parse(fetchedAt));
+        } catch (Exception e) {
+            logger.debug("Поврежденная запись кэша страниц {}: {}", file, e.getMessage());
+            return null;
+        }
+    }
+
+    private static void setIfPresent(Properties properties, String name, String value) {
+        if (value != null) {
+            properties.setProperty(name, value);
+        }
+    }
+
+    private static FileTime lastModifiedTime(Path file) {
+        try {
+            return Files.getLastModifiedTime(file);
+        } catch (IOException e) {
+            return FileTime.fromMillis(0);
+        }
+    }
+
+    private Path entryPath(String key) {
+        return root.resolve(key + ENTRY_SUFFIX);
+    }
+
+    private Path bodyPath(String contentHash) {
+        return root.resolve(contentHash + BODY_SUFFIX);
+    }
+
+    /**
+     * Ключ записи: SHA-256 нормализованной ссылки
+     */
+    static String key(String url) {
+        return HexFormat.of().formatHex(sha256().digest(UrlNormalizer.normalize(url).getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 недоступен", e);
+        }
+    }
+
+    /**
+     * Страница в кэше
+     */
+    public static final class Entry {
+
+        private final String key;
+        private final String url;
+        private final String etag;
+        private final String lastModified;
+        private final String charset;
+        private final String baseUri;
+        private final String contentHash;
+        private final Instant fetchedAt;
+
+        private Entry(String key, String url, String etag, String lastModified, String charset,
+                      String baseUri, String contentHash, Instant fetchedAt) {
+            this.key = key;
+            this.url = url;
+            this.etag = etag;
+            this.lastModified = lastModified;
+            this.charset = charset;
+            this.baseUri = baseUri;
+            this.contentHash = contentHash;
+            this.fetchedAt = fetchedAt;
+        }
+
+        public String getUrl() {
+            return url;
+        }
+
+        public String getEtag() {
+            return etag;
+        }
+
+        public String getLastModified() {
+            return lastModified;
+        }
+
+        /**
+         * Кодировка из заголовка Content-Type ответа или null
+         */
+        public String getCharset() {
+            return charset;
+        }
+
+        /**
+         * Итоговый адрес страницы (после перенаправлений) или null
+         */
+        public String getBaseUri() {
+            return baseUri;
+        }
+
+        public String getContentHash() {
+            return contentHash;
+        }
+
+        public Instant getFetchedAt() {
+            return fetchedAt;
+        }
+    }
+
+    /**
+     * Запись загружаемой страницы: копирует прочитанные байты в сжатый временный файл.
+     * Ошибка записи не прерывает загрузку - страница просто не попадет в кэш.
+     */
+    public final class Recorder {
+
+        private final String url;
+        private final Path temp;
+        private final MessageDigest digest = sha256();
+        private final OutputStream out;
+        private long bytes;
+        private boolean failed;
+
+        private Recorder(String url) throws IOException {
+            this.url = url;
+            this.temp = Files.createTempFile(root, TEMP_PREFIX, BODY_SUFFIX);
+            this.out = new GZIPOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)));
+        }
+
+        /**
+         * Оборачивает поток тела ответа: все прочитанные из него байты записываются в кэш
+         */
+        public InputStream wrap(InputStream in) {
+            return new FilterInputStream(in) {
+                @Override
+                public int read() throws IOException {
+                    int b = super.read();
+                    if (b >= 0) {
+                        copy(new byte[] {(byte) b}, 0, 1);
+                    }
+                    return b;
+                }
+
+                @Override
+                public int read(byte[] buffer, int offset, int length) throws IOException {
+                    int n = super.read(buffer, offset, length);
+                    if (n > 0) {
+                        copy(buffer, offset, n);
+                    }
+                    return n;
+                }
+
+                @Override
+                public long skip(long n) throws IOException {
+                    // Пропущенные байты тоже нужны в кэше
+                    byte[] buffer = new byte[(int) Math.min(n, 8192)];
+                    int read = read(buffer, 0, buffer.length);
+                    return Math.max(read, 0);
+                }
+            };
+        }
+
+        private void copy(byte[] buffer, int offset, int length) {
+            if (failed) {
+                return;
+            }
+            try {
+                out.write(buffer, offset, length);
+                digest.update(buffer, offset, length);
+                bytes += length;
+            } catch (IOException e) {
+                logger.debug("Не удалось записать страницу {} в кэш: {}", url, e.getMessage());
+                abort();
+            }
+        }
+
+        /**
+         * Сохраняет прочитанное тело страницы в кэш
+         *
+         * @param etag заголовок ETag ответа или null
+         * @param lastModified заголовок Last-Modified ответа или null
+         * @param charset кодировка из заголовка Content-Type или null
+         * @param baseUri итоговый адрес страницы
+         */
+        public void commit(String etag, String lastModified, String charset, String baseUri) {
+            if (failed) {
+                return;
+            }
+            try {
+                out.close();
+                if (bytes == 0) {
+                    Files.deleteIfExists(temp);
+                    return;
+                }
+                Entry entry = new Entry(key(url), url, etag, lastModified, charset, baseUri,
+                                        HexFormat.of().formatHex(digest.digest()), Instant.now());
+                store(entry, temp, Files.size(temp));
+            } catch (IOException e) {
+                logger.warn("Не удалось сохранить страницу {} в кэш: {}", url, e.getMessage());
+                abort();
+            }
+        }
+
+        /**
+         * Отменяет запись (страница не загружена или не разобрана)
+         */
+        public void abort() {
+            failed = true;
+            try {
+                out.close();
+            } catch (IOException e) {
+                // Временный файл все равно удаляется
+            }
+            try {
+                Files.deleteIfExists(temp);
+            } catch (IOException e) {
+                logger.debug("Не удалось удалить временный файл кэша {}: {}", temp, e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.newsaggregator.service;
+
+import org.jsoup.nodes.Document;
+
+/**
+ * Страница статьи, загруженная и разобранная потоково.
+ *
+ * Документ может быть неполным: разбор останавливается после контейнера
+ * статьи, по бюджету текста или по лимиту байт (см. ArticleContentExtractorService).
+ *
+ * @author News Aggregator Team
+ * @version 1.0
+ * @since 1.0
+ */
+public class PageDocument {
+
+    private final String url;
+    private final Document document;
+    private final long bytesDownloaded;
+    private final long bytesParsed;
+    private final boolean truncated;
+    private final boolean stoppedEarly;
+
+    public PageDocument(String url, Document document, long bytesDownloaded, long bytesParsed,
+                        boolean truncated, boolean stoppedEarly) {
+        this.url = url;
+        this.document = document;
+        this.bytesDownloaded = bytesDownloaded;
+        this.bytesParsed = bytesParsed;
+        this.truncated = truncated;
+        this.stoppedEarly = stoppedEarly;
+    }
+
+    public String getUrl() {
+        return url;
+    }
+
+    public Document getDocument() {
+        return document;
+    }
+
+    /**
+     * Байт получено по сети (до распаковки)
+     */
+    public long getBytesDownloaded() {
+        return bytesDownloaded;
+    }
+
+    /**
+     * Байт HTML (после распаковки), переданных парсеру
+     */
+    public long getBytesParsed() {
+        return bytesParsed;
+    }
+
+    /**
+     * true, если загрузка прервана по лимиту app.rss.page.max-bytes
+     */
+    public boolean isTruncated() {
+        return truncated;
+    }
+
+    /**
+     * true, если разбор остановлен после контейнера статьи или по бюджету текста
+     */
+    public boolean isStoppedEarly() {
+        return stoppedEarly;
+    }
+}
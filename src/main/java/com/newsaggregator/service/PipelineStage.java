@@ -0,0 +1,185 @@
+package com.newsaggregator.service;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Этап конвейера загрузки новостей с собственным пулом потоков.
+ *
+ * Каждый этап имеет ограниченную емкость (потоки + очередь). Когда этап
+ * заполнен, submit() блокирует вызывающий поток - так обратное давление
+ * передается от медленных этапов к быстрым, и этапы не переполняют друг друга.
+ *
+ * Собирает метрики этапа: количество принятых, выполненных и неудачных задач,
+ * глубину очереди, число активных потоков и суммарное время работы;
+ * при заданном таймере - распределение времени выполнения задач.
+ *
+ * @author News Aggregator Team
+ * @version 1.0
+ * @since 1.0
+ */
+public class PipelineStage {
+
+    private final String name;
+    private final int threads;
+    private final ThreadPoolExecutor executor;
+    private final Semaphore capacity;
+    private final long createdAtNanos = System.nanoTime();
+
+    private final AtomicLong submitted = new AtomicLong();
+    private final AtomicLong completed = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong busyNanos = new AtomicLong();
+
+    private volatile Timer taskTimer;
+
+    /**
+     * @param name имя этапа (используется в именах потоков и метриках)
+     * @param threads количество потоков этапа
+     * @param queueCapacity максимальное количество задач, ожидающих выполнения
+     */
+    public PipelineStage(String name, int threads, int queueCapacity) {
+        this.name = name;
+        this.threads = Math.max(1, threads);
+        this.capacity = new Semaphore(this.threads + Math.max(0, queueCapacity));
+
+        AtomicInteger counter = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(this.threads, this.threads, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), runnable -> {
+                    Thread thread = new Thread(runnable, "ingest-" + name + "-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    /**
+     * Передает задачу этапу. Блокирует вызывающий поток, пока у этапа нет свободной емкости.
+     *
+     * @return future с результатом задачи
+     */
+    public <T> CompletableFuture<T> submit(Callable<T> task) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        try {
+            capacity.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            result.completeExceptionally(e);
+            return result;
+        }
+
+        submitted.incrementAndGet();
+        try {
+            executor.execute(() -> run(task, result));
+        } catch (RejectedExecutionException e) {
+            capacity.release();
+            failed.incrementAndGet();
+            result.completeExceptionally(e);
+        }
+        return result;
+    }
+
+    private <T> void run(Callable<T> task, CompletableFuture<T> result) {
+        long started = System.nanoTime();
+        T value;
+        try {
+            value = task.call();
+        } catch (Throwable e) {
+            recordBusy(System.nanoTime() - started);
+            failed.incrementAndGet();
+            capacity.release();
+            result.completeExceptionally(e);
+            return;
+        }
+        recordBusy(System.nanoTime() - started);
+        completed.incrementAndGet();
+        capacity.release();
+        result.complete(value);
+    }
+
+    private void recordBusy(long nanos) {
+        busyNanos.addAndGet(nanos);
+        Timer timer = taskTimer;
+        if (timer != null) {
+            timer.record(nanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Задает таймер, в который записывается время выполнения каждой задачи этапа
+     */
+    public void setTaskTimer(Timer taskTimer) {
+        this.taskTimer = taskTimer;
+    }
+
+    /**
+     * Останавливает пул потоков этапа
+     */
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    public long getSubmitted() {
+        return submitted.get();
+    }
+
+    public long getCompleted() {
+        return completed.get();
+    }
+
+    public long getFailed() {
+        return failed.get();
+    }
+
+    public int getQueueDepth() {
+        return executor.getQueue().size();
+    }
+
+    public int getActiveCount() {
+        return executor.getActiveCount();
+    }
+
+    public double getBusySeconds() {
+        return busyNanos.get() / 1_000_000_000.0;
+    }
+
+    /**
+     * Средняя пропускная способность этапа (задач в секунду) с момента создания
+     */
+    public double getThroughputPerSecond() {
+        double elapsedSeconds = (System.nanoTime() - createdAtNanos) / 1_000_000_000.0;
+        return elapsedSeconds > 0 ? completed.get() / elapsedSeconds : 0;
+    }
+
+    /**
+     * Доля времени, в течение которой потоки этапа были заняты работой (0..1).
+     * Этап с загрузкой около 1 и растущей очередью - узкое место конвейера.
+     */
+    public double getUtilization() {
+        double elapsedSeconds = (System.nanoTime() - createdAtNanos) / 1_000_000_000.0;
+        return elapsedSeconds > 0 ? Math.min(1.0, getBusySeconds() / (elapsedSeconds * threads)) : 0;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s[threads=%d, queue=%d, active=%d, completed=%d, failed=%d, %.1f/s, utilization=%.0f%%]",
+                name, threads, getQueueDepth(), getActiveCount(), completed.get(), failed.get(),
+                getThroughputPerSecond(), getUtilization() * 100);
+    }
+}
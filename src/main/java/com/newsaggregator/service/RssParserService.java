@@ -1,30 +1,59 @@
 package com.newsaggregator.service;
 
-import java.net.URL;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.Deque;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import com.newsaggregator.entity.Article;
 import com.newsaggregator.entity.ArticleStatus;
 import com.newsaggregator.entity.Category;
+import com.newsaggregator.entity.CircuitState;
+import com.newsaggregator.entity.IngestTask;
 import com.newsaggregator.entity.NewsSource;
 import com.newsaggregator.repository.ArticleRepository;
 import com.newsaggregator.repository.CategoryRepository;
 import com.newsaggregator.repository.NewsSourceRepository;
+import com.newsaggregator.util.SingleFlight;
+import com.newsaggregator.util.UrlNormalizer;
+import com.rometools.rome.feed.synd.SyndContent;
 import com.rometools.rome.feed.synd.SyndEntry;
-import com.rometools.rome.feed.synd.SyndFeed;
-import com.rometools.rome.io.SyndFeedInput;
-import com.rometools.rome.io.XmlReader;
+
+import jakarta.annotation.PostConstruct;
 
 /**
  * Сервис для парсинга RSS лент и создания статей.
@@ -34,7 +63,7 @@ import com.rometools.rome.io.XmlReader;
  * - Парсинга RSS лент с использованием библиотеки Rome
  * - Извлечения полного контента статей с веб-страниц
  * - Извлечения изображений из RSS и веб-страниц
- * - ИИ-обработки статей (категоризация и генерация сводок)
+ * - Базовой обработки статей (ИИ-обработка выполняется в фоне, см. ArticleEnrichmentService)
  * - Обработки ошибок и управления источниками
  * - Очистки и нормализации текста статей
  * - Предотвращения дублирования статей
@@ -48,6 +77,12 @@ public class RssParserService {
 
     private static final Logger logger = LoggerFactory.getLogger(RssParserService.class);
 
+    // Ограничения столбцов ingest_tasks и articles
+    private static final int MAX_TITLE_LENGTH = 500;
+    private static final int MAX_URL_LENGTH = 1000;
+    // Текст записи ленты хранится в столбце TEXT (до 64 КБ в MySQL)
+    private static final int MAX_FEED_TEXT_LENGTH = 30000;
+
     @Autowired
     private NewsSourceRepository newsSourceRepository;
 
@@ -62,220 +97,997 @@ public class RssParserService {
     
     @Autowired
     private ArticleContentExtractorService contentExtractorService;
+
+    @Autowired
+    private SeenUrlService seenUrlService;
+
+    @Autowired
+    private IngestPipeline ingestPipeline;
+
+    @Autowired
+    private ArticleEnrichmentService enrichmentService;
+
+    @Autowired
+    private ArticlePersistenceService persistenceService;
+
+    @Autowired
+    private SourceCircuitBreaker circuitBreaker;
+
+    @Autowired
+    private CrawlerHttpClient httpClient;
+
+    @Autowired
+    private PageBandwidthStats bandwidthStats;
+
+    @Autowired
+    private HostPolitenessScheduler politeness;
+
+    @Autowired
+    private IngestMetrics ingestMetrics;
+
+    @Autowired
+    private FeedCompletenessDetector completenessDetector;
+
+    @Autowired
+    private IngestQueue ingestQueue;
+
+    @Autowired
+    private CrawlPlanner crawlPlanner;
+
+    private final StreamingFeedReader feedReader = new StreamingFeedReader();
     
     @Value("${app.rss.max-articles-per-source:10}")
     private int maxArticlesPerSource;
 
+    @Value("${app.rss.max-entry-age-hours:72}")
+    private int maxEntryAgeHours;
+
+    @Value("${app.rss.cursor.recent-keys:30}")
+    private int cursorRecentKeys;
+
+    @Value("${app.rss.crawl.per-host-limit:2}")
+    private int perHostLimit;
+
+    @Value("${app.rss.politeness.max-wait-ms:60000}")
+    private long maxPolitenessWaitMs;
+
+    // Бюджет времени прогона по всем источникам; 0 - без ограничения
+    @Value("${app.rss.crawl.budget-seconds:0}")
+    private long crawlBudgetSeconds;
+
+    // Разрешения на одновременные запросы к хостам, к которым сейчас идут или ждут запросы.
+    // Запись удаляется, когда хост отпустил последний поток, поэтому карта не растет
+    // с числом хостов, встреченных за время работы
+    private final Map<String, HostPermits> hostPermits = new ConcurrentHashMap<>();
+
+    // Одновременные загрузки одной страницы (по нормализованной ссылке) и прогоны одного источника
+    // (плановый опрос и запуск из админки) выполняются один раз, результат получают все вызвавшие
+    private final SingleFlight<String, FetchedPage> pageFlight = new SingleFlight<>();
+    private final SingleFlight<Long, SourceRun> sourceFlight = new SingleFlight<>();
+
+    @PostConstruct
+    void registerMetrics() {
+        ingestMetrics.registerCoalesced("page", pageFlight);
+        ingestMetrics.registerCoalesced("source", sourceFlight);
+    }
+
+    /**
+     * Парсит все активные RSS источники.
+     * 
+     * Источники проходят через конвейер загрузки (IngestPipeline): загрузка ленты,
+     * разбор, загрузка страниц, извлечение текста и пакетное сохранение статей ленты
+     * выполняются на отдельных этапах с ограниченными очередями. К одному хосту
+     * одновременно выполняется не более app.rss.crawl.per-host-limit запросов.
+     * Источники, приостановленные автоматическим выключателем, пропускаются.
+     * 
+     * @return сводный отчет о прогоне
+     */
+    public CrawlReport parseAllRssFeeds() {
+        return parseAllRssFeeds(new CrawlReport());
+    }
+
+    /**
+     * Парсит все активные RSS источники, записывая ход прогона в переданный отчет.
+     * Отчет можно читать во время прогона (см. CrawlJobService).
+     * Бюджет времени прогона задает app.rss.crawl.budget-seconds.
+     *
+     * @return переданный отчет, завершенный после обработки всех источников
+     */
+    public CrawlReport parseAllRssFeeds(CrawlReport report) {
+        return parseAllRssFeeds(report, crawlBudgetSeconds > 0 ? Duration.ofSeconds(crawlBudgetSeconds) : null);
+    }
+
     /**
-     * Парсит все активные RSS источники
+     * Парсит все активные RSS источники с ограничением по времени.
+     *
+     * С бюджетом источники запускаются в порядке ценности (CrawlPlanner): сначала
+     * те, что дают больше новых статей на секунду загрузки и дольше не опрашивались.
+     * Источник, ожидаемая длительность которого не укладывается в оставшееся время,
+     * откладывается до следующего прогона с повышенным приоритетом и попадает
+     * в отчет. Уже запущенные источники после окончания бюджета не начинают
+     * загрузку новых страниц: оставшиеся записи остаются в очереди загрузки
+     * и выполняются обработчиком очереди (IngestQueueWorker).
+     *
+     * @param budget бюджет времени или null - без ограничения (источники чередуются по хостам)
+     * @return переданный отчет, завершенный после обработки всех запущенных источников
      */
-    public void parseAllRssFeeds() {
-        logger.info("Начинаем парсинг всех RSS лент...");
+    public CrawlReport parseAllRssFeeds(CrawlReport report, Duration budget) {
+        logger.info("Начинаем парсинг всех RSS лент{}...", budget != null ? " (бюджет " + budget.getSeconds() + " с)" : "");
         
         List<NewsSource> activeSources = newsSourceRepository.findByActiveTrue();
         logger.info("Найдено {} активных источников", activeSources.size());
 
-        for (NewsSource source : activeSources) {
-            try {
-                parseRssFeed(source);
-            } catch (Exception e) {
-                logger.error("Ошибка при парсинге источника {}: {}", source.getName(), e.getMessage());
-                handleSourceError(source, e.getMessage());
+        report.setSourcesTotal(activeSources.size());
+
+        List<NewsSource> ordered = budget != null
+                ? crawlPlanner.prioritize(activeSources, LocalDateTime.now())
+                : interleaveByHost(activeSources);
+        long deadline = budget != null ? System.nanoTime() + budget.toNanos() : 0;
+
+        // Передача источников блокируется, когда этап загрузки лент заполнен
+        List<CompletableFuture<Void>> runs = new ArrayList<>();
+        for (NewsSource source : ordered) {
+            if (budget != null) {
+                long remainingMillis = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+                if (remainingMillis < crawlPlanner.expectedDurationMillis(source)) {
+                    crawlPlanner.deferred(source);
+                    report.recordDeferred(source);
+                    continue;
+                }
+            }
+            if (!allowBreakerRequest(source)) {
+                report.recordSkipped(source);
+                continue;
+            }
+            runs.add(processSourceAsync(source, report, deadline));
+            if (budget != null) {
+                crawlPlanner.started(source);
             }
         }
-        
-        logger.info("Парсинг RSS лент завершен");
+        CompletableFuture.allOf(runs.toArray(new CompletableFuture[0])).join();
+
+        report.finish();
+        ingestPipeline.logStats();
+        bandwidthStats.logSummary(5);
+        logger.info("Парсинг RSS лент завершен: {} с, источников успешно {}, с ошибками {}, приостановлено {}, отложено {}, добавлено статей {}",
+                   report.getDurationMillis() / 1000.0, report.getSourcesOk(), report.getSourcesFailed(),
+                   report.getSourcesSkipped(), report.getSourcesDeferred(), report.getArticlesAdded());
+        if (report.getSourcesDeferred() > 0) {
+            logger.info("Отложены до следующего прогона: {}", String.join(", ", report.getDeferredSources()));
+        }
+        return report;
     }
 
     /**
      * Парсит конкретный RSS источник
      */
     public void parseRssFeed(NewsSource source) {
+        processSourceAsync(source, new CrawlReport()).join();
+    }
+
+    /**
+     * Проверяет автоматический выключатель источника. Если приостановка истекла,
+     * источник переводится в HALF_OPEN и опрашивается пробно - пробу получает
+     * только один вызывающий (плановый опрос, планировщик, другой узел).
+     *
+     * @return false, если источник приостановлен и опрашивать его не нужно
+     */
+    public boolean allowBreakerRequest(NewsSource source) {
+        LocalDateTime now = LocalDateTime.now();
+        if (!circuitBreaker.allowRequest(source, now)) {
+            logger.debug("Источник '{}' приостановлен до {}, пропускаем", source.getName(), source.getCircuitOpenUntil());
+            return false;
+        }
+        if (source.getCircuitState() == CircuitState.HALF_OPEN) {
+            if (!persistenceService.claimProbe(source, now)) {
+                logger.debug("Пробный опрос источника '{}' уже выполняется, пропускаем", source.getName());
+                return false;
+            }
+            logger.info("Пробный опрос источника '{}' после приостановки", source.getName());
+        }
+        return true;
+    }
+
+    /**
+     * Запускает парсинг источника в конвейере, не дожидаясь завершения.
+     * Блокирует вызывающий поток, пока этап загрузки лент заполнен.
+     *
+     * @return future, который завершается (без ошибки) после обработки источника
+     */
+    public CompletableFuture<Void> parseRssFeedAsync(NewsSource source, CrawlReport report) {
+        return processSourceAsync(source, report);
+    }
+
+    /**
+     * Запускает обработку источника в конвейере.
+     * Возвращаемый future никогда не завершается с ошибкой - ошибки записываются в источник и отчет.
+     *
+     * Если источник уже обрабатывается (например, плановый опрос совпал с запуском
+     * из админки), второй прогон не запускается: результат текущего прогона
+     * записывается в оба отчета.
+     */
+    private CompletableFuture<Void> processSourceAsync(NewsSource source, CrawlReport report) {
+        return processSourceAsync(source, report, 0);
+    }
+
+    /**
+     * Запускает обработку источника с ограничением времени на загрузку страниц
+     *
+     * @param deadlineNanos момент (System.nanoTime), после которого прогон не загружает
+     *                      новые страницы, или 0 - без ограничения
+     */
+    private CompletableFuture<Void> processSourceAsync(NewsSource source, CrawlReport report, long deadlineNanos) {
+        return sourceFlight.execute(source.getId(), () -> crawlSource(source, deadlineNanos))
+                .handle((run, error) -> {
+                    if (error != null) {
+                        report.recordFailure(source, rootMessage(error));
+                    } else {
+                        recordReport(run, report);
+                    }
+                    return null;
+                });
+    }
+
+    /**
+     * Загружает и обрабатывает ленту источника.
+     * Возвращаемый future никогда не завершается с ошибкой - ошибка записывается в SourceRun.
+     */
+    private CompletableFuture<SourceRun> crawlSource(NewsSource source, long deadlineNanos) {
         logger.info("Парсинг RSS ленты: {} ({})", source.getName(), source.getRssUrl());
+        SourceRun run = new SourceRun(source);
+        run.deadlineNanos = deadlineNanos;
 
-        try {
-            SyndFeedInput input = new SyndFeedInput();
-            SyndFeed feed = input.build(new XmlReader(new URL(source.getRssUrl())));
-
-            int newArticlesCount = 0;
-            int duplicatesCount = 0;
-            int errorsCount = 0;
-            int processedCount = 0;
-
-            List<SyndEntry> entries = feed.getEntries();
-            logger.info("Найдено {} статей в RSS ленте '{}', будет обработано максимум {}", 
-                       entries.size(), source.getName(), maxArticlesPerSource);
-
-            for (SyndEntry entry : entries) {
-                // Ограничиваем количество обрабатываемых статей
-                if (processedCount >= maxArticlesPerSource) {
-                    logger.info("Достигнут лимит {} статей для источника '{}', остановка парсинга", 
-                               maxArticlesPerSource, source.getName());
-                    break;
-                }
-                
-                try {
-                    boolean result = processRssEntry(entry, source);
-                    if (result) {
-                        newArticlesCount++;
+        return ingestPipeline.feedFetch().submit(() -> withHostPermit(source.getRssUrl(), () -> fetchFeed(source)))
+                .thenCompose(response -> ingestPipeline.feedParse().submit(() -> selectNewEntries(run, response)))
+                .thenCompose(entries -> processEntriesAsync(run, entries))
+                .thenCompose(ignored -> ingestPipeline.persist().submit(() -> persistFeed(run)))
+                .handle((ignored, error) -> {
+                    completeSourceRun(run, error);
+                    return run;
+                });
+    }
+
+    /**
+     * Обрабатывает ленту, присланную WebSub хабом (см. WebSubService).
+     * Загрузка ленты пропускается; разобранные записи проходят тот же путь,
+     * что и при опросе: курсор, проверка дубликатов, загрузка страниц и сохранение.
+     * Уведомление не объединяется с опросом (sourceFlight) - у них разные записи;
+     * состояние источника они обновляют по очереди под блокировкой строки
+     * (ArticlePersistenceService.markSourceUpdated).
+     *
+     * @param body тело уведомления (RSS или Atom документ с новыми записями)
+     * @param contentType значение заголовка Content-Type уведомления или null
+     * @return future, который завершается (без ошибки) после обработки уведомления
+     */
+    public CompletableFuture<Void> processPushedFeed(NewsSource source, byte[] body, String contentType,
+                                                     CrawlReport report) {
+        logger.info("WebSub уведомление для RSS ленты: {} ({} байт)", source.getName(), body.length);
+        SourceRun run = new SourceRun(source);
+        run.trigger = "push";
+        run.pushed = true;
+
+        return ingestPipeline.feedParse().submit(() -> selectNewEntries(run, parsePushedFeed(source, body, contentType)))
+                .thenCompose(entries -> processEntriesAsync(run, entries))
+                .thenCompose(ignored -> ingestPipeline.persist().submit(() -> persistFeed(run)))
+                .handle((ignored, error) -> {
+                    completeSourceRun(run, error);
+                    recordReport(run, report);
+                    return null;
+                });
+    }
+
+    /**
+     * Выполняет задачи очереди загрузки одного источника (см. IngestQueueWorker):
+     * загрузка страниц, извлечение текста и сохранение статей, как при опросе ленты.
+     * Лента не загружается, состояние источника (курсор, выключатель) не меняется.
+     *
+     * @return future, который завершается (без ошибки) после обработки задач
+     */
+    public CompletableFuture<Void> processQueuedTasks(NewsSource source, List<IngestTask> tasks) {
+        SourceRun run = new SourceRun(source);
+        run.trigger = "queue";
+        run.queued = true;
+        run.entriesTotal = tasks.size();
+
+        return processEntriesAsync(run, tasks)
+                .thenCompose(ignored -> ingestPipeline.persist().submit(() -> persistFeed(run)))
+                .handle((ignored, error) -> {
+                    ingestQueue.release(run.taskIds);
+                    if (error != null) {
+                        // Задачи остаются в очереди и вернутся в работу после истечения аренды
+                        logger.warn("Ошибка при выполнении задач очереди источника '{}': {}",
+                                   source.getName(), rootMessage(error));
                     } else {
-                        duplicatesCount++;
+                        logger.info("Очередь загрузки, источник '{}': задач {}, добавлено {} статей, {} пропущено, {} ошибок",
+                                   source.getName(), tasks.size(), run.added.get(), run.skipped.get(), run.errors.get());
                     }
-                    processedCount++;
-                } catch (Exception e) {
-                    errorsCount++;
-                    processedCount++;
-                    logger.warn("Ошибка при обработке статьи '{}': {}", 
-                              entry.getTitle(), e.getMessage());
-                }
+                    return null;
+                });
+    }
+
+    /**
+     * Отбирает прочитанные записи ленты, которых еще нет в базе данных.
+     * Записи, известные по курсору источника (FeedCursor), и слишком старые
+     * записи отбрасываются до запроса к базе данных.
+     */
+    private List<IngestTask> selectNewEntries(SourceRun run, FeedResponse response) throws Exception {
+        NewsSource source = run.source;
+        if (response.notModified) {
+            logger.info("RSS лента '{}' не изменилась (304 Not Modified), пропускаем", source.getName());
+            return List.of();
+        }
+
+        String contentHash = response.contentHash;
+        if (!response.pushed && contentHash.equals(source.getFeedContentHash())) {
+            logger.info("Содержимое RSS ленты '{}' не изменилось, пропускаем", source.getName());
+            source.setFeedEtag(response.etag);
+            source.setFeedLastModified(response.lastModified);
+            return List.of();
+        }
+
+        run.entriesTotal = response.entries.size();
+        if (response.truncated) {
+            logger.info("Прочитано {} статей из RSS ленты '{}', чтение остановлено по лимиту {}", 
+                       response.entries.size(), source.getName(), maxArticlesPerSource);
+        } else {
+            logger.info("Найдено {} статей в RSS ленте '{}'", response.entries.size(), source.getName());
+        }
+        if (!response.pushed) {
+            // Хаб сохраняется вместе с валидаторами; подписку оформляет WebSubService
+            source.setWebsubHubUrl(response.hubUrl);
+            String topic = response.selfUrl != null ? response.selfUrl : source.getRssUrl();
+            source.setWebsubTopicUrl(response.hubUrl != null ? topic : null);
+        }
+
+        FeedCursor cursor = FeedCursor.of(source);
+        LocalDateTime minPublishedAt = maxEntryAgeHours > 0 ? LocalDateTime.now().minusHours(maxEntryAgeHours) : null;
+        FeedCursor.Selection selection = cursor.select(response.entries, minPublishedAt);
+        List<SyndEntry> candidates = selection.getEntries();
+        run.skipped.addAndGet(selection.getTooOld());
+        run.duplicates.addAndGet(selection.getKnown());
+        if (selection.getKnown() > 0 || selection.getTooOld() > 0) {
+            logger.info("RSS лента '{}': {} новых записей, {} уже известных{}, {} старше {} ч", 
+                       source.getName(), candidates.size(), selection.getKnown(),
+                       selection.isStoppedAtKnown() ? " (просмотр остановлен)" : "",
+                       selection.getTooOld(), maxEntryAgeHours);
+        }
+
+        // Одним запросом определяем, какие ссылки уже загружены
+        Set<String> candidateUrls = new LinkedHashSet<>();
+        for (SyndEntry entry : candidates) {
+            if (entry.getLink() != null) {
+                candidateUrls.add(entry.getLink());
             }
+        }
+        Set<String> knownUrls = seenUrlService.findKnownUrls(candidateUrls);
 
-            // Обновляем информацию об источнике в отдельной транзакции
-            updateSourceInfo(source, null, 0);
+        List<SyndEntry> newEntries = new ArrayList<>();
+        for (SyndEntry entry : candidates) {
+            run.processed.incrementAndGet();
 
-            logger.info("Источник '{}': обработано {}/{} статей, добавлено {} новых, {} дубликатов, {} ошибок", 
-                       source.getName(), processedCount, entries.size(), newArticlesCount, duplicatesCount, errorsCount);
+            String link = entry.getLink();
+            if (link == null) {
+                run.errors.incrementAndGet();
+                logger.warn("Запись '{}' не содержит ссылки, пропускаем", entry.getTitle());
+                continue;
+            }
+            // Повторная ссылка внутри ленты тоже считается дубликатом
+            if (knownUrls.contains(link) || !candidateUrls.remove(link)) {
+                run.duplicates.incrementAndGet();
+                continue;
+            }
+            newEntries.add(entry);
+        }
 
-        } catch (Exception e) {
-            logger.error("Ошибка при парсинге RSS ленты '{}': {}", source.getName(), e.getMessage());
-            handleSourceError(source, e.getMessage());
+        // Валидаторы запоминаются только после полной обработки ленты
+        run.etag = response.etag;
+        run.lastModified = response.lastModified;
+        run.contentHash = contentHash;
+        run.cursor = cursor;
+        run.selected = candidates;
+        return enqueueEntries(run, newEntries);
+    }
+
+    /**
+     * Ставит новые записи ленты в очередь загрузки (IngestQueue). С этого момента
+     * запись не теряется: если ее обработка прервется, задачу повторит обработчик очереди.
+     *
+     * @return задачи, которые выполняет этот прогон
+     */
+    private List<IngestTask> enqueueEntries(SourceRun run, List<SyndEntry> entries) {
+        List<IngestTask> tasks = new ArrayList<>();
+        for (SyndEntry entry : entries) {
+            tasks.add(toTask(run.source, entry));
         }
+        List<IngestTask> queued = ingestQueue.enqueue(tasks);
+        int alreadyQueued = tasks.size() - queued.size();
+        if (alreadyQueued > 0) {
+            run.duplicates.addAndGet(alreadyQueued);
+            logger.info("RSS лента '{}': {} записей уже в очереди загрузки", run.source.getName(), alreadyQueued);
+        }
+        return queued;
     }
 
     /**
-     * Обрабатывает одну запись из RSS ленты
+     * Задача загрузки с данными записи ленты, нужными для сборки статьи
      */
-    @Transactional
-    private boolean processRssEntry(SyndEntry entry, NewsSource source) {
-        try {
-            String sourceUrl = entry.getLink();
-            
-            // Проверяем, не существует ли уже такая статья
-            if (articleRepository.existsBySourceUrl(sourceUrl)) {
-                return false; // Дубликат
-            }
+    private IngestTask toTask(NewsSource source, SyndEntry entry) {
+        IngestTask task = new IngestTask(source.getId(), entry.getLink());
+        String title = cleanText(entry.getTitle());
+        task.setTitle(title != null && title.length() > MAX_TITLE_LENGTH ? title.substring(0, MAX_TITLE_LENGTH) : title);
+        task.setFeedText(feedText(entry));
+        String imageUrl = extractImageFromEntry(entry);
+        task.setImageUrl(imageUrl != null && imageUrl.length() <= MAX_URL_LENGTH ? imageUrl : null);
+        Date publishedDate = entry.getPublishedDate();
+        if (publishedDate != null) {
+            task.setPublishedAt(publishedDate.toInstant().atZone(ZoneId.systemDefault()).toLocalDateTime());
+        }
+        return task;
+    }
 
-            // Создаем новую статью
-            Article article = new Article();
-            article.setTitle(cleanText(entry.getTitle()));
-            article.setSourceUrl(sourceUrl);
-            article.setSource(source);
-            
-            // Получаем краткое описание из RSS
-            String rssDescription = "";
-            if (entry.getDescription() != null) {
-                rssDescription = cleanText(entry.getDescription().getValue());
+    /**
+     * Передает задачи новых записей ленты на последующие этапы конвейера
+     */
+    private CompletableFuture<Void> processEntriesAsync(SourceRun run, List<IngestTask> tasks) {
+        run.taskIds = tasks.stream().map(IngestTask::getId).toList();
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        for (IngestTask task : tasks) {
+            futures.add(processEntryAsync(run, task));
+        }
+        return CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]));
+    }
+
+    /**
+     * Проводит одну запись через этапы page-fetch и extract. Готовая статья
+     * копится в SourceRun и сохраняется вместе с остальными статьями ленты.
+     * ИИ-обработка не задерживает загрузку - статья сохраняется с базовой сводкой.
+     *
+     * Для источников, лента которых передает полный текст (FeedCompletenessDetector),
+     * страница не загружается и статья собирается из записи ленты.
+     */
+    private CompletableFuture<Void> processEntryAsync(SourceRun run, IngestTask task) {
+        String url = task.getUrl();
+
+        boolean fetchPage = false;
+        if (contentExtractorService.shouldExtractContent(url)) {
+            fetchPage = completenessDetector.shouldFetchPage(run.source.getId());
+            if (!fetchPage) {
+                ingestMetrics.recordPageSkipped();
             }
-            
-            // Пытаемся извлечь полный контент статьи
-            String fullContent = null;
-            if (contentExtractorService.shouldExtractContent(sourceUrl)) {
-                try {
-                    fullContent = contentExtractorService.extractFullContent(sourceUrl);
-                    if (fullContent != null && !fullContent.trim().isEmpty()) {
-                        logger.debug("Извлечен полный контент для статьи: '{}'", article.getTitle());
+        }
+
+        if (fetchPage && run.isPastDeadline()) {
+            // Бюджет прогона исчерпан: страницу загрузит обработчик очереди
+            run.postponedTaskIds.add(task.getId());
+            return CompletableFuture.completedFuture(null);
+        }
+
+        CompletableFuture<Article> built;
+        if (fetchPage) {
+            // Сборка статьи выполняется в потоке extract, завершившем общую загрузку страницы
+            built = pageFlight.execute(UrlNormalizer.normalize(url), () -> fetchPage(url))
+                    .thenApply(fetched -> {
+                        if (fetched.document != null) {
+                            completenessDetector.recordSample(run.source.getId(), task.getFeedText(),
+                                    task.getImageUrl() != null, fetched.page, fetched.document.getBytesDownloaded());
+                        }
+                        Article article = buildArticle(task, run.source, fetched.page);
+                        return article != null ? prepareArticle(article) : null;
+                    });
+        } else {
+            built = ingestPipeline.extract().submit(() -> {
+                Article article = buildArticle(task, run.source, null);
+                return article != null ? prepareArticle(article) : null;
+            });
+        }
+
+        return built
+                .handle((article, error) -> {
+                    if (error != null) {
+                        run.errors.incrementAndGet();
+                        // Задача с ошибкой остается в очереди и будет повторена обработчиком очереди
+                        run.failedTasks.put(task, rootMessage(error));
+                        run.failedUrls.add(url);
+                        logger.warn("Ошибка при обработке статьи '{}': {}", task.getTitle(), rootMessage(error));
+                    } else if (article != null) {
+                        run.articles.add(article);
+                        run.doneTaskIds.add(task.getId());
+                    } else {
+                        run.skipped.incrementAndGet();
+                        run.doneTaskIds.add(task.getId());
                     }
-                } catch (Exception e) {
-                    logger.warn("Не удалось извлечь полный контент для '{}': {}", article.getTitle(), e.getMessage());
-                }
-            }
-            
-            // Устанавливаем содержание (приоритет полному контенту)
-            String content = fullContent != null && !fullContent.trim().isEmpty() ? fullContent : rssDescription;
-            
-            // Проверяем минимальную длину контента
-            if (content == null || content.length() < 100) {
-                logger.warn("Статья '{}' имеет слишком короткий контент ({}), пропускаем", 
-                           article.getTitle(), content != null ? content.length() : 0);
-                return false;
+                    return null;
+                });
+    }
+
+    /**
+     * Загружает страницу статьи и извлекает из нее текст. Загрузка занимает место
+     * в бюджете документов конвейера до завершения извлечения.
+     *
+     * @return future страницы; document и page равны null, если страницу загрузить не удалось
+     */
+    private CompletableFuture<FetchedPage> fetchPage(String url) {
+        try {
+            ingestPipeline.acquireDocumentBudget();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return CompletableFuture.failedFuture(e);
+        }
+        return fetchDocumentPolitely(url, System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(maxPolitenessWaitMs))
+                .thenCompose(document -> ingestPipeline.extract().submit(
+                        () -> new FetchedPage(document, document != null ? extractPage(document) : null)))
+                .whenComplete((fetched, error) -> ingestPipeline.releaseDocumentBudget());
+    }
+
+    /**
+     * Завершает обработку источника: обновляет его состояние и метрики
+     */
+    private void completeSourceRun(SourceRun run, Throwable error) {
+        ingestQueue.release(run.taskIds);
+        NewsSource source = run.source;
+        String errorMessage = error != null ? rootMessage(error) : null;
+        run.error = errorMessage;
+        ingestMetrics.recordSourceRun(source, run.trigger, System.nanoTime() - run.startedNanos, run.entriesTotal,
+                run.added.get(), run.duplicates.get(), run.skipped.get(), run.errors.get(), errorMessage);
+
+        if (error != null) {
+            logger.error("Ошибка при парсинге RSS ленты '{}': {}", source.getName(), errorMessage);
+            try {
+                persistenceService.markSourceFailed(source, errorMessage);
+            } catch (Exception e) {
+                logger.error("Не удалось записать ошибку источника '{}': {}", source.getName(), e.getMessage());
             }
-            
-            article.setContent(content);
+            return;
+        }
 
-            // Извлекаем изображение из RSS
-            String imageUrl = extractImageFromEntry(entry);
-            
-            // Если изображение не найдено в RSS, пытаемся извлечь с веб-страницы
-            if (imageUrl == null && contentExtractorService.shouldExtractContent(sourceUrl)) {
-                try {
-                    imageUrl = contentExtractorService.extractMainImage(sourceUrl);
-                    if (imageUrl != null) {
-                        logger.debug("Извлечено изображение с веб-страницы для статьи: '{}'", article.getTitle());
+        logger.info("Источник '{}': обработано {}/{} статей, добавлено {} новых, {} дубликатов, {} пропущено, {} ошибок", 
+                   source.getName(), run.processed.get(), run.entriesTotal, run.added.get(),
+                   run.duplicates.get(), run.skipped.get(), run.errors.get());
+    }
+
+    /**
+     * Записывает результат прогона источника в отчет
+     */
+    private void recordReport(SourceRun run, CrawlReport report) {
+        if (run.error != null) {
+            report.recordFailure(run.source, run.error);
+        } else {
+            report.recordSuccess(run.source, run.added.get());
+        }
+    }
+
+    /**
+     * Загружает страницу статьи на этапе page-fetch с соблюдением частоты запросов
+     * к хосту (HostPolitenessScheduler). Если хост еще не готов принять запрос,
+     * задача не занимает поток этапа, а повторно ставится в очередь через нужное
+     * время - тем временем загружаются страницы других хостов.
+     *
+     * Если хост не будет готов до deadlineNanos (например, после Retry-After
+     * на час), запись завершается ошибкой и повторяется обработчиком очереди загрузки.
+     *
+     * Свежая копия страницы из PageCache берется до обращения к HostPolitenessScheduler:
+     * запроса к сайту нет, поэтому ни токен частоты, ни разрешение на хост не нужны.
+     * Устаревшая копия проверяется условным запросом - он получает их как обычная загрузка.
+     */
+    private CompletableFuture<PageDocument> fetchDocumentPolitely(String url, long deadlineNanos) {
+        return ingestPipeline.pageFetch().submit(() -> {
+                    PageDocument cached = readFreshCachedDocument(url);
+                    if (cached != null) {
+                        return PageFetch.done(cached);
                     }
-                } catch (Exception e) {
-                    logger.debug("Не удалось извлечь изображение с веб-страницы для '{}': {}", article.getTitle(), e.getMessage());
+                    long waitMillis = politeness.tryAcquire(url);
+                    if (waitMillis == 0) {
+                        return PageFetch.done(fetchDocument(url));
+                    }
+                    if (System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(waitMillis) > deadlineNanos) {
+                        throw new IOException("Хост не принимает запросы еще " + waitMillis / 1000 + " с: " + url);
+                    }
+                    return PageFetch.deferred(waitMillis);
+                })
+                .thenCompose(fetch -> fetch.deferred
+                        ? politeness.delay(fetch.waitMillis).thenComposeAsync(
+                                ignored -> fetchDocumentPolitely(url, deadlineNanos), politeness.getResumeExecutor())
+                        : CompletableFuture.completedFuture(fetch.document));
+    }
+
+    /**
+     * Свежая копия страницы из кэша или null, если страницу нужно загрузить
+     */
+    private PageDocument readFreshCachedDocument(String url) {
+        try {
+            return contentExtractorService.readFreshCachedDocument(url);
+        } catch (Exception e) {
+            logger.debug("Не удалось прочитать страницу '{}' из кэша: {}", url, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Загружает и потоково разбирает страницу статьи с учетом ограничения на хост.
+     * При ошибке возвращает null - статья будет собрана из описания в RSS.
+     */
+    private PageDocument fetchDocument(String url) {
+        try {
+            return withHostPermit(url, () -> contentExtractorService.fetchDocument(url));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (Exception e) {
+            logger.warn("Не удалось загрузить страницу '{}': {}", url, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Разбирает загруженную страницу статьи. При ошибке возвращает null.
+     */
+    private ExtractedPage extractPage(PageDocument document) {
+        try {
+            return contentExtractorService.extractPage(document);
+        } catch (Exception e) {
+            logger.warn("Не удалось разобрать страницу '{}': {}", document.getUrl(), e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Выполняет действие, удерживая разрешение на хост URL
+     */
+    private <T> T withHostPermit(String url, Callable<T> action) throws Exception {
+        String host = extractHost(url);
+        // Счетчик пользователей меняется только внутри compute по ключу хоста, поэтому запись
+        // не удаляется, пока ее держит или ждет хотя бы один поток
+        HostPermits permits = hostPermits.compute(host, (key, current) -> {
+            HostPermits entry = current != null ? current : new HostPermits(Math.max(1, perHostLimit));
+            entry.users++;
+            return entry;
+        });
+        try {
+            permits.semaphore.acquire();
+            try {
+                return action.call();
+            } finally {
+                permits.semaphore.release();
+            }
+        } finally {
+            hostPermits.computeIfPresent(host, (key, current) -> --current.users == 0 ? null : current);
+        }
+    }
+
+    /**
+     * Чередует источники по хостам, чтобы потоки загрузки не простаивали
+     * в ожидании разрешения на один и тот же хост
+     */
+    private List<NewsSource> interleaveByHost(List<NewsSource> sources) {
+        Map<String, Deque<NewsSource>> byHost = new LinkedHashMap<>();
+        for (NewsSource source : sources) {
+            byHost.computeIfAbsent(extractHost(source.getRssUrl()), host -> new ArrayDeque<>()).add(source);
+        }
+
+        List<NewsSource> result = new ArrayList<>(sources.size());
+        while (!byHost.isEmpty()) {
+            Iterator<Deque<NewsSource>> iterator = byHost.values().iterator();
+            while (iterator.hasNext()) {
+                Deque<NewsSource> queue = iterator.next();
+                result.add(queue.poll());
+                if (queue.isEmpty()) {
+                    iterator.remove();
                 }
             }
-            
-            article.setImageUrl(imageUrl);
+        }
+        return result;
+    }
 
-            // Устанавливаем дату публикации
-            Date publishedDate = entry.getPublishedDate();
-            if (publishedDate != null) {
-                article.setPublishedAt(publishedDate.toInstant().atZone(ZoneId.systemDefault()).toLocalDateTime());
-            } else {
-                article.setPublishedAt(LocalDateTime.now());
+    /**
+     * Извлекает хост из URL (без префикса www.)
+     */
+    private String extractHost(String url) {
+        try {
+            String host = URI.create(url.trim()).getHost();
+            if (host == null) {
+                return "unknown";
             }
+            host = host.toLowerCase();
+            return host.startsWith("www.") ? host.substring(4) : host;
+        } catch (Exception e) {
+            return "unknown";
+        }
+    }
 
-            // ИИ-обработка статьи (с обработкой ошибок)
-            try {
-                processArticleWithAI(article, content);
-            } catch (Exception e) {
-                logger.warn("Ошибка при ИИ-обработке статьи '{}': {}, используем базовую обработку", 
-                           article.getTitle(), e.getMessage());
-                processArticleBasic(article, content);
+    /**
+     * Возвращает сообщение исходной ошибки, разворачивая CompletionException
+     */
+    private String rootMessage(Throwable error) {
+        Throwable cause = error;
+        while ((cause instanceof CompletionException || cause instanceof ExecutionException) && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        return cause.getMessage() != null ? cause.getMessage() : cause.getClass().getSimpleName();
+    }
+
+    /**
+     * Загружает RSS ленту условным GET запросом (If-None-Match / If-Modified-Since)
+     * через общий HTTP клиент краулера
+     */
+    private FeedResponse fetchFeed(NewsSource source) throws IOException {
+        Map<String, String> headers = new LinkedHashMap<>();
+        if (source.getFeedEtag() != null) {
+            headers.put("If-None-Match", source.getFeedEtag());
+        }
+        if (source.getFeedLastModified() != null) {
+            headers.put("If-Modified-Since", source.getFeedLastModified());
+        }
+
+        long started = System.nanoTime();
+        HttpFetchResult opened;
+        try {
+            opened = httpClient.open(source.getRssUrl(), headers);
+        } catch (IOException e) {
+            ingestMetrics.recordFeedFetch(System.nanoTime() - started, "error", 0);
+            throw e;
+        }
+
+        try (HttpFetchResult result = opened) {
+            if (result.isNotModified()) {
+                ingestMetrics.recordFeedFetch(System.nanoTime() - started, "not_modified", result.getWireBytes());
+                return FeedResponse.notModified();
+            }
+            if (result.getStatusCode() >= 400) {
+                ingestMetrics.recordFeedFetch(System.nanoTime() - started, "error", result.getWireBytes());
+                throw new IOException("HTTP " + result.getStatusCode() + " при загрузке " + source.getRssUrl());
             }
 
-            // Устанавливаем статус
-            article.setStatus(ArticleStatus.PENDING);
-            article.setCreatedAt(LocalDateTime.now());
+            // Записи читаются потоком; после лимита соединение закрывается, остаток ленты не загружается
+            StreamingFeedReader.Result feed = feedReader.read(result.getBodyStream(), result.getContentType(),
+                    maxArticlesPerSource);
 
-            // Сохраняем статью
-            articleRepository.save(article);
-            
-            logger.debug("Добавлена новая статья: '{}'", article.getTitle());
-            return true;
-            
-        } catch (Exception e) {
-            logger.error("Ошибка при обработке статьи '{}': {}", entry.getTitle(), e.getMessage());
-            return false; // Возвращаем false вместо выброса исключения
+            FeedResponse response = new FeedResponse();
+            response.etag = result.header("ETag");
+            response.lastModified = result.header("Last-Modified");
+            response.entries = feed.getEntries();
+            response.truncated = feed.isTruncated();
+            response.contentHash = entriesHash(feed.getEntries());
+            response.hubUrl = feed.getHubUrl();
+            response.selfUrl = feed.getSelfUrl();
+            ingestMetrics.recordFeedFetch(System.nanoTime() - started, "ok", result.getWireBytes());
+            return response;
+        }
+    }
+
+    /**
+     * Разбирает ленту из WebSub уведомления. Валидаторы и хэш ленты
+     * не меняются - уведомление содержит только новые записи.
+     */
+    private FeedResponse parsePushedFeed(NewsSource source, byte[] body, String contentType) throws IOException {
+        StreamingFeedReader.Result feed = feedReader.read(new ByteArrayInputStream(body), contentType,
+                maxArticlesPerSource);
+
+        FeedResponse response = new FeedResponse();
+        response.pushed = true;
+        response.etag = source.getFeedEtag();
+        response.lastModified = source.getFeedLastModified();
+        response.contentHash = source.getFeedContentHash();
+        response.entries = feed.getEntries();
+        response.truncated = feed.isTruncated();
+        return response;
+    }
+
+    /**
+     * Хэш прочитанных записей ленты (ссылки, заголовки, даты) для определения,
+     * изменилось ли начало ленты с прошлого опроса
+     */
+    private String entriesHash(List<SyndEntry> entries) {
+        StringBuilder key = new StringBuilder();
+        for (SyndEntry entry : entries) {
+            key.append(entry.getLink()).append('\n')
+               .append(entry.getTitle()).append('\n')
+               .append(entry.getPublishedDate() != null ? entry.getPublishedDate().getTime() : 0).append('\n');
         }
+        return sha256(key.toString().getBytes(StandardCharsets.UTF_8));
     }
 
     /**
-     * Обрабатывает статью с помощью ИИ (LM Studio)
+     * Вычисляет SHA-256 хеш содержимого ленты
      */
-    private void processArticleWithAI(Article article, String content) {
+    private String sha256(byte[] data) {
         try {
-            // Проверяем доступность LM Studio API
-            if (!lmStudioService.isConfigured()) {
-                logger.warn("LM Studio API не настроен, используем базовую обработку");
-                processArticleBasic(article, content);
-                return;
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(data));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 недоступен", e);
+        }
+    }
+
+    /**
+     * Собирает статью из задачи загрузки (данных записи RSS) и разобранной страницы.
+     * 
+     * @param page разобранная страница или null, если страница не загружалась
+     * @return статья или null, если контент слишком короткий
+     */
+    private Article buildArticle(IngestTask task, NewsSource source, ExtractedPage page) {
+        // Дубликаты уже отсеяны пакетной проверкой при разборе ленты
+        String sourceUrl = task.getUrl();
+
+        // Создаем новую статью
+        Article article = new Article();
+        article.setTitle(task.getTitle());
+        article.setSourceUrl(sourceUrl);
+        article.setSource(source);
+        
+        if (page != null && page.hasContent()) {
+            logger.debug("Извлечен полный контент для статьи: '{}'", article.getTitle());
+        }
+        
+        // Устанавливаем содержание (приоритет тексту страницы, иначе текст из RSS)
+        String content = page != null && page.hasContent() ? page.getContent() : task.getFeedText();
+        
+        // Проверяем минимальную длину контента
+        if (content == null || content.length() < 100) {
+            logger.warn("Статья '{}' имеет слишком короткий контент ({}), пропускаем", 
+                       article.getTitle(), content != null ? content.length() : 0);
+            return null;
+        }
+        
+        article.setContent(content);
+
+        // Изображение из RSS
+        String imageUrl = task.getImageUrl();
+        
+        // Если изображение не найдено в RSS, берем его с уже загруженной веб-страницы
+        if (imageUrl == null && page != null && page.getImageUrl() != null) {
+            imageUrl = page.getImageUrl();
+            logger.debug("Извлечено изображение с веб-страницы для статьи: '{}'", article.getTitle());
+        }
+        
+        article.setImageUrl(imageUrl);
+
+        // Устанавливаем дату публикации (из RSS, иначе из метаданных страницы)
+        if (task.getPublishedAt() != null) {
+            article.setPublishedAt(task.getPublishedAt());
+        } else if (page != null && page.getPublishedAt() != null) {
+            article.setPublishedAt(page.getPublishedAt());
+        } else {
+            article.setPublishedAt(LocalDateTime.now());
+        }
+
+        return article;
+    }
+
+    /**
+     * Текст записи ленты: самый длинный из content:encoded (contents) и description,
+     * не длиннее MAX_FEED_TEXT_LENGTH
+     */
+    private String feedText(SyndEntry entry) {
+        String text = entry.getDescription() != null ? cleanText(entry.getDescription().getValue()) : null;
+        if (entry.getContents() != null) {
+            for (SyndContent content : entry.getContents()) {
+                String value = cleanText(content.getValue());
+                if (value != null && (text == null || value.length() > text.length())) {
+                    text = value;
+                }
             }
+        }
+        if (text == null) {
+            return "";
+        }
+        return text.length() > MAX_FEED_TEXT_LENGTH ? text.substring(0, MAX_FEED_TEXT_LENGTH) : text;
+    }
+
+    /**
+     * Базовая обработка статьи перед сохранением. ИИ-обработка выполняется позже
+     * фоновым ArticleEnrichmentService, если LM Studio настроен.
+     */
+    private Article prepareArticle(Article article) {
+        processArticleBasic(article, article.getContent());
+        article.setEnrichmentState(enrichmentService.initialState());
 
-            // Генерируем сводку с помощью ИИ
-            if (content != null && !content.isEmpty()) {
-                String aiSummary = lmStudioService.generateSummary(content);
-                article.setSummary(aiSummary);
-                logger.debug("ИИ сгенерировал сводку для статьи: '{}'", article.getTitle());
+        // Устанавливаем статус
+        article.setStatus(ArticleStatus.PENDING);
+        article.setCreatedAt(LocalDateTime.now());
+        return article;
+    }
+
+    /**
+     * Сохраняет статьи ленты одной транзакцией вместе с обновлением источника
+     * и удалением выполненных задач очереди загрузки.
+     * Если пакет не удалось записать (например, статью с той же ссылкой
+     * одновременно добавил другой источник), статьи сохраняются по одной.
+     * Задачи с ошибками откладываются для повтора (IngestQueue.fail).
+     */
+    private Void persistFeed(SourceRun run) {
+        NewsSource source = run.source;
+        FeedCursor advanced = null;
+        if (run.cursor != null) {
+            source.setFeedEtag(run.etag);
+            source.setFeedLastModified(run.lastModified);
+            source.setFeedContentHash(run.contentHash);
+
+            // Курсор не проходит записи с ошибками: следующий опрос отберет их снова
+            List<SyndEntry> processed = new ArrayList<>();
+            List<SyndEntry> failed = new ArrayList<>();
+            for (SyndEntry entry : run.selected) {
+                if (entry.getLink() != null && run.failedUrls.contains(entry.getLink())) {
+                    failed.add(entry);
+                } else {
+                    processed.add(entry);
+                }
             }
+            advanced = run.cursor.advance(processed, failed, LocalDateTime.now(), cursorRecentKeys);
+            advanced.applyTo(source);
+        }
 
-            // Определяем категорию с помощью ИИ
-            String aiCategory = lmStudioService.categorizeArticle(article.getTitle(), content);
-            Category category = findOrCreateCategory(aiCategory);
-            article.setCategory(category);
-            logger.debug("ИИ определил категорию '{}' для статьи: '{}'", aiCategory, article.getTitle());
+        failTasks(run);
+        postponeTasks(run);
 
+        List<Article> articles = new ArrayList<>(run.articles);
+        List<Long> doneTaskIds = new ArrayList<>(run.doneTaskIds);
+        try {
+            if (run.queued) {
+                run.added.addAndGet(persistenceService.saveQueuedArticles(articles, doneTaskIds));
+            } else {
+                run.added.addAndGet(persistenceService.saveFeedArticles(source, advanced, run.pushed,
+                                                                          articles, doneTaskIds));
+            }
+            ingestMetrics.recordQueueTasks("done", doneTaskIds.size());
+            LocalDateTime ingestedAt = LocalDateTime.now();
+            for (Article article : articles) {
+                seenUrlService.markIngested(article.getSourceUrl());
+                ingestMetrics.recordFreshness(article.getPublishedAt(), ingestedAt);
+            }
+        } catch (DataIntegrityViolationException e) {
+            logger.warn("Пакет статей источника '{}' не сохранен ({}), сохраняем по одной",
+                       source.getName(), rootMessage(e));
+            for (Article article : articles) {
+                article.setId(null); // id из откаченной транзакции
+                try {
+                    persistenceService.saveArticle(article);
+                    seenUrlService.markIngested(article.getSourceUrl());
+                    ingestMetrics.recordFreshness(article.getPublishedAt(), LocalDateTime.now());
+                    run.added.incrementAndGet();
+                } catch (DataIntegrityViolationException duplicate) {
+                    run.duplicates.incrementAndGet();
+                }
+            }
+            ingestQueue.complete(doneTaskIds);
+            if (!run.queued) {
+                persistenceService.markSourceUpdated(source, advanced, run.pushed);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Возвращает в очередь задачи, страницы которых прогон не загружал из-за бюджета времени
+     */
+    private void postponeTasks(SourceRun run) {
+        List<Long> postponed = new ArrayList<>(run.postponedTaskIds);
+        if (postponed.isEmpty()) {
+            return;
+        }
+        try {
+            ingestQueue.postpone(postponed);
+            logger.info("RSS лента '{}': бюджет прогона исчерпан, {} записей оставлено в очереди загрузки",
+                       run.source.getName(), postponed.size());
         } catch (Exception e) {
-            logger.error("Ошибка при ИИ-обработке статьи '{}': {}", article.getTitle(), e.getMessage());
-            // Fallback на базовую обработку
-            processArticleBasic(article, content);
+            logger.warn("Не удалось вернуть задачи источника '{}' в очередь: {}", run.source.getName(), e.getMessage());
         }
     }
 
     /**
-     * Базовая обработка статьи без ИИ (fallback)
+     * Откладывает задачи с ошибками для повтора или переносит их в dead letters.
+     * Если это не удалось, задачи вернутся в работу после истечения аренды.
+     */
+    private void failTasks(SourceRun run) {
+        for (Map.Entry<IngestTask, String> failed : run.failedTasks.entrySet()) {
+            try {
+                ingestQueue.fail(failed.getKey(), failed.getValue());
+            } catch (Exception e) {
+                logger.warn("Не удалось отложить задачу {}: {}", failed.getKey().getId(), e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Базовая обработка статьи без ИИ
      */
     private void processArticleBasic(Article article, String content) {
         // Генерируем простую сводку
@@ -286,22 +1098,6 @@ public class RssParserService {
         article.setCategory(category);
     }
 
-    /**
-     * Находит или создает категорию
-     */
-    private Category findOrCreateCategory(String categoryName) {
-        Optional<Category> existingCategory = categoryRepository.findByName(categoryName);
-        
-        if (existingCategory.isPresent()) {
-            return existingCategory.get();
-        }
-        
-        // Если категория не найдена, возвращаем категорию "Общее"
-        return categoryRepository.findByName("Общество")
-                .orElse(categoryRepository.findByName("Общее")
-                        .orElse(null));
-    }
-
     /**
      * Очищает текст от HTML тегов и лишних символов
      */
@@ -343,11 +1139,11 @@ public class RssParserService {
     }
 
     /**
-     * Генерирует базовую краткую сводку статьи (делегирует в LMStudioService)
+     * Генерирует базовую краткую сводку статьи без обращения к ИИ (делегирует в LMStudioService)
      */
     private String generateBasicSummary(String content) {
         // Используем метод из LMStudioService для единообразия
-        return lmStudioService.generateSummary(content);
+        return lmStudioService.generateBasicSummary(content);
     }
 
     /**
@@ -415,47 +1211,6 @@ public class RssParserService {
         return category.orElse(null);
     }
 
-    /**
-     * Обновляет информацию об источнике в отдельной транзакции
-     */
-    @Transactional
-    private void updateSourceInfo(NewsSource source, String errorMessage, int errorCount) {
-        // Получаем свежую копию источника из БД
-        NewsSource freshSource = newsSourceRepository.findById(source.getId()).orElse(source);
-        
-        freshSource.setLastUpdated(LocalDateTime.now());
-        if (errorMessage != null) {
-            freshSource.setLastError(errorMessage);
-            freshSource.setErrorCount(errorCount);
-        } else {
-            freshSource.setLastError(null);
-            freshSource.setErrorCount(0);
-        }
-        
-        newsSourceRepository.save(freshSource);
-    }
-
-    /**
-     * Обрабатывает ошибку источника
-     */
-    @Transactional
-    private void handleSourceError(NewsSource source, String errorMessage) {
-        // Получаем свежую копию источника из БД
-        NewsSource freshSource = newsSourceRepository.findById(source.getId()).orElse(source);
-        
-        freshSource.setLastError(errorMessage);
-        freshSource.setErrorCount(freshSource.getErrorCount() + 1);
-        
-        // Отключаем источник после 5 ошибок подряд
-        if (freshSource.getErrorCount() >= 5) {
-            freshSource.setActive(false);
-            logger.warn("Источник '{}' отключен после {} ошибок подряд", 
-                       freshSource.getName(), freshSource.getErrorCount());
-        }
-        
-        newsSourceRepository.save(freshSource);
-    }
-    
     /**
      * Очищает summary всех статей от навигации и призывов к регистрации
      */
@@ -667,4 +1422,125 @@ public class RssParserService {
                // Также принимаем URL без расширения (могут быть динамические изображения)
                (!lowerUrl.contains(".") && url.length() > 20);
     }
-}
\ No newline at end of file
+    
+    /**
+     * Разрешения на запросы к хосту и число потоков, которые их держат или ждут
+     */
+    private static class HostPermits {
+
+        private final Semaphore semaphore;
+        // Меняется только внутри compute карты hostPermits
+        private int users;
+
+        private HostPermits(int limit) {
+            this.semaphore = new Semaphore(limit);
+        }
+    }
+
+    /**
+     * Результат задачи загрузки страницы: документ или отсрочка до готовности хоста
+     */
+    private static class PageFetch {
+
+        private boolean deferred;
+        private long waitMillis;
+        private PageDocument document;
+
+        private static PageFetch done(PageDocument document) {
+            PageFetch fetch = new PageFetch();
+            fetch.document = document;
+            return fetch;
+        }
+
+        private static PageFetch deferred(long waitMillis) {
+            PageFetch fetch = new PageFetch();
+            fetch.deferred = true;
+            fetch.waitMillis = waitMillis;
+            return fetch;
+        }
+    }
+
+    /**
+     * Ответ сервера на запрос RSS ленты или лента из WebSub уведомления
+     */
+    private static class FeedResponse {
+
+        private boolean notModified;
+        private boolean pushed;
+        private List<SyndEntry> entries = List.of();
+        private boolean truncated;
+        private String contentHash;
+        private String etag;
+        private String lastModified;
+        private String hubUrl;
+        private String selfUrl;
+
+        private static FeedResponse notModified() {
+            FeedResponse response = new FeedResponse();
+            response.notModified = true;
+            return response;
+        }
+    }
+
+    /**
+     * Состояние обработки одного источника в рамках прогона
+     */
+    private static class SourceRun {
+
+        private final NewsSource source;
+
+        private final long startedNanos = System.nanoTime();
+        private String trigger = "poll";
+
+        private final AtomicInteger processed = new AtomicInteger();
+        private final AtomicInteger added = new AtomicInteger();
+        private final AtomicInteger duplicates = new AtomicInteger();
+        private final AtomicInteger skipped = new AtomicInteger();
+        private final AtomicInteger errors = new AtomicInteger();
+        private final ConcurrentLinkedQueue<Article> articles = new ConcurrentLinkedQueue<>();
+        private volatile int entriesTotal;
+
+        private volatile String etag;
+        private volatile String lastModified;
+        private volatile String contentHash;
+        private volatile FeedCursor cursor;
+        private volatile List<SyndEntry> selected = List.of();
+        private final ConcurrentLinkedQueue<Long> doneTaskIds = new ConcurrentLinkedQueue<>();
+        private final Map<IngestTask, String> failedTasks = new ConcurrentHashMap<>();
+        private final Set<String> failedUrls = ConcurrentHashMap.newKeySet();
+        // Задачи, к которым прогон не приступил после окончания бюджета времени
+        private final ConcurrentLinkedQueue<Long> postponedTaskIds = new ConcurrentLinkedQueue<>();
+        // Момент окончания бюджета (System.nanoTime) или 0 - без ограничения
+        private long deadlineNanos;
+        // Задачи очереди, которые выполняет прогон (их аренда продлевается до конца прогона)
+        private volatile List<Long> taskIds = List.of();
+        // Прогон задач очереди загрузки, а не ленты (см. processQueuedTasks)
+        private boolean queued;
+        // Лента получена WebSub уведомлением (см. processPushedFeed)
+        private boolean pushed;
+        // Ошибка прогона или null
+        private volatile String error;
+
+        private SourceRun(NewsSource source) {
+            this.source = source;
+        }
+
+        private boolean isPastDeadline() {
+            return deadlineNanos != 0 && System.nanoTime() - deadlineNanos > 0;
+        }
+    }
+
+    /**
+     * Загруженная страница статьи и извлеченный из нее текст
+     */
+    private static class FetchedPage {
+
+        private final PageDocument document;
+        private final ExtractedPage page;
+
+        private FetchedPage(PageDocument document, ExtractedPage page) {
+            this.document = document;
+            this.page = page;
+        }
+    }
+}
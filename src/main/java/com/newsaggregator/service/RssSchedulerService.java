@@ -1,22 +1,51 @@
 package com.newsaggregator.service;
 
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
+import com.newsaggregator.entity.CircuitState;
+import com.newsaggregator.entity.NewsSource;
+import com.newsaggregator.repository.NewsSourceRepository;
+
+import jakarta.annotation.PostConstruct;
+
 /**
  * Сервис для планового парсинга RSS лент.
- * 
- * Предоставляет функциональность для:
- * - Автоматического парсинга RSS лент по расписанию
- * - Парсинга в рабочее время (с 8:00 до 22:00)
- * - Ночного парсинга (в 2:00 каждый день)
- * - Обработки ошибок при плановом парсинге
- * 
- * ВНИМАНИЕ: Все методы планового парсинга временно отключены
- * для ручного управления процессом парсинга.
- * 
+ *
+ * Каждый источник опрашивается по собственному расписанию: интервал
+ * подбирается по наблюдаемой скорости публикации (см. AdaptivePollingPolicy).
+ * Расписание хранится в очереди с приоритетом по времени следующего опроса,
+ * поэтому на каждом такте извлекаются только источники, которым пора
+ * опрашиваться, без просмотра всей таблицы источников.
+ *
+ * Очередь заполняется из базы данных один раз при старте приложения,
+ * дальше источники добавляются и удаляются через schedule() и unschedule().
+ *
+ * При нескольких экземплярах приложения (app.cluster.enabled=true) каждый
+ * узел держит полное расписание, но опрашивает только источники, арендованные
+ * им через SourceLeaseService; остальные откладываются до следующей проверки.
+ *
+ * Источники с действующей WebSub подпиской (см. WebSubService) получают новые
+ * записи от хаба и опрашиваются не чаще app.websub.safety-poll-seconds.
+ *
  * @author News Aggregator Team
  * @version 1.0
  * @since 1.0
@@ -29,66 +58,281 @@ public class RssSchedulerService {
     @Autowired
     private RssParserService rssParserService;
 
+    @Autowired
+    private NewsSourceRepository newsSourceRepository;
+
+    @Autowired
+    private SourceLeaseService sourceLeaseService;
+
+    @Value("${app.rss.scheduler.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.rss.update-interval:1800000}")
+    private long initialIntervalMs;
+
+    @Value("${app.rss.scheduler.min-interval-seconds:60}")
+    private long minIntervalSeconds;
+
+    @Value("${app.rss.scheduler.max-interval-seconds:3600}")
+    private long maxIntervalSeconds;
+
+    @Value("${app.rss.scheduler.target-articles-per-poll:3}")
+    private double targetArticlesPerPoll;
+
+    @Value("${app.rss.scheduler.max-polls-per-tick:100}")
+    private int maxPollsPerTick;
+
+    @Value("${app.rss.max-articles-per-source:10}")
+    private int maxArticlesPerSource;
+
+    @Value("${app.websub.safety-poll-seconds:21600}")
+    private long websubSafetyPollSeconds;
+
+    @Value("${app.cluster.heartbeat-ms:10000}")
+    private long clusterHeartbeatMs;
+
+    private AdaptivePollingPolicy policy;
+
+    // Очередь опросов; устаревшие записи пропускаются при извлечении (ленивое удаление)
+    private final PriorityQueue<ScheduledPoll> queue = new PriorityQueue<>();
+    private final Map<Long, ScheduledPoll> scheduled = new HashMap<>();
+    private final Set<Long> inFlight = ConcurrentHashMap.newKeySet();
+
+    @PostConstruct
+    void init() {
+        policy = new AdaptivePollingPolicy(minIntervalSeconds, maxIntervalSeconds, targetArticlesPerPoll, 0.3);
+    }
+
+    /**
+     * Загружает расписание активных источников при старте приложения
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadSchedule() {
+        if (!enabled) {
+            logger.info("Плановый парсинг RSS лент отключен (app.rss.scheduler.enabled=false)");
+            return;
+        }
+
+        List<NewsSource> sources = newsSourceRepository.findByActiveTrueOrderByNextPollAtAsc();
+        LocalDateTime now = LocalDateTime.now();
+
+        synchronized (this) {
+            for (NewsSource source : sources) {
+                // Источники без расписания распределяются по первой минуте
+                LocalDateTime dueAt = source.getNextPollAt() != null
+                        ? source.getNextPollAt()
+                        : now.plusSeconds(ThreadLocalRandom.current().nextLong(60));
+                enqueue(source.getId(), dueAt);
+            }
+        }
+        logger.info("Загружено расписание опроса для {} источников", sources.size());
+    }
+
+    /**
+     * Добавляет источник в расписание или обновляет его. Неактивные источники
+     * удаляются из расписания. Новый источник опрашивается сразу.
+     */
+    public void schedule(NewsSource source) {
+        if (!enabled || source.getId() == null) {
+            return;
+        }
+        if (!source.isActive()) {
+            unschedule(source.getId());
+            return;
+        }
+        if (inFlight.contains(source.getId())) {
+            return; // Будет запланирован по завершении текущего опроса
+        }
+
+        LocalDateTime dueAt = source.getNextPollAt() != null ? source.getNextPollAt() : LocalDateTime.now();
+        synchronized (this) {
+            enqueue(source.getId(), dueAt);
+        }
+    }
+
     /**
-     * Автоматический парсинг RSS лент каждые 30 минут.
-     * 
-     * ВРЕМЕННО ОТКЛЮЧЕН для ручного управления.
-     * Для активации раскомментируйте аннотацию @Scheduled(fixedRate = 30 * 60 * 1000).
-     * 
-     * Выполняет парсинг всех активных RSS источников с интервалом 30 минут.
-     * Обрабатывает ошибки и логирует результаты выполнения.
+     * Удаляет источник из расписания
      */
-    // @Scheduled(fixedRate = 30 * 60 * 1000) // 30 минут в миллисекундах
-    public void scheduleRssParsing() {
-        logger.info("Запуск планового парсинга RSS лент...");
-        
+    public synchronized void unschedule(Long sourceId) {
+        scheduled.remove(sourceId);
+    }
+
+    /**
+     * Запускает опрос источников, время которых подошло.
+     * Передача в конвейер блокируется, когда этап загрузки лент заполнен.
+     */
+    @Scheduled(fixedDelayString = "${app.rss.scheduler.tick-ms:5000}",
+               initialDelayString = "${app.rss.scheduler.initial-delay-ms:30000}")
+    public void dispatchDuePolls() {
+        if (!enabled) {
+            return;
+        }
+
+        List<Long> dueIds = pollDue(LocalDateTime.now());
+        if (dueIds.isEmpty()) {
+            return;
+        }
+
+        logger.debug("Плановый опрос {} источников", dueIds.size());
+        Set<Long> notDispatched = new HashSet<>(dueIds);
         try {
-            rssParserService.parseAllRssFeeds();
-            logger.info("Плановый парсинг RSS лент завершен успешно");
+            for (NewsSource source : newsSourceRepository.findAllById(dueIds)) {
+                if (!source.isActive()) {
+                    continue;
+                }
+                if (!sourceLeaseService.isOwner(source.getId())) {
+                    // Источник опрашивает другой узел - проверим аренду после следующего сигнала,
+                    // но не раньше времени опроса, записанного владельцем
+                    inFlight.remove(source.getId());
+                    notDispatched.remove(source.getId());
+                    LocalDateTime recheckAt = LocalDateTime.now().plusNanos(clusterHeartbeatMs * 1_000_000);
+                    if (source.getNextPollAt() != null && source.getNextPollAt().isAfter(recheckAt)) {
+                        recheckAt = source.getNextPollAt();
+                    }
+                    synchronized (this) {
+                        enqueue(source.getId(), recheckAt);
+                    }
+                    continue;
+                }
+                if (!rssParserService.allowBreakerRequest(source)) {
+                    // Источник приостановлен - вернемся к нему после истечения паузы
+                    inFlight.remove(source.getId());
+                    notDispatched.remove(source.getId());
+                    synchronized (this) {
+                        enqueue(source.getId(), source.getCircuitOpenUntil());
+                    }
+                    continue;
+                }
+                LocalDateTime previousPoll = source.getLastUpdated();
+                CrawlReport report = new CrawlReport();
+                rssParserService.parseRssFeedAsync(source, report)
+                        .whenComplete((ignored, error) -> onPollCompleted(source, previousPoll, report));
+                notDispatched.remove(source.getId());
+            }
         } catch (Exception e) {
             logger.error("Ошибка при плановом парсинге RSS лент: {}", e.getMessage(), e);
+        } finally {
+            // Удаленные, отключенные и не запущенные из-за ошибки источники
+            notDispatched.forEach(inFlight::remove);
         }
     }
 
     /**
-     * Парсинг RSS лент каждый час в рабочее время (с 8:00 до 22:00).
-     * 
-     * ВРЕМЕННО ОТКЛЮЧЕН для ручного управления.
-     * Для активации раскомментируйте аннотацию @Scheduled(cron = "0 0 8-22 * * *").
-     * 
-     * Выполняет парсинг в активное время суток, когда пользователи
-     * наиболее активно читают новости.
+     * Извлекает из очереди источники, время опроса которых подошло
      */
-    // @Scheduled(cron = "0 0 8-22 * * *") // Каждый час с 8:00 до 22:00
-    public void scheduleWorkingHoursRssParsing() {
-        logger.info("Запуск парсинга RSS лент в рабочее время...");
-        
-        try {
-            rssParserService.parseAllRssFeeds();
-            logger.info("Парсинг RSS лент в рабочее время завершен успешно");
-        } catch (Exception e) {
-            logger.error("Ошибка при парсинге RSS лент в рабочее время: {}", e.getMessage(), e);
+    private synchronized List<Long> pollDue(LocalDateTime now) {
+        List<Long> due = new ArrayList<>();
+        while (!queue.isEmpty() && due.size() < maxPollsPerTick && !queue.peek().dueAt.isAfter(now)) {
+            ScheduledPoll poll = queue.poll();
+            if (scheduled.get(poll.sourceId) != poll) {
+                continue; // Запись устарела
+            }
+            scheduled.remove(poll.sourceId);
+            inFlight.add(poll.sourceId);
+            due.add(poll.sourceId);
         }
+        return due;
     }
 
     /**
-     * Ночной парсинг RSS лент (в 2:00 каждый день).
-     * 
-     * ВРЕМЕННО ОТКЛЮЧЕН для ручного управления.
-     * Для активации раскомментируйте аннотацию @Scheduled(cron = "0 0 2 * * *").
-     * 
-     * Выполняет полный парсинг всех источников в ночное время,
-     * когда нагрузка на систему минимальна.
+     * Пересчитывает интервал опроса источника и ставит его в очередь
      */
-    // @Scheduled(cron = "0 0 2 * * *") // Каждый день в 2:00
-    public void scheduleNightlyRssParsing() {
-        logger.info("Запуск ночного парсинга RSS лент...");
-        
+    private void onPollCompleted(NewsSource source, LocalDateTime previousPoll, CrawlReport report) {
         try {
-            rssParserService.parseAllRssFeeds();
-            logger.info("Ночной парсинг RSS лент завершен успешно");
+            LocalDateTime now = LocalDateTime.now();
+            Double rate = source.getPublishRatePerHour();
+            long interval;
+
+            if (report.getSourcesFailed() > 0) {
+                // При ошибке интервал не меняется - паузы задает автоматический выключатель
+                interval = currentInterval(source);
+            } else if (previousPoll == null) {
+                // Первый опрос возвращает накопленную ленту - скорость по нему не оценить
+                interval = currentInterval(source);
+            } else {
+                int added = report.getArticlesAdded();
+                long elapsed = Math.max(1, Duration.between(previousPoll, now).getSeconds());
+                rate = policy.updateRate(rate, added, elapsed);
+                interval = policy.nextIntervalSeconds(rate, source.getPollIntervalSeconds(),
+                        added >= maxArticlesPerSource);
+            }
+
+            NewsSource fresh = newsSourceRepository.findById(source.getId()).orElse(null);
+
+            // Новые записи источника с WebSub подпиской приходят от хаба - опрос только страховочный.
+            // Адаптивный интервал при этом сохраняется и действует, если подписка истечет.
+            long delay = interval;
+            if (fresh != null && fresh.isWebsubActive(now)) {
+                delay = Math.max(interval, websubSafetyPollSeconds);
+            }
+
+            // Небольшой разброс, чтобы опросы источников не выстраивались в одну минуту
+            long jitter = ThreadLocalRandom.current().nextLong(delay / 10 + 1);
+            LocalDateTime nextPollAt = now.plusSeconds(delay + jitter);
+
+            if (fresh != null && fresh.getCircuitState() == CircuitState.OPEN && fresh.getCircuitOpenUntil() != null
+                    && fresh.getCircuitOpenUntil().isAfter(nextPollAt)) {
+                nextPollAt = fresh.getCircuitOpenUntil();
+            }
+            newsSourceRepository.updatePollSchedule(source.getId(), nextPollAt, (int) interval, rate);
+
+            boolean active = fresh != null && fresh.isActive();
+            inFlight.remove(source.getId());
+            if (active) {
+                synchronized (this) {
+                    enqueue(source.getId(), nextPollAt);
+                }
+                logger.debug("Источник '{}': следующий опрос через {} с (скорость {} статей/ч)",
+                            source.getName(), delay, rate);
+            }
         } catch (Exception e) {
-            logger.error("Ошибка при ночном парсинге RSS лент: {}", e.getMessage(), e);
+            inFlight.remove(source.getId());
+            logger.error("Не удалось запланировать опрос источника '{}': {}", source.getName(), e.getMessage());
+        }
+    }
+
+    private long currentInterval(NewsSource source) {
+        return source.getPollIntervalSeconds() != null
+                ? source.getPollIntervalSeconds()
+                : policy.clamp(initialIntervalMs / 1000);
+    }
+
+    private void enqueue(Long sourceId, LocalDateTime dueAt) {
+        ScheduledPoll poll = new ScheduledPoll(sourceId, dueAt);
+        scheduled.put(sourceId, poll);
+        queue.add(poll);
+    }
+
+    /**
+     * Количество источников в расписании
+     */
+    public synchronized int getScheduledCount() {
+        return scheduled.size();
+    }
+
+    /**
+     * Количество источников, опрос которых выполняется сейчас
+     */
+    public int getInFlightCount() {
+        return inFlight.size();
+    }
+
+    /**
+     * Запланированный опрос источника
+     */
+    private static class ScheduledPoll implements Comparable<ScheduledPoll> {
+
+        private final Long sourceId;
+        private final LocalDateTime dueAt;
+
+        private ScheduledPoll(Long sourceId, LocalDateTime dueAt) {
+            this.sourceId = sourceId;
+            this.dueAt = dueAt;
+        }
+
+        @Override
+        public int compareTo(ScheduledPoll other) {
+            return dueAt.compareTo(other.dueAt);
         }
     }
-}
\ No newline at end of file
+}
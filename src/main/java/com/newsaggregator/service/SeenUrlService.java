@@ -0,0 +1,125 @@
+package com.newsaggregator.service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.stereotype.Service;
+
+import com.newsaggregator.repository.ArticleRepository;
+import com.newsaggregator.util.BloomFilter;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Сервис определения уже загруженных URL статей.
+ * 
+ * Перед базой данных стоит фильтр Блума со всеми URL загруженных статей:
+ * - Прогревается при старте приложения
+ * - Пополняется при сохранении новых статей
+ * - URL, которых гарантированно нет в фильтре, считаются новыми без запроса к БД
+ * - Остальные ("возможно, уже есть") проверяются одним пакетным запросом
+ * 
+ * До завершения прогрева все URL проверяются через базу данных.
+ * 
+ * @author News Aggregator Team
+ * @version 1.0
+ * @since 1.0
+ */
+@Service
+public class SeenUrlService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SeenUrlService.class);
+
+    private static final int WARMUP_PAGE_SIZE = 5000;
+
+    @Autowired
+    private ArticleRepository articleRepository;
+
+    @Value("${app.rss.seen-urls.expected-insertions:1000000}")
+    private long expectedInsertions;
+
+    @Value("${app.rss.seen-urls.false-positive-rate:0.01}")
+    private double falsePositiveRate;
+
+    private BloomFilter filter;
+    private volatile boolean warm = false;
+
+    @PostConstruct
+    void init() {
+        filter = new BloomFilter(expectedInsertions, falsePositiveRate);
+    }
+
+    /**
+     * Прогревает фильтр URL всех статей из базы данных
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        long started = System.currentTimeMillis();
+        long loaded = 0;
+
+        try {
+            Pageable pageable = PageRequest.of(0, WARMUP_PAGE_SIZE);
+            Slice<String> slice;
+            do {
+                slice = articleRepository.findSourceUrls(pageable);
+                for (String url : slice.getContent()) {
+                    filter.put(url);
+                }
+                loaded += slice.getNumberOfElements();
+                pageable = slice.nextPageable();
+            } while (slice.hasNext());
+
+            warm = true;
+            logger.info("Фильтр загруженных URL прогрет: {} URL за {} мс", loaded, System.currentTimeMillis() - started);
+        } catch (Exception e) {
+            logger.error("Не удалось прогреть фильтр загруженных URL: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Возвращает подмножество переданных URL, которые уже есть в базе данных.
+     * 
+     * @param urls URL-кандидаты из RSS ленты
+     * @return URL, для которых статьи уже существуют
+     */
+    public Set<String> findKnownUrls(Collection<String> urls) {
+        List<String> maybeKnown = new ArrayList<>();
+        for (String url : urls) {
+            if (!warm || filter.mightContain(url)) {
+                maybeKnown.add(url);
+            }
+        }
+
+        if (maybeKnown.isEmpty()) {
+            return new HashSet<>();
+        }
+
+        logger.debug("Пакетная проверка {} из {} URL в БД", maybeKnown.size(), urls.size());
+        return new HashSet<>(articleRepository.findExistingSourceUrls(maybeKnown));
+    }
+
+    /**
+     * Регистрирует URL только что сохраненной статьи
+     */
+    public void markIngested(String url) {
+        if (url != null) {
+            filter.put(url);
+        }
+    }
+
+    public boolean isWarm() {
+        return warm;
+    }
+}
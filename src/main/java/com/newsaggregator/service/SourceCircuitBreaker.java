@@ -0,0 +1,124 @@
+package com.newsaggregator.service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Random;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.newsaggregator.entity.CircuitState;
+import com.newsaggregator.entity.NewsSource;
+
+/**
+ * Автоматический выключатель для источников новостей.
+ *
+ * - CLOSED: источник опрашивается как обычно, ошибки подряд считаются в errorCount
+ * - OPEN: после failureThreshold ошибок подряд источник приостанавливается
+ *   до circuitOpenUntil и не тратит время прогонов на таймауты
+ * - HALF_OPEN: время приостановки истекло, следующий опрос - пробный.
+ *   Пока проба идет (не дольше probe-timeout), остальные запросы отклоняются.
+ *   Успех закрывает выключатель, ошибка снова открывает его с удвоенной паузой
+ *
+ * Пауза растет экспоненциально от base-backoff до max-backoff и содержит
+ * случайную составляющую, чтобы источники одного хоста не просыпались разом.
+ * Источник больше не отключается навсегда - он восстанавливается сам.
+ *
+ * @author News Aggregator Team
+ * @version 1.0
+ * @since 1.0
+ */
+@Component
+public class SourceCircuitBreaker {
+
+    @Value("${app.rss.circuit.failure-threshold:3}")
+    private int failureThreshold;
+
+    @Value("${app.rss.circuit.base-backoff-seconds:60}")
+    private long baseBackoffSeconds;
+
+    @Value("${app.rss.circuit.max-backoff-seconds:21600}")
+    private long maxBackoffSeconds;
+
+    @Value("${app.rss.circuit.probe-timeout-seconds:600}")
+    private long probeTimeoutSeconds;
+
+    private final Random random;
+
+    public SourceCircuitBreaker() {
+        this.random = new Random();
+    }
+
+    SourceCircuitBreaker(int failureThreshold, long baseBackoffSeconds, long maxBackoffSeconds,
+                         long probeTimeoutSeconds, Random random) {
+        this.failureThreshold = failureThreshold;
+        this.baseBackoffSeconds = baseBackoffSeconds;
+        this.maxBackoffSeconds = maxBackoffSeconds;
+        this.probeTimeoutSeconds = probeTimeoutSeconds;
+        this.random = random;
+    }
+
+    /**
+     * Проверяет, можно ли опрашивать источник. Если время приостановки истекло,
+     * переводит источник в HALF_OPEN до now + probe-timeout - этот опрос станет пробным,
+     * а остальные запросы до его завершения отклоняются. Если проба не завершилась
+     * за probe-timeout (например, узел остановился), ее можно начать снова.
+     *
+     * Решение принимается по копии источника в памяти: пробу нужно закрепить в БД
+     * (ArticlePersistenceService.claimProbe), чтобы ее выполнил только один вызывающий.
+     */
+    public boolean allowRequest(NewsSource source, LocalDateTime now) {
+        if (source.getCircuitState() == CircuitState.CLOSED) {
+            return true;
+        }
+        LocalDateTime openUntil = source.getCircuitOpenUntil();
+        if (openUntil != null && openUntil.isAfter(now)) {
+            return false;
+        }
+        source.setCircuitState(CircuitState.HALF_OPEN);
+        source.setCircuitOpenUntil(now.plusSeconds(probeTimeoutSeconds));
+        return true;
+    }
+
+    /**
+     * Фиксирует успешный опрос: выключатель закрывается, счетчик ошибок сбрасывается
+     */
+    public void onSuccess(NewsSource source) {
+        source.setCircuitState(CircuitState.CLOSED);
+        source.setCircuitOpenUntil(null);
+        source.setErrorCount(0);
+    }
+
+    /**
+     * Фиксирует ошибку опроса.
+     *
+     * @return true, если выключатель открыт этой ошибкой
+     */
+    public boolean onFailure(NewsSource source, LocalDateTime now) {
+        source.setErrorCount(source.getErrorCount() + 1);
+
+        if (source.getCircuitState() == CircuitState.CLOSED && source.getErrorCount() < failureThreshold) {
+            return false;
+        }
+
+        int openings = Math.max(0, source.getErrorCount() - failureThreshold);
+        source.setCircuitState(CircuitState.OPEN);
+        source.setCircuitOpenUntil(now.plus(backoff(openings)));
+        return true;
+    }
+
+    /**
+     * Пауза после openings повторных открытий: base * 2^openings, не больше max,
+     * со случайным разбросом в пределах верхней половины интервала
+     */
+    Duration backoff(int openings) {
+        long exponential = baseBackoffSeconds << Math.min(openings, 30);
+        long capped = exponential <= 0 ? maxBackoffSeconds : Math.min(maxBackoffSeconds, exponential);
+        long half = capped / 2;
+        return Duration.ofSeconds(half + (long) (random.nextDouble() * (capped - half + 1)));
+    }
+
+    public int getFailureThreshold() {
+        return failureThreshold;
+    }
+}
@@ -0,0 +1,467 @@
+package com.newsaggregator.service;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.newsaggregator.entity.NewsSource;
+import com.newsaggregator.repository.NewsSourceRepository;
+
+/**
+ * Массовый импорт источников из OPML или CSV (см. SourceListReader).
+ *
+ * Порядок обработки списка:
+ * - строки без корректного http(s) адреса и повторы адресов внутри файла отбрасываются;
+ * - адреса, которые уже есть в базе, находятся одним запросом;
+ * - остальные ленты проверяются параллельно (app.sources.import.parallelism потоков,
+ *   не более app.sources.import.per-host-limit запросов к одному хосту): загружаются
+ *   заголовки и первые app.sources.import.probe-bytes байт, по ним определяются формат
+ *   ленты, название, адрес сайта и WebSub хаб;
+ * - принятые источники сохраняются пакетами по app.sources.import.batch-size;
+ *   пакеты записывает только поток, вызвавший импорт, поэтому потоки проверки
+ *   не ждут транзакций и не блокируют друг друга.
+ *
+ * Результат по каждой строке передается слушателю сразу, как только он известен.
+ *
+ * @author News Aggregator Team
+ * @version 1.0
+ * @since 1.0
+ */
+@Service
+public class SourceImportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SourceImportService.class);
+
+    private static final String FEED_ACCEPT =
+            "application/rss+xml, application/atom+xml, application/xml;q=0.9, text/xml;q=0.9, */*;q=0.5";
+    private static final int MAX_NAME_LENGTH = 200;
+    private static final int MAX_URL_LENGTH = 1000;
+
+    @Autowired
+    private CrawlerHttpClient httpClient;
+
+    @Autowired
+    private NewsSourceRepository newsSourceRepository;
+
+    @Autowired
+    private NewsSourceService newsSourceService;
+
+    @Value("${app.sources.import.parallelism:32}")
+    private int parallelism;
+
+    @Value("${app.sources.import.per-host-limit:4}")
+    private int perHostLimit;
+
+    @Value("${app.sources.import.probe-bytes:65536}")
+    private int probeBytes;
+
+    @Value("${app.sources.import.batch-size:100}")
+    private int batchSize;
+
+    @Value("${app.sources.import.max-rows:10000}")
+    private int maxRows;
+
+    private final StreamingFeedReader feedReader = new StreamingFeedReader();
+
+    /**
+     * Результат обработки строки списка
+     */
+    public enum Outcome {
+        CREATED("Добавлен"),
+        EXISTS("Уже есть в базе"),
+        DUPLICATE("Повтор в файле"),
+        INVALID("Некорректная строка"),
+        FAILED("Лента не прошла проверку");
+
+        private final String displayName;
+
+        Outcome(String displayName) {
+            this.displayName = displayName;
+        }
+
+        public String getDisplayName() {
+            return displayName;
+        }
+    }
+
+    /**
+     * Результат по одной строке списка
+     */
+    public static class RowResult {
+
+        private final int number;
+        private final String rssUrl;
+        private final String name;
+        private final Outcome outcome;
+        private final String message;
+        private final Long sourceId;
+
+        RowResult(int number, String rssUrl, String name, Outcome outcome, String message, Long sourceId) {
+            this.number = number;
+            this.rssUrl = rssUrl;
+            this.name = name;
+            this.outcome = outcome;
+            this.message = message;
+            this.sourceId = sourceId;
+        }
+
+        public int getNumber() {
+            return number;
+        }
+
+        public String getRssUrl() {
+            return rssUrl;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public Outcome getOutcome() {
+            return outcome;
+        }
+
+        /**
+         * Формат ленты и WebSub хаб для принятых строк, причина для отклоненных
+         */
+        public String getMessage() {
+            return message;
+        }
+
+        public Long getSourceId() {
+            return sourceId;
+        }
+    }
+
+    /**
+     * Итог импорта
+     */
+    public static class Summary {
+
+        private final int rows;
+        private final Map<Outcome, Integer> counts;
+        private final long durationMillis;
+
+        Summary(int rows, Map<Outcome, Integer> counts, long durationMillis) {
+            this.rows = rows;
+            this.counts = counts;
+            this.durationMillis = durationMillis;
+        }
+
+        public int getRows() {
+            return rows;
+        }
+
+        public int getCount(Outcome outcome) {
+            return counts.getOrDefault(outcome, 0);
+        }
+
+        public Map<Outcome, Integer> getCounts() {
+            return counts;
+        }
+
+        public long getDurationMillis() {
+            return durationMillis;
+        }
+    }
+
+    /**
+     * Импортирует источники из списка
+     *
+     * @param rows строки OPML или CSV
+     * @param listener получает результат каждой строки; вызывается последовательно
+     * @return итог импорта
+     * @throws IllegalArgumentException если строк больше app.sources.import.max-rows
+     */
+    public Summary importSources(List<SourceListReader.Row> rows, Consumer<RowResult> listener) {
+        if (rows.size() > maxRows) {
+            throw new IllegalArgumentException("Слишком много строк в файле: " + rows.size()
+                    + " (не более " + maxRows + ")");
+        }
+        long started = System.nanoTime();
+        Run run = new Run(listener);
+        logger.info("Импорт источников: {} строк", rows.size());
+
+        // Проверка адресов и повторов внутри файла
+        Map<String, Integer> firstRowByUrl = new HashMap<>();
+        List<SourceListReader.Row> candidates = new ArrayList<>();
+        for (SourceListReader.Row row : rows) {
+            String problem = validateUrl(row.getRssUrl());
+            if (problem != null) {
+                run.emit(row, Outcome.INVALID, problem, null);
+                continue;
+            }
+            Integer first = firstRowByUrl.putIfAbsent(row.getRssUrl(), row.getNumber());
+            if (first != null) {
+                run.emit(row, Outcome.DUPLICATE, "Повторяет строку " + first, null);
+                continue;
+            }
+            candidates.add(row);
+        }
+
+        // Источники, которые уже есть в базе
+        Set<String> existing = candidates.isEmpty()
+                ? Set.of()
+                : new HashSet<>(newsSourceRepository.findExistingRssUrls(firstRowByUrl.keySet()));
+        List<SourceListReader.Row> toProbe = new ArrayList<>();
+        for (SourceListReader.Row row : candidates) {
+            if (existing.contains(row.getRssUrl())) {
+                run.emit(row, Outcome.EXISTS, null, null);
+            } else {
+                toProbe.add(row);
+            }
+        }
+
+        probeAndSave(run, toProbe);
+
+        Summary summary = new Summary(rows.size(), run.counts,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+        logger.info("Импорт источников завершен за {} мс: {}", summary.getDurationMillis(), summary.getCounts());
+        return summary;
+    }
+
+    /**
+     * Проверяет ленты в пуле потоков; принятые источники передаются через очередь
+     * вызывающему потоку, который сохраняет их пакетами
+     */
+    private void probeAndSave(Run run, List<SourceListReader.Row> rows) {
+        if (rows.isEmpty()) {
+            return;
+        }
+        AtomicInteger counter = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, Math.min(parallelism, rows.size())), runnable -> {
+            Thread thread = new Thread(runnable, "source-import-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        Map<String, Semaphore> hostPermits = new ConcurrentHashMap<>();
+        BlockingQueue<Accepted> accepted = new LinkedBlockingQueue<>();
+        try {
+            List<CompletableFuture<Void>> probes = new ArrayList<>();
+            for (SourceListReader.Row row : rows) {
+                probes.add(CompletableFuture.runAsync(() -> probeRow(run, row, hostPermits, accepted), executor));
+            }
+            CompletableFuture<Void> probed = CompletableFuture.allOf(probes.toArray(new CompletableFuture[0]));
+            while (!probed.isDone() || !accepted.isEmpty()) {
+                Accepted next = accepted.poll(100, TimeUnit.MILLISECONDS);
+                if (next != null) {
+                    run.add(next);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            logger.warn("Импорт источников прерван, сохраняем уже проверенные источники");
+        } finally {
+            executor.shutdownNow();
+        }
+        run.flush();
+    }
+
+    private void probeRow(Run run, SourceListReader.Row row, Map<String, Semaphore> hostPermits,
+                          BlockingQueue<Accepted> accepted) {
+        String host = URI.create(row.getRssUrl()).getHost().toLowerCase(Locale.ROOT);
+        Semaphore permits = hostPermits.computeIfAbsent(host, key -> new Semaphore(Math.max(1, perHostLimit)));
+        StreamingFeedReader.Probe probe;
+        try {
+            permits.acquire();
+            try {
+                probe = probe(row.getRssUrl());
+            } finally {
+                permits.release();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            run.emit(row, Outcome.FAILED, "Проверка прервана", null);
+            return;
+        } catch (Exception e) {
+            run.emit(row, Outcome.FAILED, e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName(), null);
+            return;
+        }
+        accepted.add(new Accepted(row, toSource(row, probe), describe(probe)));
+    }
+
+    /**
+     * Загружает заголовки и начало ленты и определяет ее формат
+     */
+    private StreamingFeedReader.Probe probe(String url) throws IOException {
+        try (HttpFetchResult response = httpClient.open(url, Map.of("Accept", FEED_ACCEPT))) {
+            if (!response.isSuccessful()) {
+                throw new IOException("HTTP " + response.getStatusCode());
+            }
+            byte[] head = response.getBodyStream().readNBytes(probeBytes);
+            return feedReader.probe(new ByteArrayInputStream(head), response.getContentType());
+        }
+    }
+
+    private NewsSource toSource(SourceListReader.Row row, StreamingFeedReader.Probe probe) {
+        URI uri = URI.create(row.getRssUrl());
+        String name = row.getName() != null ? row.getName() : probe.getTitle();
+        if (name == null || name.isBlank()) {
+            name = uri.getHost();
+        }
+        String websiteUrl = row.getWebsiteUrl() != null ? row.getWebsiteUrl() : probe.getSiteUrl();
+        if (websiteUrl == null || validateUrl(websiteUrl) != null) {
+            websiteUrl = uri.getScheme() + "://" + uri.getRawAuthority();
+        }
+
+        NewsSource source = new NewsSource(truncate(name, MAX_NAME_LENGTH), row.getRssUrl(), websiteUrl);
+        source.setActive(true);
+        source.setErrorCount(0);
+        // Подписку на хаб оформит WebSubService
+        if (probe.getHubUrl() != null) {
+            source.setWebsubHubUrl(probe.getHubUrl());
+            source.setWebsubTopicUrl(probe.getSelfUrl() != null ? probe.getSelfUrl() : row.getRssUrl());
+        }
+        return source;
+    }
+
+    private static String describe(StreamingFeedReader.Probe probe) {
+        StringBuilder message = new StringBuilder(probe.getFormat());
+        if (probe.getHubUrl() != null) {
+            message.append(", WebSub: ").append(probe.getHubUrl());
+        }
+        if (!probe.isHasEntries()) {
+            message.append(", записи не найдены в начале ленты");
+        }
+        return message.toString();
+    }
+
+    /**
+     * @return описание ошибки или null, если адрес подходит
+     */
+    private static String validateUrl(String url) {
+        if (url == null) {
+            return "Нет адреса ленты";
+        }
+        if (url.length() > MAX_URL_LENGTH) {
+            return "Адрес длиннее " + MAX_URL_LENGTH + " символов";
+        }
+        try {
+            URI uri = new URI(url);
+            String scheme = uri.getScheme() != null ? uri.getScheme().toLowerCase(Locale.ROOT) : null;
+            if (!"http".equals(scheme) && !"https".equals(scheme)) {
+                return "Нужен адрес http или https";
+            }
+            if (uri.getHost() == null) {
+                return "В адресе нет хоста";
+            }
+            return null;
+        } catch (URISyntaxException e) {
+            return "Некорректный адрес: " + e.getReason();
+        }
+    }
+
+    private static String truncate(String value, int maxLength) {
+        return value.length() > maxLength ? value.substring(0, maxLength) : value;
+    }
+
+    /**
+     * Проверенный источник, ожидающий сохранения
+     */
+    private static class Accepted {
+
+        private final SourceListReader.Row row;
+        private final NewsSource source;
+        private final String message;
+
+        private Accepted(SourceListReader.Row row, NewsSource source, String message) {
+            this.row = row;
+            this.source = source;
+            this.message = message;
+        }
+    }
+
+    /**
+     * Состояние одного импорта: счетчики, слушатель и пакет принятых источников.
+     * Пакет заполняет и сохраняет только поток, вызвавший импорт.
+     */
+    private class Run {
+
+        private final Consumer<RowResult> listener;
+        private final Map<Outcome, Integer> counts = new EnumMap<>(Outcome.class);
+        private final List<Accepted> pending = new ArrayList<>();
+
+        Run(Consumer<RowResult> listener) {
+            this.listener = listener;
+        }
+
+        synchronized void emit(SourceListReader.Row row, Outcome outcome, String message, NewsSource source) {
+            counts.merge(outcome, 1, Integer::sum);
+            String name = source != null ? source.getName() : row.getName();
+            listener.accept(new RowResult(row.getNumber(), row.getRssUrl(), name, outcome, message,
+                    source != null ? source.getId() : null));
+        }
+
+        /**
+         * Добавляет проверенный источник в пакет; полный пакет сохраняется сразу
+         */
+        void add(Accepted accepted) {
+            pending.add(accepted);
+            if (pending.size() >= batchSize) {
+                flush();
+            }
+        }
+
+        /**
+         * Сохраняет накопленный пакет. Если пакет не записался (например, такой же
+         * RSS URL одновременно добавлен вручную), источники сохраняются по одному.
+         */
+        void flush() {
+            if (pending.isEmpty()) {
+                return;
+            }
+            List<NewsSource> sources = new ArrayList<>();
+            for (Accepted accepted : pending) {
+                sources.add(accepted.source);
+            }
+            try {
+                newsSourceService.createSources(sources);
+                for (Accepted accepted : pending) {
+                    emit(accepted.row, Outcome.CREATED, accepted.message, accepted.source);
+                }
+            } catch (Exception e) {
+                logger.warn("Пакет из {} источников не сохранен ({}), сохраняем по одному",
+                        pending.size(), e.getMessage());
+                for (Accepted accepted : pending) {
+                    saveOne(accepted);
+                }
+            }
+            pending.clear();
+        }
+
+        private void saveOne(Accepted accepted) {
+            accepted.source.setId(null);
+            try {
+                newsSourceService.createSources(List.of(accepted.source));
+                emit(accepted.row, Outcome.CREATED, accepted.message, accepted.source);
+            } catch (Exception e) {
+                emit(accepted.row, Outcome.FAILED, "Не удалось сохранить: " + e.getMessage(), null);
+            }
+        }
+    }
+}
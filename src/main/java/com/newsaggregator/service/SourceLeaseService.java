@@ -0,0 +1,266 @@
+package com.newsaggregator.service;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+
+import com.newsaggregator.entity.CrawlerNode;
+import com.newsaggregator.entity.SourceLease;
+import com.newsaggregator.repository.CrawlerNodeRepository;
+import com.newsaggregator.repository.NewsSourceRepository;
+import com.newsaggregator.repository.SourceLeaseRepository;
+import com.newsaggregator.util.ConsistentHashRing;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Распределение источников между несколькими экземплярами приложения.
+ *
+ * Каждый узел периодически подает сигнал (crawler_nodes.heartbeat_at) и строит
+ * кольцо согласованного хеширования из живых узлов. Источники, которые кольцо
+ * назначает узлу, он захватывает в аренду (source_leases) атомарным UPDATE
+ * и продлевает на каждом сигнале; источники, назначенные другим узлам,
+ * освобождает. Плановый опрос выполняет только владелец действующей аренды,
+ * поэтому узлы не опрашивают одни и те же ленты.
+ *
+ * Если узел перестал подавать сигнал, остальные узлы исключают его из кольца,
+ * а его аренды истекают через lease-ttl-seconds и захватываются новыми владельцами.
+ *
+ * Сигнал подается отдельным потоком, а не общим планировщиком Spring: задачи
+ * планировщика (опрос источников, ИИ-обработка) могут надолго занимать его
+ * единственный поток, и аренды истекали бы у работающего узла.
+ *
+ * При app.cluster.enabled=false (по умолчанию) узел один и владеет всеми источниками.
+ *
+ * @author News Aggregator Team
+ * @version 1.0
+ * @since 1.0
+ */
+@Service
+public class SourceLeaseService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SourceLeaseService.class);
+
+    private static final int VIRTUAL_NODES = 100;
+
+    @Autowired
+    private CrawlerNodeRepository crawlerNodeRepository;
+
+    @Autowired
+    private SourceLeaseRepository sourceLeaseRepository;
+
+    @Autowired
+    private NewsSourceRepository newsSourceRepository;
+
+    @Value("${app.cluster.enabled:false}")
+    private boolean enabled;
+
+    @Value("${app.cluster.node-id:}")
+    private String configuredNodeId;
+
+    @Value("${app.cluster.lease-ttl-seconds:60}")
+    private long leaseTtlSeconds;
+
+    @Value("${app.cluster.node-timeout-seconds:30}")
+    private long nodeTimeoutSeconds;
+
+    @Value("${app.cluster.heartbeat-ms:10000}")
+    private long heartbeatMs;
+
+    private String nodeId;
+
+    // Действующие аренды узла: источник -> время истечения
+    private final Map<Long, LocalDateTime> heldLeases = new ConcurrentHashMap<>();
+
+    private volatile ConsistentHashRing ring;
+
+    private ScheduledExecutorService heartbeatExecutor;
+
+    @PostConstruct
+    void init() {
+        nodeId = configuredNodeId != null && !configuredNodeId.isBlank() ? configuredNodeId.trim() : defaultNodeId();
+        if (enabled) {
+            logger.info("Распределенный опрос включен, узел {}", nodeId);
+            heartbeatExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "cluster-heartbeat");
+                thread.setDaemon(true);
+                return thread;
+            });
+            heartbeatExecutor.scheduleWithFixedDelay(this::heartbeat, 0, heartbeatMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Подает сигнал узла, пересчитывает распределение источников и обновляет аренды
+     */
+    public void heartbeat() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            if (crawlerNodeRepository.touch(nodeId, now) == 0) {
+                crawlerNodeRepository.save(new CrawlerNode(nodeId, now));
+            }
+
+            updateRing(now);
+            rebalance(now);
+        } catch (Exception e) {
+            // Аренды не продлены - по истечении их захватят другие узлы
+            logger.error("Ошибка сигнала узла {}: {}", nodeId, e.getMessage());
+        }
+    }
+
+    /**
+     * Проверяет, должен ли этот узел опрашивать источник
+     */
+    public boolean isOwner(Long sourceId) {
+        if (!enabled) {
+            return true;
+        }
+        LocalDateTime expiresAt = heldLeases.get(sourceId);
+        return expiresAt != null && expiresAt.isAfter(LocalDateTime.now());
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    /**
+     * Количество источников, арендованных узлом
+     */
+    public int getHeldLeaseCount() {
+        return heldLeases.size();
+    }
+
+    /**
+     * Живые узлы по последнему сигналу
+     */
+    public List<String> getLiveNodes() {
+        ConsistentHashRing current = ring;
+        return current != null ? current.getNodes() : List.of(nodeId);
+    }
+
+    /**
+     * При остановке узла аренды освобождаются сразу, не дожидаясь истечения
+     */
+    @PreDestroy
+    void shutdown() {
+        if (!enabled) {
+            return;
+        }
+        if (heartbeatExecutor != null) {
+            heartbeatExecutor.shutdownNow();
+        }
+        try {
+            sourceLeaseRepository.releaseAll(nodeId);
+            crawlerNodeRepository.deleteById(nodeId);
+            logger.info("Узел {} освободил аренды источников", nodeId);
+        } catch (Exception e) {
+            logger.warn("Не удалось освободить аренды узла {}: {}", nodeId, e.getMessage());
+        }
+    }
+
+    private void updateRing(LocalDateTime now) {
+        LocalDateTime cutoff = now.minusSeconds(nodeTimeoutSeconds);
+        List<String> liveNodes = new ArrayList<>();
+        for (CrawlerNode node : crawlerNodeRepository.findByHeartbeatAtAfterOrderByNodeIdAsc(cutoff)) {
+            liveNodes.add(node.getNodeId());
+        }
+        if (!liveNodes.contains(nodeId)) {
+            liveNodes.add(nodeId);
+        }
+
+        ConsistentHashRing current = ring;
+        if (current == null || !current.getNodes().equals(liveNodes)) {
+            ring = new ConsistentHashRing(liveNodes, VIRTUAL_NODES);
+            logger.info("Состав узлов опроса изменился: {}", liveNodes);
+            crawlerNodeRepository.deleteStale(now.minusSeconds(nodeTimeoutSeconds * 10));
+        }
+    }
+
+    /**
+     * Захватывает назначенные узлу источники и освобождает назначенные другим
+     */
+    private void rebalance(LocalDateTime now) {
+        LocalDateTime expiresAt = now.plusSeconds(leaseTtlSeconds);
+        sourceLeaseRepository.renewAll(nodeId, now, expiresAt);
+        Set<Long> held = new HashSet<>(sourceLeaseRepository.findActiveSourceIds(nodeId, now));
+
+        int claimed = 0;
+        int released = 0;
+        for (Long sourceId : newsSourceRepository.findActiveIds()) {
+            boolean assigned = nodeId.equals(ring.nodeFor(String.valueOf(sourceId)));
+            if (assigned && !held.contains(sourceId)) {
+                if (claim(sourceId, now, expiresAt)) {
+                    held.add(sourceId);
+                    claimed++;
+                }
+            } else if (!assigned && held.contains(sourceId)) {
+                sourceLeaseRepository.release(sourceId, nodeId);
+                held.remove(sourceId);
+                released++;
+            }
+        }
+
+        heldLeases.keySet().retainAll(held);
+        for (Long sourceId : held) {
+            heldLeases.put(sourceId, expiresAt);
+        }
+        if (claimed > 0 || released > 0) {
+            logger.info("Узел {}: захвачено {} источников, освобождено {}, всего {}",
+                       nodeId, claimed, released, held.size());
+        }
+    }
+
+    /**
+     * Захватывает аренду источника. Если строки аренды еще нет, создает ее;
+     * при одновременной вставке другим узлом захват не удается.
+     */
+    private boolean claim(Long sourceId, LocalDateTime now, LocalDateTime expiresAt) {
+        if (sourceLeaseRepository.claim(sourceId, nodeId, now, expiresAt) > 0) {
+            return true;
+        }
+        if (sourceLeaseRepository.existsById(sourceId)) {
+            return false; // Аренда другого узла еще действует
+        }
+        try {
+            sourceLeaseRepository.saveAndFlush(new SourceLease(sourceId, nodeId, expiresAt));
+            return true;
+        } catch (DataIntegrityViolationException e) {
+            return false;
+        }
+    }
+
+    private String defaultNodeId() {
+        String host;
+        try {
+            host = InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            host = "node";
+        }
+        return host + "-" + UUID.randomUUID().toString().substring(0, 8);
+    }
+}
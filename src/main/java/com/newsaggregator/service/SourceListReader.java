@@ -0,0 +1,238 @@
+package com.newsaggregator.service;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+/**
+ * Чтение списков источников для массового импорта: OPML и CSV.
+ *
+ * OPML: каждый элемент outline с атрибутом xmlUrl (на любой глубине вложенности);
+ * название берется из text или title, адрес сайта - из htmlUrl.
+ *
+ * CSV (разделитель запятая или точка с запятой, кавычки по RFC 4180):
+ * столбцы name, rss_url, website_url в любом порядке, если первая строка - заголовок;
+ * без заголовка - строка из одного адреса ленты или "название, адрес ленты[, адрес сайта]".
+ *
+ * @author News Aggregator Team
+ * @version 1.0
+ * @since 1.0
+ */
+public class SourceListReader {
+
+    /**
+     * Строка списка источников
+     */
+    public static class Row {
+
+        private final int number;
+        private final String name;
+        private final String rssUrl;
+        private final String websiteUrl;
+
+        Row(int number, String name, String rssUrl, String websiteUrl) {
+            this.number = number;
+            this.name = blankToNull(name);
+            this.rssUrl = blankToNull(rssUrl);
+            this.websiteUrl = blankToNull(websiteUrl);
+        }
+
+        /**
+         * Номер строки CSV или порядковый номер outline в OPML (с 1)
+         */
+        public int getNumber() {
+            return number;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public String getRssUrl() {
+            return rssUrl;
+        }
+
+        public String getWebsiteUrl() {
+            return websiteUrl;
+        }
+    }
+
+    /**
+     * Читает список в формате, определенном по имени файла и содержимому:
+     * OPML (XML), иначе CSV
+     *
+     * @param in поток файла (не закрывается)
+     * @param fileName имя загруженного файла или null
+     */
+    public List<Row> read(InputStream in, String fileName) throws IOException {
+        byte[] content = in.readAllBytes();
+        String lowerName = fileName != null ? fileName.toLowerCase(Locale.ROOT) : "";
+        if (lowerName.endsWith(".opml") || lowerName.endsWith(".xml") || looksLikeXml(content)) {
+            return readOpml(content);
+        }
+        return readCsv(new String(content, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Читает outline элементы с атрибутом xmlUrl
+     */
+    public List<Row> readOpml(byte[] content) throws IOException {
+        XMLInputFactory factory = XMLInputFactory.newFactory();
+        // Внешние сущности и DTD не загружаются
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+
+        List<Row> rows = new ArrayList<>();
+        XMLStreamReader reader = null;
+        try {
+            reader = factory.createXMLStreamReader(new ByteArrayInputStream(content));
+            int number = 0;
+            while (reader.hasNext()) {
+                if (reader.next() != XMLStreamConstants.START_ELEMENT || !"outline".equals(reader.getLocalName())) {
+                    continue;
+                }
+                String rssUrl = attribute(reader, "xmlUrl");
+                if (rssUrl == null) {
+                    continue; // Папка с вложенными лентами
+                }
+                String name = attribute(reader, "text");
+                if (name == null) {
+                    name = attribute(reader, "title");
+                }
+                rows.add(new Row(++number, name, rssUrl, attribute(reader, "htmlUrl")));
+            }
+        } catch (XMLStreamException e) {
+            throw new IOException("Не удалось разобрать OPML: " + e.getMessage(), e);
+        } finally {
+            if (reader != null) {
+                try {
+                    reader.close();
+                } catch (XMLStreamException ignored) {
+                    // Поток в памяти закрывать не нужно
+                }
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * Читает CSV со столбцами name, rss_url, website_url
+     */
+    public List<Row> readCsv(String content) throws IOException {
+        List<Row> rows = new ArrayList<>();
+        BufferedReader reader = new BufferedReader(new StringReader(stripBom(content)));
+
+        int nameColumn = 0;
+        int rssColumn = 1;
+        int websiteColumn = 2;
+        boolean firstLine = true;
+        int lineNumber = 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank() || line.startsWith("#")) {
+                continue;
+            }
+            List<String> cells = splitCsvLine(line);
+
+            if (firstLine) {
+                firstLine = false;
+                int header = indexOf(cells, "rss_url", "rssurl", "xmlurl", "url", "feed");
+                if (header >= 0) {
+                    rssColumn = header;
+                    nameColumn = indexOf(cells, "name", "title", "text");
+                    websiteColumn = indexOf(cells, "website_url", "websiteurl", "htmlurl", "website", "site");
+                    continue;
+                }
+            }
+
+            if (cells.size() == 1) {
+                rows.add(new Row(lineNumber, null, cells.get(0), null));
+            } else {
+                rows.add(new Row(lineNumber, cell(cells, nameColumn), cell(cells, rssColumn), cell(cells, websiteColumn)));
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * Разбивает строку CSV на ячейки; разделитель - запятая или, если в строке
+     * нет запятых, точка с запятой
+     */
+    static List<String> splitCsvLine(String line) {
+        char separator = line.indexOf(',') < 0 && line.indexOf(';') >= 0 ? ';' : ',';
+        List<String> cells = new ArrayList<>();
+        StringBuilder cell = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    cell.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    cell.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == separator) {
+                cells.add(cell.toString().trim());
+                cell.setLength(0);
+            } else {
+                cell.append(c);
+            }
+        }
+        cells.add(cell.toString().trim());
+        return cells;
+    }
+
+    private static int indexOf(List<String> header, String... names) {
+        for (int i = 0; i < header.size(); i++) {
+            String cell = header.get(i).toLowerCase(Locale.ROOT).trim();
+            for (String name : names) {
+                if (cell.equals(name)) {
+                    return i;
+                }
+            }
+        }
+        return -1;
+    }
+
+    private static String cell(List<String> cells, int index) {
+        return index >= 0 && index < cells.size() ? cells.get(index) : null;
+    }
+
+    private static String attribute(XMLStreamReader reader, String name) {
+        return blankToNull(reader.getAttributeValue(null, name));
+    }
+
+    private static boolean looksLikeXml(byte[] content) {
+        String start = new String(content, 0, Math.min(content.length, 64), StandardCharsets.UTF_8);
+        return stripBom(start).stripLeading().startsWith("<");
+    }
+
+    private static String stripBom(String text) {
+        return text.startsWith("\uFEFF") ? text.substring(1) : text;
+    }
+
+    private static String blankToNull(String value) {
+        if (value == null) {
+            return null;
+        }
+        String trimmed = value.trim();
+        return trimmed.isEmpty() ? null : trimmed;
+    }
+}
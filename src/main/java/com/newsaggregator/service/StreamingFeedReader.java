@@ -0,0 +1,511 @@
+package com.newsaggregator.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import org.jdom2.Element;
+import org.jdom2.Namespace;
+
+import com.rometools.rome.feed.synd.SyndContent;
+import com.rometools.rome.feed.synd.SyndContentImpl;
+import com.rometools.rome.feed.synd.SyndEnclosure;
+import com.rometools.rome.feed.synd.SyndEnclosureImpl;
+import com.rometools.rome.feed.synd.SyndEntry;
+import com.rometools.rome.feed.synd.SyndEntryImpl;
+import com.rometools.rome.io.XmlFixerReader;
+import com.rometools.rome.io.XmlReader;
+import com.rometools.rome.io.impl.DateParser;
+
+/**
+ * Потоковое чтение RSS 2.0, RSS 1.0 (RDF) и Atom лент через StAX.
+ *
+ * В отличие от SyndFeedInput, не строит дерево всего документа: записи
+ * читаются по одной и превращаются в SyndEntryImpl, а после maxEntries
+ * записей чтение прекращается - остаток ленты не загружается и не разбирается.
+ * Для архивных лент с сотнями записей в памяти находится только одна запись.
+ *
+ * Заполняются поля, которые использует RssParserService: заголовок, ссылка,
+ * описание, содержимое (content:encoded, atom:content), дата публикации,
+ * вложения и элементы Media RSS (как foreign markup). Из ссылок уровня ленты
+ * запоминаются адрес WebSub хаба (rel="hub") и собственный адрес ленты (rel="self").
+ *
+ * @author News Aggregator Team
+ * @version 1.0
+ * @since 1.0
+ */
+public class StreamingFeedReader {
+
+    private static final String ATOM_NS = "http://www.w3.org/2005/Atom";
+    private static final String CONTENT_NS = "http://purl.org/rss/1.0/modules/content/";
+    private static final String DC_NS = "http://purl.org/dc/elements/1.1/";
+    private static final String MEDIA_NS = "http://search.yahoo.com/mrss/";
+    private static final Namespace MEDIA_NAMESPACE = Namespace.getNamespace("media", MEDIA_NS);
+
+    // Фабрика не гарантирует потокобезопасность - у каждого потока своя
+    private static final ThreadLocal<XMLInputFactory> XML_INPUT_FACTORY =
+            ThreadLocal.withInitial(StreamingFeedReader::createInputFactory);
+
+    /**
+     * Результат чтения ленты
+     */
+    public static class Result {
+
+        private final List<SyndEntry> entries;
+        private final boolean truncated;
+        private final String hubUrl;
+        private final String selfUrl;
+
+        Result(List<SyndEntry> entries, boolean truncated, String hubUrl, String selfUrl) {
+            this.entries = entries;
+            this.truncated = truncated;
+            this.hubUrl = hubUrl;
+            this.selfUrl = selfUrl;
+        }
+
+        public List<SyndEntry> getEntries() {
+            return entries;
+        }
+
+        /**
+         * true, если чтение остановлено по лимиту и в ленте могли остаться записи
+         */
+        public boolean isTruncated() {
+            return truncated;
+        }
+
+        /**
+         * Адрес WebSub хаба ленты (atom:link rel="hub") или null
+         */
+        public String getHubUrl() {
+            return hubUrl;
+        }
+
+        /**
+         * Канонический адрес ленты (atom:link rel="self") или null
+         */
+        public String getSelfUrl() {
+            return selfUrl;
+        }
+    }
+
+    /**
+     * Сведения о ленте из ее начала (см. probe)
+     */
+    public static class Probe {
+
+        private final String format;
+        private final String title;
+        private final String siteUrl;
+        private final String hubUrl;
+        private final String selfUrl;
+        private final boolean hasEntries;
+
+        Probe(String format, String title, String siteUrl, String hubUrl, String selfUrl, boolean hasEntries) {
+            this.format = format;
+            this.title = title;
+            this.siteUrl = siteUrl;
+            this.hubUrl = hubUrl;
+            this.selfUrl = selfUrl;
+            this.hasEntries = hasEntries;
+        }
+
+        /**
+         * RSS 2.0, RSS 0.91 и т.п., RSS 1.0 или Atom
+         */
+        public String getFormat() {
+            return format;
+        }
+
+        /**
+         * Название ленты или null
+         */
+        public String getTitle() {
+            return title;
+        }
+
+        /**
+         * Адрес сайта (channel/link или atom:link rel="alternate") или null
+         */
+        public String getSiteUrl() {
+            return siteUrl;
+        }
+
+        public String getHubUrl() {
+            return hubUrl;
+        }
+
+        public String getSelfUrl() {
+            return selfUrl;
+        }
+
+        /**
+         * true, если в прочитанном начале документа встретилась хотя бы одна запись
+         */
+        public boolean isHasEntries() {
+            return hasEntries;
+        }
+    }
+
+    private static XMLInputFactory createInputFactory() {
+        XMLInputFactory factory = XMLInputFactory.newFactory();
+        factory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, true);
+        factory.setProperty(XMLInputFactory.IS_COALESCING, true);
+        // Внешние сущности и DTD не загружаются
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        return factory;
+    }
+
+    /**
+     * Читает не более maxEntries записей из ленты.
+     *
+     * @param in поток с XML лентой (не закрывается)
+     * @param contentType значение заголовка Content-Type для определения кодировки или null
+     * @param maxEntries максимальное количество записей
+     * @throws IOException если документ не удалось прочитать или разобрать
+     */
+    public Result read(InputStream in, String contentType, int maxEntries) throws IOException {
+        List<SyndEntry> entries = new ArrayList<>();
+        String hubUrl = null;
+        String selfUrl = null;
+        XMLStreamReader reader = null;
+        try {
+            // Кодировку определяет XmlReader (BOM, XML декларация, заголовок HTTP),
+            // XmlFixerReader заменяет HTML сущности вроде &nbsp; - как в SyndFeedInput
+            reader = XML_INPUT_FACTORY.get().createXMLStreamReader(
+                    new XmlFixerReader(new XmlReader(in, contentType, true)));
+
+            while (reader.hasNext()) {
+                if (reader.next() != XMLStreamConstants.START_ELEMENT) {
+                    continue;
+                }
+                if (!isEntryElement(reader)) {
+                    // Ссылки уровня ленты: WebSub хаб и собственный адрес ленты
+                    if ("link".equals(reader.getLocalName()) && ATOM_NS.equals(reader.getNamespaceURI())) {
+                        String rel = reader.getAttributeValue(null, "rel");
+                        String href = reader.getAttributeValue(null, "href");
+                        if ("hub".equals(rel) && hubUrl == null) {
+                            hubUrl = href;
+                        } else if ("self".equals(rel) && selfUrl == null) {
+                            selfUrl = href;
+                        }
+                    }
+                    continue;
+                }
+                if (entries.size() >= maxEntries) {
+                    return new Result(entries, true, hubUrl, selfUrl);
+                }
+                entries.add(readEntry(reader));
+            }
+            return new Result(entries, false, hubUrl, selfUrl);
+        } catch (XMLStreamException e) {
+            if (!entries.isEmpty()) {
+                // Испорченный хвост ленты не мешает обработать уже прочитанные записи
+                return new Result(entries, true, hubUrl, selfUrl);
+            }
+            throw new IOException("Не удалось разобрать ленту: " + e.getMessage(), e);
+        } finally {
+            if (reader != null) {
+                try {
+                    reader.close();
+                } catch (XMLStreamException ignored) {
+                    // Поток закроет вызывающий код
+                }
+            }
+        }
+    }
+
+    /**
+     * Определяет формат ленты по началу документа и читает сведения уровня ленты:
+     * название, адрес сайта, WebSub хаб. Чтение прекращается на первой записи,
+     * поэтому достаточно первых килобайт документа; обрыв документа после
+     * корневого элемента ошибкой не считается.
+     *
+     * @param in поток с началом XML документа (не закрывается)
+     * @param contentType значение заголовка Content-Type для определения кодировки или null
+     * @throws IOException если документ не является RSS или Atom лентой
+     */
+    public Probe probe(InputStream in, String contentType) throws IOException {
+        String format = null;
+        String title = null;
+        String siteUrl = null;
+        String hubUrl = null;
+        String selfUrl = null;
+        XMLStreamReader reader = null;
+        try {
+            reader = XML_INPUT_FACTORY.get().createXMLStreamReader(
+                    new XmlFixerReader(new XmlReader(in, contentType, true)));
+
+            int depth = 0;
+            while (reader.hasNext()) {
+                int event = reader.next();
+                if (event == XMLStreamConstants.END_ELEMENT) {
+                    depth--;
+                    continue;
+                }
+                if (event != XMLStreamConstants.START_ELEMENT) {
+                    continue;
+                }
+                depth++;
+                String name = reader.getLocalName();
+                if (format == null) {
+                    format = feedFormat(reader);
+                    if (format == null) {
+                        throw new IOException("Документ не является RSS или Atom лентой (корневой элемент <" + name + ">)");
+                    }
+                    continue;
+                }
+                if (isEntryElement(reader)) {
+                    return new Probe(format, title, siteUrl, hubUrl, selfUrl, true);
+                }
+
+                // Элементы ленты: feed/* в Atom, rss/channel/* и rdf:RDF/channel/* в RSS
+                boolean atom = "Atom".equals(format);
+                if (depth != (atom ? 2 : 3)) {
+                    continue;
+                }
+                if ("title".equals(name) && title == null) {
+                    title = readText(reader).trim();
+                    depth--;
+                } else if ("link".equals(name) && ATOM_NS.equals(reader.getNamespaceURI())) {
+                    String rel = reader.getAttributeValue(null, "rel");
+                    String href = reader.getAttributeValue(null, "href");
+                    if ("hub".equals(rel) && hubUrl == null) {
+                        hubUrl = href;
+                    } else if ("self".equals(rel) && selfUrl == null) {
+                        selfUrl = href;
+                    } else if ((rel == null || "alternate".equals(rel)) && siteUrl == null) {
+                        siteUrl = href;
+                    }
+                } else if ("link".equals(name) && !atom && siteUrl == null) {
+                    siteUrl = readText(reader).trim();
+                    depth--;
+                }
+            }
+        } catch (XMLStreamException e) {
+            if (format == null) {
+                throw new IOException("Не удалось разобрать ленту: " + e.getMessage(), e);
+            }
+            // Начало документа обрезано - сведений уровня ленты достаточно
+        } finally {
+            if (reader != null) {
+                try {
+                    reader.close();
+                } catch (XMLStreamException ignored) {
+                    // Поток закроет вызывающий код
+                }
+            }
+        }
+        if (format == null) {
+            throw new IOException("Пустой документ");
+        }
+        return new Probe(format, title, siteUrl, hubUrl, selfUrl, false);
+    }
+
+    /**
+     * Формат ленты по корневому элементу или null, если это не лента
+     */
+    private String feedFormat(XMLStreamReader reader) {
+        String name = reader.getLocalName();
+        if ("rss".equals(name)) {
+            String version = reader.getAttributeValue(null, "version");
+            return "RSS " + (version != null ? version : "2.0");
+        }
+        if ("RDF".equals(name)) {
+            return "RSS 1.0";
+        }
+        if ("feed".equals(name) && ATOM_NS.equals(reader.getNamespaceURI())) {
+            return "Atom";
+        }
+        return null;
+    }
+
+    private boolean isEntryElement(XMLStreamReader reader) {
+        String name = reader.getLocalName();
+        if ("item".equals(name)) {
+            return !MEDIA_NS.equals(reader.getNamespaceURI());
+        }
+        return "entry".equals(name) && ATOM_NS.equals(reader.getNamespaceURI());
+    }
+
+    /**
+     * Читает одну запись; курсор стоит на ее открывающем теге
+     */
+    private SyndEntry readEntry(XMLStreamReader reader) throws XMLStreamException {
+        SyndEntryImpl entry = new SyndEntryImpl();
+        List<SyndContent> contents = new ArrayList<>();
+        List<SyndEnclosure> enclosures = new ArrayList<>();
+        List<Element> foreignMarkup = new ArrayList<>();
+        String alternateLink = null;
+        String permalinkGuid = null;
+        Date published = null;
+        Date updated = null;
+
+        int depth = 1;
+        while (depth > 0 && reader.hasNext()) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.END_ELEMENT) {
+                depth--;
+                continue;
+            }
+            if (event != XMLStreamConstants.START_ELEMENT) {
+                continue;
+            }
+
+            String ns = reader.getNamespaceURI();
+            String name = reader.getLocalName();
+
+            if (MEDIA_NS.equals(ns)) {
+                if ("content".equals(name) || "thumbnail".equals(name)) {
+                    foreignMarkup.add(toMediaElement(reader));
+                    skipElement(reader);
+                } else {
+                    depth++; // media:group и другие контейнеры просматриваются внутрь
+                }
+                continue;
+            }
+            if (depth > 1) {
+                skipElement(reader);
+                continue;
+            }
+
+            if (CONTENT_NS.equals(ns) && "encoded".equals(name)) {
+                contents.add(content("text/html", readText(reader)));
+            } else if (DC_NS.equals(ns) && "date".equals(name)) {
+                Date date = parseDate(readText(reader));
+                published = published != null ? published : date;
+            } else if ("title".equals(name)) {
+                entry.setTitle(readText(reader).trim());
+            } else if ("link".equals(name)) {
+                String href = reader.getAttributeValue(null, "href");
+                if (href == null) {
+                    // RSS: ссылка в тексте элемента
+                    String text = readText(reader).trim();
+                    alternateLink = alternateLink != null || text.isEmpty() ? alternateLink : text;
+                } else {
+                    String rel = reader.getAttributeValue(null, "rel");
+                    if ("enclosure".equals(rel)) {
+                        enclosures.add(enclosure(href, reader.getAttributeValue(null, "type"),
+                                reader.getAttributeValue(null, "length")));
+                    } else if ((rel == null || "alternate".equals(rel)) && alternateLink == null) {
+                        alternateLink = href;
+                    }
+                    skipElement(reader);
+                }
+            } else if ("guid".equals(name) || "id".equals(name)) {
+                boolean permalink = !"false".equalsIgnoreCase(reader.getAttributeValue(null, "isPermaLink"));
+                String guid = readText(reader).trim();
+                entry.setUri(guid);
+                if (permalink && guid.startsWith("http")) {
+                    permalinkGuid = guid;
+                }
+            } else if ("description".equals(name) || "summary".equals(name)) {
+                String type = "html".equals(reader.getAttributeValue(null, "type")) || "description".equals(name)
+                        ? "text/html" : "text/plain";
+                entry.setDescription(content(type, readText(reader)));
+            } else if ("content".equals(name)) {
+                contents.add(content("text/html", readText(reader)));
+            } else if ("pubDate".equals(name) || "published".equals(name) || "issued".equals(name)) {
+                published = parseDate(readText(reader));
+            } else if ("updated".equals(name) || "modified".equals(name)) {
+                updated = parseDate(readText(reader));
+            } else if ("enclosure".equals(name)) {
+                enclosures.add(enclosure(reader.getAttributeValue(null, "url"),
+                        reader.getAttributeValue(null, "type"), reader.getAttributeValue(null, "length")));
+                skipElement(reader);
+            } else {
+                skipElement(reader);
+            }
+        }
+
+        // RSS 2.0: при отсутствии link ссылкой служит guid с isPermaLink
+        entry.setLink(alternateLink != null ? alternateLink : permalinkGuid);
+        entry.setPublishedDate(published != null ? published : updated);
+        entry.setUpdatedDate(updated);
+        entry.setContents(contents);
+        entry.setEnclosures(enclosures);
+        entry.setForeignMarkup(foreignMarkup);
+        return entry;
+    }
+
+    /**
+     * Собирает весь текст элемента, включая текст вложенных тегов (atom:content type="xhtml").
+     * После вызова курсор стоит на закрывающем теге элемента.
+     */
+    private String readText(XMLStreamReader reader) throws XMLStreamException {
+        StringBuilder text = new StringBuilder();
+        int depth = 1;
+        while (depth > 0 && reader.hasNext()) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                depth++;
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                depth--;
+            } else if (event == XMLStreamConstants.CHARACTERS || event == XMLStreamConstants.CDATA
+                    || event == XMLStreamConstants.SPACE) {
+                text.append(reader.getText());
+            }
+        }
+        return text.toString();
+    }
+
+    /**
+     * Пропускает элемент вместе с содержимым
+     */
+    private void skipElement(XMLStreamReader reader) throws XMLStreamException {
+        int depth = 1;
+        while (depth > 0 && reader.hasNext()) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                depth++;
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                depth--;
+            }
+        }
+    }
+
+    private Element toMediaElement(XMLStreamReader reader) {
+        Element element = new Element(reader.getLocalName(), MEDIA_NAMESPACE);
+        for (int i = 0; i < reader.getAttributeCount(); i++) {
+            if (reader.getAttributePrefix(i) == null || reader.getAttributePrefix(i).isEmpty()) {
+                element.setAttribute(reader.getAttributeLocalName(i), reader.getAttributeValue(i));
+            }
+        }
+        return element;
+    }
+
+    private SyndContent content(String type, String value) {
+        SyndContentImpl content = new SyndContentImpl();
+        content.setType(type);
+        content.setValue(value);
+        return content;
+    }
+
+    private SyndEnclosure enclosure(String url, String type, String length) {
+        SyndEnclosureImpl enclosure = new SyndEnclosureImpl();
+        enclosure.setUrl(url);
+        enclosure.setType(type);
+        if (length != null) {
+            try {
+                enclosure.setLength(Long.parseLong(length.trim()));
+            } catch (NumberFormatException ignored) {
+                // Длина вложения необязательна
+            }
+        }
+        return enclosure;
+    }
+
+    private Date parseDate(String text) {
+        String value = text.trim();
+        return value.isEmpty() ? null : DateParser.parseDate(value, Locale.US);
+    }
+}
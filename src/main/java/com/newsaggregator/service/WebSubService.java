@@ -0,0 +1,297 @@
+package com.newsaggregator.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.newsaggregator.entity.NewsSource;
+import com.newsaggregator.repository.NewsSourceRepository;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Подписки WebSub (PubSubHubbub) на ленты, которые объявляют хаб.
+ *
+ * Хаб ленты (atom:link rel="hub") запоминается при опросе. Периодическая
+ * задача отправляет хабу запрос подписки с адресом обратного вызова
+ * /api/public/websub/{sourceId} и секретом источника; хаб подтверждает
+ * намерение GET запросом (verifyIntent), после чего присылает новые записи
+ * POST запросами (receive). Подпись X-Hub-Signature проверяется HMAC с
+ * секретом подписки, уведомления с неверной подписью игнорируются.
+ * Присланные записи проходят тот же путь, что и при опросе
+ * (RssParserService.processPushedFeed).
+ *
+ * Время отправленного запроса подписки хранится в источнике (websub_requested_at),
+ * а не в памяти узла: подтверждение хаба может прийти на любой экземпляр
+ * за общим адресом обратного вызова или после перезапуска узла.
+ *
+ * Подписка продлевается за renew-before-hours до истечения. Пока подписка
+ * действует, источник опрашивается редко, только для страховки
+ * (см. RssSchedulerService, app.websub.safety-poll-seconds).
+ *
+ * Требует публичного адреса приложения (app.websub.callback-base-url),
+ * поэтому по умолчанию выключено.
+ *
+ * @author News Aggregator Team
+ * @version 1.0
+ * @since 1.0
+ */
+@Service
+public class WebSubService {
+
+    private static final Logger logger = LoggerFactory.getLogger(WebSubService.class);
+
+    public static final String CALLBACK_PATH = "/api/public/websub/";
+
+    // Повторный запрос подписки, если хаб так и не подтвердил предыдущий
+    private static final Duration PENDING_RETRY = Duration.ofHours(1);
+
+    /**
+     * Результат приема уведомления
+     */
+    public enum Delivery {
+        ACCEPTED,
+        IGNORED,
+        UNKNOWN_SUBSCRIPTION,
+        TOO_LARGE
+    }
+
+    @Autowired
+    private NewsSourceRepository newsSourceRepository;
+
+    @Autowired
+    private RssParserService rssParserService;
+
+    @Autowired
+    private CrawlerHttpClient httpClient;
+
+    @Autowired
+    private SourceLeaseService sourceLeaseService;
+
+    @Value("${app.websub.enabled:false}")
+    private boolean enabled;
+
+    @Value("${app.websub.callback-base-url:}")
+    private String callbackBaseUrl;
+
+    @Value("${app.websub.lease-seconds:864000}")
+    private long leaseSeconds;
+
+    @Value("${app.websub.max-lease-seconds:2592000}")
+    private long maxLeaseSeconds;
+
+    @Value("${app.websub.renew-before-hours:24}")
+    private long renewBeforeHours;
+
+    @Value("${app.websub.max-body-bytes:1048576}")
+    private int maxBodyBytes;
+
+    private final SecureRandom random = new SecureRandom();
+
+    @PostConstruct
+    void init() {
+        if (enabled && (callbackBaseUrl == null || callbackBaseUrl.isBlank())) {
+            logger.warn("WebSub отключен: не задан app.websub.callback-base-url");
+            enabled = false;
+        }
+        if (enabled) {
+            logger.info("WebSub подписки включены, адрес обратного вызова {}{}", callbackBaseUrl, CALLBACK_PATH);
+        }
+    }
+
+    /**
+     * Оформляет новые и продлевает истекающие подписки источников, арендованных этим узлом
+     */
+    @Scheduled(fixedDelayString = "${app.websub.check-interval-ms:300000}", initialDelay = 60000)
+    public void renewSubscriptions() {
+        if (!enabled) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime renewBefore = now.plusHours(renewBeforeHours);
+        for (NewsSource source : newsSourceRepository.findWebsubRenewalCandidates(renewBefore)) {
+            LocalDateTime requestedAt = source.getWebsubRequestedAt();
+            if (requestedAt != null && requestedAt.isAfter(now.minus(PENDING_RETRY))) {
+                continue;
+            }
+            if (!sourceLeaseService.isOwner(source.getId())) {
+                continue;
+            }
+            try {
+                subscribe(source);
+            } catch (Exception e) {
+                logger.warn("Не удалось подписаться на ленту '{}' через хаб {}: {}",
+                           source.getName(), source.getWebsubHubUrl(), e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Проверка намерения: хаб запрашивает подтверждение подписки или отписки.
+     *
+     * Подписка подтверждается, только если запрос подписки отправлен (любым узлом)
+     * не раньше часа назад и на него еще не было ответа - иначе любой, кто знает
+     * адрес обратного вызова, мог бы продлить подписку. Срок аренды хаба ограничен
+     * max-lease-seconds.
+     *
+     * @return значение hub.challenge, если запрос соответствует нашей подписке, иначе null
+     */
+    public String verifyIntent(Long sourceId, String mode, String topic, String challenge, Long requestedLeaseSeconds) {
+        NewsSource source = newsSourceRepository.findById(sourceId).orElse(null);
+        boolean wanted = enabled && source != null && source.isActive()
+                && source.getWebsubSecret() != null && topic != null && topic.equals(source.getWebsubTopicUrl());
+
+        if ("denied".equals(mode)) {
+            if (source != null) {
+                newsSourceRepository.updateWebsubRequestedAt(sourceId, null);
+            }
+            logger.warn("Хаб отклонил подписку на ленту {}", topic);
+            return null;
+        }
+        if ("subscribe".equals(mode) && wanted && challenge != null) {
+            long lease = requestedLeaseSeconds != null && requestedLeaseSeconds > 0 ? requestedLeaseSeconds : leaseSeconds;
+            lease = Math.min(lease, maxLeaseSeconds);
+            LocalDateTime now = LocalDateTime.now();
+            if (newsSourceRepository.confirmWebsubSubscription(sourceId, now.plusSeconds(lease), now.minus(PENDING_RETRY)) == 1) {
+                logger.info("WebSub подписка на ленту '{}' подтверждена на {} ч", source.getName(), lease / 3600);
+                return challenge;
+            }
+            return null;
+        }
+        if ("unsubscribe".equals(mode) && !wanted && challenge != null) {
+            // Отписку подтверждаем только для подписок, которые нам больше не нужны
+            return challenge;
+        }
+        return null;
+    }
+
+    /**
+     * Принимает уведомление хаба с новыми записями ленты
+     *
+     * @param signature значение заголовка X-Hub-Signature
+     * @param contentType значение заголовка Content-Type
+     * @param body тело запроса
+     */
+    public Delivery receive(Long sourceId, String signature, String contentType, InputStream body) throws IOException {
+        NewsSource source = enabled ? newsSourceRepository.findById(sourceId).orElse(null) : null;
+        if (source == null || !source.isActive() || source.getWebsubSecret() == null) {
+            return Delivery.UNKNOWN_SUBSCRIPTION;
+        }
+
+        byte[] payload = body.readNBytes(maxBodyBytes + 1);
+        if (payload.length > maxBodyBytes) {
+            return Delivery.TOO_LARGE;
+        }
+        if (!verifySignature(source.getWebsubSecret(), signature, payload)) {
+            // По протоколу хабу отвечаем успехом, но содержимое не используем
+            logger.warn("Уведомление для ленты '{}' с неверной подписью, игнорируем", source.getName());
+            return Delivery.IGNORED;
+        }
+
+        rssParserService.processPushedFeed(source, payload, contentType, new CrawlReport());
+        return Delivery.ACCEPTED;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Отправляет хабу запрос подписки. Секрет создается один раз и сохраняется
+     * при продлении, чтобы не отвергать уведомления, подписанные прежним секретом.
+     */
+    private void subscribe(NewsSource source) throws IOException {
+        String secret = source.getWebsubSecret();
+        if (secret == null) {
+            byte[] bytes = new byte[32];
+            random.nextBytes(bytes);
+            secret = HexFormat.of().formatHex(bytes);
+            if (newsSourceRepository.updateWebsubSecret(source.getId(), source.getWebsubHubUrl(), secret) == 0) {
+                return; // Хаб источника сменился с момента выборки
+            }
+        }
+
+        Map<String, String> form = new LinkedHashMap<>();
+        form.put("hub.mode", "subscribe");
+        form.put("hub.topic", source.getWebsubTopicUrl());
+        form.put("hub.callback", callbackUrl(source.getId()));
+        form.put("hub.secret", secret);
+        form.put("hub.lease_seconds", String.valueOf(Math.min(leaseSeconds, maxLeaseSeconds)));
+
+        newsSourceRepository.updateWebsubRequestedAt(source.getId(), LocalDateTime.now());
+        try (HttpFetchResult result = httpClient.postForm(source.getWebsubHubUrl(), form)) {
+            if (result.getStatusCode() >= 300) {
+                throw new IOException("HTTP " + result.getStatusCode() + " от хаба " + source.getWebsubHubUrl());
+            }
+        }
+        logger.info("Запрошена WebSub подписка на ленту '{}' через хаб {}", source.getName(), source.getWebsubHubUrl());
+    }
+
+    private String callbackUrl(Long sourceId) {
+        String base = callbackBaseUrl.trim();
+        if (base.endsWith("/")) {
+            base = base.substring(0, base.length() - 1);
+        }
+        return base + CALLBACK_PATH + sourceId;
+    }
+
+    /**
+     * Проверяет подпись X-Hub-Signature ("sha1=...", "sha256=...", "sha384=..." или "sha512=...")
+     */
+    static boolean verifySignature(String secret, String signature, byte[] body) {
+        if (secret == null || signature == null) {
+            return false;
+        }
+        int separator = signature.indexOf('=');
+        if (separator <= 0) {
+            return false;
+        }
+
+        String algorithm;
+        switch (signature.substring(0, separator).trim().toLowerCase(Locale.ROOT)) {
+            case "sha1":
+                algorithm = "HmacSHA1";
+                break;
+            case "sha256":
+                algorithm = "HmacSHA256";
+                break;
+            case "sha384":
+                algorithm = "HmacSHA384";
+                break;
+            case "sha512":
+                algorithm = "HmacSHA512";
+                break;
+            default:
+                return false;
+        }
+
+        try {
+            byte[] expected = HexFormat.of().parseHex(signature.substring(separator + 1).trim());
+            Mac mac = Mac.getInstance(algorithm);
+            mac.init(new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), algorithm));
+            // Сравнение за постоянное время
+            return MessageDigest.isEqual(mac.doFinal(body), expected);
+        } catch (IllegalArgumentException | GeneralSecurityException e) {
+            return false;
+        }
+    }
+}
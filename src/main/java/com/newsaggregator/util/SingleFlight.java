@@ -0,0 +1,83 @@
+package com.newsaggregator.util;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Объединение одновременных одинаковых асинхронных вызовов ("single flight").
+ *
+ * Пока вызов с ключом выполняется, остальные вызовы с тем же ключом не запускаются,
+ * а получают future уже выполняющегося вызова. После завершения ключ освобождается:
+ * следующий вызов запускается заново, результаты не кэшируются.
+ *
+ * Ошибка вызова достается всем, кто к нему присоединился.
+ *
+ * @param <K> ключ вызова
+ * @param <V> результат вызова
+ * @author News Aggregator Team
+ * @version 1.0
+ * @since 1.0
+ */
+public class SingleFlight<K, V> {
+
+    private final Map<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final AtomicLong started = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+
+    /**
+     * Выполняет вызов или присоединяется к уже выполняющемуся вызову с тем же ключом.
+     * Исключение, выброшенное call, возвращается как future с ошибкой.
+     *
+     * @return future результата; завершать его вручную нельзя - он общий для всех присоединившихся
+     */
+    public CompletableFuture<V> execute(K key, Supplier<CompletableFuture<V>> call) {
+        CompletableFuture<V> placeholder = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, placeholder);
+        if (existing != null) {
+            coalesced.incrementAndGet();
+            return existing;
+        }
+        started.incrementAndGet();
+
+        CompletableFuture<V> result;
+        try {
+            result = call.get();
+        } catch (RuntimeException e) {
+            result = CompletableFuture.failedFuture(e);
+        }
+        // Ключ освобождается до того, как результат увидят присоединившиеся
+        result.whenComplete((value, error) -> {
+            inFlight.remove(key, placeholder);
+            if (error != null) {
+                placeholder.completeExceptionally(error);
+            } else {
+                placeholder.complete(value);
+            }
+        });
+        return placeholder;
+    }
+
+    /**
+     * Количество выполняющихся вызовов
+     */
+    public int getInFlight() {
+        return inFlight.size();
+    }
+
+    /**
+     * Количество запущенных вызовов
+     */
+    public long getStarted() {
+        return started.get();
+    }
+
+    /**
+     * Количество вызовов, присоединившихся к уже выполняющимся
+     */
+    public long getCoalesced() {
+        return coalesced.get();
+    }
+}
@@ -0,0 +1,99 @@
+package com.newsaggregator.util;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Потокобезопасный ограничитель частоты "ведро токенов".
+ *
+ * Токены пополняются с постоянной скоростью до емкости ведра; каждый
+ * запрос забирает один токен. Емкость задает допустимый всплеск запросов
+ * после простоя, скорость - среднюю частоту. Скорость можно менять на ходу.
+ *
+ * tryAcquire() не блокирует поток: если токена нет, возвращается время
+ * до его появления, и вызывающий код сам решает, когда повторить попытку.
+ *
+ * @author News Aggregator Team
+ * @version 1.0
+ * @since 1.0
+ */
+public class TokenBucket {
+
+    private final LongSupplier nanoClock;
+    private double ratePerSecond;
+    private double capacity;
+    private double tokens;
+    private long lastRefillNanos;
+
+    /**
+     * @param ratePerSecond скорость пополнения (токенов в секунду)
+     * @param capacity емкость ведра (не меньше 1)
+     */
+    public TokenBucket(double ratePerSecond, double capacity) {
+        this(ratePerSecond, capacity, System::nanoTime);
+    }
+
+    /**
+     * Конструктор с источником времени (для тестов)
+     */
+    public TokenBucket(double ratePerSecond, double capacity, LongSupplier nanoClock) {
+        validate(ratePerSecond, capacity);
+        this.nanoClock = nanoClock;
+        this.ratePerSecond = ratePerSecond;
+        this.capacity = capacity;
+        this.tokens = capacity;
+        this.lastRefillNanos = nanoClock.getAsLong();
+    }
+
+    /**
+     * Забирает токен, если он есть.
+     *
+     * @return 0, если токен получен; иначе время в миллисекундах до появления токена (токен не забирается)
+     */
+    public synchronized long tryAcquire() {
+        refill();
+        if (tokens >= 1) {
+            tokens -= 1;
+            return 0;
+        }
+        double missingSeconds = (1 - tokens) / ratePerSecond;
+        return Math.max(1, (long) Math.ceil(missingSeconds * 1000));
+    }
+
+    /**
+     * Меняет скорость и емкость. Накопленные токены сохраняются в пределах новой емкости.
+     */
+    public synchronized void setRate(double ratePerSecond, double capacity) {
+        validate(ratePerSecond, capacity);
+        refill();
+        this.ratePerSecond = ratePerSecond;
+        this.capacity = capacity;
+        this.tokens = Math.min(tokens, capacity);
+    }
+
+    public synchronized double getRatePerSecond() {
+        return ratePerSecond;
+    }
+
+    public synchronized double getCapacity() {
+        return capacity;
+    }
+
+    private void refill() {
+        long now = nanoClock.getAsLong();
+        long elapsed = now - lastRefillNanos;
+        if (elapsed > 0) {
+            tokens = Math.min(capacity, tokens + elapsed * ratePerSecond / TimeUnit.SECONDS.toNanos(1));
+            lastRefillNanos = now;
+        }
+    }
+
+    private static void validate(double ratePerSecond, double capacity) {
+        if (ratePerSecond <= 0) {
+            throw new IllegalArgumentException("ratePerSecond должно быть положительным");
+        }
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity должно быть не меньше 1");
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.newsaggregator.util;
+
+import java.net.URI;
+import java.util.Locale;
+
+/**
+ * Приведение ссылки на статью к каноническому виду для сравнения.
+ *
+ * Ссылки, отличающиеся только регистром схемы и хоста, портом по умолчанию,
+ * фрагментом (#...) или метками кампаний (utm_*), указывают на одну страницу.
+ * Агрегаторы и ленты рубрик часто добавляют к ссылке издателя именно такие отличия.
+ *
+ * @author News Aggregator Team
+ * @version 1.0
+ * @since 1.0
+ */
+public final class UrlNormalizer {
+
+    private UrlNormalizer() {
+    }
+
+    /**
+     * Возвращает канонический вид ссылки. Ссылка, которую не удалось разобрать,
+     * возвращается без изменений (без пробелов по краям).
+     */
+    public static String normalize(String url) {
+        if (url == null) {
+            return null;
+        }
+        String trimmed = url.trim();
+        try {
+            URI uri = new URI(trimmed);
+            if (uri.getScheme() == null || uri.getRawAuthority() == null) {
+                return trimmed;
+            }
+            String scheme = uri.getScheme().toLowerCase(Locale.ROOT);
+
+            StringBuilder result = new StringBuilder(trimmed.length());
+            result.append(scheme).append("://");
+            if (uri.getRawUserInfo() != null) {
+                result.append(uri.getRawUserInfo()).append('@');
+            }
+            String host = uri.getHost();
+            result.append(host != null ? host.toLowerCase(Locale.ROOT) : uri.getRawAuthority().toLowerCase(Locale.ROOT));
+            int port = uri.getPort();
+            if (host != null && port != -1 && !isDefaultPort(scheme, port)) {
+                result.append(':').append(port);
+            }
+
+            String path = uri.getRawPath();
+            result.append(path == null || path.isEmpty() ? "/" : path);
+
+            String query = stripTrackingParameters(uri.getRawQuery());
+            if (!query.isEmpty()) {
+                result.append('?').append(query);
+            }
+            return result.toString();
+        } catch (Exception e) {
+            return trimmed;
+        }
+    }
+
+    private static boolean isDefaultPort(String scheme, int port) {
+        return ("http".equals(scheme) && port == 80) || ("https".equals(scheme) && port == 443);
+    }
+
+    /**
+     * Удаляет метки кампаний utm_*, сохраняя порядок остальных параметров
+     */
+    private static String stripTrackingParameters(String query) {
+        if (query == null || query.isEmpty()) {
+            return "";
+        }
+        StringBuilder result = new StringBuilder(query.length());
+        for (String parameter : query.split("&")) {
+            if (parameter.isEmpty() || parameter.toLowerCase(Locale.ROOT).startsWith("utm_")) {
+                continue;
+            }
+            if (result.length() > 0) {
+                result.append('&');
+            }
+            result.append(parameter);
+        }
+        return result.toString();
+    }
+}
@@ -0,0 +1,283 @@
+package com.newsaggregator.benchmark;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Proxy;
+import java.net.ProxySelector;
+import java.net.SocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Локальная "ферма" лент и страниц статей для нагрузочного теста загрузки.
+ *
+ * Шаблоны лент и страниц (src/test/resources/benchmark/{домен}/) повторяют разметку
+ * сайтов, для которых в ArticleContentExtractorService есть отдельные правила.
+ * Источник i получает домен DOMAINS[i % 7], ленту /benchmark/feed/{i}.xml
+ * и статьи /benchmark/{i}/{j}.html с уникальными заголовками и текстом из paragraphs.txt.
+ *
+ * Сервер работает как HTTP прокси: краулер обращается к настоящим именам хостов
+ * (http://habr.com/...), а ProxySelector направляет эти запросы на ферму.
+ * Так извлечение текста идет по тем же правилам, что и для настоящих сайтов.
+ * robots.txt на всех хостах отсутствует (404).
+ */
+class FeedFarm {
+
+    static final List<String> DOMAINS = List.of(
+            "habr.com", "ria.ru", "lenta.ru", "gazeta.ru", "vedomosti.ru", "bbc.com", "reuters.com");
+
+    static final String THREAD_PREFIX = "benchmark-farm-";
+
+    private static final Pattern FEED_PATH = Pattern.compile("/benchmark/feed/(\\d+)\\.xml");
+    private static final Pattern ARTICLE_PATH = Pattern.compile("/benchmark/(\\d+)/(\\d+)\\.html");
+
+    private final int entriesPerFeed;
+    private final int paragraphsPerArticle;
+    private final List<String> paragraphs;
+    private final Map<String, Template> feeds = new HashMap<>();
+    private final Map<String, Template> articles = new HashMap<>();
+
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong bytesServed = new AtomicLong();
+
+    private HttpServer server;
+    private ExecutorService executor;
+
+    /**
+     * @param entriesPerFeed записей в каждой ленте
+     * @param paragraphsPerArticle абзацев в каждой статье
+     */
+    FeedFarm(int entriesPerFeed, int paragraphsPerArticle) throws IOException {
+        this.entriesPerFeed = entriesPerFeed;
+        this.paragraphsPerArticle = paragraphsPerArticle;
+        this.paragraphs = readResource("paragraphs.txt").lines()
+                .filter(line -> !line.isBlank())
+                .toList();
+        for (String domain : DOMAINS) {
+            feeds.put(domain, new Template(readResource(domain + "/feed.xml"), "item"));
+            articles.put(domain, new Template(readResource(domain + "/article.html"), "paragraph"));
+        }
+    }
+
+    /**
+     * Запускает сервер на свободном порту
+     */
+    void start(int threads) throws IOException {
+        AtomicInteger threadNumber = new AtomicInteger();
+        executor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, THREAD_PREFIX + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 256);
+        server.createContext("/", this::handle);
+        server.setExecutor(executor);
+        server.start();
+    }
+
+    void stop() {
+        if (server != null) {
+            server.stop(0);
+        }
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    long getRequests() {
+        return requests.get();
+    }
+
+    long getBytesServed() {
+        return bytesServed.get();
+    }
+
+    static String domainOf(int source) {
+        return DOMAINS.get(source % DOMAINS.size());
+    }
+
+    static String feedUrl(int source) {
+        return "http://" + domainOf(source) + "/benchmark/feed/" + source + ".xml";
+    }
+
+    static String articleUrl(int source, int entry) {
+        return "http://" + domainOf(source) + "/benchmark/" + source + "/" + entry + ".html";
+    }
+
+    /**
+     * ProxySelector, который направляет запросы к доменам фермы на этот сервер,
+     * а остальные запросы - напрямую
+     */
+    ProxySelector proxySelector() {
+        return new ProxySelector() {
+            @Override
+            public List<Proxy> select(URI uri) {
+                if (uri.getHost() != null && DOMAINS.contains(uri.getHost().toLowerCase(Locale.ROOT))) {
+                    return List.of(new Proxy(Proxy.Type.HTTP, new InetSocketAddress("127.0.0.1", getPort())));
+                }
+                return List.of(Proxy.NO_PROXY);
+            }
+
+            @Override
+            public void connectFailed(URI uri, SocketAddress address, IOException e) {
+            }
+        };
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        requests.incrementAndGet();
+        try (exchange) {
+            String path = exchange.getRequestURI().getPath();
+            String body = null;
+            String contentType = null;
+
+            Matcher feed = FEED_PATH.matcher(path);
+            Matcher article = ARTICLE_PATH.matcher(path);
+            if (feed.matches()) {
+                body = renderFeed(Integer.parseInt(feed.group(1)));
+                contentType = "application/xml; charset=utf-8";
+            } else if (article.matches()) {
+                int entry = Integer.parseInt(article.group(2));
+                if (entry < entriesPerFeed) {
+                    body = renderArticle(Integer.parseInt(article.group(1)), entry);
+                    contentType = "text/html; charset=utf-8";
+                }
+            }
+
+            if (body == null) {
+                exchange.sendResponseHeaders(404, -1);
+                return;
+            }
+            byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", contentType);
+            exchange.sendResponseHeaders(200, bytes.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(bytes);
+            }
+            bytesServed.addAndGet(bytes.length);
+        }
+    }
+
+    String renderFeed(int source) {
+        ZonedDateTime now = ZonedDateTime.now(ZoneOffset.UTC).withNano(0);
+        Map<String, String> values = new HashMap<>();
+        values.put("FEED_URL", feedUrl(source));
+        values.put("SOURCE", String.valueOf(source));
+        values.put("PUB_DATE", DateTimeFormatter.RFC_1123_DATE_TIME.format(now));
+        values.put("ISO_DATE", DateTimeFormatter.ISO_OFFSET_DATE_TIME.format(now));
+
+        List<Map<String, String>> items = new ArrayList<>();
+        for (int entry = 0; entry < entriesPerFeed; entry++) {
+            ZonedDateTime published = now.minusMinutes(entry);
+            Map<String, String> item = new HashMap<>();
+            item.put("ITEM_TITLE", title(source, entry));
+            item.put("ITEM_URL", articleUrl(source, entry));
+            item.put("ITEM_GUID", "urn:benchmark:" + source + ":" + entry);
+            item.put("PUB_DATE", DateTimeFormatter.RFC_1123_DATE_TIME.format(published));
+            item.put("ISO_DATE", DateTimeFormatter.ISO_OFFSET_DATE_TIME.format(published));
+            items.add(item);
+        }
+        return feeds.get(domainOf(source)).render(values, items);
+    }
+
+    String renderArticle(int source, int entry) {
+        ZonedDateTime published = ZonedDateTime.now(ZoneOffset.UTC).withNano(0).minusMinutes(entry);
+        Map<String, String> values = new HashMap<>();
+        values.put("TITLE", title(source, entry));
+        values.put("URL", articleUrl(source, entry));
+        values.put("SOURCE", String.valueOf(source));
+        values.put("PUB_DATE", DateTimeFormatter.RFC_1123_DATE_TIME.format(published));
+        values.put("ISO_DATE", DateTimeFormatter.ISO_OFFSET_DATE_TIME.format(published));
+
+        // Сдвиг по номеру статьи, чтобы тексты соседних статей различались
+        List<Map<String, String>> blocks = new ArrayList<>();
+        for (int i = 0; i < paragraphsPerArticle; i++) {
+            blocks.add(Map.of("TEXT", paragraphs.get((source + entry + i) % paragraphs.size())));
+        }
+        return articles.get(domainOf(source)).render(values, blocks);
+    }
+
+    private static String title(int source, int entry) {
+        return "Новость " + entry + " источника " + source + ": программа развития инфраструктуры";
+    }
+
+    private static String readResource(String name) throws IOException {
+        try (InputStream in = FeedFarm.class.getResourceAsStream("/benchmark/" + name)) {
+            if (in == null) {
+                throw new IOException("Не найден ресурс benchmark/" + name);
+            }
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    /**
+     * Шаблон с плейсхолдерами {{NAME}} и одним повторяемым блоком
+     * между комментариями &lt;!--block--&gt; и &lt;!--/block--&gt;
+     */
+    static class Template {
+
+        private final String head;
+        private final String block;
+        private final String tail;
+
+        Template(String text, String blockName) {
+            String open = "<!--" + blockName + "-->";
+            String close = "<!--/" + blockName + "-->";
+            int start = text.indexOf(open);
+            int end = text.indexOf(close);
+            if (start < 0 || end < start) {
+                throw new IllegalArgumentException("В шаблоне нет блока " + blockName);
+            }
+            this.head = text.substring(0, start);
+            this.block = text.substring(start + open.length(), end);
+            this.tail = text.substring(end + close.length());
+        }
+
+        String render(Map<String, String> values, List<Map<String, String>> blocks) {
+            StringBuilder result = new StringBuilder(head.length() + tail.length() + block.length() * blocks.size() * 2);
+            result.append(substitute(head, values));
+            for (Map<String, String> blockValues : blocks) {
+                Map<String, String> merged = new HashMap<>(values);
+                merged.putAll(blockValues);
+                result.append(substitute(block, merged));
+            }
+            result.append(substitute(tail, values));
+            return result.toString();
+        }
+
+        private static String substitute(String text, Map<String, String> values) {
+            String result = text;
+            for (Map.Entry<String, String> value : values.entrySet()) {
+                result = result.replace("{{" + value.getKey() + "}}", escape(value.getValue()));
+            }
+            return result;
+        }
+
+        private static String escape(String value) {
+            return value.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;");
+        }
+    }
+}
@@ -0,0 +1,229 @@
+package com.newsaggregator.benchmark;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.net.ProxySelector;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.newsaggregator.entity.NewsSource;
+import com.newsaggregator.repository.NewsSourceRepository;
+import com.newsaggregator.service.CrawlReport;
+import com.newsaggregator.service.IngestPipeline;
+import com.newsaggregator.service.PipelineStage;
+import com.newsaggregator.service.RssParserService;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Нагрузочный тест загрузки новостей без доступа в интернет.
+ *
+ * Поднимает локальную ферму лент и страниц (FeedFarm), создает N источников
+ * в H2 и измеряет parseAllRssFeeds: статей в секунду, p50/p99 времени задач
+ * каждого этапа конвейера и скорость выделения памяти потоками приложения.
+ * Запускается только в профиле Maven benchmark:
+ *
+ *   mvn -P benchmark test -Dbenchmark.sources=200 -Dbenchmark.min-articles-per-second=50
+ *
+ * Параметры (системные свойства):
+ * - benchmark.sources - количество источников (50)
+ * - benchmark.entries - записей в каждой ленте (10)
+ * - benchmark.paragraphs - абзацев в каждой статье (6)
+ * - benchmark.warmup-sources - источников для прогрева JIT перед замером (14)
+ * - benchmark.min-articles-per-second - нижняя граница пропускной способности, 0 - без проверки
+ */
+@SpringBootTest(properties = {
+        "app.rss.max-articles-per-source=${benchmark.entries:10}",
+        "app.rss.crawl.per-host-limit=32",
+        "app.rss.politeness.requests-per-second=100000",
+        "app.rss.politeness.burst=100000",
+        "app.rss.seen-urls.expected-insertions=100000"
+})
+@ActiveProfiles("test")
+@DisplayName("Ingest Benchmark")
+class IngestBenchmark {
+
+    private static final Logger logger = LoggerFactory.getLogger(IngestBenchmark.class);
+
+    private static final int SOURCES = Integer.getInteger("benchmark.sources", 50);
+    private static final int ENTRIES = Integer.getInteger("benchmark.entries", 10);
+    private static final int PARAGRAPHS = Integer.getInteger("benchmark.paragraphs", 6);
+    private static final int WARMUP_SOURCES = Integer.getInteger("benchmark.warmup-sources", 14);
+    private static final double MIN_ARTICLES_PER_SECOND =
+            Double.parseDouble(System.getProperty("benchmark.min-articles-per-second", "0"));
+
+    private static final FeedFarm farm;
+
+    // Ферма и ProxySelector должны появиться до создания контекста:
+    // CrawlerHttpClient запоминает ProxySelector при построении HTTP клиента
+    static {
+        try {
+            farm = new FeedFarm(ENTRIES, PARAGRAPHS);
+            farm.start(8);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        ProxySelector.setDefault(farm.proxySelector());
+    }
+
+    @Autowired
+    private RssParserService rssParserService;
+
+    @Autowired
+    private NewsSourceRepository newsSourceRepository;
+
+    @Autowired
+    private IngestPipeline ingestPipeline;
+
+    @AfterAll
+    static void stopFarm() {
+        farm.stop();
+    }
+
+    @Test
+    @DisplayName("Should crawl the feed farm and report throughput per stage")
+    void benchmarkParseAllRssFeeds() {
+        // Arrange: прогрев на отдельных источниках, которые потом выключаются
+        if (WARMUP_SOURCES > 0) {
+            List<NewsSource> warmup = createSources(SOURCES, WARMUP_SOURCES);
+            rssParserService.parseAllRssFeeds();
+            warmup.forEach(source -> source.setActive(false));
+            newsSourceRepository.saveAll(warmup);
+        }
+        createSources(0, SOURCES);
+
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        Map<String, Timer> stageTimers = new HashMap<>();
+        for (PipelineStage stage : ingestPipeline.getStages()) {
+            Timer timer = Timer.builder("benchmark.stage.task")
+                    .tag("stage", stage.getName())
+                    .publishPercentiles(0.5, 0.99)
+                    .register(registry);
+            stage.setTaskTimer(timer);
+            stageTimers.put(stage.getName(), timer);
+        }
+        AllocationSnapshot allocationBefore = AllocationSnapshot.take();
+        long gcBefore = gcCount();
+        long requestsBefore = farm.getRequests();
+        long bytesBefore = farm.getBytesServed();
+
+        // Act
+        long started = System.nanoTime();
+        CrawlReport report = rssParserService.parseAllRssFeeds();
+        long elapsedNanos = System.nanoTime() - started;
+
+        // Assert
+        double seconds = elapsedNanos / 1e9;
+        double articlesPerSecond = report.getArticlesAdded() / seconds;
+        long allocatedBytes = AllocationSnapshot.take().allocatedSince(allocationBefore);
+
+        logger.info("Бенчмарк загрузки: {} источников x {} записей, {} статей за {} с, {} статей/с",
+                SOURCES, ENTRIES, report.getArticlesAdded(), String.format("%.2f", seconds),
+                String.format("%.1f", articlesPerSecond));
+        logger.info("Ферма: {} запросов, {} КБ; выделено памяти {} МБ ({} МБ/с), сборок мусора {}",
+                farm.getRequests() - requestsBefore, (farm.getBytesServed() - bytesBefore) / 1024,
+                allocatedBytes / (1024 * 1024), String.format("%.1f", allocatedBytes / (1024.0 * 1024) / seconds),
+                gcCount() - gcBefore);
+        for (PipelineStage stage : ingestPipeline.getStages()) {
+            Timer timer = stageTimers.get(stage.getName());
+            logger.info("Этап {}: задач {}, p50 {} мс, p99 {} мс, макс {} мс", stage.getName(), timer.count(),
+                    percentileMillis(timer, 0.5), percentileMillis(timer, 0.99),
+                    String.format("%.1f", timer.max(TimeUnit.MILLISECONDS)));
+            stage.setTaskTimer(null);
+        }
+
+        assertEquals(SOURCES, report.getSourcesOk(), "Источники с ошибками: " + report.getFailedSources());
+        assertEquals(SOURCES * ENTRIES, report.getArticlesAdded());
+        if (MIN_ARTICLES_PER_SECOND > 0) {
+            assertTrue(articlesPerSecond >= MIN_ARTICLES_PER_SECOND,
+                    String.format("Пропускная способность %.1f статей/с ниже порога %.1f",
+                            articlesPerSecond, MIN_ARTICLES_PER_SECOND));
+        }
+    }
+
+    private List<NewsSource> createSources(int first, int count) {
+        List<NewsSource> sources = new ArrayList<>();
+        for (int i = first; i < first + count; i++) {
+            String domain = FeedFarm.domainOf(i);
+            sources.add(new NewsSource("Бенчмарк " + domain + " #" + i, FeedFarm.feedUrl(i), "http://" + domain));
+        }
+        return newsSourceRepository.saveAll(sources);
+    }
+
+    private static String percentileMillis(Timer timer, double percentile) {
+        for (ValueAtPercentile value : timer.takeSnapshot().percentileValues()) {
+            if (value.percentile() == percentile) {
+                return String.format("%.1f", value.value(TimeUnit.MILLISECONDS));
+            }
+        }
+        return "-";
+    }
+
+    private static long gcCount() {
+        long count = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            count += Math.max(0, gc.getCollectionCount());
+        }
+        return count;
+    }
+
+    /**
+     * Байты, выделенные каждым потоком JVM (кроме потоков фермы), на момент снимка
+     */
+    private static class AllocationSnapshot {
+
+        private final Map<Long, Long> bytesByThread;
+
+        private AllocationSnapshot(Map<Long, Long> bytesByThread) {
+            this.bytesByThread = bytesByThread;
+        }
+
+        static AllocationSnapshot take() {
+            Map<Long, Long> bytesByThread = new HashMap<>();
+            if (!(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean threads)
+                    || !threads.isThreadAllocatedMemorySupported()) {
+                return new AllocationSnapshot(bytesByThread);
+            }
+            for (Thread thread : Thread.getAllStackTraces().keySet()) {
+                if (thread.getName().startsWith(FeedFarm.THREAD_PREFIX)) {
+                    continue;
+                }
+                long bytes = threads.getThreadAllocatedBytes(thread.getId());
+                if (bytes >= 0) {
+                    bytesByThread.put(thread.getId(), bytes);
+                }
+            }
+            return new AllocationSnapshot(bytesByThread);
+        }
+
+        /**
+         * Выделено с момента предыдущего снимка потоками, живыми на момент этого снимка
+         */
+        long allocatedSince(AllocationSnapshot before) {
+            long total = 0;
+            for (Map.Entry<Long, Long> entry : bytesByThread.entrySet()) {
+                total += entry.getValue() - before.bytesByThread.getOrDefault(entry.getKey(), 0L);
+            }
+            return total;
+        }
+    }
+}
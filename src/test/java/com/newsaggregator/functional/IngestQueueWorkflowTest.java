@@ -0,0 +1,211 @@
+package com.newsaggregator.functional;
+
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.newsaggregator.entity.IngestTask;
+import com.newsaggregator.entity.IngestTaskState;
+import com.newsaggregator.repository.IngestTaskRepository;
+import com.newsaggregator.service.IngestQueue;
+import com.newsaggregator.service.SourceLeaseService;
+
+/**
+ * Функциональные тесты очереди загрузки: параллельный захват задач
+ * (SELECT ... FOR UPDATE SKIP LOCKED), возврат задач с истекшей арендой
+ * и продление аренды выполняемых задач
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@DisplayName("Ingest Queue Workflow Functional Tests")
+class IngestQueueWorkflowTest {
+
+    @Autowired
+    private IngestQueue ingestQueue;
+
+    @Autowired
+    private IngestTaskRepository taskRepository;
+
+    @Autowired
+    private SourceLeaseService sourceLeaseService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @AfterEach
+    void tearDown() {
+        taskRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("Одновременные захваты получают разные задачи и не ждут друг друга")
+    void testConcurrentClaimsAreDisjoint() throws Exception {
+        // Arrange
+        for (int i = 0; i < 10; i++) {
+            savePending("https://example.com/queue/" + i);
+        }
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        CountDownLatch firstClaimed = new CountDownLatch(1);
+        CountDownLatch releaseFirst = new CountDownLatch(1);
+
+        // Act: первая транзакция держит блокировки своих задач, пока вторая забирает задачи
+        CompletableFuture<List<Long>> first = CompletableFuture.supplyAsync(() -> transaction.execute(status -> {
+            List<Long> ids = ids(ingestQueue.claim(5));
+            firstClaimed.countDown();
+            try {
+                releaseFirst.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return ids;
+        }));
+        assertTrue(firstClaimed.await(10, TimeUnit.SECONDS));
+        List<Long> second = CompletableFuture.supplyAsync(() -> transaction.execute(status -> ids(ingestQueue.claim(5))))
+                .get(5, TimeUnit.SECONDS);
+        releaseFirst.countDown();
+        List<Long> firstIds = first.get(10, TimeUnit.SECONDS);
+
+        // Assert
+        assertEquals(5, firstIds.size());
+        assertEquals(5, second.size());
+        Set<Long> overlap = new HashSet<>(firstIds);
+        overlap.retainAll(second);
+        assertTrue(overlap.isEmpty());
+        for (IngestTask task : taskRepository.findAll()) {
+            assertEquals(IngestTaskState.RUNNING, task.getState());
+            assertEquals(1, task.getAttempts());
+        }
+    }
+
+    @Test
+    @DisplayName("Задачу с истекшей арендой забирает другой узел, действующую аренду - нет")
+    void testExpiredLeaseIsClaimedAgain() {
+        // Arrange
+        IngestTask expired = saveRunning("https://example.com/queue/expired", LocalDateTime.now().minusMinutes(1));
+        IngestTask active = saveRunning("https://example.com/queue/active", LocalDateTime.now().plusMinutes(10));
+
+        // Act
+        List<IngestTask> claimed = ingestQueue.claim(10);
+
+        // Assert
+        assertEquals(List.of(expired.getId()), ids(claimed));
+        IngestTask reclaimed = taskRepository.findById(expired.getId()).orElseThrow();
+        assertEquals(2, reclaimed.getAttempts());
+        assertEquals(sourceLeaseService.getNodeId(), reclaimed.getOwnerNode());
+        assertTrue(reclaimed.getLeaseUntil().isAfter(LocalDateTime.now()));
+        assertEquals("dead-node", taskRepository.findById(active.getId()).orElseThrow().getOwnerNode());
+    }
+
+    @Test
+    @DisplayName("Аренда выполняемых задач продлевается, пока прогон их не отпустит")
+    void testHeldLeasesAreRenewed() {
+        // Arrange
+        savePending("https://example.com/queue/long-run");
+        IngestTask task = ingestQueue.claim(1).get(0);
+        IngestTask stored = taskRepository.findById(task.getId()).orElseThrow();
+        stored.setLeaseUntil(LocalDateTime.now().plusSeconds(5));
+        taskRepository.save(stored);
+
+        // Act
+        ReflectionTestUtils.invokeMethod(ingestQueue, "renewHeldLeases");
+
+        // Assert
+        LocalDateTime renewed = taskRepository.findById(task.getId()).orElseThrow().getLeaseUntil();
+        assertTrue(renewed.isAfter(LocalDateTime.now().plusSeconds(60)));
+
+        // Отпущенные задачи больше не продлеваются и после истечения аренды вернутся в очередь
+        ingestQueue.release(List.of(task.getId()));
+        stored = taskRepository.findById(task.getId()).orElseThrow();
+        stored.setLeaseUntil(LocalDateTime.now().minusSeconds(1));
+        taskRepository.save(stored);
+        ReflectionTestUtils.invokeMethod(ingestQueue, "renewHeldLeases");
+        assertFalse(taskRepository.findById(task.getId()).orElseThrow().getLeaseUntil().isAfter(LocalDateTime.now()));
+    }
+
+    @Test
+    @DisplayName("Отложенная по бюджету задача сразу возвращается в очередь без учета попытки")
+    void testPostponedTaskIsClaimableAgain() {
+        // Arrange
+        savePending("https://example.com/queue/postponed");
+        IngestTask task = ingestQueue.claim(1).get(0);
+
+        // Act
+        ingestQueue.postpone(List.of(task.getId()));
+
+        // Assert
+        IngestTask stored = taskRepository.findById(task.getId()).orElseThrow();
+        assertEquals(IngestTaskState.PENDING, stored.getState());
+        assertEquals(0, stored.getAttempts());
+        assertEquals(List.of(task.getId()), ids(ingestQueue.claim(10)));
+    }
+
+    @Test
+    @DisplayName("Ошибка прогона не меняет задачу, которую после истечения аренды забрал другой узел")
+    void testFailOfTakenOverTaskIsIgnored() {
+        // Arrange: прогон взял задачу, аренда истекла, и задачу забрал другой узел
+        savePending("https://example.com/queue/taken-over");
+        IngestTask task = ingestQueue.claim(1).get(0);
+        IngestTask stored = taskRepository.findById(task.getId()).orElseThrow();
+        stored.setOwnerNode("other-node");
+        stored.setAttempts(task.getAttempts() + 1);
+        stored.setLeaseUntil(LocalDateTime.now().plusMinutes(10));
+        taskRepository.save(stored);
+
+        // Act
+        boolean dead = ingestQueue.fail(task, "Таймаут загрузки страницы");
+
+        // Assert
+        assertFalse(dead);
+        IngestTask current = taskRepository.findById(task.getId()).orElseThrow();
+        assertEquals(IngestTaskState.RUNNING, current.getState());
+        assertEquals("other-node", current.getOwnerNode());
+        assertNull(current.getLastError());
+
+        // Ошибку задачи, которую узел все еще выполняет, очередь учитывает
+        savePending("https://example.com/queue/held");
+        IngestTask held = ingestQueue.claim(1).get(0);
+        assertFalse(ingestQueue.fail(held, "Таймаут загрузки страницы"));
+        IngestTask retried = taskRepository.findById(held.getId()).orElseThrow();
+        assertEquals(IngestTaskState.PENDING, retried.getState());
+        assertEquals("Таймаут загрузки страницы", retried.getLastError());
+        assertTrue(retried.getNextAttemptAt().isAfter(LocalDateTime.now()));
+    }
+
+    private IngestTask savePending(String url) {
+        IngestTask task = new IngestTask(1L, url);
+        task.setState(IngestTaskState.PENDING);
+        task.setNextAttemptAt(LocalDateTime.now().minusSeconds(1));
+        return taskRepository.save(task);
+    }
+
+    private IngestTask saveRunning(String url, LocalDateTime leaseUntil) {
+        IngestTask task = new IngestTask(1L, url);
+        task.setState(IngestTaskState.RUNNING);
+        task.setAttempts(1);
+        task.setOwnerNode("dead-node");
+        task.setLeaseUntil(leaseUntil);
+        return taskRepository.save(task);
+    }
+
+    private static List<Long> ids(List<IngestTask> tasks) {
+        return tasks.stream().map(IngestTask::getId).toList();
+    }
+}
@@ -0,0 +1,184 @@
+package com.newsaggregator.functional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.newsaggregator.entity.CircuitState;
+import com.newsaggregator.entity.NewsSource;
+import com.newsaggregator.entity.SourceLease;
+import com.newsaggregator.repository.CrawlerNodeRepository;
+import com.newsaggregator.repository.NewsSourceRepository;
+import com.newsaggregator.repository.SourceLeaseRepository;
+import com.newsaggregator.service.SourceLeaseService;
+
+/**
+ * Функциональные тесты распределения источников между узлами:
+ * захват, продление и освобождение аренд через общую БД
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@DisplayName("Source Lease Workflow Functional Tests")
+class SourceLeaseWorkflowTest {
+
+    @Autowired
+    private CrawlerNodeRepository crawlerNodeRepository;
+
+    @Autowired
+    private SourceLeaseRepository sourceLeaseRepository;
+
+    @Autowired
+    private NewsSourceRepository newsSourceRepository;
+
+    private final List<NewsSource> sources = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        for (int i = 0; i < 20; i++) {
+            NewsSource source = new NewsSource();
+            source.setName("Источник аренды " + i);
+            source.setRssUrl("http://lease" + i + ".test/rss");
+            source.setActive(true);
+            sources.add(newsSourceRepository.save(source));
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        sourceLeaseRepository.deleteAll();
+        crawlerNodeRepository.deleteAll();
+        newsSourceRepository.deleteAll(sources);
+    }
+
+    @Test
+    @DisplayName("Два узла делят источники без пересечений, освобожденные источники забирает оставшийся узел")
+    void testClaimRenewRelease() {
+        // Arrange
+        SourceLeaseService nodeA = createNode("node-a");
+        SourceLeaseService nodeB = createNode("node-b");
+        Set<Long> activeIds = new HashSet<>(newsSourceRepository.findActiveIds());
+
+        // Act & Assert: единственный узел захватывает все источники
+        nodeA.heartbeat();
+        assertEquals(activeIds, ownedBy("node-a"));
+
+        // Новый узел не может забрать действующие аренды, пока прежний владелец их не отпустит
+        nodeB.heartbeat();
+        assertTrue(ownedBy("node-b").isEmpty());
+        nodeA.heartbeat();
+        nodeB.heartbeat();
+
+        Set<Long> ownedByA = ownedBy("node-a");
+        Set<Long> ownedByB = ownedBy("node-b");
+        assertFalse(ownedByA.isEmpty());
+        assertFalse(ownedByB.isEmpty());
+        Set<Long> overlap = new HashSet<>(ownedByA);
+        overlap.retainAll(ownedByB);
+        assertTrue(overlap.isEmpty());
+        Set<Long> union = new HashSet<>(ownedByA);
+        union.addAll(ownedByB);
+        assertEquals(activeIds, union);
+        for (Long sourceId : activeIds) {
+            assertTrue(nodeA.isOwner(sourceId) != nodeB.isOwner(sourceId));
+        }
+
+        // Сигнал продлевает аренды узла
+        Long sourceOfA = ownedByA.iterator().next();
+        SourceLease lease = sourceLeaseRepository.findById(sourceOfA).orElseThrow();
+        lease.setExpiresAt(LocalDateTime.now().plusSeconds(5));
+        sourceLeaseRepository.save(lease);
+        nodeA.heartbeat();
+        assertTrue(sourceLeaseRepository.findById(sourceOfA).orElseThrow()
+                .getExpiresAt().isAfter(LocalDateTime.now().plusSeconds(30)));
+
+        // Остановленный узел освобождает аренды, оставшийся узел забирает их на следующем сигнале
+        ReflectionTestUtils.invokeMethod(nodeB, "shutdown");
+        assertTrue(ownedBy("node-b").isEmpty());
+        nodeA.heartbeat();
+        assertEquals(activeIds, ownedBy("node-a"));
+    }
+
+    @Test
+    @DisplayName("Истекшую аренду пропавшего узла захватывает другой узел")
+    void testExpiredLeaseIsTakenOver() {
+        // Arrange
+        SourceLeaseService nodeA = createNode("node-a");
+        SourceLeaseService nodeB = createNode("node-b");
+        nodeA.heartbeat();
+        nodeB.heartbeat();
+        nodeA.heartbeat();
+        nodeB.heartbeat();
+
+        // Узел A перестал подавать сигнал: его аренды истекли, а сам он выпал из кольца
+        for (SourceLease lease : sourceLeaseRepository.findAll()) {
+            if ("node-a".equals(lease.getOwnerNode())) {
+                lease.setExpiresAt(LocalDateTime.now().minusSeconds(1));
+                sourceLeaseRepository.save(lease);
+            }
+        }
+        crawlerNodeRepository.deleteById("node-a");
+
+        // Act
+        nodeB.heartbeat();
+
+        // Assert
+        assertEquals(new HashSet<>(newsSourceRepository.findActiveIds()), ownedBy("node-b"));
+        assertTrue(ownedBy("node-a").isEmpty());
+    }
+
+    @Test
+    @DisplayName("Пробный опрос приостановленного источника достается только одному узлу")
+    void testCircuitProbeIsClaimedOnce() {
+        // Arrange: пауза выключателя истекла
+        NewsSource source = sources.get(0);
+        source.setCircuitState(CircuitState.OPEN);
+        source.setCircuitOpenUntil(LocalDateTime.now().minusSeconds(1));
+        newsSourceRepository.save(source);
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime probeUntil = now.plusMinutes(10);
+
+        // Act: оба узла видят истекшую паузу и пытаются начать пробу
+        int first = newsSourceRepository.claimCircuitProbe(source.getId(), now, probeUntil);
+        int second = newsSourceRepository.claimCircuitProbe(source.getId(), now.plusSeconds(1), probeUntil);
+
+        // Assert
+        assertEquals(1, first);
+        assertEquals(0, second);
+        NewsSource probing = newsSourceRepository.findById(source.getId()).orElseThrow();
+        assertEquals(CircuitState.HALF_OPEN, probing.getCircuitState());
+
+        // Проба, не завершившаяся вовремя, снова доступна
+        assertEquals(1, newsSourceRepository.claimCircuitProbe(source.getId(), probeUntil.plusSeconds(1),
+                                                               probeUntil.plusMinutes(10)));
+    }
+
+    private SourceLeaseService createNode(String nodeId) {
+        SourceLeaseService node = new SourceLeaseService();
+        ReflectionTestUtils.setField(node, "crawlerNodeRepository", crawlerNodeRepository);
+        ReflectionTestUtils.setField(node, "sourceLeaseRepository", sourceLeaseRepository);
+        ReflectionTestUtils.setField(node, "newsSourceRepository", newsSourceRepository);
+        ReflectionTestUtils.setField(node, "enabled", true);
+        ReflectionTestUtils.setField(node, "nodeId", nodeId);
+        ReflectionTestUtils.setField(node, "leaseTtlSeconds", 60L);
+        ReflectionTestUtils.setField(node, "nodeTimeoutSeconds", 30L);
+        return node;
+    }
+
+    private Set<Long> ownedBy(String nodeId) {
+        return new HashSet<>(sourceLeaseRepository.findActiveSourceIds(nodeId, LocalDateTime.now()));
+    }
+}
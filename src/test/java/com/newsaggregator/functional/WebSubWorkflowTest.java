@@ -0,0 +1,334 @@
+package com.newsaggregator.functional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.newsaggregator.entity.NewsSource;
+import com.newsaggregator.repository.ArticleRepository;
+import com.newsaggregator.repository.IngestTaskRepository;
+import com.newsaggregator.repository.NewsSourceRepository;
+import com.newsaggregator.service.ArticlePersistenceService;
+import com.newsaggregator.service.FeedCursor;
+import com.newsaggregator.service.WebSubService;
+import com.rometools.rome.feed.synd.SyndEntry;
+import com.rometools.rome.feed.synd.SyndEntryImpl;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Функциональный тест WebSub подписки с заглушкой хаба:
+ * запрос подписки, подтверждение намерения, прием подписанного уведомления
+ * и обновление курсора источника без потери уже известных записей,
+ * в том числе при одновременном опросе того же источника
+ */
+@SpringBootTest(properties = {
+        "app.websub.enabled=true",
+        "app.websub.callback-base-url=http://news.test",
+        "app.websub.max-lease-seconds=7200"})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@DisplayName("WebSub Workflow Functional Tests")
+class WebSubWorkflowTest {
+
+    private static final String KNOWN_KEY = "https://example.com/news/known";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private WebSubService webSubService;
+
+    @Autowired
+    private NewsSourceRepository newsSourceRepository;
+
+    @Autowired
+    private ArticleRepository articleRepository;
+
+    @Autowired
+    private IngestTaskRepository taskRepository;
+
+    @Autowired
+    private ArticlePersistenceService persistenceService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final BlockingQueue<Map<String, String>> hubRequests = new LinkedBlockingQueue<>();
+    private HttpServer server;
+    private ExecutorService executor;
+    private NewsSource source;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/hub", this::handleHub);
+        server.createContext("/news/", this::serveArticle);
+        executor = Executors.newCachedThreadPool();
+        server.setExecutor(executor);
+        server.start();
+
+        source = new NewsSource();
+        source.setName("Лента с хабом");
+        source.setRssUrl(url("/feed.xml"));
+        source.setWebsiteUrl(url("/"));
+        source.setActive(true);
+        source.setWebsubHubUrl(url("/hub"));
+        source.setWebsubTopicUrl(url("/feed.xml"));
+        source.setFeedEtag("\"v1\"");
+        source.setLastEntryPublishedAt(LocalDateTime.now().minusDays(1));
+        source.setRecentEntryKeys(KNOWN_KEY);
+        source = newsSourceRepository.save(source);
+    }
+
+    @AfterEach
+    void tearDown() {
+        for (int i = 1; i <= 2; i++) {
+            articleRepository.findBySourceUrl(url("/news/" + i)).ifPresent(article -> articleRepository.delete(article));
+        }
+        taskRepository.deleteAll(taskRepository.findAll().stream()
+                .filter(task -> source.getId().equals(task.getSourceId()))
+                .toList());
+        newsSourceRepository.deleteById(source.getId());
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    @Test
+    @DisplayName("Подписка через хаб, подтверждение и прием уведомления с новыми записями")
+    void testSubscribeVerifyAndReceive() throws Exception {
+        // 1. Узел запрашивает подписку у хаба
+        webSubService.renewSubscriptions();
+        Map<String, String> form = hubRequests.poll(10, TimeUnit.SECONDS);
+        assertNotNull(form);
+        assertEquals("subscribe", form.get("hub.mode"));
+        assertEquals(url("/feed.xml"), form.get("hub.topic"));
+        String callback = form.get("hub.callback");
+        assertEquals("http://news.test" + WebSubService.CALLBACK_PATH + source.getId(), callback);
+        String secret = form.get("hub.secret");
+        assertNotNull(secret);
+
+        // 2. Хаб проверяет намерение; срок подписки ограничен max-lease-seconds
+        String callbackPath = callback.substring("http://news.test".length());
+        mockMvc.perform(get(callbackPath)
+                        .param("hub.mode", "subscribe")
+                        .param("hub.topic", url("/feed.xml"))
+                        .param("hub.challenge", "challenge-1")
+                        .param("hub.lease_seconds", "864000"))
+                .andExpect(status().isOk())
+                .andExpect(content().string("challenge-1"));
+        NewsSource subscribed = newsSourceRepository.findById(source.getId()).orElseThrow();
+        assertTrue(subscribed.getWebsubExpiresAt().isBefore(LocalDateTime.now().plusSeconds(7201)));
+
+        // Повторное подтверждение без запроса подписки отклоняется
+        mockMvc.perform(get(callbackPath)
+                        .param("hub.mode", "subscribe")
+                        .param("hub.topic", url("/feed.xml"))
+                        .param("hub.challenge", "challenge-2"))
+                .andExpect(status().isNotFound());
+
+        // 3. Хаб присылает подписанное уведомление с двумя новыми записями
+        byte[] body = pushedFeed().getBytes(StandardCharsets.UTF_8);
+        mockMvc.perform(post(callbackPath)
+                        .contentType("application/rss+xml")
+                        .header("X-Hub-Signature", "sha256=" + hmac(secret, body))
+                        .content(body))
+                .andExpect(status().isAccepted());
+
+        // Уведомление с неверной подписью принимается, но не используется
+        mockMvc.perform(post(callbackPath)
+                        .contentType("application/rss+xml")
+                        .header("X-Hub-Signature", "sha256=" + hmac("wrong", body))
+                        .content(body))
+                .andExpect(status().isAccepted());
+
+        // 4. Статьи сохранены, курсор дополнен, валидаторы опроса не изменились
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(20);
+        while ((!articleRepository.existsBySourceUrl(url("/news/1")) || !articleRepository.existsBySourceUrl(url("/news/2")))
+                && System.nanoTime() < deadline) {
+            Thread.sleep(100);
+        }
+        assertTrue(articleRepository.existsBySourceUrl(url("/news/1")));
+        assertTrue(articleRepository.existsBySourceUrl(url("/news/2")));
+
+        NewsSource updated = newsSourceRepository.findById(source.getId()).orElseThrow();
+        String keys = updated.getRecentEntryKeys();
+        assertTrue(keys.contains(url("/news/1")));
+        assertTrue(keys.contains(url("/news/2")));
+        assertTrue(keys.contains(KNOWN_KEY));
+        assertEquals("\"v1\"", updated.getFeedEtag());
+        assertEquals(secret, updated.getWebsubSecret());
+        assertEquals(url("/hub"), updated.getWebsubHubUrl());
+    }
+
+    @Test
+    @DisplayName("Подтверждение хаба принимает узел, который не отправлял запрос подписки")
+    void testIntentVerifiedByAnotherNode() throws Exception {
+        // Arrange: запрос подписки отправил этот узел
+        webSubService.renewSubscriptions();
+        assertNotNull(hubRequests.poll(10, TimeUnit.SECONDS));
+        assertNotNull(newsSourceRepository.findById(source.getId()).orElseThrow().getWebsubRequestedAt());
+
+        // Другой экземпляр приложения (или этот же после перезапуска) без состояния в памяти
+        WebSubService otherNode = new WebSubService();
+        ReflectionTestUtils.setField(otherNode, "newsSourceRepository", newsSourceRepository);
+        ReflectionTestUtils.setField(otherNode, "enabled", true);
+        ReflectionTestUtils.setField(otherNode, "leaseSeconds", 864000L);
+        ReflectionTestUtils.setField(otherNode, "maxLeaseSeconds", 7200L);
+
+        // Act
+        String first = otherNode.verifyIntent(source.getId(), "subscribe", url("/feed.xml"), "challenge-1", 3600L);
+        String repeated = webSubService.verifyIntent(source.getId(), "subscribe", url("/feed.xml"), "challenge-2", 3600L);
+
+        // Assert
+        assertEquals("challenge-1", first);
+        assertNull(repeated);
+        NewsSource subscribed = newsSourceRepository.findById(source.getId()).orElseThrow();
+        assertNotNull(subscribed.getWebsubExpiresAt());
+        assertNull(subscribed.getWebsubRequestedAt());
+    }
+
+    @Test
+    @DisplayName("Уведомление ждет завершения опроса того же источника и не теряет его ключи")
+    void testConcurrentSourceUpdatesAreSerialized() throws Exception {
+        // Arrange: оба курсора посчитаны от одного состояния источника
+        FeedCursor polled = advance(url("/news/polled"));
+        FeedCursor pushed = advance(url("/news/pushed"));
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        CountDownLatch pollLocked = new CountDownLatch(1);
+        CountDownLatch releasePoll = new CountDownLatch(1);
+
+        // Act: транзакция опроса держит строку источника, пока уведомление пытается ее обновить
+        CompletableFuture<Void> poll = CompletableFuture.runAsync(() -> transaction.executeWithoutResult(status -> {
+            persistenceService.markSourceUpdated(source, polled, false);
+            pollLocked.countDown();
+            try {
+                releasePoll.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }));
+        assertTrue(pollLocked.await(10, TimeUnit.SECONDS));
+        CompletableFuture<Void> push = CompletableFuture.runAsync(
+                () -> persistenceService.markSourceUpdated(source, pushed, true));
+        Thread.sleep(300);
+        boolean pushWaited = !push.isDone();
+        releasePoll.countDown();
+        poll.get(10, TimeUnit.SECONDS);
+        push.get(10, TimeUnit.SECONDS);
+
+        // Assert
+        assertTrue(pushWaited);
+        String keys = newsSourceRepository.findById(source.getId()).orElseThrow().getRecentEntryKeys();
+        assertTrue(keys.contains(url("/news/polled")));
+        assertTrue(keys.contains(url("/news/pushed")));
+        assertTrue(keys.contains(KNOWN_KEY));
+    }
+
+    private FeedCursor advance(String link) {
+        SyndEntry entry = new SyndEntryImpl();
+        entry.setLink(link);
+        entry.setUri(link);
+        entry.setPublishedDate(new Date());
+        return FeedCursor.of(source).advance(List.of(entry), LocalDateTime.now(), 50);
+    }
+
+    /**
+     * Заглушка хаба: запоминает запрос подписки и отвечает 202 Accepted
+     */
+    private void handleHub(HttpExchange exchange) throws IOException {
+        String body = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+        Map<String, String> form = new HashMap<>();
+        for (String pair : body.split("&")) {
+            int separator = pair.indexOf('=');
+            if (separator > 0) {
+                form.put(URLDecoder.decode(pair.substring(0, separator), StandardCharsets.UTF_8),
+                         URLDecoder.decode(pair.substring(separator + 1), StandardCharsets.UTF_8));
+            }
+        }
+        hubRequests.add(form);
+        exchange.sendResponseHeaders(202, -1);
+        exchange.close();
+    }
+
+    private void serveArticle(HttpExchange exchange) throws IOException {
+        StringBuilder html = new StringBuilder("<html><head><title>Статья</title></head><body><article>");
+        for (int i = 0; i < 40; i++) {
+            html.append("<p>Абзац ").append(i).append(" статьи ").append(exchange.getRequestURI().getPath())
+                .append(", доставленной через WebSub хаб.</p>");
+        }
+        byte[] page = html.append("</article></body></html>").toString().getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "text/html; charset=UTF-8");
+        exchange.sendResponseHeaders(200, page.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(page);
+        }
+    }
+
+    private String pushedFeed() {
+        StringBuilder feed = new StringBuilder("<?xml version=\"1.0\" encoding=\"UTF-8\"?>"
+                + "<rss version=\"2.0\"><channel><title>Лента с хабом</title><link>" + url("/") + "</link>");
+        ZonedDateTime published = ZonedDateTime.now(ZoneOffset.UTC);
+        for (int i = 2; i >= 1; i--) {
+            feed.append("<item><title>Новость через хаб ").append(i).append("</title>")
+                .append("<link>").append(url("/news/" + i)).append("</link>")
+                .append("<guid>").append(url("/news/" + i)).append("</guid>")
+                .append("<description>Краткое описание новости ").append(i).append("</description>")
+                .append("<pubDate>").append(DateTimeFormatter.RFC_1123_DATE_TIME.format(published.minusMinutes(i)))
+                .append("</pubDate></item>");
+        }
+        return feed.append("</channel></rss>").toString();
+    }
+
+    private static String hmac(String secret, byte[] body) throws Exception {
+        Mac mac = Mac.getInstance("HmacSHA256");
+        mac.init(new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+        return HexFormat.of().formatHex(mac.doFinal(body));
+    }
+
+    private String url(String path) {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + path;
+    }
+}
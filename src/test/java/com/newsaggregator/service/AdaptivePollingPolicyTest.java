@@ -0,0 +1,87 @@
+package com.newsaggregator.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("AdaptivePollingPolicy Unit Tests")
+class AdaptivePollingPolicyTest {
+
+    private AdaptivePollingPolicy policy;
+
+    @BeforeEach
+    void setUp() {
+        policy = new AdaptivePollingPolicy(60, 3600, 3, 0.5);
+    }
+
+    @Test
+    @DisplayName("Should poll busy sources every few minutes")
+    void testBusySourceGetsShortInterval() {
+        // Arrange
+        double rate = policy.updateRate(null, 10, 600); // 60 статей в час
+
+        // Act
+        long interval = policy.nextIntervalSeconds(rate, 600, false);
+
+        // Assert
+        assertEquals(60.0, rate, 0.001);
+        assertEquals(180, interval);
+    }
+
+    @Test
+    @DisplayName("Should back off quiet sources up to the maximum interval")
+    void testQuietSourceBacksOff() {
+        // Arrange
+        long interval = 600;
+
+        // Act
+        for (int i = 0; i < 10; i++) {
+            interval = policy.nextIntervalSeconds(0, (int) interval, false);
+        }
+
+        // Assert
+        assertEquals(3600, interval);
+    }
+
+    @Test
+    @DisplayName("Should halve the interval when a poll hits the per-source limit")
+    void testSaturatedPollShortensInterval() {
+        // Act
+        long interval = policy.nextIntervalSeconds(1, 1200, true);
+
+        // Assert
+        assertEquals(600, interval);
+    }
+
+    @Test
+    @DisplayName("Should not grow the interval more than twice per poll")
+    void testIntervalGrowthIsLimited() {
+        // Act
+        long interval = policy.nextIntervalSeconds(0.5, 120, false);
+
+        // Assert
+        assertEquals(240, interval);
+    }
+
+    @Test
+    @DisplayName("Should smooth the publishing rate between polls")
+    void testRateSmoothing() {
+        // Act
+        double rate = policy.updateRate(10.0, 0, 3600);
+
+        // Assert
+        assertEquals(5.0, rate, 0.001);
+        assertTrue(policy.nextIntervalSeconds(rate, 1800, false) >= 60);
+    }
+
+    @Test
+    @DisplayName("Should reject invalid parameters")
+    void testInvalidParameters() {
+        assertThrows(IllegalArgumentException.class, () -> new AdaptivePollingPolicy(0, 3600, 3, 0.5));
+        assertThrows(IllegalArgumentException.class, () -> new AdaptivePollingPolicy(600, 60, 3, 0.5));
+        assertThrows(IllegalArgumentException.class, () -> new AdaptivePollingPolicy(60, 3600, 3, 0));
+    }
+}
@@ -0,0 +1,227 @@
+package com.newsaggregator.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpHeaders;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import org.jsoup.Jsoup;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+@DisplayName("ArticleContentExtractorService Unit Tests")
+class ArticleContentExtractorServiceTest {
+
+    private static final String HABR_URL = "https://habr.com/ru/articles/1/";
+
+    @TempDir
+    Path directory;
+
+    @Test
+    @DisplayName("Should not stop on a nested container while the outer container is still open")
+    void testNestedContainerEarlyStop() throws IOException {
+        // Arrange: внутренний контейнер закрывается раньше внешнего, а извлечение берет внешний
+        String html = "<html><body><div class=\"tm-article-body\">"
+                + "<div class=\"article-formatted-body\">" + words("Начало", 80) + "</div>"
+                + "<p>" + words("Продолжение", 80) + "</p>"
+                + "</div><footer>" + words("Подвал", 500) + "</footer></body></html>";
+        ArticleContentExtractorService service = createService(respond(html, "text/html; charset=UTF-8"), null);
+        String expected = service.extractPage(Jsoup.parse(html, HABR_URL), HABR_URL).getContent();
+
+        // Act
+        PageDocument document = service.fetchDocument(HABR_URL);
+        String content = service.extractPage(document.getDocument(), HABR_URL).getContent();
+
+        // Assert
+        assertTrue(document.isStoppedEarly());
+        assertEquals(expected, content);
+        assertTrue(content.contains("Продолжение"));
+        assertFalse(content.contains("Подвал"));
+    }
+
+    @Test
+    @DisplayName("Should stop a multi-block page once the article body around the blocks is closed")
+    void testMultiBlockEarlyStop() throws IOException {
+        // Arrange: текст BBC собирается из нескольких блоков внутри article, дальше соседние материалы
+        String url = "https://www.bbc.com/news/1";
+        String html = "<html><body><article><h1>Заголовок</h1>"
+                + "<div data-component=\"text-block\"><p>" + words("Первый", 40) + "</p></div>"
+                + "<div data-component=\"text-block\"><p>" + words("Второй", 40) + "</p></div>"
+                + "<div data-component=\"text-block\"><p>" + words("Третий", 40) + "</p></div>"
+                + "</article><section>" + words("Соседний", 300) + "</section>"
+                + "<footer>" + words("Подвал", 500) + "</footer></body></html>";
+        ArticleContentExtractorService service = createService(respond(html, "text/html; charset=UTF-8"), null);
+        String expected = service.extractPage(Jsoup.parse(html, url), url).getContent();
+
+        // Act
+        PageDocument document = service.fetchDocument(url);
+        String content = service.extractPage(document.getDocument(), url).getContent();
+
+        // Assert
+        assertTrue(document.isStoppedEarly());
+        assertEquals(expected, content);
+        assertTrue(content.contains("Третий"));
+        assertFalse(document.getDocument().text().contains("Подвал"));
+    }
+
+    @Test
+    @DisplayName("Should parse the whole page when the first container is too short")
+    void testShortContainerParsedToEnd() throws IOException {
+        // Arrange
+        String html = "<html><body><article>Короткий анонс</article>"
+                + "<div class=\"content\">" + words("Текст", 100) + "</div></body></html>";
+        String url = "https://example.com/news/1";
+        ArticleContentExtractorService service = createService(respond(html, "text/html"), null);
+        String expected = service.extractPage(Jsoup.parse(html, url), url).getContent();
+
+        // Act
+        PageDocument document = service.fetchDocument(url);
+
+        // Assert
+        assertFalse(document.isStoppedEarly());
+        assertEquals(expected, service.extractPage(document.getDocument(), url).getContent());
+    }
+
+    @Test
+    @DisplayName("Should detect the charset from a meta tag and from a byte order mark")
+    void testCharsetSniffing() throws IOException {
+        // Arrange
+        Charset windows1251 = Charset.forName("windows-1251");
+        String metaPage = "<html><head><meta charset=\"windows-1251\"></head><body><article>"
+                + words("Новость", 60) + "</article></body></html>";
+        String bomPage = "\uFEFF<html><body><article>" + words("Статья", 60) + "</article></body></html>";
+        CrawlerHttpClient httpClient = mock(CrawlerHttpClient.class);
+        when(httpClient.open(eq("https://example.com/cp1251"), any()))
+                .thenAnswer(invocation -> result(metaPage.getBytes(windows1251), "text/html"));
+        when(httpClient.open(eq("https://example.com/bom"), any()))
+                .thenAnswer(invocation -> result(bomPage.getBytes(StandardCharsets.UTF_8), "text/html"));
+        ArticleContentExtractorService service = createService(httpClient, null);
+
+        // Act
+        PageDocument cp1251 = service.fetchDocument("https://example.com/cp1251");
+        PageDocument bom = service.fetchDocument("https://example.com/bom");
+
+        // Assert
+        assertTrue(cp1251.getDocument().select("article").text().startsWith("Новость 0"));
+        assertTrue(bom.getDocument().select("article").text().startsWith("Статья 0"));
+    }
+
+    @Test
+    @DisplayName("Should stop reading a page at the byte limit and mark it truncated")
+    void testPageByteLimit() throws IOException {
+        // Arrange
+        String html = "<html><body><div>" + words("Слово", 2000) + "</div></body></html>";
+        ArticleContentExtractorService service = createService(respond(html, "text/html"), null);
+        ReflectionTestUtils.setField(service, "maxPageBytes", 4096L);
+
+        // Act
+        PageDocument document = service.fetchDocument("https://example.com/long");
+
+        // Assert
+        assertTrue(document.isTruncated());
+        assertEquals(4096, document.getBytesParsed());
+    }
+
+    @Test
+    @DisplayName("Should cache the whole page even when parsing stopped after the article")
+    void testEarlyStopCachesWholePage() throws IOException {
+        // Arrange
+        String html = "<html><body><article>" + words("Статья", 80) + "</article>"
+                + "<section class=\"comments\">" + words("Комментарий", 300) + "</section></body></html>";
+        String url = "https://example.com/news/2";
+        PageCache pageCache = new PageCache(directory, 1024 * 1024, Duration.ofHours(1));
+        ArticleContentExtractorService service = createService(respond(html, "text/html; charset=UTF-8"), pageCache);
+
+        // Act
+        PageDocument document = service.fetchDocument(url);
+
+        // Assert
+        assertTrue(document.isStoppedEarly());
+        assertTrue(document.getBytesParsed() < html.getBytes(StandardCharsets.UTF_8).length);
+        PageCache.Entry entry = pageCache.lookup(url);
+        assertNotNull(entry);
+        try (InputStream body = pageCache.openBody(entry)) {
+            assertEquals(html, new String(body.readAllBytes(), StandardCharsets.UTF_8));
+        }
+        assertEquals(service.extractPage(document.getDocument(), url).getContent(),
+                service.extractPage(service.readCachedDocument(url).getDocument(), url).getContent());
+    }
+
+    @Test
+    @DisplayName("Should read a fresh cached page without a request and skip a stale one")
+    void testFreshCachedDocument() throws IOException {
+        // Arrange
+        String html = "<html><body><article>" + words("Статья", 80) + "</article></body></html>";
+        String url = "https://example.com/news/3";
+        CrawlerHttpClient httpClient = respond(html, "text/html; charset=UTF-8");
+        PageCache freshCache = new PageCache(directory.resolve("fresh"), 1024 * 1024, Duration.ofHours(1));
+        PageCache staleCache = new PageCache(directory.resolve("stale"), 1024 * 1024, Duration.ZERO);
+        ArticleContentExtractorService fresh = createService(httpClient, freshCache);
+        ArticleContentExtractorService stale = createService(httpClient, staleCache);
+        fresh.fetchDocument(url);
+        stale.fetchDocument(url);
+
+        // Act
+        PageDocument cached = fresh.readFreshCachedDocument(url);
+
+        // Assert
+        assertNotNull(cached);
+        assertTrue(cached.getDocument().select("article").text().startsWith("Статья 0"));
+        assertNull(stale.readFreshCachedDocument(url));
+        assertNull(fresh.readFreshCachedDocument("https://example.com/news/unknown"));
+        verify(httpClient, times(2)).open(any(), any());
+    }
+
+    private ArticleContentExtractorService createService(CrawlerHttpClient httpClient, PageCache pageCache) {
+        ArticleContentExtractorService service = new ArticleContentExtractorService();
+        ReflectionTestUtils.setField(service, "httpClient", httpClient);
+        ReflectionTestUtils.setField(service, "bandwidthStats", mock(PageBandwidthStats.class));
+        ReflectionTestUtils.setField(service, "politeness", mock(HostPolitenessScheduler.class));
+        ReflectionTestUtils.setField(service, "ingestMetrics", mock(IngestMetrics.class));
+        ReflectionTestUtils.setField(service, "pageCache", pageCache != null ? pageCache : mock(PageCache.class));
+        ReflectionTestUtils.setField(service, "maxPageBytes", 1024L * 1024);
+        return service;
+    }
+
+    private static CrawlerHttpClient respond(String html, String contentType) throws IOException {
+        CrawlerHttpClient httpClient = mock(CrawlerHttpClient.class);
+        when(httpClient.open(any(), any()))
+                .thenAnswer(invocation -> result(html.getBytes(StandardCharsets.UTF_8), contentType));
+        return httpClient;
+    }
+
+    private static HttpFetchResult result(byte[] body, String contentType) {
+        HttpHeaders headers = HttpHeaders.of(Map.of("Content-Type", List.of(contentType)), (name, value) -> true);
+        return new HttpFetchResult(URI.create("https://example.com/"), 200, headers,
+                new ByteArrayInputStream(body), () -> body.length);
+    }
+
+    private static String words(String word, int count) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            text.append(word).append(' ').append(i).append(". ");
+        }
+        return text.toString();
+    }
+}
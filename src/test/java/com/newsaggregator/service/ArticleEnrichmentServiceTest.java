@@ -0,0 +1,167 @@
+package com.newsaggregator.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.net.URI;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+
+import com.newsaggregator.entity.Article;
+import com.newsaggregator.entity.EnrichmentState;
+import com.newsaggregator.repository.ArticleRepository;
+import com.newsaggregator.repository.CategoryRepository;
+
+@DisplayName("ArticleEnrichmentService Unit Tests")
+class ArticleEnrichmentServiceTest {
+
+    private ArticleRepository articleRepository;
+    private LMStudioService lmStudioService;
+    private PipelineStage enrichStage;
+    private ArticleEnrichmentService service;
+    private Article article;
+
+    @BeforeEach
+    void setUp() {
+        articleRepository = mock(ArticleRepository.class);
+        lmStudioService = mock(LMStudioService.class);
+        when(lmStudioService.isConfigured()).thenReturn(true);
+        enrichStage = new PipelineStage("enrich", 2, 64);
+        IngestPipeline ingestPipeline = mock(IngestPipeline.class);
+        when(ingestPipeline.enrich()).thenReturn(enrichStage);
+
+        article = new Article();
+        article.setId(1L);
+        article.setTitle("Новость");
+        article.setContent("Текст новости");
+        article.setEnrichmentState(EnrichmentState.PENDING);
+        when(articleRepository.findDueForEnrichment(eq(EnrichmentState.PENDING), any(LocalDateTime.class),
+                                                    any(Pageable.class)))
+                .thenReturn(List.of(article));
+        when(articleRepository.findById(1L)).thenReturn(Optional.of(article));
+
+        service = new ArticleEnrichmentService();
+        ReflectionTestUtils.setField(service, "articleRepository", articleRepository);
+        ReflectionTestUtils.setField(service, "categoryRepository", mock(CategoryRepository.class));
+        ReflectionTestUtils.setField(service, "lmStudioService", lmStudioService);
+        ReflectionTestUtils.setField(service, "ingestPipeline", ingestPipeline);
+        ReflectionTestUtils.setField(service, "enabled", true);
+        ReflectionTestUtils.setField(service, "batchSize", 20);
+        ReflectionTestUtils.setField(service, "maxAttempts", 3);
+        ReflectionTestUtils.setField(service, "retryBaseSeconds", 60L);
+        ReflectionTestUtils.setField(service, "retryMaxSeconds", 3600L);
+        service.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+        enrichStage.shutdown();
+    }
+
+    @Test
+    @DisplayName("Should return to the scheduler while the LLM is slow and skip ticks until the batch ends")
+    void testBatchDoesNotBlockScheduler() throws Exception {
+        // Arrange
+        CountDownLatch called = new CountDownLatch(1);
+        CountDownLatch releaseLlm = new CountDownLatch(1);
+        when(lmStudioService.requestSummary(anyString())).thenAnswer(invocation -> {
+            called.countDown();
+            releaseLlm.await(10, TimeUnit.SECONDS);
+            return "Сводка";
+        });
+        when(lmStudioService.requestCategory(anyString(), anyString())).thenReturn("Общество");
+
+        // Act
+        long started = System.nanoTime();
+        service.enrichPendingArticles();
+        assertTrue(called.await(5, TimeUnit.SECONDS));
+        service.enrichPendingArticles();
+        long tickMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+        releaseLlm.countDown();
+
+        // Assert
+        assertTrue(tickMillis < 5000);
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (article.getEnrichmentState() != EnrichmentState.ENRICHED && System.nanoTime() < deadline) {
+            Thread.sleep(20);
+        }
+        assertEquals(EnrichmentState.ENRICHED, article.getEnrichmentState());
+        verify(lmStudioService, times(1)).requestSummary(anyString());
+    }
+
+    @Test
+    @DisplayName("Should postpone a failed article with a growing backoff and fail it after max attempts")
+    void testFailedArticleBacksOff() {
+        // Arrange
+        when(lmStudioService.requestSummary(anyString())).thenThrow(new RuntimeException("Ошибка суммаризации"));
+
+        // Act
+        LocalDateTime before = LocalDateTime.now();
+        service.enrichBatch();
+
+        // Assert
+        assertEquals(1, article.getEnrichmentAttempts());
+        assertEquals(EnrichmentState.PENDING, article.getEnrichmentState());
+        assertFalse(article.getEnrichmentNextAttemptAt().isBefore(before.plusSeconds(60)));
+
+        service.enrichBatch();
+        assertEquals(2, article.getEnrichmentAttempts());
+        assertFalse(article.getEnrichmentNextAttemptAt().isBefore(before.plusSeconds(120)));
+
+        service.enrichBatch();
+        assertEquals(EnrichmentState.FAILED, article.getEnrichmentState());
+    }
+
+    @Test
+    @DisplayName("Should not count an attempt when LM Studio cannot be reached")
+    void testUnreachableLlmKeepsAttempts() {
+        // Arrange
+        WebClientRequestException refused = new WebClientRequestException(new IOException("Connection refused"),
+                HttpMethod.POST, URI.create("http://localhost:1234/v1/chat/completions"), new HttpHeaders());
+        when(lmStudioService.requestSummary(anyString()))
+                .thenThrow(new RuntimeException("Ошибка суммаризации", new RuntimeException("Ошибка вызова LM Studio", refused)));
+
+        // Act
+        for (int i = 0; i < 5; i++) {
+            service.enrichBatch();
+        }
+
+        // Assert
+        assertEquals(0, article.getEnrichmentAttempts());
+        assertEquals(EnrichmentState.PENDING, article.getEnrichmentState());
+        assertTrue(article.getEnrichmentNextAttemptAt().isAfter(LocalDateTime.now()));
+    }
+
+    @Test
+    @DisplayName("Should cap the retry backoff")
+    void testRetryDelayIsCapped() {
+        // Act & Assert
+        assertEquals(60, service.retryDelaySeconds(0));
+        assertEquals(60, service.retryDelaySeconds(1));
+        assertEquals(240, service.retryDelaySeconds(3));
+        assertEquals(3600, service.retryDelaySeconds(40));
+    }
+}
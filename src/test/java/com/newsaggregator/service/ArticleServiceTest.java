@@ -13,9 +13,11 @@ import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -37,6 +39,12 @@ class ArticleServiceTest {
     @Mock
     private ArticleRepository articleRepository;
 
+    @Mock
+    private ArticleContentExtractorService contentExtractorService;
+
+    @Mock
+    private HostPolitenessScheduler politeness;
+
     @InjectMocks
     private ArticleService articleService;
 
@@ -156,4 +164,51 @@ class ArticleServiceTest {
         assertEquals(50L, count);
         verify(articleRepository, times(1)).countByStatus(ArticleStatus.PUBLISHED);
     }
+
+    @Test
+    @DisplayName("Should re-extract short content from the page cache without a host permit")
+    void testExtractContentForAllArticles_FromCache() throws Exception {
+        // Arrange
+        testArticle.setSourceUrl("https://example.com/news/1");
+        PageDocument document = new PageDocument("https://example.com/news/1", null, 0, 0, false, false);
+        ExtractedPage page = new ExtractedPage("https://example.com/news/1");
+        page.setContent("Полный текст статьи, заметно длиннее сохраненного");
+        when(articleRepository.findArticlesWithShortContent()).thenReturn(List.of(testArticle));
+        when(contentExtractorService.shouldExtractContent("https://example.com/news/1")).thenReturn(true);
+        when(contentExtractorService.readCachedDocument("https://example.com/news/1")).thenReturn(document);
+        when(contentExtractorService.extractPage(document)).thenReturn(page);
+
+        // Act
+        int updated = articleService.extractContentForAllArticles();
+
+        // Assert
+        assertEquals(1, updated);
+        assertEquals(page.getContent(), testArticle.getContent());
+        verify(articleRepository).save(testArticle);
+        verify(politeness, never()).awaitPermit(any(), anyLong());
+        verify(contentExtractorService, never()).fetchDocument(any());
+    }
+
+    @Test
+    @DisplayName("Should fetch uncached pages after a host permit and keep longer stored content")
+    void testExtractContentForAllArticles_FetchesUncached() throws Exception {
+        // Arrange
+        testArticle.setSourceUrl("https://example.com/news/1");
+        testArticle.setContent("Сохраненный текст статьи длиннее извлеченного");
+        PageDocument document = new PageDocument("https://example.com/news/1", null, 100, 100, false, false);
+        ExtractedPage page = new ExtractedPage("https://example.com/news/1");
+        page.setContent("Короткий текст");
+        when(articleRepository.findArticlesWithShortContent()).thenReturn(List.of(testArticle));
+        when(contentExtractorService.shouldExtractContent("https://example.com/news/1")).thenReturn(true);
+        when(contentExtractorService.fetchDocument("https://example.com/news/1")).thenReturn(document);
+        when(contentExtractorService.extractPage(document)).thenReturn(page);
+
+        // Act
+        int updated = articleService.extractContentForAllArticles();
+
+        // Assert
+        assertEquals(0, updated);
+        verify(politeness).awaitPermit(any(), anyLong());
+        verify(articleRepository, never()).save(any(Article.class));
+    }
 }
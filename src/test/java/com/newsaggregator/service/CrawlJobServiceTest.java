@@ -0,0 +1,116 @@
+package com.newsaggregator.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.newsaggregator.entity.NewsSource;
+import com.newsaggregator.repository.NewsSourceRepository;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("CrawlJobService Unit Tests")
+class CrawlJobServiceTest {
+
+    @Mock
+    private RssParserService rssParserService;
+
+    @Mock
+    private NewsSourceRepository newsSourceRepository;
+
+    @InjectMocks
+    private CrawlJobService crawlJobService;
+
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(crawlJobService, "threads", 2);
+        ReflectionTestUtils.setField(crawlJobService, "history", 20);
+        crawlJobService.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        crawlJobService.shutdown();
+    }
+
+    @Test
+    @DisplayName("Should coalesce parse-all and per-source submissions while a full crawl is running")
+    void testCoalesceWhileRunning() throws Exception {
+        // Arrange
+        CountDownLatch started = new CountDownLatch(1);
+        when(rssParserService.parseAllRssFeeds(any(CrawlReport.class))).thenAnswer(invocation -> {
+            started.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return invocation.getArgument(0);
+        });
+        NewsSource source = new NewsSource("Тестовый источник", "https://example.com/rss", "https://example.com");
+        source.setId(7L);
+
+        // Act
+        CrawlJobService.Submission first = crawlJobService.submitAll();
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        CrawlJobService.Submission second = crawlJobService.submitAll();
+        CrawlJobService.Submission single = crawlJobService.submitSource(source);
+
+        // Assert
+        assertFalse(first.isCoalesced());
+        assertTrue(second.isCoalesced());
+        assertTrue(single.isCoalesced());
+        assertSame(first.getJob(), second.getJob());
+        assertSame(first.getJob(), single.getJob());
+        assertEquals(CrawlJob.Status.RUNNING, first.getJob().getStatus());
+        assertEquals(1, crawlJobService.getJobs().size());
+
+        release.countDown();
+        awaitFinished(first.getJob());
+        assertEquals(CrawlJob.Status.COMPLETED, first.getJob().getStatus());
+        verify(rssParserService, times(1)).parseAllRssFeeds(any(CrawlReport.class));
+    }
+
+    @Test
+    @DisplayName("Should start a new job once the previous one has finished")
+    void testNewJobAfterFinish() throws Exception {
+        // Arrange
+        when(rssParserService.parseAllRssFeeds(any(CrawlReport.class)))
+                .thenThrow(new RuntimeException("База данных недоступна"));
+
+        // Act
+        CrawlJob failed = crawlJobService.submitAll().getJob();
+        awaitFinished(failed);
+        CrawlJobService.Submission next = crawlJobService.submitAll();
+
+        // Assert
+        assertEquals(CrawlJob.Status.FAILED, failed.getStatus());
+        assertEquals("База данных недоступна", failed.getError());
+        assertFalse(next.isCoalesced());
+        assertNotEquals(failed.getId(), next.getJob().getId());
+    }
+
+    private static void awaitFinished(CrawlJob job) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (job.isActive() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+}
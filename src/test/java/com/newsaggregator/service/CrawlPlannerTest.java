@@ -0,0 +1,108 @@
+package com.newsaggregator.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.newsaggregator.entity.NewsSource;
+
+@DisplayName("CrawlPlanner Unit Tests")
+class CrawlPlannerTest {
+
+    private final LocalDateTime now = LocalDateTime.of(2026, 1, 15, 12, 0);
+
+    private IngestMetrics metrics;
+    private CrawlPlanner planner;
+
+    @BeforeEach
+    void setUp() {
+        metrics = new IngestMetrics();
+        planner = new CrawlPlanner(metrics, 6, 5, 5);
+    }
+
+    @Test
+    @DisplayName("Should put sources with a higher yield per second of fetch time first")
+    void testOrdersByYield() {
+        // Arrange
+        NewsSource slow = source(1L, now.minusHours(1));
+        NewsSource productive = source(2L, now.minusHours(1));
+        recordPoll(slow, 20_000, 2);
+        recordPoll(productive, 2_000, 6);
+
+        // Act
+        List<NewsSource> ordered = planner.prioritize(List.of(slow, productive), now);
+
+        // Assert
+        assertEquals(List.of(productive, slow), ordered);
+    }
+
+    @Test
+    @DisplayName("Should raise the value of sources that have not succeeded for longer, up to the cap")
+    void testStaleness() {
+        // Arrange
+        NewsSource recent = source(1L, now);
+        NewsSource stale = source(2L, now.minusHours(12));
+        NewsSource ancient = source(3L, now.minusDays(30));
+
+        // Act
+        double recentValue = planner.expectedValue(recent, now);
+        double staleValue = planner.expectedValue(stale, now);
+        double ancientValue = planner.expectedValue(ancient, now);
+
+        // Assert
+        assertEquals(3 * recentValue, staleValue, 1e-9);
+        assertEquals(5 * planner.addedPerSecond(ancient), ancientValue, 1e-9);
+        assertEquals(ancientValue, planner.expectedValue(source(4L, null), now), 1e-9);
+    }
+
+    @Test
+    @DisplayName("Should double the priority of a deferred source until it is started")
+    void testDeferralBoost() {
+        // Arrange
+        NewsSource source = source(1L, now.minusHours(1));
+        double base = planner.expectedValue(source, now);
+
+        // Act
+        planner.deferred(source);
+        planner.deferred(source);
+        double boosted = planner.expectedValue(source, now);
+        planner.started(source);
+
+        // Assert
+        assertEquals(4 * base, boosted, 1e-9);
+        assertEquals(base, planner.expectedValue(source, now), 1e-9);
+    }
+
+    @Test
+    @DisplayName("Should expect the average poll duration, or the default for unknown sources")
+    void testExpectedDuration() {
+        // Arrange
+        NewsSource known = source(1L, now);
+        recordPoll(known, 3_000, 1);
+        recordPoll(known, 1_000, 0);
+        metrics.recordSourceRun(known, "queue", TimeUnit.SECONDS.toNanos(60), 5, 5, 0, 0, 0, null);
+
+        // Act & Assert
+        assertEquals(2_000, planner.expectedDurationMillis(known));
+        assertEquals(5_000, planner.expectedDurationMillis(source(2L, now)));
+        assertTrue(planner.addedPerSecond(known) < 1);
+    }
+
+    private void recordPoll(NewsSource source, long millis, int added) {
+        metrics.recordSourceRun(source, "poll", TimeUnit.MILLISECONDS.toNanos(millis), 10, added, 10 - added, 0, 0, null);
+    }
+
+    private static NewsSource source(Long id, LocalDateTime lastUpdated) {
+        NewsSource source = new NewsSource("Источник " + id, "https://example" + id + ".com/rss", "https://example" + id + ".com");
+        source.setId(id);
+        source.setLastUpdated(lastUpdated);
+        return source;
+    }
+}
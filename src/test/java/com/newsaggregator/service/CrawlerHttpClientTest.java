@@ -0,0 +1,142 @@
+package com.newsaggregator.service;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.http.HttpTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+@DisplayName("CrawlerHttpClient Unit Tests")
+class CrawlerHttpClientTest {
+
+    private static final byte[] CHUNK = "<html><body>".getBytes(StandardCharsets.UTF_8);
+
+    private final CountDownLatch stopServer = new CountDownLatch(1);
+    private HttpServer server;
+    private ExecutorService executor;
+    private CrawlerHttpClient client;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/complete", exchange -> respond(exchange, 0));
+        server.createContext("/stalled", exchange -> respond(exchange, 1));
+        server.createContext("/slow", exchange -> respond(exchange, 100));
+        executor = Executors.newCachedThreadPool();
+        server.setExecutor(executor);
+        server.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        stopServer.countDown();
+        client.shutdown();
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    @Test
+    @DisplayName("Should read a complete body")
+    void testCompleteBody() throws IOException {
+        // Arrange
+        client = createClient(500, 5000);
+
+        // Act
+        HttpFetchResult result = client.get(url("/complete"));
+
+        // Assert
+        assertArrayEquals(CHUNK, result.getBody());
+    }
+
+    @Test
+    @DisplayName("Should fail a body read that waits for data longer than the read timeout")
+    void testStalledBody() throws IOException {
+        // Arrange
+        client = createClient(300, 30000);
+        long started = System.nanoTime();
+
+        // Act & Assert
+        try (HttpFetchResult result = client.open(url("/stalled"), Map.of())) {
+            assertThrows(HttpTimeoutException.class, result::readBody);
+        }
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started) < 5000);
+    }
+
+    @Test
+    @DisplayName("Should fail a body that keeps trickling in past the body timeout")
+    void testSlowBody() throws IOException {
+        // Arrange
+        client = createClient(2000, 1000);
+        long started = System.nanoTime();
+
+        // Act & Assert
+        try (HttpFetchResult result = client.open(url("/slow"), Map.of())) {
+            assertThrows(HttpTimeoutException.class, result::readBody);
+        }
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started) < 5000);
+    }
+
+    /**
+     * Отправляет начало тела и затем chunks фрагментов по одному в 100 мс;
+     * при chunks = 1 после первого фрагмента соединение молчит до конца теста
+     */
+    private void respond(HttpExchange exchange, int chunks) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", "text/html; charset=UTF-8");
+        if (chunks == 0) {
+            exchange.sendResponseHeaders(200, CHUNK.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(CHUNK);
+            }
+            return;
+        }
+        exchange.sendResponseHeaders(200, 0);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(CHUNK);
+            out.flush();
+            for (int i = 1; i < chunks; i++) {
+                if (stopServer.await(100, TimeUnit.MILLISECONDS)) {
+                    return;
+                }
+                out.write(' ');
+                out.flush();
+            }
+            stopServer.await(30, TimeUnit.SECONDS);
+        } catch (IOException e) {
+            // Клиент закрыл соединение
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private CrawlerHttpClient createClient(long readTimeoutMs, long bodyTimeoutMs) {
+        CrawlerHttpClient crawlerClient = new CrawlerHttpClient();
+        ReflectionTestUtils.setField(crawlerClient, "connectionTimeoutMs", 2000L);
+        ReflectionTestUtils.setField(crawlerClient, "readTimeoutMs", readTimeoutMs);
+        ReflectionTestUtils.setField(crawlerClient, "bodyTimeoutMs", bodyTimeoutMs);
+        ReflectionTestUtils.setField(crawlerClient, "userAgent", "NewsAggregator-Test");
+        crawlerClient.init();
+        return crawlerClient;
+    }
+
+    private String url(String path) {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + path;
+    }
+}
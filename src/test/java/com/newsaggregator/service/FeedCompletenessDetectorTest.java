@@ -0,0 +1,114 @@
+package com.newsaggregator.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("FeedCompletenessDetector Unit Tests")
+class FeedCompletenessDetectorTest {
+
+    private static final Long SOURCE_ID = 1L;
+
+    private FeedCompletenessDetector detector;
+    private String articleText;
+
+    @BeforeEach
+    void setUp() {
+        detector = new FeedCompletenessDetector(3, 0.85, 0.8, 4);
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 60; i++) {
+            text.append("слово").append(i).append(" текст статьи номер ").append(i).append(". ");
+        }
+        articleText = text.toString();
+    }
+
+    @Test
+    @DisplayName("Should fetch pages while learning and switch to the feed once samples are complete")
+    void testSwitchesToFullFeed() {
+        // Act
+        for (int i = 0; i < 3; i++) {
+            assertTrue(detector.shouldFetchPage(SOURCE_ID));
+            detector.recordSample(SOURCE_ID, articleText, true, page(articleText, null), 50_000);
+        }
+
+        // Assert
+        FeedCompletenessDetector.SourceCompleteness state = detector.getSourceCompleteness(SOURCE_ID);
+        assertEquals(FeedCompletenessDetector.Mode.FULL_FEED, state.getMode());
+        assertEquals(1.0, state.getLastCoverage(), 0.0001);
+        assertFalse(detector.shouldFetchPage(SOURCE_ID));
+        assertFalse(detector.shouldFetchPage(SOURCE_ID));
+        assertFalse(detector.shouldFetchPage(SOURCE_ID));
+        assertTrue(detector.shouldFetchPage(SOURCE_ID), "Каждая recheck-every запись проверяется загрузкой");
+        assertEquals(3, state.getPagesSkipped());
+        assertEquals(150_000, state.getBytesSaved());
+    }
+
+    @Test
+    @DisplayName("Should keep fetching pages for feeds that only carry a teaser")
+    void testTeaserFeedKeepsFetching() {
+        // Arrange
+        String teaser = articleText.substring(0, 200);
+
+        // Act
+        for (int i = 0; i < 5; i++) {
+            detector.recordSample(SOURCE_ID, teaser, true, page(articleText, null), 50_000);
+        }
+
+        // Assert
+        assertEquals(FeedCompletenessDetector.Mode.PAGE_FETCH, detector.getSourceCompleteness(SOURCE_ID).getMode());
+        assertTrue(detector.shouldFetchPage(SOURCE_ID));
+        assertEquals(0, detector.getSourceCompleteness(SOURCE_ID).getBytesSaved());
+    }
+
+    @Test
+    @DisplayName("Should keep fetching pages when only the page provides the article image")
+    void testMissingImageKeepsFetching() {
+        // Act
+        for (int i = 0; i < 3; i++) {
+            detector.recordSample(SOURCE_ID, articleText, false, page(articleText, "https://example.com/a.jpg"), 50_000);
+        }
+
+        // Assert
+        assertEquals(FeedCompletenessDetector.Mode.PAGE_FETCH, detector.getSourceCompleteness(SOURCE_ID).getMode());
+    }
+
+    @Test
+    @DisplayName("Should return to page fetching when a recheck finds a truncated feed")
+    void testRecheckRevertsDecision() {
+        // Arrange
+        for (int i = 0; i < 3; i++) {
+            detector.recordSample(SOURCE_ID, articleText, true, page(articleText, null), 50_000);
+        }
+
+        // Act
+        detector.recordSample(SOURCE_ID, articleText.substring(0, 200), true, page(articleText, null), 50_000);
+
+        // Assert
+        assertEquals(FeedCompletenessDetector.Mode.PAGE_FETCH, detector.getSourceCompleteness(SOURCE_ID).getMode());
+        assertTrue(detector.shouldFetchPage(SOURCE_ID));
+    }
+
+    @Test
+    @DisplayName("Should ignore samples when neither the feed nor the page has text")
+    void testCoverageWithoutText() {
+        // Act
+        detector.recordSample(SOURCE_ID, "Короткий анонс", true, page(null, null), 50_000);
+
+        // Assert
+        assertTrue(Double.isNaN(FeedCompletenessDetector.coverage("Короткий анонс", null)));
+        assertEquals(1.0, FeedCompletenessDetector.coverage(articleText, ""), 0.0001);
+        assertNull(detector.getSourceCompleteness(SOURCE_ID));
+    }
+
+    private static ExtractedPage page(String content, String imageUrl) {
+        ExtractedPage page = new ExtractedPage("https://example.com/article");
+        page.setContent(content);
+        page.setImageUrl(imageUrl);
+        return page;
+    }
+}
@@ -0,0 +1,180 @@
+package com.newsaggregator.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.newsaggregator.entity.NewsSource;
+import com.rometools.rome.feed.synd.SyndEntry;
+import com.rometools.rome.feed.synd.SyndEntryImpl;
+
+@DisplayName("FeedCursor Unit Tests")
+class FeedCursorTest {
+
+    private final LocalDateTime now = LocalDateTime.of(2026, 1, 10, 12, 0);
+
+    @Test
+    @DisplayName("Should stop at the first known entry in a date-ordered feed")
+    void testStopsAtKnownEntry() {
+        // Arrange
+        FeedCursor cursor = new FeedCursor(now.minusHours(3), new LinkedHashSet<>(Set.of("https://example.com/2")));
+        List<SyndEntry> entries = List.of(
+                entry("https://example.com/4", now.minusHours(1)),
+                entry("https://example.com/3", now.minusHours(2)),
+                entry("https://example.com/2", now.minusHours(3)),
+                entry("https://example.com/1", now.minusHours(4)));
+
+        // Act
+        FeedCursor.Selection selection = cursor.select(entries, null);
+
+        // Assert
+        assertEquals(2, selection.getEntries().size());
+        assertEquals("https://example.com/4", selection.getEntries().get(0).getLink());
+        assertEquals(2, selection.getKnown());
+        assertTrue(selection.isStoppedAtKnown());
+    }
+
+    @Test
+    @DisplayName("Should only filter known entries when the feed is not ordered by date")
+    void testFiltersUnorderedFeed() {
+        // Arrange
+        FeedCursor cursor = new FeedCursor(now.minusHours(2), new LinkedHashSet<>(Set.of("https://example.com/2")));
+        List<SyndEntry> entries = List.of(
+                entry("https://example.com/2", now.minusHours(2)),
+                entry("https://example.com/5", now.minusHours(5)),
+                entry("https://example.com/3", now.minusHours(1)));
+
+        // Act
+        FeedCursor.Selection selection = cursor.select(entries, null);
+
+        // Assert
+        assertEquals(2, selection.getEntries().size());
+        assertEquals(1, selection.getKnown());
+        assertFalse(selection.isStoppedAtKnown());
+    }
+
+    @Test
+    @DisplayName("Should ignore entries older than the max age")
+    void testIgnoresOldEntries() {
+        // Arrange
+        FeedCursor cursor = new FeedCursor(null, new LinkedHashSet<>());
+        List<SyndEntry> entries = List.of(
+                entry("https://example.com/2", now.minusHours(1)),
+                entry("https://example.com/1", now.minusDays(10)));
+
+        // Act
+        FeedCursor.Selection selection = cursor.select(entries, now.minusHours(72));
+
+        // Assert
+        assertEquals(1, selection.getEntries().size());
+        assertEquals(1, selection.getTooOld());
+    }
+
+    @Test
+    @DisplayName("Should advance the high-water mark and keep the newest keys")
+    void testAdvance() {
+        // Arrange
+        FeedCursor cursor = new FeedCursor(now.minusHours(5), new LinkedHashSet<>(List.of("a", "b", "c")));
+        List<SyndEntry> processed = List.of(
+                entry("https://example.com/future", now.plusDays(1)),
+                entry("https://example.com/new", now.minusHours(1)));
+
+        // Act
+        FeedCursor advanced = cursor.advance(processed, now, 3);
+
+        // Assert
+        assertEquals(now.minusHours(1), advanced.getHighWaterMark());
+        assertEquals(List.of("https://example.com/future", "https://example.com/new", "a"),
+                List.copyOf(advanced.getRecentKeys()));
+    }
+
+    @Test
+    @DisplayName("Should not move the high-water mark past an entry that failed in the same run")
+    void testAdvanceKeepsFailedEntry() {
+        // Arrange
+        FeedCursor cursor = new FeedCursor(now.minusHours(5), new LinkedHashSet<>());
+        SyndEntry newest = entry("https://example.com/3", now.minusHours(1));
+        SyndEntry failed = entry("https://example.com/2", now.minusHours(2));
+        SyndEntry oldest = entry("https://example.com/1", now.minusHours(3));
+
+        // Act
+        FeedCursor advanced = cursor.advance(List.of(newest, oldest), List.of(failed), now, 10);
+        FeedCursor.Selection selection = advanced.select(List.of(newest, failed, oldest), null);
+
+        // Assert
+        assertEquals(now.minusHours(2), advanced.getHighWaterMark());
+        assertFalse(advanced.getRecentKeys().contains("https://example.com/2"));
+        assertEquals(1, selection.getEntries().size());
+        assertEquals("https://example.com/2", selection.getEntries().get(0).getLink());
+        assertEquals(2, selection.getKnown());
+        assertTrue(selection.isStoppedAtKnown());
+    }
+
+    @Test
+    @DisplayName("Should merge a run's keys into a cursor updated concurrently")
+    void testMergeInto() {
+        // Arrange: уведомление начато с курсора, который потом сдвинул опрос
+        FeedCursor start = new FeedCursor(now.minusHours(5), new LinkedHashSet<>(List.of("a", "b")));
+        FeedCursor pushed = start.advance(List.of(entry("https://example.com/pushed", now.minusHours(4))), now, 4);
+        FeedCursor polled = new FeedCursor(now.minusHours(2),
+                new LinkedHashSet<>(List.of("https://example.com/polled", "a", "b")));
+
+        // Act
+        FeedCursor merged = pushed.mergeInto(polled);
+
+        // Assert
+        assertEquals(now.minusHours(2), merged.getHighWaterMark());
+        assertEquals(List.of("https://example.com/pushed", "https://example.com/polled", "a", "b"),
+                List.copyOf(merged.getRecentKeys()));
+    }
+
+    @Test
+    @DisplayName("Should keep the merged mark behind an entry that failed in the run")
+    void testMergeKeepsFailedEntry() {
+        // Arrange
+        FeedCursor start = new FeedCursor(now.minusHours(5), new LinkedHashSet<>());
+        FeedCursor advanced = start.advance(List.of(entry("https://example.com/2", now.minusHours(1))),
+                List.of(entry("https://example.com/1", now.minusHours(3))), now, 10);
+        FeedCursor current = new FeedCursor(now.minusHours(2), new LinkedHashSet<>(List.of("other")));
+
+        // Act
+        FeedCursor merged = advanced.mergeInto(current);
+
+        // Assert
+        assertEquals(now.minusHours(3), merged.getHighWaterMark());
+        assertEquals(List.of("https://example.com/2", "other"), List.copyOf(merged.getRecentKeys()));
+    }
+
+    @Test
+    @DisplayName("Should round-trip the cursor through the source")
+    void testStoreInSource() {
+        // Arrange
+        NewsSource source = new NewsSource("Test Source", "https://example.com/rss", "https://example.com");
+        FeedCursor cursor = new FeedCursor(now, new LinkedHashSet<>(List.of("guid-1", "guid-2")));
+
+        // Act
+        cursor.applyTo(source);
+        FeedCursor restored = FeedCursor.of(source);
+
+        // Assert
+        assertEquals(now, restored.getHighWaterMark());
+        assertEquals(List.of("guid-1", "guid-2"), List.copyOf(restored.getRecentKeys()));
+    }
+
+    private SyndEntry entry(String link, LocalDateTime published) {
+        SyndEntryImpl entry = new SyndEntryImpl();
+        entry.setLink(link);
+        entry.setPublishedDate(Date.from(published.atZone(ZoneId.systemDefault()).toInstant()));
+        return entry;
+    }
+}
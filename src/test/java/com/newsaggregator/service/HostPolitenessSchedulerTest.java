@@ -0,0 +1,98 @@
+package com.newsaggregator.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+@DisplayName("HostPolitenessScheduler Unit Tests")
+class HostPolitenessSchedulerTest {
+
+    @Test
+    @DisplayName("Should prefer the Crawl-delay of our own user agent group")
+    void testCrawlDelayForAgent() {
+        // Arrange
+        String robots = "User-agent: *\n"
+                + "Crawl-delay: 5\n"
+                + "Disallow: /search\n"
+                + "\n"
+                + "User-agent: Googlebot\n"
+                + "User-agent: NewsAggregator # наш краулер\n"
+                + "Crawl-delay: 2.5\n";
+
+        // Act
+        double delay = HostPolitenessScheduler.parseCrawlDelay(robots, "NewsAggregator");
+
+        // Assert
+        assertEquals(2.5, delay);
+    }
+
+    @Test
+    @DisplayName("Should fall back to the wildcard group and ignore malformed values")
+    void testCrawlDelayWildcard() {
+        // Arrange
+        String robots = "User-agent: Yandex\r\nCrawl-delay: abc\r\n\r\nUser-agent: *\r\nCrawl-delay: 10\r\n";
+
+        // Act & Assert
+        assertEquals(10, HostPolitenessScheduler.parseCrawlDelay(robots, "NewsAggregator"));
+        assertEquals(0, HostPolitenessScheduler.parseCrawlDelay("User-agent: *\nDisallow: /admin\n", "NewsAggregator"));
+    }
+
+    @Test
+    @DisplayName("Should parse Retry-After as seconds or as an HTTP date")
+    void testParseRetryAfter() {
+        // Arrange
+        Instant now = Instant.parse("2026-01-05T10:00:00Z");
+
+        // Act & Assert
+        assertEquals(120_000, HostPolitenessScheduler.parseRetryAfter("120", now));
+        assertEquals(30_000, HostPolitenessScheduler.parseRetryAfter("Mon, 05 Jan 2026 10:00:30 GMT", now));
+        assertEquals(-1, HostPolitenessScheduler.parseRetryAfter("скоро", now));
+        assertEquals(-1, HostPolitenessScheduler.parseRetryAfter(null, now));
+    }
+
+    @Test
+    @DisplayName("Should defer requests to a new host until robots.txt is loaded in the background")
+    void testRobotsLoadedInBackground() throws Exception {
+        // Arrange
+        CountDownLatch release = new CountDownLatch(1);
+        CrawlerHttpClient httpClient = mock(CrawlerHttpClient.class);
+        when(httpClient.open(eq("https://example.com/robots.txt"), any())).thenAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            throw new IOException("нет robots.txt");
+        });
+        HostPolitenessScheduler scheduler = new HostPolitenessScheduler();
+        ReflectionTestUtils.setField(scheduler, "httpClient", httpClient);
+        ReflectionTestUtils.setField(scheduler, "requestsPerSecond", 1.0);
+        ReflectionTestUtils.setField(scheduler, "burst", 2);
+        ReflectionTestUtils.setField(scheduler, "robotsTtlHours", 24L);
+        ReflectionTestUtils.setField(scheduler, "robotsAgent", "NewsAggregator");
+        scheduler.init();
+
+        try {
+            // Act & Assert: поток вызывающего не ждет загрузки robots.txt
+            assertTrue(scheduler.tryAcquire("https://example.com/news/1") > 0);
+
+            release.countDown();
+            long waitMillis = 1;
+            for (int i = 0; i < 100 && waitMillis > 0; i++) {
+                Thread.sleep(20);
+                waitMillis = scheduler.tryAcquire("https://example.com/news/1");
+            }
+            assertEquals(0, waitMillis);
+        } finally {
+            scheduler.shutdown();
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.newsaggregator.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.newsaggregator.entity.NewsSource;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@DisplayName("IngestMetrics Unit Tests")
+class IngestMetricsTest {
+
+    private IngestMetrics metrics;
+    private SimpleMeterRegistry registry;
+    private NewsSource source;
+
+    @BeforeEach
+    void setUp() {
+        metrics = new IngestMetrics();
+        registry = new SimpleMeterRegistry();
+        ReflectionTestUtils.setField(metrics, "meterRegistry", registry);
+
+        source = new NewsSource("Тестовый источник", "https://example.com/rss", "https://example.com");
+        source.setId(7L);
+    }
+
+    @Test
+    @DisplayName("Should keep the last run and the yield of a source")
+    void testSourceRunStats() {
+        // Act
+        metrics.recordSourceRun(source, "poll", TimeUnit.MILLISECONDS.toNanos(1500), 10, 4, 5, 1, 0, null);
+        metrics.recordSourceRun(source, "push", TimeUnit.MILLISECONDS.toNanos(200), 2, 0, 0, 0, 2, "HTTP 500");
+
+        // Assert
+        IngestMetrics.SourceStats stats = metrics.getSourceStats(7L);
+        assertEquals("push", stats.getLastTrigger());
+        assertEquals(200, stats.getLastDurationMs());
+        assertEquals("HTTP 500", stats.getLastError());
+        assertEquals(2, stats.getRuns());
+        assertEquals(1, stats.getFailedRuns());
+        assertEquals(4.0 / 12, stats.getYield(), 1e-9);
+        assertNull(metrics.getSourceStats(8L));
+    }
+
+    @Test
+    @DisplayName("Should count entries by result")
+    void testEntryCounters() {
+        // Act
+        metrics.recordSourceRun(source, "poll", 1, 10, 4, 5, 1, 0, null);
+        metrics.recordSourceRun(source, "poll", 1, 3, 1, 2, 0, 0, null);
+
+        // Assert
+        assertEquals(13, registry.counter("ingest.entries", "result", "seen").count());
+        assertEquals(5, registry.counter("ingest.entries", "result", "new").count());
+        assertEquals(7, registry.counter("ingest.entries", "result", "duplicate").count());
+        assertEquals(2, registry.timer("ingest.source.runs", "trigger", "poll", "outcome", "ok").count());
+    }
+}
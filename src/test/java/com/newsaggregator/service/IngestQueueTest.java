@@ -0,0 +1,163 @@
+package com.newsaggregator.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.newsaggregator.entity.IngestDeadLetter;
+import com.newsaggregator.entity.IngestTask;
+import com.newsaggregator.entity.IngestTaskState;
+import com.newsaggregator.repository.IngestDeadLetterRepository;
+import com.newsaggregator.repository.IngestTaskRepository;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("IngestQueue Unit Tests")
+class IngestQueueTest {
+
+    @Mock
+    private IngestTaskRepository taskRepository;
+
+    @Mock
+    private IngestDeadLetterRepository deadLetterRepository;
+
+    @Mock
+    private SourceLeaseService sourceLeaseService;
+
+    @Mock
+    private IngestMetrics ingestMetrics;
+
+    @InjectMocks
+    private IngestQueue ingestQueue;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(ingestQueue, "leaseSeconds", 600L);
+        ReflectionTestUtils.setField(ingestQueue, "maxAttempts", 3);
+        ReflectionTestUtils.setField(ingestQueue, "baseBackoffSeconds", 60L);
+        ReflectionTestUtils.setField(ingestQueue, "maxBackoffSeconds", 3600L);
+    }
+
+    @Test
+    @DisplayName("Should enqueue only entries without an existing task as running tasks of this node")
+    @SuppressWarnings("unchecked")
+    void testEnqueueSkipsExistingUrls() {
+        // Arrange
+        IngestTask fresh = new IngestTask(1L, "https://example.com/news/1");
+        IngestTask queued = new IngestTask(1L, "https://example.com/news/2");
+        when(taskRepository.findExistingUrls(anyCollection())).thenReturn(List.of("https://example.com/news/2"));
+        when(taskRepository.saveAll(any(List.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(sourceLeaseService.getNodeId()).thenReturn("node-1");
+
+        // Act
+        List<IngestTask> result = ingestQueue.enqueue(List.of(fresh, queued));
+
+        // Assert
+        assertEquals(List.of(fresh), result);
+        assertEquals(IngestTaskState.RUNNING, fresh.getState());
+        assertEquals(1, fresh.getAttempts());
+        assertEquals("node-1", fresh.getOwnerNode());
+        assertTrue(fresh.getLeaseUntil().isAfter(LocalDateTime.now()));
+    }
+
+    @Test
+    @DisplayName("Should postpone a failed task with exponential backoff")
+    void testFailSchedulesRetry() {
+        // Arrange
+        IngestTask task = runningTask(2);
+        when(sourceLeaseService.getNodeId()).thenReturn("node-1");
+        when(taskRepository.scheduleRetry(eq(10L), eq("node-1"), eq(2), any(), eq("Таймаут загрузки страницы")))
+                .thenReturn(1);
+
+        // Act
+        boolean dead = ingestQueue.fail(task, "Таймаут загрузки страницы");
+
+        // Assert
+        assertFalse(dead);
+        ArgumentCaptor<LocalDateTime> nextAttemptAt = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(taskRepository).scheduleRetry(eq(10L), eq("node-1"), eq(2), nextAttemptAt.capture(), any());
+        assertTrue(nextAttemptAt.getValue().isAfter(LocalDateTime.now().plusSeconds(110)));
+        assertTrue(nextAttemptAt.getValue().isBefore(LocalDateTime.now().plusSeconds(130)));
+        verify(deadLetterRepository, never()).save(any());
+    }
+
+    @Test
+    @DisplayName("Should move a task to dead letters after the last attempt")
+    void testFailMovesToDeadLetters() {
+        // Arrange
+        IngestTask task = runningTask(3);
+        when(sourceLeaseService.getNodeId()).thenReturn("node-1");
+        when(taskRepository.deleteHeld(10L, "node-1", 3)).thenReturn(1);
+
+        // Act
+        boolean dead = ingestQueue.fail(task, "Хост не принимает запросы");
+
+        // Assert
+        assertTrue(dead);
+        ArgumentCaptor<IngestDeadLetter> captor = ArgumentCaptor.forClass(IngestDeadLetter.class);
+        verify(deadLetterRepository).save(captor.capture());
+        assertEquals("https://example.com/news/1", captor.getValue().getUrl());
+        assertEquals(3, captor.getValue().getAttempts());
+        assertEquals("Хост не принимает запросы", captor.getValue().getLastError());
+    }
+
+    @Test
+    @DisplayName("Should ignore the failure of a task that another worker has taken over")
+    void testFailIgnoresTaskTakenOver() {
+        // Arrange: аренда истекла, задачу забрал другой узел (или этот узел в новой попытке)
+        IngestTask retried = runningTask(2);
+        IngestTask exhausted = runningTask(3);
+        when(sourceLeaseService.getNodeId()).thenReturn("node-1");
+        when(taskRepository.scheduleRetry(eq(10L), eq("node-1"), eq(2), any(), any())).thenReturn(0);
+        when(taskRepository.deleteHeld(10L, "node-1", 3)).thenReturn(0);
+
+        // Act
+        boolean retriedDead = ingestQueue.fail(retried, "Таймаут загрузки страницы");
+        boolean exhaustedDead = ingestQueue.fail(exhausted, "Хост не принимает запросы");
+
+        // Assert
+        assertFalse(retriedDead);
+        assertFalse(exhaustedDead);
+        verify(deadLetterRepository, never()).save(any());
+        verify(ingestMetrics, never()).recordQueueTasks(any(), anyInt());
+    }
+
+    @Test
+    @DisplayName("Should double the backoff per attempt up to the maximum")
+    void testBackoffSeconds() {
+        // Act & Assert
+        assertEquals(60, IngestQueue.backoffSeconds(1, 60, 3600));
+        assertEquals(120, IngestQueue.backoffSeconds(2, 60, 3600));
+        assertEquals(480, IngestQueue.backoffSeconds(4, 60, 3600));
+        assertEquals(3600, IngestQueue.backoffSeconds(10, 60, 3600));
+        assertEquals(3600, IngestQueue.backoffSeconds(100, 60, 3600));
+    }
+
+    private static IngestTask runningTask(int attempts) {
+        IngestTask task = new IngestTask(1L, "https://example.com/news/1");
+        task.setId(10L);
+        task.setAttempts(attempts);
+        task.setOwnerNode("node-1");
+        task.setLeaseUntil(LocalDateTime.now().plusMinutes(10));
+        return task;
+    }
+}
@@ -5,6 +5,7 @@ import java.util.List;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -24,6 +25,7 @@ class LMStudioServiceTest {
         ReflectionTestUtils.setField(lmStudioService, "apiUrl", "http://localhost:1234/v1");
         ReflectionTestUtils.setField(lmStudioService, "model", "test-model");
         ReflectionTestUtils.setField(lmStudioService, "timeoutSeconds", 60);
+        ReflectionTestUtils.setField(lmStudioService, "ingestMetrics", new IngestMetrics());
     }
 
     @Test
@@ -387,4 +389,29 @@ class LMStudioServiceTest {
         // Assert
         assertEquals("Культура", category);
     }
+
+    @Test
+    @DisplayName("Should throw from request methods when disabled")
+    void testRequestMethods_Disabled() {
+        // Act & Assert
+        assertThrows(IllegalStateException.class, () -> lmStudioService.requestSummary("Текст статьи."));
+        assertThrows(IllegalStateException.class, () -> lmStudioService.requestCategory("Заголовок", "Текст"));
+    }
+
+    @Test
+    @DisplayName("Should throw from request methods but fall back in generate methods when API fails")
+    void testRequestMethods_ApiUnavailable() {
+        // Arrange
+        ReflectionTestUtils.setField(lmStudioService, "enabled", true);
+        ReflectionTestUtils.setField(lmStudioService, "apiUrl", "http://127.0.0.1:1/v1");
+        ReflectionTestUtils.setField(lmStudioService, "timeoutSeconds", 5);
+        String title = "Новое лечение болезни";
+        String content = "Врачи в клинике провели успешное лечение пациента";
+
+        // Act & Assert
+        assertThrows(RuntimeException.class, () -> lmStudioService.requestSummary(content));
+        assertThrows(RuntimeException.class, () -> lmStudioService.requestCategory(title, content));
+        assertEquals(content, lmStudioService.generateSummary(content));
+        assertEquals("Здоровье", lmStudioService.categorizeArticle(title, content));
+    }
 }
@@ -0,0 +1,139 @@
+package com.newsaggregator.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Map;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+@DisplayName("PageCache Unit Tests")
+class PageCacheTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    @DisplayName("Should return a stored page with its validators")
+    void testStoreAndRead() throws IOException {
+        // Arrange
+        PageCache cache = new PageCache(directory, 1024 * 1024, Duration.ofHours(1));
+        store(cache, "https://example.com/news/1", "<html><article>Текст статьи</article></html>", "\"v1\"");
+
+        // Act
+        PageCache.Entry entry = cache.lookup("https://Example.com/news/1#comments");
+
+        // Assert
+        assertNotNull(entry);
+        assertTrue(cache.isFresh(entry));
+        assertEquals("<html><article>Текст статьи</article></html>", read(cache, entry));
+        assertEquals(Map.of("If-None-Match", "\"v1\""), cache.conditionalHeaders(entry));
+    }
+
+    @Test
+    @DisplayName("Should keep one body for identical pages under different links")
+    void testDeduplicatesBodies() throws IOException {
+        // Arrange
+        PageCache cache = new PageCache(directory, 1024 * 1024, Duration.ofHours(1));
+        store(cache, "https://example.com/news/1", "<html>Одна и та же страница</html>", null);
+        long size = cache.getSizeBytes();
+
+        // Act
+        store(cache, "https://example.com/amp/news/1", "<html>Одна и та же страница</html>", null);
+
+        // Assert
+        assertEquals(2, cache.getEntryCount());
+        assertEquals(size, cache.getSizeBytes());
+    }
+
+    @Test
+    @DisplayName("Should evict the least recently used page when the size limit is exceeded")
+    void testEvictsLeastRecentlyUsed() throws IOException {
+        // Arrange
+        PageCache probe = new PageCache(directory.resolve("probe"), 1024 * 1024, Duration.ofHours(1));
+        store(probe, "https://example.com/probe", page(1), null);
+        long pageSize = probe.getSizeBytes();
+        PageCache cache = new PageCache(directory.resolve("cache"), pageSize * 2 + pageSize / 2, Duration.ofHours(1));
+        store(cache, "https://example.com/news/1", page(1), null);
+        store(cache, "https://example.com/news/2", page(2), null);
+        cache.lookup("https://example.com/news/1");
+
+        // Act
+        store(cache, "https://example.com/news/3", page(3), null);
+
+        // Assert
+        assertNotNull(cache.lookup("https://example.com/news/1"));
+        assertNull(cache.lookup("https://example.com/news/2"));
+        assertNotNull(cache.lookup("https://example.com/news/3"));
+    }
+
+    @Test
+    @DisplayName("Should drop a stale page without validators and keep a stale page with validators")
+    void testStaleEntries() throws IOException {
+        // Arrange
+        PageCache cache = new PageCache(directory, 1024 * 1024, Duration.ZERO);
+        store(cache, "https://example.com/news/1", page(1), null);
+        store(cache, "https://example.com/news/2", page(2), "\"v2\"");
+
+        // Act
+        PageCache.Entry withoutValidators = cache.lookup("https://example.com/news/1");
+        PageCache.Entry withValidators = cache.lookup("https://example.com/news/2");
+
+        // Assert
+        assertNull(withoutValidators);
+        assertNotNull(withValidators);
+        assertFalse(cache.isFresh(withValidators));
+        assertEquals(1, cache.getEntryCount());
+    }
+
+    @Test
+    @DisplayName("Should restore pages from disk after a restart")
+    void testReload() throws IOException {
+        // Arrange
+        PageCache cache = new PageCache(directory, 1024 * 1024, Duration.ofHours(1));
+        store(cache, "https://example.com/news/1", page(1), "\"v1\"");
+
+        // Act
+        PageCache restarted = new PageCache(directory, 1024 * 1024, Duration.ofHours(1));
+        PageCache.Entry entry = restarted.lookup("https://example.com/news/1");
+
+        // Assert
+        assertNotNull(entry);
+        assertEquals("\"v1\"", entry.getEtag());
+        assertEquals(page(1), read(restarted, entry));
+        assertEquals(cache.getSizeBytes(), restarted.getSizeBytes());
+    }
+
+    private static void store(PageCache cache, String url, String html, String etag) throws IOException {
+        PageCache.Recorder recorder = cache.record(url);
+        try (InputStream in = recorder.wrap(new ByteArrayInputStream(html.getBytes(StandardCharsets.UTF_8)))) {
+            in.readAllBytes();
+        }
+        recorder.commit(etag, null, "UTF-8", url);
+    }
+
+    private static String read(PageCache cache, PageCache.Entry entry) throws IOException {
+        try (InputStream in = cache.openBody(entry)) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    private static String page(int number) {
+        StringBuilder html = new StringBuilder("<html><article>");
+        for (int i = 0; i < 200; i++) {
+            html.append("Абзац ").append(number).append('-').append(i).append(' ');
+        }
+        return html.append("</article></html>").toString();
+    }
+}
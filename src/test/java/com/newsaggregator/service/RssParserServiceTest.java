@@ -0,0 +1,85 @@
+package com.newsaggregator.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+@DisplayName("RssParserService Unit Tests")
+class RssParserServiceTest {
+
+    private RssParserService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new RssParserService();
+        ReflectionTestUtils.setField(service, "perHostLimit", 1);
+    }
+
+    @Test
+    @DisplayName("Should drop the permits of a host once no thread holds or waits for them")
+    void testHostPermitsAreDroppedWhenIdle() {
+        // Act
+        for (int i = 0; i < 100; i++) {
+            String url = "https://host" + i + ".example.com/news/1";
+            assertEquals(url, withHostPermit(url, () -> url));
+        }
+
+        // Assert
+        assertTrue(hostPermits().isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should keep the host limit while a thread waits for the permit")
+    void testWaitingThreadSharesHostLimit() throws Exception {
+        // Arrange
+        CountDownLatch holding = new CountDownLatch(1);
+        CountDownLatch releaseFirst = new CountDownLatch(1);
+        AtomicInteger concurrent = new AtomicInteger();
+        AtomicInteger maxConcurrent = new AtomicInteger();
+        Callable<Void> request = () -> {
+            maxConcurrent.accumulateAndGet(concurrent.incrementAndGet(), Math::max);
+            holding.countDown();
+            releaseFirst.await(5, TimeUnit.SECONDS);
+            concurrent.decrementAndGet();
+            return null;
+        };
+
+        // Act
+        CompletableFuture<Void> first = CompletableFuture.runAsync(
+                () -> withHostPermit("https://example.com/news/1", request));
+        assertTrue(holding.await(5, TimeUnit.SECONDS));
+        CompletableFuture<Void> second = CompletableFuture.runAsync(
+                () -> withHostPermit("https://www.example.com/news/2", request));
+        Thread.sleep(100);
+        boolean secondWaited = !second.isDone();
+        releaseFirst.countDown();
+        first.get(5, TimeUnit.SECONDS);
+        second.get(5, TimeUnit.SECONDS);
+
+        // Assert
+        assertTrue(secondWaited);
+        assertEquals(1, maxConcurrent.get());
+        assertFalse(hostPermits().containsKey("example.com"));
+    }
+
+    private <T> T withHostPermit(String url, Callable<T> action) {
+        return ReflectionTestUtils.invokeMethod(service, "withHostPermit", url, action);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, ?> hostPermits() {
+        return (Map<String, ?>) ReflectionTestUtils.getField(service, "hostPermits");
+    }
+}
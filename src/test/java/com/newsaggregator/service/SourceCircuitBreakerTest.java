@@ -0,0 +1,133 @@
+package com.newsaggregator.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Random;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.newsaggregator.entity.CircuitState;
+import com.newsaggregator.entity.NewsSource;
+
+@DisplayName("SourceCircuitBreaker Unit Tests")
+class SourceCircuitBreakerTest {
+
+    private SourceCircuitBreaker circuitBreaker;
+    private NewsSource source;
+    private LocalDateTime now;
+
+    @BeforeEach
+    void setUp() {
+        circuitBreaker = new SourceCircuitBreaker(3, 60, 3600, 600, new Random(42));
+        source = new NewsSource("Test Source", "https://example.com/rss", "https://example.com");
+        now = LocalDateTime.of(2026, 1, 1, 12, 0);
+    }
+
+    @Test
+    @DisplayName("Should stay closed below the failure threshold")
+    void testStaysClosedBelowThreshold() {
+        // Act
+        boolean opened = circuitBreaker.onFailure(source, now);
+        circuitBreaker.onFailure(source, now);
+
+        // Assert
+        assertFalse(opened);
+        assertEquals(CircuitState.CLOSED, source.getCircuitState());
+        assertEquals(2, source.getErrorCount());
+        assertTrue(circuitBreaker.allowRequest(source, now));
+    }
+
+    @Test
+    @DisplayName("Should open after the failure threshold and block requests until the backoff expires")
+    void testOpensAfterThreshold() {
+        // Arrange
+        circuitBreaker.onFailure(source, now);
+        circuitBreaker.onFailure(source, now);
+
+        // Act
+        boolean opened = circuitBreaker.onFailure(source, now);
+
+        // Assert
+        assertTrue(opened);
+        assertEquals(CircuitState.OPEN, source.getCircuitState());
+        assertFalse(circuitBreaker.allowRequest(source, now.plusSeconds(29)));
+        assertTrue(circuitBreaker.allowRequest(source, now.plusSeconds(61)));
+        assertEquals(CircuitState.HALF_OPEN, source.getCircuitState());
+    }
+
+    @Test
+    @DisplayName("Should reject other requests while the half-open probe is running")
+    void testProbeBlocksOtherRequests() {
+        // Arrange
+        for (int i = 0; i < 3; i++) {
+            circuitBreaker.onFailure(source, now);
+        }
+        LocalDateTime probeStarted = now.plusHours(1);
+
+        // Act
+        boolean probe = circuitBreaker.allowRequest(source, probeStarted);
+
+        // Assert: пока проба не завершилась, остальные запросы отклоняются
+        assertTrue(probe);
+        assertEquals(probeStarted.plusSeconds(600), source.getCircuitOpenUntil());
+        assertFalse(circuitBreaker.allowRequest(source, probeStarted.plusSeconds(599)));
+        assertEquals(CircuitState.HALF_OPEN, source.getCircuitState());
+
+        // Проба, не завершившаяся за probe-timeout, начинается заново
+        assertTrue(circuitBreaker.allowRequest(source, probeStarted.plusSeconds(601)));
+    }
+
+    @Test
+    @DisplayName("Should reopen with a longer backoff when the half-open probe fails")
+    void testFailedProbeReopens() {
+        // Arrange
+        for (int i = 0; i < 3; i++) {
+            circuitBreaker.onFailure(source, now);
+        }
+        circuitBreaker.allowRequest(source, now.plusHours(1));
+
+        // Act
+        circuitBreaker.onFailure(source, now);
+
+        // Assert
+        assertEquals(CircuitState.OPEN, source.getCircuitState());
+        Duration backoff = Duration.between(now, source.getCircuitOpenUntil());
+        assertTrue(backoff.getSeconds() >= 60 && backoff.getSeconds() <= 120);
+    }
+
+    @Test
+    @DisplayName("Should close and reset errors after a successful probe")
+    void testSuccessfulProbeCloses() {
+        // Arrange
+        for (int i = 0; i < 3; i++) {
+            circuitBreaker.onFailure(source, now);
+        }
+        circuitBreaker.allowRequest(source, now.plusHours(1));
+
+        // Act
+        circuitBreaker.onSuccess(source);
+
+        // Assert
+        assertEquals(CircuitState.CLOSED, source.getCircuitState());
+        assertNull(source.getCircuitOpenUntil());
+        assertEquals(0, source.getErrorCount());
+    }
+
+    @Test
+    @DisplayName("Should cap the exponential backoff")
+    void testBackoffIsCapped() {
+        // Act & Assert
+        for (int openings = 0; openings < 40; openings++) {
+            long seconds = circuitBreaker.backoff(openings).getSeconds();
+            assertTrue(seconds <= 3600);
+            assertTrue(seconds >= Math.min(3600, 60L << Math.min(openings, 30)) / 2);
+        }
+    }
+}
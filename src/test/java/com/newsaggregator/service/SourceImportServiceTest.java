@@ -0,0 +1,203 @@
+package com.newsaggregator.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.newsaggregator.entity.NewsSource;
+import com.newsaggregator.repository.NewsSourceRepository;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+@DisplayName("SourceImportService Unit Tests")
+class SourceImportServiceTest {
+
+    private final AtomicInteger activeProbes = new AtomicInteger();
+    private final AtomicInteger maxActiveProbes = new AtomicInteger();
+    private HttpServer server;
+    private ExecutorService executor;
+    private CrawlerHttpClient httpClient;
+    private NewsSourceRepository newsSourceRepository;
+    private NewsSourceService newsSourceService;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/feed/", this::serveFeed);
+        server.createContext("/missing", exchange -> {
+            exchange.sendResponseHeaders(404, -1);
+            exchange.close();
+        });
+        executor = Executors.newCachedThreadPool();
+        server.setExecutor(executor);
+        server.start();
+
+        httpClient = new CrawlerHttpClient();
+        ReflectionTestUtils.setField(httpClient, "connectionTimeoutMs", 2000L);
+        ReflectionTestUtils.setField(httpClient, "readTimeoutMs", 5000L);
+        ReflectionTestUtils.setField(httpClient, "bodyTimeoutMs", 10000L);
+        ReflectionTestUtils.setField(httpClient, "userAgent", "NewsAggregator-Test");
+        httpClient.init();
+
+        newsSourceRepository = mock(NewsSourceRepository.class);
+        newsSourceService = mock(NewsSourceService.class);
+    }
+
+    @AfterEach
+    void tearDown() {
+        httpClient.shutdown();
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    @Test
+    @DisplayName("Should probe feeds concurrently, look up existing URLs once and save batches from the calling thread")
+    void testImportSources() {
+        // Arrange
+        List<SourceListReader.Row> rows = new ArrayList<>();
+        for (int i = 1; i <= 7; i++) {
+            rows.add(new SourceListReader.Row(i, null, url("/feed/" + i), null));
+        }
+        rows.add(new SourceListReader.Row(8, null, url("/feed/1"), null));
+        rows.add(new SourceListReader.Row(9, "Уже есть", url("/feed/existing"), null));
+        rows.add(new SourceListReader.Row(10, "Не лента", "ftp://example.com/feed", null));
+        rows.add(new SourceListReader.Row(11, "Нет ленты", url("/missing"), null));
+        when(newsSourceRepository.findExistingRssUrls(anyCollection())).thenReturn(List.of(url("/feed/existing")));
+
+        Thread caller = Thread.currentThread();
+        List<Integer> batchSizes = Collections.synchronizedList(new ArrayList<>());
+        Set<Thread> writers = Collections.synchronizedSet(new HashSet<>());
+        when(newsSourceService.createSources(anyList())).thenAnswer(invocation -> {
+            List<NewsSource> sources = invocation.getArgument(0);
+            batchSizes.add(sources.size());
+            writers.add(Thread.currentThread());
+            return sources;
+        });
+        SourceImportService service = createService(3);
+        List<SourceImportService.RowResult> results = Collections.synchronizedList(new ArrayList<>());
+
+        // Act
+        SourceImportService.Summary summary = service.importSources(rows, results::add);
+
+        // Assert
+        assertEquals(11, results.size());
+        assertEquals(7, summary.getCount(SourceImportService.Outcome.CREATED));
+        assertEquals(1, summary.getCount(SourceImportService.Outcome.DUPLICATE));
+        assertEquals(1, summary.getCount(SourceImportService.Outcome.EXISTS));
+        assertEquals(1, summary.getCount(SourceImportService.Outcome.INVALID));
+        assertEquals(1, summary.getCount(SourceImportService.Outcome.FAILED));
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Collection<String>> lookedUp = ArgumentCaptor.forClass(Collection.class);
+        verify(newsSourceRepository, times(1)).findExistingRssUrls(lookedUp.capture());
+        assertEquals(9, new HashSet<>(lookedUp.getValue()).size());
+
+        assertEquals(List.of(3, 3, 1), batchSizes);
+        assertEquals(Set.of(caller), writers);
+        assertTrue(maxActiveProbes.get() > 1);
+        assertTrue(maxActiveProbes.get() <= 4);
+    }
+
+    @Test
+    @DisplayName("Should save sources one by one when a batch insert fails")
+    void testPerRowFallback() {
+        // Arrange
+        List<SourceListReader.Row> rows = List.of(
+                new SourceListReader.Row(1, null, url("/feed/1"), null),
+                new SourceListReader.Row(2, null, url("/feed/2"), null),
+                new SourceListReader.Row(3, null, url("/feed/3"), null));
+        when(newsSourceRepository.findExistingRssUrls(anyCollection())).thenReturn(List.of());
+        when(newsSourceService.createSources(anyList())).thenAnswer(invocation -> {
+            List<NewsSource> sources = invocation.getArgument(0);
+            if (sources.size() > 1 || sources.get(0).getRssUrl().equals(url("/feed/2"))) {
+                throw new DataIntegrityViolationException("Duplicate entry");
+            }
+            return sources;
+        });
+        SourceImportService service = createService(10);
+        List<SourceImportService.RowResult> results = Collections.synchronizedList(new ArrayList<>());
+
+        // Act
+        SourceImportService.Summary summary = service.importSources(rows, results::add);
+
+        // Assert
+        assertEquals(2, summary.getCount(SourceImportService.Outcome.CREATED));
+        assertEquals(1, summary.getCount(SourceImportService.Outcome.FAILED));
+        verify(newsSourceService, times(4)).createSources(anyList());
+        SourceImportService.RowResult failed = results.stream()
+                .filter(result -> result.getOutcome() == SourceImportService.Outcome.FAILED)
+                .findFirst()
+                .orElseThrow();
+        assertEquals(2, failed.getNumber());
+        assertTrue(failed.getMessage().startsWith("Не удалось сохранить"));
+    }
+
+    private SourceImportService createService(int batchSize) {
+        SourceImportService service = new SourceImportService();
+        ReflectionTestUtils.setField(service, "httpClient", httpClient);
+        ReflectionTestUtils.setField(service, "newsSourceRepository", newsSourceRepository);
+        ReflectionTestUtils.setField(service, "newsSourceService", newsSourceService);
+        ReflectionTestUtils.setField(service, "parallelism", 8);
+        ReflectionTestUtils.setField(service, "perHostLimit", 4);
+        ReflectionTestUtils.setField(service, "probeBytes", 65536);
+        ReflectionTestUtils.setField(service, "batchSize", batchSize);
+        ReflectionTestUtils.setField(service, "maxRows", 100);
+        return service;
+    }
+
+    /**
+     * Отдает короткую RSS ленту с задержкой, чтобы проверки перекрывались по времени
+     */
+    private void serveFeed(HttpExchange exchange) throws IOException {
+        int active = activeProbes.incrementAndGet();
+        maxActiveProbes.accumulateAndGet(active, Math::max);
+        try {
+            Thread.sleep(150);
+            String path = exchange.getRequestURI().getPath();
+            byte[] body = ("<?xml version=\"1.0\" encoding=\"UTF-8\"?><rss version=\"2.0\"><channel>"
+                    + "<title>Лента " + path + "</title><link>http://127.0.0.1/</link>"
+                    + "<item><title>Запись</title><link>http://127.0.0.1/news/1</link></item>"
+                    + "</channel></rss>").getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "application/rss+xml; charset=UTF-8");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            activeProbes.decrementAndGet();
+        }
+    }
+
+    private String url(String path) {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + path;
+    }
+}
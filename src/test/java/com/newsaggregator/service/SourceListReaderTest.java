@@ -0,0 +1,78 @@
+package com.newsaggregator.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("SourceListReader Unit Tests")
+class SourceListReaderTest {
+
+    private final SourceListReader reader = new SourceListReader();
+
+    @Test
+    @DisplayName("Should read feed outlines from nested OPML folders")
+    void testReadOpml() throws IOException {
+        // Arrange
+        String opml = "<?xml version=\"1.0\" encoding=\"UTF-8\"?><opml version=\"2.0\"><head><title>Подписки</title></head>"
+                + "<body><outline text=\"Новости\">"
+                + "<outline type=\"rss\" text=\"Хабр\" xmlUrl=\"https://habr.com/ru/rss/articles/\" htmlUrl=\"https://habr.com\"/>"
+                + "<outline type=\"rss\" title=\"Лента\" xmlUrl=\" https://lenta.ru/rss \"/>"
+                + "</outline></body></opml>";
+
+        // Act
+        List<SourceListReader.Row> rows = reader.read(
+                new ByteArrayInputStream(opml.getBytes(StandardCharsets.UTF_8)), "subscriptions.opml");
+
+        // Assert
+        assertEquals(2, rows.size());
+        assertEquals("Хабр", rows.get(0).getName());
+        assertEquals("https://habr.com/ru/rss/articles/", rows.get(0).getRssUrl());
+        assertEquals("https://habr.com", rows.get(0).getWebsiteUrl());
+        assertEquals("Лента", rows.get(1).getName());
+        assertEquals("https://lenta.ru/rss", rows.get(1).getRssUrl());
+        assertEquals(2, rows.get(1).getNumber());
+    }
+
+    @Test
+    @DisplayName("Should read CSV with a header in any column order and quoted cells")
+    void testReadCsvWithHeader() throws IOException {
+        // Arrange
+        String csv = "rss_url,name,website_url\n"
+                + "https://ria.ru/export/rss2/archive/index.xml,\"РИА Новости, главное\",https://ria.ru\n"
+                + "\n"
+                + "https://www.vedomosti.ru/rss/news,\"Ведомости \"\"Новости\"\"\",\n";
+
+        // Act
+        List<SourceListReader.Row> rows = reader.readCsv(csv);
+
+        // Assert
+        assertEquals(2, rows.size());
+        assertEquals("РИА Новости, главное", rows.get(0).getName());
+        assertEquals("https://ria.ru/export/rss2/archive/index.xml", rows.get(0).getRssUrl());
+        assertEquals("https://ria.ru", rows.get(0).getWebsiteUrl());
+        assertEquals("Ведомости \"Новости\"", rows.get(1).getName());
+        assertNull(rows.get(1).getWebsiteUrl());
+        assertEquals(4, rows.get(1).getNumber());
+    }
+
+    @Test
+    @DisplayName("Should read CSV without a header: bare URLs and semicolon-separated rows")
+    void testReadCsvWithoutHeader() throws IOException {
+        // Act
+        List<SourceListReader.Row> rows = reader.readCsv("https://lenta.ru/rss\nГазета.Ru;https://www.gazeta.ru/export/rss/first.xml\n");
+
+        // Assert
+        assertEquals(2, rows.size());
+        assertNull(rows.get(0).getName());
+        assertEquals("https://lenta.ru/rss", rows.get(0).getRssUrl());
+        assertEquals("Газета.Ru", rows.get(1).getName());
+        assertEquals("https://www.gazeta.ru/export/rss/first.xml", rows.get(1).getRssUrl());
+    }
+}
@@ -0,0 +1,188 @@
+package com.newsaggregator.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.rometools.rome.feed.synd.SyndEntry;
+
+@DisplayName("StreamingFeedReader Unit Tests")
+class StreamingFeedReaderTest {
+
+    private final StreamingFeedReader reader = new StreamingFeedReader();
+
+    @Test
+    @DisplayName("Should read RSS 2.0 entries with description, content, enclosure and media")
+    void testReadRss() throws IOException {
+        // Arrange
+        String xml = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>"
+                + "<rss version=\"2.0\" xmlns:content=\"http://purl.org/rss/1.0/modules/content/\""
+                + " xmlns:media=\"http://search.yahoo.com/mrss/\">"
+                + "<channel><title>Лента</title><link>https://example.com</link>"
+                + "<item><title>Первая новость</title><link>https://example.com/1</link>"
+                + "<description><![CDATA[<p>Описание&nbsp;новости</p>]]></description>"
+                + "<content:encoded><![CDATA[<p>Полный текст</p>]]></content:encoded>"
+                + "<pubDate>Mon, 05 Jan 2026 10:00:00 +0300</pubDate>"
+                + "<enclosure url=\"https://example.com/1.jpg\" type=\"image/jpeg\" length=\"1024\"/>"
+                + "<media:group><media:content url=\"https://example.com/1-big.jpg\" type=\"image/jpeg\"/></media:group>"
+                + "</item>"
+                + "</channel></rss>";
+
+        // Act
+        StreamingFeedReader.Result result = reader.read(stream(xml), "application/rss+xml", 10);
+
+        // Assert
+        assertEquals(1, result.getEntries().size());
+        assertFalse(result.isTruncated());
+        SyndEntry entry = result.getEntries().get(0);
+        assertEquals("Первая новость", entry.getTitle());
+        assertEquals("https://example.com/1", entry.getLink());
+        assertTrue(entry.getDescription().getValue().contains("Описание"));
+        assertEquals(1, entry.getContents().size());
+        assertNotNull(entry.getPublishedDate());
+        assertEquals("https://example.com/1.jpg", entry.getEnclosures().get(0).getUrl());
+        assertEquals("https://example.com/1-big.jpg", entry.getForeignMarkup().get(0).getAttributeValue("url"));
+    }
+
+    @Test
+    @DisplayName("Should stop reading after the entry limit")
+    void testStopsAtLimit() throws IOException {
+        // Arrange
+        StringBuilder xml = new StringBuilder("<rss version=\"2.0\"><channel><title>Архив</title>");
+        for (int i = 0; i < 500; i++) {
+            xml.append("<item><title>Новость ").append(i).append("</title><link>https://example.com/")
+               .append(i).append("</link></item>");
+        }
+        xml.append("</channel></rss>");
+
+        // Act
+        StreamingFeedReader.Result result = reader.read(stream(xml.toString()), null, 10);
+
+        // Assert
+        assertEquals(10, result.getEntries().size());
+        assertTrue(result.isTruncated());
+        assertEquals("https://example.com/9", result.getEntries().get(9).getLink());
+    }
+
+    @Test
+    @DisplayName("Should read Atom entries using the alternate link")
+    void testReadAtom() throws IOException {
+        // Arrange
+        String xml = "<feed xmlns=\"http://www.w3.org/2005/Atom\"><title>Atom</title>"
+                + "<entry><title type=\"html\">Заголовок</title>"
+                + "<link rel=\"self\" href=\"https://example.com/self\"/>"
+                + "<link rel=\"alternate\" href=\"https://example.com/atom/1\"/>"
+                + "<id>urn:uuid:1</id><updated>2026-01-05T10:00:00Z</updated>"
+                + "<summary>Кратко</summary></entry></feed>";
+
+        // Act
+        StreamingFeedReader.Result result = reader.read(stream(xml), "application/atom+xml", 10);
+
+        // Assert
+        SyndEntry entry = result.getEntries().get(0);
+        assertEquals("Заголовок", entry.getTitle());
+        assertEquals("https://example.com/atom/1", entry.getLink());
+        assertEquals("Кратко", entry.getDescription().getValue());
+        assertNotNull(entry.getPublishedDate());
+    }
+
+    @Test
+    @DisplayName("Should read RDF items and use a permalink guid when link is missing")
+    void testReadRdfAndGuid() throws IOException {
+        // Arrange
+        String xml = "<rdf:RDF xmlns:rdf=\"http://www.w3.org/1999/02/22-rdf-syntax-ns#\""
+                + " xmlns=\"http://purl.org/rss/1.0/\"><channel><title>RDF</title></channel>"
+                + "<item><title>RDF новость</title><link>https://example.com/rdf/1</link></item>"
+                + "<item><title>Без ссылки</title><guid>https://example.com/guid/2</guid></item>"
+                + "</rdf:RDF>";
+
+        // Act
+        StreamingFeedReader.Result result = reader.read(stream(xml), null, 10);
+
+        // Assert
+        assertEquals(2, result.getEntries().size());
+        assertEquals("https://example.com/rdf/1", result.getEntries().get(0).getLink());
+        assertEquals("https://example.com/guid/2", result.getEntries().get(1).getLink());
+    }
+
+    @Test
+    @DisplayName("Should detect the WebSub hub and self links of an RSS feed")
+    void testHubDiscovery() throws IOException {
+        // Arrange
+        String xml = "<rss version=\"2.0\" xmlns:atom=\"http://www.w3.org/2005/Atom\"><channel>"
+                + "<title>Лента с хабом</title><link>https://example.com</link>"
+                + "<atom:link rel=\"hub\" href=\"https://hub.example.net/\"/>"
+                + "<atom:link rel=\"self\" href=\"https://example.com/feed.xml\" type=\"application/rss+xml\"/>"
+                + "<item><title>Новость</title><link>https://example.com/1</link></item>"
+                + "</channel></rss>";
+
+        // Act
+        StreamingFeedReader.Result result = reader.read(stream(xml), null, 10);
+
+        // Assert
+        assertEquals("https://hub.example.net/", result.getHubUrl());
+        assertEquals("https://example.com/feed.xml", result.getSelfUrl());
+        assertEquals("https://example.com/1", result.getEntries().get(0).getLink());
+    }
+
+    @Test
+    @DisplayName("Should probe the format, title and hub from the beginning of a truncated feed")
+    void testProbeTruncatedFeed() throws IOException {
+        // Arrange
+        String xml = "<rss version=\"2.0\" xmlns:atom=\"http://www.w3.org/2005/Atom\"><channel>"
+                + "<title>Лента с хабом</title><link>https://example.com</link>"
+                + "<image><title>Логотип</title><url>https://example.com/logo.png</url></image>"
+                + "<atom:link rel=\"hub\" href=\"https://hub.example.net/\"/>"
+                + "<item><title>Новость</title><link>https://example.com/1</li";
+
+        // Act
+        StreamingFeedReader.Probe probe = reader.probe(stream(xml), null);
+
+        // Assert
+        assertEquals("RSS 2.0", probe.getFormat());
+        assertEquals("Лента с хабом", probe.getTitle());
+        assertEquals("https://example.com", probe.getSiteUrl());
+        assertEquals("https://hub.example.net/", probe.getHubUrl());
+        assertTrue(probe.isHasEntries());
+    }
+
+    @Test
+    @DisplayName("Should probe an Atom feed and reject an HTML page")
+    void testProbeFormats() throws IOException {
+        // Arrange
+        String atom = "<feed xmlns=\"http://www.w3.org/2005/Atom\"><title>Atom лента</title>"
+                + "<link rel=\"alternate\" href=\"https://example.org/\"/>"
+                + "<link rel=\"self\" href=\"https://example.org/atom.xml\"/></feed>";
+
+        // Act
+        StreamingFeedReader.Probe probe = reader.probe(stream(atom), "application/atom+xml");
+
+        // Assert
+        assertEquals("Atom", probe.getFormat());
+        assertEquals("Atom лента", probe.getTitle());
+        assertEquals("https://example.org/", probe.getSiteUrl());
+        assertEquals("https://example.org/atom.xml", probe.getSelfUrl());
+        assertFalse(probe.isHasEntries());
+        assertThrows(IOException.class, () -> reader.probe(stream("<html><head><title>Сайт</title></head></html>"), null));
+    }
+
+    @Test
+    @DisplayName("Should fail on a document that is not XML")
+    void testInvalidDocument() {
+        assertThrows(IOException.class, () -> reader.read(stream("<html><body>Not a feed"), null, 10));
+    }
+
+    private InputStream stream(String xml) {
+        return new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,116 @@
+package com.newsaggregator.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Optional;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.newsaggregator.entity.NewsSource;
+import com.newsaggregator.repository.NewsSourceRepository;
+
+@DisplayName("WebSubService Unit Tests")
+class WebSubServiceTest {
+
+    private static final byte[] BODY = "The quick brown fox jumps over the lazy dog".getBytes(StandardCharsets.UTF_8);
+    private static final String TOPIC = "https://example.com/feed.xml";
+
+    @Test
+    @DisplayName("Should accept sha1 and sha256 signatures made with the subscription secret")
+    void testValidSignature() {
+        // Act & Assert
+        assertTrue(WebSubService.verifySignature("key",
+                "sha1=de7c9b85b8b78aa6bc8a7a36f70a90701c9db4d9", BODY));
+        assertTrue(WebSubService.verifySignature("key",
+                "sha256=F7BC83F430538424B13298E6AA6FB143EF4D59A14946175997479DBC2D1A3CD8", BODY));
+    }
+
+    @Test
+    @DisplayName("Should reject a wrong secret, a modified body and malformed signatures")
+    void testInvalidSignature() {
+        // Arrange
+        String signature = "sha256=f7bc83f430538424b13298e6aa6fb143ef4d59a14946175997479dbc2d1a3cd8";
+        byte[] modified = "The quick brown fox jumps over the lazy cat".getBytes(StandardCharsets.UTF_8);
+
+        // Act & Assert
+        assertFalse(WebSubService.verifySignature("other", signature, BODY));
+        assertFalse(WebSubService.verifySignature("key", signature, modified));
+        assertFalse(WebSubService.verifySignature("key", "md5=de7c9b85b8b78aa6bc8a7a36f70a9070", BODY));
+        assertFalse(WebSubService.verifySignature("key", "sha1=не-hex", BODY));
+        assertFalse(WebSubService.verifySignature("key", null, BODY));
+    }
+
+    @Test
+    @DisplayName("Should not confirm a subscription this node did not request")
+    void testVerifyIntent_NotPending() {
+        // Arrange
+        NewsSourceRepository repository = mock(NewsSourceRepository.class);
+        WebSubService service = createService(repository);
+
+        // Act
+        String response = service.verifyIntent(1L, "subscribe", TOPIC, "challenge", 3600L);
+
+        // Assert
+        assertNull(response);
+        verify(repository, never()).updateWebsubExpiresAt(any(), any());
+    }
+
+    @Test
+    @DisplayName("Should confirm a pending subscription once and clamp the hub lease")
+    void testVerifyIntent_PendingClampsLease() {
+        // Arrange
+        NewsSourceRepository repository = mock(NewsSourceRepository.class);
+        WebSubService service = createService(repository);
+        markPending(service, 1L);
+        LocalDateTime before = LocalDateTime.now();
+
+        // Act
+        String first = service.verifyIntent(1L, "subscribe", TOPIC, "challenge", Long.MAX_VALUE);
+        String second = service.verifyIntent(1L, "subscribe", TOPIC, "challenge", Long.MAX_VALUE);
+
+        // Assert
+        assertEquals("challenge", first);
+        assertNull(second);
+        ArgumentCaptor<LocalDateTime> expiresAt = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(repository).updateWebsubExpiresAt(eq(1L), expiresAt.capture());
+        assertFalse(expiresAt.getValue().isAfter(LocalDateTime.now().plusSeconds(7200)));
+        assertTrue(expiresAt.getValue().isAfter(before.plusSeconds(7100)));
+    }
+
+    private WebSubService createService(NewsSourceRepository repository) {
+        NewsSource source = new NewsSource();
+        source.setId(1L);
+        source.setName("Example");
+        source.setActive(true);
+        source.setWebsubTopicUrl(TOPIC);
+        source.setWebsubSecret("secret");
+        when(repository.findById(1L)).thenReturn(Optional.of(source));
+
+        WebSubService service = new WebSubService();
+        ReflectionTestUtils.setField(service, "newsSourceRepository", repository);
+        ReflectionTestUtils.setField(service, "enabled", true);
+        ReflectionTestUtils.setField(service, "leaseSeconds", 3600L);
+        ReflectionTestUtils.setField(service, "maxLeaseSeconds", 7200L);
+        return service;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void markPending(WebSubService service, Long sourceId) {
+        ((Map<Long, Long>) ReflectionTestUtils.getField(service, "pendingSince")).put(sourceId, System.currentTimeMillis());
+    }
+}
@@ -0,0 +1,56 @@
+package com.newsaggregator.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("ConsistentHashRing Unit Tests")
+class ConsistentHashRingTest {
+
+    @Test
+    @DisplayName("Should spread keys roughly evenly across nodes")
+    void testEvenDistribution() {
+        // Arrange
+        ConsistentHashRing ring = new ConsistentHashRing(List.of("node-a", "node-b", "node-c"), 100);
+        Map<String, Integer> counts = new HashMap<>();
+
+        // Act
+        for (int i = 0; i < 3000; i++) {
+            counts.merge(ring.nodeFor(String.valueOf(i)), 1, Integer::sum);
+        }
+
+        // Assert
+        assertEquals(3, counts.size());
+        counts.values().forEach(count -> assertTrue(count > 700 && count < 1300, "count=" + count));
+    }
+
+    @Test
+    @DisplayName("Should move only the keys of a removed node")
+    void testMinimalRebalancing() {
+        // Arrange
+        ConsistentHashRing before = new ConsistentHashRing(List.of("node-a", "node-b", "node-c"), 100);
+        ConsistentHashRing after = new ConsistentHashRing(List.of("node-a", "node-b"), 100);
+
+        // Act & Assert
+        for (int i = 0; i < 3000; i++) {
+            String key = String.valueOf(i);
+            String owner = before.nodeFor(key);
+            if (!"node-c".equals(owner)) {
+                assertEquals(owner, after.nodeFor(key));
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Should return null when there are no nodes")
+    void testEmptyRing() {
+        assertNull(new ConsistentHashRing(List.of(), 10).nodeFor("1"));
+    }
+}
@@ -0,0 +1,103 @@
+package com.newsaggregator.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("SingleFlight Unit Tests")
+class SingleFlightTest {
+
+    private final SingleFlight<String, String> flight = new SingleFlight<>();
+
+    @Test
+    @DisplayName("Should share one in-flight call between callers with the same key")
+    void testCoalescesConcurrentCalls() {
+        // Arrange
+        AtomicInteger calls = new AtomicInteger();
+        CompletableFuture<String> pending = new CompletableFuture<>();
+
+        // Act
+        CompletableFuture<String> first = flight.execute("a", () -> {
+            calls.incrementAndGet();
+            return pending;
+        });
+        CompletableFuture<String> second = flight.execute("a", () -> {
+            calls.incrementAndGet();
+            return CompletableFuture.completedFuture("other");
+        });
+        pending.complete("page");
+
+        // Assert
+        assertSame(first, second);
+        assertEquals("page", second.join());
+        assertEquals(1, calls.get());
+        assertEquals(1, flight.getStarted());
+        assertEquals(1, flight.getCoalesced());
+    }
+
+    @Test
+    @DisplayName("Should run calls with different keys independently")
+    void testDifferentKeys() {
+        // Act
+        CompletableFuture<String> first = flight.execute("a", CompletableFuture::new);
+        CompletableFuture<String> second = flight.execute("b", CompletableFuture::new);
+
+        // Assert
+        assertTrue(first != second);
+        assertEquals(2, flight.getInFlight());
+        assertEquals(0, flight.getCoalesced());
+    }
+
+    @Test
+    @DisplayName("Should start a new call once the previous one has completed")
+    void testReleasesKeyAfterCompletion() {
+        // Arrange
+        flight.execute("a", () -> CompletableFuture.completedFuture("old")).join();
+
+        // Act
+        String result = flight.execute("a", () -> CompletableFuture.completedFuture("new")).join();
+
+        // Assert
+        assertEquals("new", result);
+        assertEquals(0, flight.getInFlight());
+        assertEquals(2, flight.getStarted());
+    }
+
+    @Test
+    @DisplayName("Should hand the failure to every caller and release the key")
+    void testPropagatesFailure() {
+        // Arrange
+        CompletableFuture<String> pending = new CompletableFuture<>();
+        CompletableFuture<String> first = flight.execute("a", () -> pending);
+        CompletableFuture<String> second = flight.execute("a", () -> pending);
+
+        // Act
+        pending.completeExceptionally(new IllegalStateException("Таймаут"));
+
+        // Assert
+        assertThrows(CompletionException.class, first::join);
+        assertThrows(CompletionException.class, second::join);
+        assertEquals(0, flight.getInFlight());
+    }
+
+    @Test
+    @DisplayName("Should turn an exception thrown by the call into a failed future")
+    void testCallThrows() {
+        // Act
+        CompletableFuture<String> result = flight.execute("a", () -> {
+            throw new IllegalStateException("Ошибка");
+        });
+
+        // Assert
+        assertTrue(result.isCompletedExceptionally());
+        assertEquals(0, flight.getInFlight());
+    }
+}
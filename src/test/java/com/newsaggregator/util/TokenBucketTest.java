@@ -0,0 +1,69 @@
+package com.newsaggregator.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("TokenBucket Unit Tests")
+class TokenBucketTest {
+
+    private final AtomicLong clock = new AtomicLong();
+
+    @Test
+    @DisplayName("Should allow a burst up to capacity and then report the wait time")
+    void testBurstThenWait() {
+        // Arrange
+        TokenBucket bucket = new TokenBucket(2.0, 3, clock::get);
+
+        // Act & Assert
+        assertEquals(0, bucket.tryAcquire());
+        assertEquals(0, bucket.tryAcquire());
+        assertEquals(0, bucket.tryAcquire());
+        assertEquals(500, bucket.tryAcquire());
+    }
+
+    @Test
+    @DisplayName("Should refill tokens over time without exceeding capacity")
+    void testRefill() {
+        // Arrange
+        TokenBucket bucket = new TokenBucket(1.0, 2, clock::get);
+        bucket.tryAcquire();
+        bucket.tryAcquire();
+
+        // Act
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(10));
+
+        // Assert
+        assertEquals(0, bucket.tryAcquire());
+        assertEquals(0, bucket.tryAcquire());
+        assertTrue(bucket.tryAcquire() > 0);
+    }
+
+    @Test
+    @DisplayName("Should apply a lower rate immediately and cap accumulated tokens")
+    void testSetRate() {
+        // Arrange
+        TokenBucket bucket = new TokenBucket(10.0, 10, clock::get);
+
+        // Act
+        bucket.setRate(0.5, 1);
+
+        // Assert
+        assertEquals(0, bucket.tryAcquire());
+        assertEquals(2000, bucket.tryAcquire());
+        assertEquals(0.5, bucket.getRatePerSecond());
+    }
+
+    @Test
+    @DisplayName("Should reject invalid parameters")
+    void testInvalidParameters() {
+        assertThrows(IllegalArgumentException.class, () -> new TokenBucket(0, 1));
+        assertThrows(IllegalArgumentException.class, () -> new TokenBucket(1, 0.5));
+    }
+}
@@ -0,0 +1,37 @@
+package com.newsaggregator.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("UrlNormalizer Unit Tests")
+class UrlNormalizerTest {
+
+    @Test
+    @DisplayName("Should lowercase scheme and host and drop the default port and fragment")
+    void testCanonicalForm() {
+        // Act & Assert
+        assertEquals("https://example.com/News/1", UrlNormalizer.normalize(" HTTPS://Example.COM:443/News/1#comments "));
+        assertEquals("http://example.com:8080/", UrlNormalizer.normalize("http://example.com:8080"));
+    }
+
+    @Test
+    @DisplayName("Should drop utm parameters and keep the other parameters in order")
+    void testStripsTrackingParameters() {
+        // Act & Assert
+        assertEquals("https://example.com/a?id=5&page=2",
+                UrlNormalizer.normalize("https://example.com/a?utm_source=rss&id=5&UTM_medium=feed&page=2"));
+        assertEquals("https://example.com/a", UrlNormalizer.normalize("https://example.com/a?utm_source=rss"));
+    }
+
+    @Test
+    @DisplayName("Should return unparsable and relative links unchanged")
+    void testUnparsable() {
+        // Act & Assert
+        assertEquals("not a url", UrlNormalizer.normalize(" not a url "));
+        assertEquals("/news/1", UrlNormalizer.normalize("/news/1"));
+        assertNull(UrlNormalizer.normalize(null));
+    }
+}